@@ -0,0 +1,133 @@
+// --- Archivo: benchmarks/src/jmh/java/com/example/benchmarks/PerfectNumberEngineBenchmark.java ---
+package com.example.benchmarks;
+
+import com.example.worker.EuclidEulerEngine;
+import com.example.worker.OddTrialDivisionEngine;
+import com.example.worker.ParallelRangeEngine;
+import com.example.worker.PerfectNumberEngine; // Interfaz común de los motores del Worker
+import com.example.worker.WorkerEngines; // Fábrica de motores (la misma que usa el Worker)
+import com.example.worker.WorkerUtils; // Implementación de referencia
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendimiento de los motores del Worker sobre [start, start + width - 1], sin Ice ni red de por medio.
+ * Cada invocación procesa el rango completo; el contador auxiliar "numbers" da los números por segundo
+ * (ops/s de la invocación x width) y el perfilador gc de build.gradle la tasa de asignación.
+ * Con threads > 1 el motor se reparte en un pool fork/join propio, igual que ParallelRangeEngine en el Worker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PerfectNumberEngineBenchmark {
+    // Porciones por hilo al repartir el rango (balance de carga entre hilos del pool)
+    private static final int SPLITS_PER_THREAD = 8;
+    private static final int BLOCK_SIZE = 1 << 15; // Worker.Sieve.BlockSize por defecto
+
+    /** reference (WorkerUtils), trial, spf, odd-trial (Euclides–Euler + impares por división), sieve, sieve-vector */
+    @Param({"reference", "trial", "spf", "odd-trial", "sieve", "sieve-vector"})
+    public String engine;
+
+    @Param({"1", "100000000"})
+    public long start;
+
+    @Param({"100000"})
+    public long width;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private PerfectNumberEngine perfectNumberEngine;
+    private ForkJoinPool pool;
+    private long end;
+
+    /**
+     * Números procesados, reportados como tasa (numbers/s) junto al resultado de cada benchmark.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long numbers;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            numbers = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        end = start + width - 1;
+        PerfectNumberEngine base = createEngine(engine);
+        if (threads > 1) {
+            pool = ParallelRangeEngine.createPool(threads);
+            base = new ParallelRangeEngine(base, pool, Math.max(1024, width / ((long) threads * SPLITS_PER_THREAD)));
+        }
+        perfectNumberEngine = base;
+        // Una pasada fuera de la medición: tablas de factores, buffers y clases cargadas
+        perfectNumberEngine.findPerfectNumbers(start, Math.min(end, start + 999));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        perfectNumberEngine.close();
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private static PerfectNumberEngine createEngine(String name) {
+        switch (name) {
+            case "reference":
+                return new ReferenceEngine();
+            case "odd-trial":
+                return new EuclidEulerEngine(new OddTrialDivisionEngine());
+            case "sieve-vector":
+                if (!WorkerEngines.isVectorApiAvailable()) {
+                    throw new IllegalStateException("sieve-vector necesita --add-modules jdk.incubator.vector (ver jvmArgsAppend en build.gradle)");
+                }
+                return WorkerEngines.create("sieve", BLOCK_SIZE, true);
+            default:
+                return WorkerEngines.create(name, BLOCK_SIZE, false); // trial | spf | sieve
+        }
+    }
+
+    @Benchmark
+    public long[] findPerfectNumbers(Counters counters) {
+        long[] found = perfectNumberEngine.findPerfectNumbers(start, end);
+        counters.numbers += width;
+        return found; // JMH consume el resultado (evita que el JIT elimine el cálculo)
+    }
+
+    /**
+     * WorkerUtils.getPerfectNumbersInRange (la implementación original, con List<Long>) como motor.
+     */
+    private static final class ReferenceEngine implements PerfectNumberEngine {
+        @Override
+        public String getName() {
+            return "reference";
+        }
+
+        @Override
+        public long[] findPerfectNumbers(long start, long end) {
+            List<Long> perfects = WorkerUtils.getPerfectNumbersInRange(start, end);
+            long[] result = new long[perfects.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = perfects.get(i);
+            }
+            return result;
+        }
+    }
+}
@@ -1,17 +1,20 @@
 // --- Archivo: client/src/main/java/com/example/client/ClientNotifierI.java ---
 package com.example.client;
 
+import perfectNumbersApp.AliquotCycle; // Par amigable o ciclo sociable
 import perfectNumbersApp.ClientNotifier; // Interfaz generada por Slice para notificaciones del maestro
+import perfectNumbersApp.PredicateResult; // Resultado por predicado (trabajos de clasificación)
 import perfectNumbersApp.Range; // Clase que describe el rango de búsqueda
+import perfectNumbersApp.UInt128; // Número de 128 bits (modo de rango amplio)
+import perfectNumbersApp.WideRange; // Rango amplio de búsqueda
 import com.zeroc.Ice.Current; // Contexto de la llamada Ice
+import com.example.common.EventLog; // Registro asíncrono de tiempos (tiempos_ejecucion.txt)
 import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.function.LongConsumer;
 
 /**
  * Implementación del servant ClientNotifier
@@ -20,10 +23,13 @@ import java.util.Date;
 public class ClientNotifierI implements ClientNotifier {
     // Referencia al controlador de la vista para actualizar la UI
     private ClientViewController viewController;
+    // Registro de tiempos para el caso sin controlador (modo consola)
+    private final EventLog eventLog;
 
-    // Constructor recibe el controlador de la vista JavaFX
-    public ClientNotifierI(ClientViewController controller) {
+    // Constructor recibe el controlador de la vista JavaFX y el registro de eventos
+    public ClientNotifierI(ClientViewController controller, EventLog eventLog) {
         this.viewController = controller;
+        this.eventLog = eventLog;
     }
 
     @Override
@@ -34,14 +40,78 @@ public class ClientNotifierI implements ClientNotifier {
             long elapsedTimeMillisMaster, // Tiempo reportado por el maestro
             Current current) {
 
+        String rangeText = "[" + originalRange.start + " - " + originalRange.end + "]";
+        showCompletion(rangeText, "Números Perfectos Encontrados", Arrays.toString(perfectNumbers), statusMessage, elapsedTimeMillisMaster,
+                clientSideTotalTime -> viewController.writeTimesToFile(originalRange, perfectNumbers, statusMessage, elapsedTimeMillisMaster, clientSideTotalTime));
+
+        // Devolver un CompletionStage ya completado, ya que no hay más trabajo asíncrono aquí
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Igual que notifyJobCompletionAsync, para trabajos de rango amplio (128 bits).
+     */
+    @Override
+    public CompletionStage<Void> notifyWideJobCompletionAsync(
+            WideRange originalRange,
+            UInt128[] perfectNumbers,
+            String statusMessage,
+            long elapsedTimeMillisMaster,
+            Current current) {
+
+        String rangeText = "[" + ClientViewController.formatUInt128(originalRange.start) + " - " + ClientViewController.formatUInt128(originalRange.end) + "]";
+        showCompletion(rangeText, "Números Perfectos Encontrados", ClientViewController.formatUInt128List(perfectNumbers), statusMessage, elapsedTimeMillisMaster,
+                clientSideTotalTime -> viewController.writeTimesToFile(originalRange, perfectNumbers, statusMessage, elapsedTimeMillisMaster, clientSideTotalTime));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Igual que notifyJobCompletionAsync, para trabajos de clasificación por predicados sobre σ(n).
+     */
+    @Override
+    public CompletionStage<Void> notifyClassificationCompletionAsync(
+            Range originalRange,
+            PredicateResult[] results,
+            String statusMessage,
+            long elapsedTimeMillisMaster,
+            Current current) {
+
+        String rangeText = "[" + originalRange.start + " - " + originalRange.end + "]";
+        showCompletion(rangeText, "Clasificación", ClientViewController.formatClassification(results), statusMessage, elapsedTimeMillisMaster,
+                clientSideTotalTime -> viewController.writeTimesToFile(originalRange, results, statusMessage, elapsedTimeMillisMaster, clientSideTotalTime));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Igual que notifyJobCompletionAsync, para búsquedas de pares amigables y ciclos sociables.
+     */
+    @Override
+    public CompletionStage<Void> notifyAliquotCompletionAsync(
+            Range originalRange,
+            AliquotCycle[] cycles,
+            String statusMessage,
+            long elapsedTimeMillisMaster,
+            Current current) {
+
+        String rangeText = "[" + originalRange.start + " - " + originalRange.end + "]";
+        showCompletion(rangeText, "Ciclos Alícuotas Encontrados", ClientViewController.formatAliquotCycles(cycles), statusMessage, elapsedTimeMillisMaster,
+                clientSideTotalTime -> viewController.writeTimesToFile(originalRange, cycles, statusMessage, elapsedTimeMillisMaster, clientSideTotalTime));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Muestra la notificación en la UI (o en consola) y registra los tiempos.
+     * @param writeTimes escribe los tiempos desde el controlador; recibe el tiempo total del cliente
+     */
+    private void showCompletion(String rangeText, String resultsLabel, String resultsText, String statusMessage, long elapsedTimeMillisMaster, LongConsumer writeTimes) {
         // Detener el temporizador en el cliente y obtener tiempo de ejecución
         long clientSideTotalTime = viewController.stopClientTimerAndGetDuration(); // Obtener tiempo del cliente
 
         // Construir un mensaje con los resultados de la búsqueda
         StringBuilder sb = new StringBuilder();
         sb.append("\n== NOTIFICACIÓN DE TRABAJO COMPLETADO RECIBIDA DEL MAESTRO ==\n");
-        sb.append("Rango Original Solicitado: [").append(originalRange.start).append(" - ").append(originalRange.end).append("]\n");
-        sb.append("Números Perfectos Encontrados: ").append(Arrays.toString(perfectNumbers)).append("\n");
+        sb.append("Rango Original Solicitado: ").append(rangeText).append("\n");
+        sb.append(resultsLabel).append(": ").append(resultsText).append("\n");
         sb.append("Mensaje de Estado del Maestro: ").append(statusMessage).append("\n");
         sb.append("Tiempo de Procesamiento (Maestro): ").append(elapsedTimeMillisMaster).append(" ms\n");
         sb.append("Tiempo Total de Ejecución (Cliente): ").append(clientSideTotalTime).append(" ms\n");
@@ -52,22 +122,19 @@ public class ClientNotifierI implements ClientNotifier {
             viewController.appendResults(sb.toString()); // Mostrar resultados en la interfaz
             viewController.jobFinished(); // Habilitar botones
             // Guardar tiempos en archivo desde el controlador
-            viewController.writeTimesToFile(originalRange, perfectNumbers, statusMessage, elapsedTimeMillisMaster, clientSideTotalTime);
+            writeTimes.accept(clientSideTotalTime);
         } else {
             // Si no hay controlador (modo consola o error), imprimir en consola y archivo
             System.out.println(sb.toString());
-            try (PrintWriter writer = new PrintWriter(new FileWriter("tiempos_ejecucion.txt", true))) {
-                writer.println("--- EJECUCIÓN (SIN UI CONTROLLER): " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date()) + " ---");
-                writer.println(sb.toString()); // Escribir el mismo detalle
-                writer.println("--- FIN EJECUCIÓN (SIN UI CONTROLLER) ---");
-                writer.println();
-            } catch (IOException e) {
-                // Mostrar error si falla la escritura en archivo de logs
-                System.err.println("[ClientNotifierI] Error escribiendo tiempos a archivo (sin UI): " + e.getMessage());
+            Date finishedAt = new Date();
+            String detail = sb.toString();
+            if (eventLog == null || !eventLog.publish(new EventLog.Event("ejecucion_cliente_sin_ui").with("detalle", detail)
+                    .text(() -> "--- EJECUCIÓN (SIN UI CONTROLLER): " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(finishedAt) + " ---\n" +
+                            detail + "\n" + // El mismo detalle
+                            "--- FIN EJECUCIÓN (SIN UI CONTROLLER) ---\n"))) {
+                // Sin registro o con el buffer lleno
+                System.err.println("[ClientNotifierI] No se pudieron registrar los tiempos (sin UI).");
             }
         }
-
-        // Devolver un CompletionStage ya completado, ya que no hay más trabajo asíncrono aquí
-        return CompletableFuture.completedFuture(null);
     }
-}
\ No newline at end of file
+}
@@ -6,6 +6,7 @@ import com.zeroc.Ice.LocalException; // Excepciones locales de ICE
 import com.zeroc.Ice.ObjectAdapter; // Para crear servants que reciben llamadas
 import com.zeroc.Ice.ObjectPrx; // Proxy base de ICE
 import com.zeroc.Ice.Util; // Utilidades de Ice
+import com.example.common.EventLog; // Registro asíncrono de tiempos (tiempos_ejecucion.txt)
 
 import javafx.animation.FadeTransition; // Para animaciones de fundido
 import javafx.application.Platform; // Para ejecutar código en el hilo de la UI de JavaFX
@@ -17,13 +18,14 @@ import javafx.scene.control.TextArea; // Area de texto de JavaFX
 import javafx.scene.control.TextField; // Campo de texto de JavaFX
 import javafx.util.Duration; // Para especificar la duración de las animaciones
 
-// Para los archivos
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.math.BigInteger; // Límites de rango por encima de Long.MAX_VALUE (modo amplio)
+import java.net.InetAddress; // Nombre del equipo (identidad por defecto ante la cola del Maestro)
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -48,6 +50,7 @@ public class ClientViewController {
     private ClientNotifierPrx clientNotifierPrx;
     private ObjectAdapter notifierAdapter;
     private ClientApp clientApp;
+    private EventLog eventLog; // Tiempos de cada ejecución, escritos por un hilo aparte
 
     private boolean masterConnected = false;
     private int lastKnownWorkerCount = 0;
@@ -57,6 +60,10 @@ public class ClientViewController {
     private static final int DEFAULT_NUM_WORKERS = 1;
     private static final String DEFAULT_START_RANGE = "1";
     private static final String DEFAULT_END_RANGE = "100000";
+    // Los límites de un rango amplio son enteros sin signo de 128 bits
+    private static final BigInteger TWO_POW_64 = BigInteger.ONE.shiftLeft(64);
+    private static final BigInteger MAX_WIDE_VALUE = BigInteger.ONE.shiftLeft(128).subtract(BigInteger.ONE);
+    private static final BigInteger MAX_LONG_VALUE = BigInteger.valueOf(Long.MAX_VALUE);
 
     /**
      * Recibe el Ice Communicator desde ClientApp y arranca la inicialización en segundo plano
@@ -64,6 +71,8 @@ public class ClientViewController {
     public void setCommunicator(Communicator communicator) {
         this.communicator = communicator;
         if (this.communicator != null) {
+            eventLog = EventLog.fromProperties(communicator.getProperties(), "Client.EventLog", "tiempos_ejecucion.txt", "[CLIENTE-CTRL]");
+            System.out.println("[CLIENTE-CTRL] Registro de eventos: " + eventLog.describe());
             System.out.println("[CLIENTE-CTRL] setCommunicator: Communicator recibido. Iniciando componentes de Ice en hilo de fondo...");
             // Iniciar adaptadores y proxies en un hilo de fondo
             new Thread(this::initializeIceComponents).start();
@@ -124,7 +133,7 @@ public class ClientViewController {
             // Crear adaptador local y registrar servant
             logToUIAndConsolePlatform("[ICE-INIT-THREAD] Creando y activando adaptador ClientNotifierAdapter...", false);
             notifierAdapter = communicator.createObjectAdapter("ClientNotifierAdapter");
-            ClientNotifierI notifierServant = new ClientNotifierI(this);
+            ClientNotifierI notifierServant = new ClientNotifierI(this, eventLog);
             ObjectPrx servantProxy = notifierAdapter.addWithUUID(notifierServant);
             clientNotifierPrx = ClientNotifierPrx.uncheckedCast(servantProxy);
             notifierAdapter.activate();
@@ -191,6 +200,8 @@ public class ClientViewController {
                 if (baseMasterPrx != null) {
                     masterServicePrx = MasterServicePrx.checkedCast(baseMasterPrx);
                     if (masterServicePrx != null) {
+                        // Prioridad e identidad para la cola de trabajos del Maestro
+                        masterServicePrx = masterServicePrx.ice_context(jobQueueContext());
                         masterServicePrx.ice_ping(); // Verificar conexión
                         currentMasterProxyInfoAttempt = masterServicePrx.toString().split("\n")[0];
                         logToUIAndConsolePlatform("[CLIENTE-CTRL] Ping al Maestro (" + currentMasterProxyInfoAttempt + ") exitoso. Obteniendo número de workers...", false);
@@ -270,15 +281,15 @@ public class ClientViewController {
             return;
         }
 
-        // Parsear campos de texto
-        long start, end;
+        // Parsear campos de texto (BigInteger para admitir el modo de rango amplio)
+        BigInteger start, end;
         int workersToUse;
         try {
-            start = Long.parseLong(startRangeField.getText());
-            end = Long.parseLong(endRangeField.getText());
+            start = new BigInteger(startRangeField.getText().trim());
+            end = new BigInteger(endRangeField.getText().trim());
             workersToUse = Integer.parseInt(numWorkersField.getText());
         } catch (NumberFormatException e) {
-            logToUIAndConsole("[ERROR-CTRL] Entradas inválidas. Rango (long) y N° Workers (int) deben ser números.", true);
+            logToUIAndConsole("[ERROR-CTRL] Entradas inválidas. Rango (entero) y N° Workers (int) deben ser números.", true);
             animateNodeBriefly(startRangeField); // Animar campos con error
             animateNodeBriefly(endRangeField);
             animateNodeBriefly(numWorkersField);
@@ -286,12 +297,17 @@ public class ClientViewController {
         }
 
         // Validar rango y workers
-        if (start <= 0 || end <= 0 || start > end) {
+        if (start.signum() <= 0 || end.signum() <= 0 || start.compareTo(end) > 0) {
             logToUIAndConsole("[ERROR-CTRL] Rango inválido: Inicio y Fin deben ser > 0, y Fin >= Inicio.", true);
             animateNodeBriefly(startRangeField);
             animateNodeBriefly(endRangeField);
             return;
         }
+        if (end.compareTo(MAX_WIDE_VALUE) > 0) {
+            logToUIAndConsole("[ERROR-CTRL] Rango inválido: Fin debe ser menor que 2^128.", true);
+            animateNodeBriefly(endRangeField);
+            return;
+        }
         if (workersToUse <= 0) {
             logToUIAndConsole("[ERROR-CTRL] N° de Workers debe ser un entero positivo.", true);
             animateNodeBriefly(numWorkersField);
@@ -301,8 +317,14 @@ public class ClientViewController {
             logToUIAndConsole("[WARN-CTRL] Solicitó " + workersToUse + " workers. El maestro podría usar un máximo de 10.", false);
         }
 
+        // Por encima de Long.MAX_VALUE se usa el modo de rango amplio (128 bits)
+        if (end.compareTo(MAX_LONG_VALUE) > 0) {
+            submitWideSearch(new WideRange(toUInt128(start), toUInt128(end)), workersToUse);
+            return;
+        }
+
         // Preparar petición
-        Range jobRange = new Range(start, end);
+        Range jobRange = new Range(start.longValueExact(), end.longValueExact());
         logToUIAndConsole("[CLIENTE-CTRL] Solicitando búsqueda en [" + jobRange.start + ", " + jobRange.end + "] usando hasta " + workersToUse + " worker(s).", false);
         searchButton.setDisable(true);
         refreshStatusButton.setDisable(true);
@@ -314,6 +336,13 @@ public class ClientViewController {
             try {
                 masterServicePrx.findPerfectNumbersInRange(jobRange, clientNotifierPrx, workersToUse);
                 logToUIAndConsolePlatform("[CLIENTE-CTRL] Petición enviada al Maestro. Esperando notificación de resultados...", false);
+            } catch (JobQueueFullException e) {
+                String errorMsg = queueFullMessage(e);
+                logToUIAndConsolePlatform("[WARN-CTRL] " + errorMsg, true);
+                Platform.runLater(() -> {
+                    jobFinished();
+                    writeTimesToFile(jobRange, new long[0], errorMsg, 0, stopClientTimerAndGetDuration());
+                });
             } catch (LocalException e) {
                 logToUIAndConsolePlatform("[ERROR-CTRL] Error de Ice al enviar la solicitud de búsqueda: " + e.getClass().getSimpleName() + " - " + e.getMessage(), true, e);
                 String errorMsg = "Error de comunicación con el Maestro al enviar la tarea: " + e.getMessage();
@@ -332,6 +361,148 @@ public class ClientViewController {
         });
     }
 
+    /**
+     * Contexto Ice de las peticiones al Maestro: 'client' (Client.Id, o usuario@equipo) y 'priority' (Client.Priority, si se configuró).
+     */
+    private Map<String, String> jobQueueContext() {
+        Map<String, String> context = new HashMap<>();
+        String clientId = communicator.getProperties().getProperty("Client.Id").trim();
+        if (clientId.isEmpty()) {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (IOException e) {
+                host = "localhost";
+            }
+            clientId = System.getProperty("user.name", "cliente") + "@" + host;
+        }
+        context.put("client", clientId);
+        String priority = communicator.getProperties().getProperty("Client.Priority").trim();
+        if (!priority.isEmpty()) {
+            context.put("priority", priority);
+        }
+        return context;
+    }
+
+    /**
+     * Mensaje para el usuario cuando el Maestro rechaza un trabajo porque su cola está llena.
+     */
+    private static String queueFullMessage(JobQueueFullException e) {
+        return "El Maestro está ocupado: cola de trabajos llena (" + e.queueDepth + "/" + e.maxQueueDepth +
+                "). Reintente en ~" + Math.max(1, e.retryAfterMillis / 1000) + " s.";
+    }
+
+    /**
+     * Envía una búsqueda en modo de rango amplio (límites por encima de Long.MAX_VALUE).
+     */
+    private void submitWideSearch(WideRange jobRange, int workersToUse) {
+        logToUIAndConsole("[CLIENTE-CTRL] Solicitando búsqueda en rango amplio [" + formatUInt128(jobRange.start) + ", " + formatUInt128(jobRange.end) +
+                "] usando hasta " + workersToUse + " worker(s).", false);
+        searchButton.setDisable(true);
+        refreshStatusButton.setDisable(true);
+
+        clientRequestStartTime = System.currentTimeMillis();
+
+        CompletableFuture.runAsync(() -> {
+            try {
+                masterServicePrx.findPerfectNumbersInWideRange(jobRange, clientNotifierPrx, workersToUse);
+                logToUIAndConsolePlatform("[CLIENTE-CTRL] Petición enviada al Maestro. Esperando notificación de resultados...", false);
+            } catch (JobQueueFullException e) {
+                String errorMsg = queueFullMessage(e);
+                logToUIAndConsolePlatform("[WARN-CTRL] " + errorMsg, true);
+                Platform.runLater(() -> {
+                    jobFinished();
+                    writeTimesToFile(jobRange, new UInt128[0], errorMsg, 0, stopClientTimerAndGetDuration());
+                });
+            } catch (LocalException e) {
+                logToUIAndConsolePlatform("[ERROR-CTRL] Error de Ice al enviar la solicitud de búsqueda: " + e.getClass().getSimpleName() + " - " + e.getMessage(), true, e);
+                String errorMsg = "Error de comunicación con el Maestro al enviar la tarea: " + e.getMessage();
+                Platform.runLater(() -> {
+                    jobFinished();
+                    writeTimesToFile(jobRange, new UInt128[0], errorMsg, 0, stopClientTimerAndGetDuration());
+                });
+            } catch (Exception e) {
+                logToUIAndConsolePlatform("[ERROR-CTRL] Error inesperado al enviar la solicitud de búsqueda: " + e.getMessage(), true, e);
+                Platform.runLater(this::jobFinished);
+            }
+        }).exceptionally(ex -> {
+            logToUIAndConsolePlatform("[ERROR-CTRL] Excepción en el hilo de envío de la tarea: " + ex.getMessage(), true, (Exception)ex);
+            Platform.runLater(this::jobFinished);
+            return null;
+        });
+    }
+
+    /**
+     * Convierte un entero entre 0 y 2^128 - 1 a UInt128 (hi, lo).
+     */
+    static UInt128 toUInt128(BigInteger value) {
+        return new UInt128(value.shiftRight(64).longValue(), value.longValue());
+    }
+
+    /**
+     * Representación decimal de un UInt128.
+     */
+    static String formatUInt128(UInt128 value) {
+        BigInteger high = new BigInteger(Long.toUnsignedString(value.hi));
+        return high.multiply(TWO_POW_64).add(new BigInteger(Long.toUnsignedString(value.lo))).toString();
+    }
+
+    static String formatUInt128List(UInt128[] values) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < values.length; i++) {
+            sb.append(i > 0 ? ", " : "").append(formatUInt128(values[i]));
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Resumen de una clasificación: una línea por predicado con conteo, suma y números listados.
+     */
+    static String formatClassification(PredicateResult[] results) {
+        if (results.length == 0) {
+            return "(sin resultados)";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (PredicateResult result : results) {
+            sb.append("\n  ").append(result.query.predicate);
+            if (result.query.predicate == SigmaPredicate.MultiplyPerfect) {
+                sb.append(" (k=").append(result.query.k).append(')');
+            }
+            sb.append(": ").append(result.count).append(" número(s), suma ").append(formatUInt128(result.sum));
+            if (result.numbers.length > 0) {
+                sb.append(", ").append(Arrays.toString(result.numbers));
+            }
+            if (result.truncated) {
+                sb.append(" (lista truncada)");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Ciclos alícuotas encontrados: "a ↔ b" para pares amigables y "a -> b -> ... -> a" para ciclos sociables.
+     */
+    static String formatAliquotCycles(AliquotCycle[] cycles) {
+        if (cycles.length == 0) {
+            return "(ninguno)";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (AliquotCycle cycle : cycles) {
+            long[] members = cycle.members;
+            sb.append("\n  ");
+            if (members.length == 2) {
+                sb.append("Par amigable: ").append(members[0]).append(" <-> ").append(members[1]);
+            } else {
+                sb.append("Ciclo sociable (").append(members.length).append("): ");
+                for (long member : members) {
+                    sb.append(member).append(" -> ");
+                }
+                sb.append(members[0]);
+            }
+        }
+        return sb.toString();
+    }
+
     /**
      * Borra el log de resultados cuando el usuario presiona el botón correspondiente.
      */
@@ -360,19 +531,52 @@ public class ClientViewController {
      * Escribe tiempos y detalles de la ejecución en un archivo de texto.
      */
     public void writeTimesToFile(Range range, long[] perfectNumbers, String statusMsg, long masterTime, long clientTime) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter("tiempos_ejecucion.txt", true))) {
-            writer.println("--- INICIO EJECUCION: " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date()) + " ---");
-            writer.println("Rango Solicitado: [" + range.start + "] - [" + range.end + "]");
-            writer.println("Workers Solicitados (Cliente): " + numWorkersField.getText());
-            writer.println("Workers Activos Reportados (Previo a la búsqueda): " + lastKnownWorkerCount);
-            writer.println("Números Perfectos Encontrados: " + Arrays.toString(perfectNumbers));
-            writer.println("Estado Final (Maestro): " + statusMsg);
-            writer.println("Tiempo de Procesamiento (Maestro): " + masterTime + " ms");
-            writer.println("Tiempo Total de Ejecución (Cliente): " + clientTime + " ms");
-            writer.println("--- FIN EJECUCION ---");
-            writer.println();
-        } catch (IOException e) {
-            logToUIAndConsole("[ERROR-CTRL] Error escribiendo tiempos a archivo: " + e.getMessage(), true, e);
+        writeTimesToFile("[" + range.start + "] - [" + range.end + "]", "Números Perfectos Encontrados", Arrays.toString(perfectNumbers), statusMsg, masterTime, clientTime);
+    }
+
+    /**
+     * Igual que writeTimesToFile, para trabajos de rango amplio (128 bits).
+     */
+    public void writeTimesToFile(WideRange range, UInt128[] perfectNumbers, String statusMsg, long masterTime, long clientTime) {
+        writeTimesToFile("[" + formatUInt128(range.start) + "] - [" + formatUInt128(range.end) + "]", "Números Perfectos Encontrados", formatUInt128List(perfectNumbers), statusMsg, masterTime, clientTime);
+    }
+
+    /**
+     * Igual que writeTimesToFile, para trabajos de clasificación por predicados.
+     */
+    public void writeTimesToFile(Range range, PredicateResult[] results, String statusMsg, long masterTime, long clientTime) {
+        writeTimesToFile("[" + range.start + "] - [" + range.end + "]", "Clasificación", formatClassification(results), statusMsg, masterTime, clientTime);
+    }
+
+    /**
+     * Igual que writeTimesToFile, para búsquedas de pares amigables y ciclos sociables.
+     */
+    public void writeTimesToFile(Range range, AliquotCycle[] cycles, String statusMsg, long masterTime, long clientTime) {
+        writeTimesToFile("[" + range.start + "] - [" + range.end + "]", "Ciclos Alícuotas Encontrados", formatAliquotCycles(cycles), statusMsg, masterTime, clientTime);
+    }
+
+    private void writeTimesToFile(String rangeText, String resultsLabel, String resultsText, String statusMsg, long masterTime, long clientTime) {
+        if (eventLog == null) {
+            logToUIAndConsole("[ERROR-CTRL] Registro de eventos no inicializado (sin Communicator). Tiempos no registrados.", true);
+            return;
+        }
+        Date finishedAt = new Date();
+        String requestedWorkers = numWorkersField.getText();
+        int activeWorkers = lastKnownWorkerCount;
+        boolean published = eventLog.publish(new EventLog.Event("ejecucion_cliente").with("rango", rangeText)
+                .with("workers_solicitados", requestedWorkers).with("workers_activos", activeWorkers).with("resultados", resultsText)
+                .with("estado", statusMsg).with("ms_maestro", masterTime).with("ms_cliente", clientTime)
+                .text(() -> "--- INICIO EJECUCION: " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(finishedAt) + " ---\n" +
+                        "Rango Solicitado: " + rangeText + "\n" +
+                        "Workers Solicitados (Cliente): " + requestedWorkers + "\n" +
+                        "Workers Activos Reportados (Previo a la búsqueda): " + activeWorkers + "\n" +
+                        resultsLabel + ": " + resultsText + "\n" +
+                        "Estado Final (Maestro): " + statusMsg + "\n" +
+                        "Tiempo de Procesamiento (Maestro): " + masterTime + " ms\n" +
+                        "Tiempo Total de Ejecución (Cliente): " + clientTime + " ms\n" +
+                        "--- FIN EJECUCION ---\n"));
+        if (!published) {
+            logToUIAndConsole("[ERROR-CTRL] Registro de eventos lleno o cerrado: tiempos de esta ejecución descartados.", true);
         }
     }
 
@@ -490,6 +694,9 @@ public class ClientViewController {
                 logToUIAndConsole("[ERROR-CTRL] Error destruyendo ClientNotifierAdapter: " + e.getMessage(), true, e);
             }
         }
+        if (eventLog != null) {
+            eventLog.close(); // Escribe los tiempos que aún estén en el buffer
+        }
     }
 
     // Clase interna para almacenar estado de conexión del Maestro
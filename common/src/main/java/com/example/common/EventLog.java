@@ -0,0 +1,437 @@
+// --- Archivo: common/src/main/java/com/example/common/EventLog.java ---
+package com.example.common;
+
+import com.zeroc.Ice.Properties; // Configuración de Ice (master.properties, client.properties)
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Registro asíncrono de eventos (tiempos de workers, fallas, tiempos totales de trabajos y de ejecuciones del cliente).
+ * Quien publica (p. ej. un hilo de despacho de Ice) solo deja el evento en un buffer circular sin locks y sigue;
+ * un único hilo escritor vacía el buffer por lotes, da formato a los eventos y hace un flush por lote.
+ * El archivo rota al superar MaxBytes (archivo.1, archivo.2, ... hasta MaxFiles). Si el buffer está lleno el evento
+ * se descarta (nunca se bloquea a quien publica) y el escritor deja constancia de cuántos se perdieron.
+ * Formatos: text (las mismas líneas legibles de siempre), csv (una línea "# tipo: columnas" la primera vez que
+ * aparece cada tipo en el archivo) y json (un objeto por línea).
+ */
+public final class EventLog implements AutoCloseable {
+    /**
+     * Formato de las líneas del archivo.
+     */
+    public enum Format { TEXT, CSV, JSON }
+
+    private final Path file;
+    private final Format format;
+    private final long maxBytes; // 0 = sin rotación
+    private final int maxFiles; // Archivos rotados que se conservan
+    private final long flushMillis; // Espera máxima del escritor cuando el buffer está vacío
+    private final String logPrefix;
+
+    // Buffer circular MPSC (varios productores, un consumidor): cada celda lleva una secuencia que indica si está libre
+    // para la vuelta actual (secuencia == posición) o publicada (secuencia == posición + 1)
+    private final Event[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong(); // Próxima posición a reservar por los productores
+    private long head; // Próxima posición a leer (solo el escritor)
+    private final AtomicLong dropped = new AtomicLong(); // Eventos descartados con el buffer lleno
+
+    private final Thread writer;
+    private volatile boolean closed = false;
+    private volatile boolean writerParked = false;
+
+    // Estado del escritor
+    private OutputStream out;
+    private long fileBytes;
+    private final Set<String> csvHeadersWritten = new HashSet<>(); // Tipos con cabecera ya escrita en el archivo actual
+    private long writtenEvents = 0;
+    private long batches = 0;
+    private long rotations = 0;
+
+    /**
+     * Un evento: tipo, campos con nombre (para csv y json) y el texto legible (para text).
+     * El texto se arma en el hilo escritor, no en el que publica.
+     */
+    public static final class Event {
+        private final long timestampMillis = System.currentTimeMillis();
+        private final String type;
+        private final List<String> names = new ArrayList<>(6);
+        private final List<Object> values = new ArrayList<>(6);
+        private Supplier<String> text;
+
+        public Event(String type) {
+            this.type = type;
+        }
+
+        /**
+         * Agrega un campo; el valor puede ser un número, un String, un long[] o cualquier objeto (se usa su toString).
+         */
+        public Event with(String name, Object value) {
+            names.add(name);
+            values.add(value);
+            return this;
+        }
+
+        /**
+         * Texto del evento en formato text (puede tener varias líneas); si no se indica, se listan los campos.
+         */
+        public Event text(Supplier<String> text) {
+            this.text = text;
+            return this;
+        }
+    }
+
+    /**
+     * @param file        archivo de eventos (se agrega al final si ya existe)
+     * @param format      formato de las líneas
+     * @param maxBytes    tamaño a partir del cual rota el archivo (0 = sin rotación)
+     * @param maxFiles    archivos rotados que se conservan
+     * @param capacity    eventos que caben en el buffer (se redondea a potencia de 2)
+     * @param flushMillis espera máxima del escritor con el buffer vacío
+     * @param logPrefix   prefijo de los logs
+     */
+    public EventLog(Path file, Format format, long maxBytes, int maxFiles, int capacity, long flushMillis, String logPrefix) {
+        this.file = file;
+        this.format = format;
+        this.maxBytes = Math.max(0, maxBytes);
+        this.maxFiles = Math.max(1, maxFiles);
+        this.flushMillis = Math.max(1, flushMillis);
+        this.logPrefix = logPrefix;
+        int size = Integer.highestOneBit(Math.max(2, Math.min(capacity, 1 << 20)) * 2 - 1);
+        this.slots = new Event[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.writer = new Thread(this::writeLoop, "event-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        // Lo que quede en el buffer se escribe al terminar la JVM
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "event-log-shutdown"));
+    }
+
+    /**
+     * Lee prefix.Path (vacío = defaultPath), prefix.Format (text | csv | json), prefix.MaxBytes, prefix.MaxFiles,
+     * prefix.BufferCapacity y prefix.FlushMillis.
+     */
+    public static EventLog fromProperties(Properties properties, String prefix, String defaultPath, String logPrefix) {
+        String path = properties.getPropertyWithDefault(prefix + ".Path", defaultPath).trim();
+        Format format;
+        try {
+            format = Format.valueOf(properties.getPropertyWithDefault(prefix + ".Format", "text").trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println(logPrefix + " " + prefix + ".Format desconocido. Se usa text.");
+            format = Format.TEXT;
+        }
+        return new EventLog(Paths.get(path.isEmpty() ? defaultPath : path), format,
+                properties.getPropertyAsIntWithDefault(prefix + ".MaxBytes", 10 * 1024 * 1024),
+                properties.getPropertyAsIntWithDefault(prefix + ".MaxFiles", 5),
+                properties.getPropertyAsIntWithDefault(prefix + ".BufferCapacity", 8192),
+                properties.getPropertyAsIntWithDefault(prefix + ".FlushMillis", 200), logPrefix);
+    }
+
+    /**
+     * Deja el evento en el buffer sin bloquear.
+     * @return false si el buffer estaba lleno (o el registro cerrado) y el evento se descartó
+     */
+    public boolean publish(Event event) {
+        if (closed) {
+            return false;
+        }
+        long position;
+        while (true) {
+            position = tail.get();
+            long difference = sequences.get((int) position & mask) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                dropped.incrementAndGet(); // El escritor no alcanzó a vaciar esta celda: buffer lleno
+                return false;
+            }
+            // difference > 0: otro productor ya tomó esta posición; se lee tail de nuevo
+        }
+        int index = (int) position & mask;
+        slots[index] = event;
+        sequences.set(index, position + 1); // Escritura volátil: publica el evento al escritor
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * @return el siguiente evento publicado, o null si el buffer está vacío (solo lo llama el escritor)
+     */
+    private Event poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        Event event = slots[index];
+        slots[index] = null;
+        sequences.set(index, head + slots.length); // Libera la celda para la siguiente vuelta
+        head++;
+        return event;
+    }
+
+    private void writeLoop() {
+        try {
+            open();
+        } catch (IOException e) {
+            System.err.println(logPrefix + " No se pudo abrir el registro de eventos " + file + ": " + e.getMessage());
+        }
+        while (true) {
+            boolean stopping = closed; // Se lee antes de vaciar: lo publicado antes de close() se escribe
+            int written = drain();
+            if (stopping && written == 0) {
+                break;
+            }
+            if (written == 0) {
+                writerParked = true;
+                if (sequences.get((int) head & mask) != head + 1 && !closed) { // Nada llegó entre drain y park
+                    LockSupport.parkNanos(flushMillis * 1_000_000L);
+                }
+                writerParked = false;
+            }
+        }
+        try {
+            if (out != null) {
+                out.close();
+            }
+        } catch (IOException e) {
+            System.err.println(logPrefix + " Error cerrando el registro de eventos: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Escribe todo lo que hay en el buffer y hace un solo flush.
+     * @return eventos escritos
+     */
+    private int drain() {
+        int count = 0;
+        try {
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                write(new Event("eventos_descartados").with("cantidad", lost)
+                        .text(() -> "--- " + lost + " evento(s) descartados: buffer del registro lleno ---"));
+            }
+            Event event;
+            while ((event = poll()) != null) {
+                write(event);
+                count++;
+            }
+            if (count > 0 && out != null) {
+                out.flush();
+                writtenEvents += count;
+                batches++;
+            }
+        } catch (IOException e) {
+            System.err.println(logPrefix + " Error escribiendo el registro de eventos " + file + ": " + e.getMessage());
+            reopen();
+        }
+        return count;
+    }
+
+    private void write(Event event) throws IOException {
+        if (out == null) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder(128);
+        if (format == Format.CSV && csvHeadersWritten.add(event.type)) {
+            sb.append("# ").append(event.type).append(": timestamp,tipo");
+            for (String name : event.names) {
+                sb.append(',').append(name);
+            }
+            sb.append('\n');
+        }
+        switch (format) {
+            case TEXT:
+                sb.append(event.text != null ? event.text.get() : describe(event)).append('\n');
+                break;
+            case CSV:
+                sb.append(event.timestampMillis).append(',').append(event.type);
+                for (Object value : event.values) {
+                    sb.append(',');
+                    appendCsv(sb, value);
+                }
+                sb.append('\n');
+                break;
+            case JSON:
+                sb.append("{\"timestamp\":").append(event.timestampMillis).append(",\"tipo\":");
+                appendJsonString(sb, event.type);
+                for (int i = 0; i < event.names.size(); i++) {
+                    sb.append(',');
+                    appendJsonString(sb, event.names.get(i));
+                    sb.append(':');
+                    appendJson(sb, event.values.get(i));
+                }
+                sb.append("}\n");
+                break;
+        }
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        if (maxBytes > 0 && fileBytes > 0 && fileBytes + bytes.length > maxBytes) {
+            rotate();
+        }
+        out.write(bytes);
+        fileBytes += bytes.length;
+    }
+
+    private static String describe(Event event) {
+        StringBuilder sb = new StringBuilder(event.type);
+        for (int i = 0; i < event.names.size(); i++) {
+            sb.append(" - ").append(event.names.get(i)).append(": ").append(valueText(event.values.get(i)));
+        }
+        return sb.toString();
+    }
+
+    private static String valueText(Object value) {
+        if (value instanceof long[]) {
+            return Arrays.toString((long[]) value);
+        }
+        return String.valueOf(value);
+    }
+
+    private static void appendCsv(StringBuilder sb, Object value) {
+        String text = (value instanceof long[]) ? joined((long[]) value, ' ') : String.valueOf(value);
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0) {
+            sb.append(text);
+        } else {
+            sb.append('"').append(text.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    private static void appendJson(StringBuilder sb, Object value) {
+        if (value instanceof Number) {
+            sb.append(value);
+        } else if (value instanceof long[]) {
+            sb.append('[').append(joined((long[]) value, ',')).append(']');
+        } else {
+            appendJsonString(sb, String.valueOf(value));
+        }
+    }
+
+    private static void appendJsonString(StringBuilder sb, String text) {
+        sb.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    private static String joined(long[] numbers, char separator) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < numbers.length; i++) {
+            if (i > 0) {
+                sb.append(separator);
+            }
+            sb.append(numbers[i]);
+        }
+        return sb.toString();
+    }
+
+    private void open() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        fileBytes = Files.exists(file) ? Files.size(file) : 0;
+        out = new BufferedOutputStream(new FileOutputStream(file.toFile(), true), 64 * 1024);
+        csvHeadersWritten.clear();
+    }
+
+    /**
+     * archivo -> archivo.1 -> archivo.2 ... (el más viejo, archivo.maxFiles, se borra) y abre un archivo nuevo.
+     */
+    private void rotate() throws IOException {
+        out.close();
+        out = null;
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rotated(i))) {
+                Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        rotations++;
+        open();
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void reopen() {
+        try {
+            if (out != null) {
+                out.close();
+            }
+        } catch (IOException ignored) {
+            // Se abre de nuevo de todas formas
+        }
+        try {
+            open();
+        } catch (IOException e) {
+            out = null;
+            System.err.println(logPrefix + " No se pudo reabrir el registro de eventos " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Escribe lo pendiente y detiene el escritor; lo publicado después se descarta.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return configuración y estadísticas (para logs)
+     */
+    public String describe() {
+        return file + " (" + format.name().toLowerCase(Locale.ROOT) + ", buffer de " + slots.length + " evento(s), " +
+                (maxBytes > 0 ? "rota a los " + maxBytes + " bytes, " + maxFiles + " archivo(s)" : "sin rotación") + "); " +
+                writtenEvents + " evento(s) en " + batches + " lote(s), " + rotations + " rotación(es)";
+    }
+}
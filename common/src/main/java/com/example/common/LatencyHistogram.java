@@ -0,0 +1,161 @@
+// --- Archivo: common/src/main/java/com/example/common/LatencyHistogram.java ---
+package com.example.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias al estilo HDR: buckets log-lineales con error relativo acotado (~3%), de 0 a Long.MAX_VALUE.
+ * Los valores menores que 64 tienen un bucket propio; de ahí en más cada potencia de 2 se divide en 32 sub-buckets.
+ * Registrar no reserva memoria ni toma locks (un incremento atómico por contador), así que puede quedar siempre
+ * activo; los percentiles se calculan al leer, recorriendo los ~1900 contadores.
+ * La unidad la decide quien registra (ms en el Maestro, µs en las pruebas de carga).
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5; // 32 sub-buckets por potencia de 2
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS; // Valores con bucket propio: [0, 64)
+    private static final int BUCKETS = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalSum = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * Registra un valor (los negativos cuentan como 0).
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        totalSum.addAndGet(value);
+        long max = maxValue.get();
+        while (value > max && !maxValue.compareAndSet(max, value)) {
+            max = maxValue.get();
+        }
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS; // >= 1
+        int subBucket = (int) (value >>> shift); // En [32, 64)
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (subBucket - SUB_BUCKETS);
+    }
+
+    /**
+     * @return mayor valor que cae en el bucket index
+     */
+    static long highestValueOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        long upper = ((subBucket + 1) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+
+    /**
+     * @return mediciones registradas
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * @return mayor valor registrado (0 si no hay mediciones)
+     */
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    /**
+     * @return promedio de los valores registrados (0 si no hay mediciones)
+     */
+    public double getMean() {
+        long count = totalCount.get();
+        return (count == 0) ? 0 : (double) totalSum.get() / count;
+    }
+
+    /**
+     * Valor por debajo del cual queda la fracción quantile de las mediciones (p. ej. 0.99), con el error del bucket
+     * (nunca mayor que el máximo registrado). Las mediciones concurrentes pueden quedar dentro o fuera.
+     */
+    public long getValueAtQuantile(double quantile) {
+        return getValuesAtQuantiles(quantile)[0];
+    }
+
+    /**
+     * Igual que getValueAtQuantile para varios cuantiles (en orden ascendente), en una sola pasada.
+     */
+    public long[] getValuesAtQuantiles(double... quantiles) {
+        long[] values = new long[quantiles.length];
+        long count = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return values;
+        }
+        long max = maxValue.get();
+        long cumulative = 0;
+        int q = 0;
+        for (int i = 0; i < BUCKETS && q < quantiles.length; i++) {
+            cumulative += snapshot[i];
+            while (q < quantiles.length && cumulative >= Math.max(1, (long) Math.ceil(quantiles[q] * count))) {
+                values[q++] = Math.min(highestValueOf(i), max);
+            }
+        }
+        while (q < quantiles.length) {
+            values[q++] = max;
+        }
+        return values;
+    }
+
+    /**
+     * Suma las mediciones de otro histograma a este (p. ej. para juntar los de varios hilos o procesos).
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        totalSum.addAndGet(other.totalSum.get());
+        long otherMax = other.maxValue.get();
+        long max = maxValue.get();
+        while (otherMax > max && !maxValue.compareAndSet(max, otherMax)) {
+            max = maxValue.get();
+        }
+    }
+
+    /**
+     * Vuelve a cero (no atómico respecto de las mediciones concurrentes).
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalSum.set(0);
+        maxValue.set(0);
+    }
+
+    /**
+     * @return "n=..., media=..., p50=..., p99=..., p999=..., max=..." en la unidad registrada
+     */
+    public String describe(String unit) {
+        long[] p = getValuesAtQuantiles(0.5, 0.99, 0.999);
+        return "n=" + getCount() + ", media=" + String.format("%.1f", getMean()) + " " + unit + ", p50=" + p[0] + " " + unit +
+                ", p99=" + p[1] + " " + unit + ", p999=" + p[2] + " " + unit + ", max=" + getMax() + " " + unit;
+    }
+}
@@ -0,0 +1,168 @@
+// --- Archivo: loadtest/src/main/java/com/example/loadtest/LoadDriver.java ---
+package com.example.loadtest;
+
+import com.example.common.LatencyHistogram; // Latencias del lado del cliente (µs)
+import com.example.loadtest.SyntheticClient.JobOutcome;
+import com.example.loadtest.SyntheticClient.JobSpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Genera la secuencia de trabajos de una prueba y la reparte entre los clientes sintéticos:
+ * en lazo cerrado cada cliente mantiene LoadTest.Concurrency trabajos en curso (un rechazo por cola llena se reintenta
+ * tras LoadTest.RetryMillis); en lazo abierto los trabajos llegan como un proceso de Poisson de LoadTest.ArrivalRate
+ * trabajos/s, sin esperar a los anteriores (un rechazo se cuenta y el trabajo se descarta).
+ * Con la misma semilla la secuencia (rangos, prioridades, clientes y llegadas) es la misma, para comparar entre commits.
+ */
+final class LoadDriver {
+    // Perfectos que caben en un long: el resultado de cada trabajo se valida contra ellos
+    private static final long[] KNOWN_PERFECTS = {6L, 28L, 496L, 8128L, 33550336L, 8589869056L, 137438691328L, 2305843008139952128L};
+    private static final int MAX_EXAMPLES = 5; // Mensajes de error que se guardan para el reporte
+
+    private final LoadTestSettings settings;
+    private final List<SyntheticClient> clients;
+    private final ScheduledExecutorService retryTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "loadtest-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Resultado de una fase (calentamiento o medición).
+     */
+    static final class PhaseResult {
+        final LatencyHistogram latencyMicros = new LatencyHistogram(); // Envío -> notificación (trabajos completados)
+        final LatencyHistogram acceptMicros = new LatencyHistogram(); // Envío -> trabajo aceptado en la cola
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong(); // Rechazos por cola llena (cada reintento cuenta)
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong incorrect = new AtomicLong(); // Completados con perfectos distintos de los esperados
+        final AtomicLong numbers = new AtomicLong(); // Números de los trabajos completados
+        final Queue<String> examples = new ConcurrentLinkedQueue<>();
+        volatile long wallNanos;
+
+        private void example(String text) {
+            if (examples.size() < MAX_EXAMPLES) {
+                examples.add(text);
+            }
+        }
+    }
+
+    LoadDriver(LoadTestSettings settings, List<SyntheticClient> clients) {
+        this.settings = settings;
+        this.clients = clients;
+    }
+
+    /**
+     * Secuencia de count trabajos a partir de la semilla: anchos según LoadTest.Jobs.Sizes, inicio uniforme en
+     * [1, LoadTest.Jobs.MaxStart], prioridad según LoadTest.Jobs.Priorities, clientes por turno y llegadas de Poisson.
+     */
+    static List<JobSpec> plan(LoadTestSettings settings, int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<JobSpec> jobs = new ArrayList<>(count);
+        double arrival = 0;
+        for (int i = 0; i < count; i++) {
+            long width = settings.pickWidth(random);
+            long start = 1 + random.nextLong(Math.max(1, settings.maxStart - width + 1));
+            String priority = settings.priorities.get(random.nextInt(settings.priorities.size()));
+            if (settings.arrivalRate > 0) {
+                arrival += -Math.log(1 - random.nextDouble()) / settings.arrivalRate; // Exponencial de media 1/tasa
+            }
+            jobs.add(new JobSpec(i, start, start + width - 1, priority, i % settings.clients, (long) (arrival * 1e9)));
+        }
+        return jobs;
+    }
+
+    /**
+     * Corre los trabajos y espera a que todos terminen (completados, fallidos o, en lazo abierto, rechazados).
+     */
+    PhaseResult run(List<JobSpec> jobs) throws InterruptedException {
+        PhaseResult result = new PhaseResult();
+        CountDownLatch done = new CountDownLatch(jobs.size());
+        long startedAt = System.nanoTime();
+        if (settings.arrivalRate > 0) {
+            // Lazo abierto: cada trabajo sale en su instante de llegada, sin mirar cuántos hay en curso
+            for (JobSpec job : jobs) {
+                long wait;
+                while ((wait = startedAt + job.arrivalNanos - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                submit(job, result, done, null);
+            }
+        } else {
+            // Lazo cerrado: cada cliente toma sus trabajos en orden con Concurrency "ranuras"
+            List<Queue<JobSpec>> queues = new ArrayList<>();
+            for (int c = 0; c < clients.size(); c++) {
+                queues.add(new ConcurrentLinkedQueue<>());
+            }
+            for (JobSpec job : jobs) {
+                queues.get(job.client).add(job);
+            }
+            for (Queue<JobSpec> queue : queues) {
+                for (int slot = 0; slot < settings.concurrency; slot++) {
+                    submit(queue.poll(), result, done, queue);
+                }
+            }
+        }
+        done.await();
+        result.wallNanos = System.nanoTime() - startedAt;
+        return result;
+    }
+
+    /**
+     * Pide un trabajo; en lazo cerrado (queue != null) al terminar pide el siguiente de la cola del cliente.
+     */
+    private void submit(JobSpec job, PhaseResult result, CountDownLatch done, Queue<JobSpec> queue) {
+        if (job == null) {
+            return;
+        }
+        clients.get(job.client).submit(job).thenAccept(outcome -> {
+            if (outcome.status == JobOutcome.Status.REJECTED) {
+                result.rejected.incrementAndGet();
+                if (queue != null) {
+                    retryTimer.schedule(() -> submit(job, result, done, queue), settings.retryMillis, TimeUnit.MILLISECONDS);
+                    return;
+                }
+            } else if (outcome.status == JobOutcome.Status.FAILED) {
+                result.failed.incrementAndGet();
+                result.example("trabajo " + job.index + " [" + job.start + ", " + job.end + "]: " + outcome.message);
+            } else {
+                record(outcome, result);
+            }
+            done.countDown();
+            if (queue != null) {
+                submit(queue.poll(), result, done, queue);
+            }
+        });
+    }
+
+    private static void record(JobOutcome outcome, PhaseResult result) {
+        JobSpec job = outcome.job;
+        result.completed.incrementAndGet();
+        result.numbers.addAndGet(job.width());
+        result.latencyMicros.record(outcome.latencyMicros);
+        result.acceptMicros.record(outcome.acceptMicros);
+        long[] found = (outcome.perfectNumbers == null) ? new long[0] : outcome.perfectNumbers.clone();
+        Arrays.sort(found);
+        long[] expected = Arrays.stream(KNOWN_PERFECTS).filter(n -> n >= job.start && n <= job.end).toArray();
+        if (!Arrays.equals(found, expected)) {
+            result.incorrect.incrementAndGet();
+            result.example("trabajo " + job.index + " [" + job.start + ", " + job.end + "]: se esperaba " + Arrays.toString(expected) +
+                    ", llegó " + Arrays.toString(found) + " (" + outcome.message + ")");
+        }
+    }
+
+    void shutdown() {
+        retryTimer.shutdownNow();
+    }
+}
@@ -0,0 +1,87 @@
+// --- Archivo: loadtest/src/main/java/com/example/loadtest/LoadReport.java ---
+package com.example.loadtest;
+
+import com.example.common.LatencyHistogram;
+import com.example.loadtest.LoadDriver.PhaseResult;
+import perfectNumbersApp.LatencySummary; // Histogramas del Maestro (getMetrics)
+import perfectNumbersApp.MetricsSnapshot;
+import perfectNumbersApp.WorkerThroughput;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reporte de texto de una prueba de carga: rendimiento, latencia de extremo a extremo vista por los clientes,
+ * etapas del Maestro (getMetrics) y ocupación de cada worker durante la fase medida.
+ */
+final class LoadReport {
+    private LoadReport() {
+    }
+
+    /**
+     * @param before            métricas del Maestro al empezar la fase medida (después del calentamiento)
+     * @param after             métricas del Maestro al terminar
+     * @param workerParallelism hilos de cálculo por worker
+     */
+    static String format(LoadTestSettings settings, PhaseResult result, MetricsSnapshot before, MetricsSnapshot after, int workerParallelism) {
+        StringBuilder sb = new StringBuilder(4096);
+        double seconds = Math.max(1, result.wallNanos) / 1e9;
+        sb.append("=== Prueba de carga (").append(settings.mode.name().toLowerCase(Locale.ROOT)).append(") ===\n");
+        sb.append(String.format(Locale.ROOT, "Workers: %d activos (%d hilo(s) c/u). Clientes: %d. Llegadas: %s. Workers por trabajo: %d%n",
+                after.liveWorkers, workerParallelism, settings.clients, settings.describeArrivals(), settings.workersPerJob));
+        sb.append("Anchos (peso): ").append(settings.describeSizes()).append(". Inicio hasta ").append(settings.maxStart)
+                .append(". Prioridades: ").append(settings.prioritySpec).append(". Semilla: ").append(settings.seed).append('\n');
+        sb.append(String.format(Locale.ROOT, "Trabajos: %d medidos (+%d de calentamiento): %d completados, %d rechazos por cola llena, %d fallidos, %d incorrectos%n",
+                settings.jobs, settings.warmupJobs, result.completed.get(), result.rejected.get(), result.failed.get(), result.incorrect.get()));
+        sb.append(String.format(Locale.ROOT, "Rendimiento: %.2f trabajos/s, %.3g números/s (%.1f s de fase medida)%n",
+                result.completed.get() / seconds, result.numbers.get() / seconds, seconds));
+        sb.append('\n').append(String.format(Locale.ROOT, "%-34s %8s %10s %10s %10s %10s %10s %10s%n",
+                "Latencia (ms)", "n", "media", "p50", "p90", "p99", "p999", "max"));
+        clientRow(sb, "cliente: extremo a extremo", result.latencyMicros);
+        clientRow(sb, "cliente: aceptación en la cola", result.acceptMicros);
+        // Los histogramas del Maestro acumulan desde su arranque (incluyen el calentamiento y, con un Maestro externo, todo lo anterior)
+        for (LatencySummary latency : after.latencies) {
+            sb.append(String.format(Locale.ROOT, "%-34s %8d %10.1f %10d %10d %10d %10d %10d%n", "maestro: " + latency.name,
+                    latency.count, latency.meanMillis, latency.p50Millis, latency.p90Millis, latency.p99Millis, latency.p999Millis, latency.maxMillis));
+        }
+        sb.append("(etapas del Maestro desde su arranque: incluyen el calentamiento)\n");
+
+        // Ocupación: tiempo de cálculo de la fase / (duración de la fase x hilos). Con varios chunks en curso por worker
+        // (Master.Scheduler.InFlightPerWorker) y un solo hilo puede pasar del 100%
+        Map<String, WorkerThroughput> previous = new HashMap<>();
+        for (WorkerThroughput worker : before.workers) {
+            previous.put(worker.worker, worker);
+        }
+        sb.append('\n').append(String.format(Locale.ROOT, "%-40s %8s %14s %12s %14s %10s%n",
+                "Worker", "chunks", "números", "cálculo ms", "números/s", "ocupación"));
+        long totalComputeMillis = 0;
+        for (WorkerThroughput worker : after.workers) {
+            WorkerThroughput start = previous.get(worker.worker);
+            long chunks = worker.chunks - ((start == null) ? 0 : start.chunks);
+            long numbers = worker.numbers - ((start == null) ? 0 : start.numbers);
+            long computeMillis = worker.computeMillis - ((start == null) ? 0 : start.computeMillis);
+            if (chunks == 0) {
+                continue; // Sin trabajo en la fase medida (p. ej. un worker de otra prueba en un Maestro externo)
+            }
+            totalComputeMillis += computeMillis;
+            sb.append(String.format(Locale.ROOT, "%-40s %8d %14d %12d %14.3g %9.1f%%%n", worker.worker, chunks, numbers, computeMillis,
+                    (computeMillis == 0) ? 0.0 : numbers * 1000.0 / computeMillis, computeMillis * 100.0 / (seconds * 1000 * workerParallelism)));
+        }
+        sb.append(String.format(Locale.ROOT, "Ocupación total: %.1f%% (%d ms de cálculo en %d worker(s) x %d hilo(s) x %.1f s)%n",
+                totalComputeMillis * 100.0 / (seconds * 1000 * workerParallelism * Math.max(1, after.liveWorkers)),
+                totalComputeMillis, after.liveWorkers, workerParallelism, seconds));
+        if (!result.examples.isEmpty()) {
+            sb.append("\nPrimeros errores:\n");
+            for (String example : result.examples) {
+                sb.append("  ").append(example).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void clientRow(StringBuilder sb, String name, LatencyHistogram micros) {
+        long[] p = micros.getValuesAtQuantiles(0.5, 0.9, 0.99, 0.999);
+        sb.append(String.format(Locale.ROOT, "%-34s %8d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n", name, micros.getCount(), micros.getMean() / 1000,
+                p[0] / 1000.0, p[1] / 1000.0, p[2] / 1000.0, p[3] / 1000.0, micros.getMax() / 1000.0));
+    }
+}
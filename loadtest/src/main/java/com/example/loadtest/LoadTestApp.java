@@ -0,0 +1,114 @@
+// --- Archivo: loadtest/src/main/java/com/example/loadtest/LoadTestApp.java ---
+package com.example.loadtest;
+
+import com.example.loadtest.LoadDriver.PhaseResult;
+import com.zeroc.Ice.LocalException;
+import com.zeroc.Ice.Properties;
+import com.zeroc.Ice.Util;
+import perfectNumbersApp.MasterServicePrx;
+import perfectNumbersApp.MetricsSnapshot;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Prueba de carga de extremo a extremo, sin UI: levanta un Maestro y LoadTest.Workers workers en loopback
+ * (ver LocalCluster), LoadTest.Clients clientes sintéticos, corre LoadTest.WarmupJobs trabajos de calentamiento
+ * y luego LoadTest.Jobs medidos, e imprime el reporte (también en LoadTest.ReportFile).
+ * La salida de los nodos va a LoadTest.LogDir/loadtest.log. Termina con código 1 si hubo trabajos fallidos o incorrectos.
+ */
+public class LoadTestApp {
+    private static final String LOG_PREFIX = "[LOADTEST]";
+
+    public static void main(String[] args) {
+        PrintStream console = System.out;
+        int exitCode = 1;
+        try {
+            Properties properties = loadProperties(args);
+            LoadTestSettings settings = LoadTestSettings.fromProperties(properties);
+            exitCode = run(settings, properties, console);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            console.println(LOG_PREFIX + " ERROR: " + e.getMessage());
+        } catch (LocalException e) {
+            console.println(LOG_PREFIX + " ERROR local de Ice: " + e.getClass().getSimpleName() + " - " + e.getMessage());
+            e.printStackTrace(console);
+        } catch (IOException e) {
+            console.println(LOG_PREFIX + " ERROR de E/S: " + e.getMessage());
+        } catch (InterruptedException e) {
+            console.println(LOG_PREFIX + " Interrumpida.");
+        }
+        console.flush();
+        System.exit(exitCode); // Los hilos de los nodos en proceso no son daemon
+    }
+
+    /**
+     * loadtest.properties con las opciones de la línea de comandos encima (--LoadTest.*, --Master.*, --Worker.* e --Ice.*).
+     */
+    private static Properties loadProperties(String[] args) {
+        Properties defaults = Util.createProperties();
+        defaults.load("loadtest.properties");
+        Properties properties = Util.createProperties(args, defaults); // Opciones --Ice.*
+        for (String prefix : new String[]{"LoadTest", "Master", "Worker"}) {
+            args = properties.parseCommandLineOptions(prefix, args);
+        }
+        return properties;
+    }
+
+    private static int run(LoadTestSettings settings, Properties properties, PrintStream console) throws IOException, InterruptedException {
+        // Los nodos en proceso imprimen cada trabajo y cada chunk: esa salida va al log, el progreso a la consola
+        Path logDir = Paths.get(settings.logDir);
+        Files.createDirectories(logDir);
+        PrintStream nodeLog = new PrintStream(new FileOutputStream(logDir.resolve("loadtest.log").toFile()), true, StandardCharsets.UTF_8);
+        System.setOut(nodeLog);
+        System.setErr(nodeLog);
+        console.println(LOG_PREFIX + " Modo " + settings.mode.name().toLowerCase(Locale.ROOT) + ": " + settings.workers + " worker(s), " + settings.clients +
+                " cliente(s), " + settings.describeArrivals() + ". Log de los nodos: " + logDir.resolve("loadtest.log"));
+
+        List<SyntheticClient> clients = new ArrayList<>();
+        LoadDriver driver = null;
+        try (LocalCluster cluster = LocalCluster.start(settings, properties, console)) {
+            for (int i = 1; i <= settings.clients; i++) {
+                clients.add(new SyntheticClient(i, properties, cluster.getMasterProxy(), settings));
+            }
+            driver = new LoadDriver(settings, clients);
+            MasterServicePrx master = clients.get(0).getMaster(); // Para leer las métricas del Maestro
+
+            if (settings.warmupJobs > 0) {
+                console.println(LOG_PREFIX + " Calentamiento: " + settings.warmupJobs + " trabajo(s)...");
+                PhaseResult warmup = driver.run(LoadDriver.plan(settings, settings.warmupJobs, settings.seed - 1));
+                console.println(String.format(Locale.ROOT, LOG_PREFIX + " Calentamiento terminado en %.1f s.", warmup.wallNanos / 1e9));
+            }
+            MetricsSnapshot before = master.getMetrics();
+            console.println(LOG_PREFIX + " Fase medida: " + settings.jobs + " trabajo(s)...");
+            PhaseResult result = driver.run(LoadDriver.plan(settings, settings.jobs, settings.seed));
+            MetricsSnapshot after = master.getMetrics();
+
+            String report = LoadReport.format(settings, result, before, after, LocalCluster.workerParallelism(properties));
+            console.println();
+            console.print(report);
+            if (!settings.reportFile.isEmpty()) {
+                Path reportPath = Paths.get(settings.reportFile);
+                if (reportPath.toAbsolutePath().getParent() != null) {
+                    Files.createDirectories(reportPath.toAbsolutePath().getParent());
+                }
+                Files.write(reportPath, report.getBytes(StandardCharsets.UTF_8));
+                console.println(LOG_PREFIX + " Reporte guardado en " + reportPath);
+            }
+            return (result.failed.get() > 0 || result.incorrect.get() > 0 || result.completed.get() == 0) ? 1 : 0;
+        } finally {
+            if (driver != null) {
+                driver.shutdown();
+            }
+            for (SyntheticClient client : clients) {
+                client.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+// --- Archivo: loadtest/src/main/java/com/example/loadtest/LoadTestSettings.java ---
+package com.example.loadtest;
+
+import com.zeroc.Ice.Properties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Parámetros de una prueba de carga (LoadTest.* en loadtest.properties o --LoadTest.X=valor en la línea de comandos).
+ */
+final class LoadTestSettings {
+    /**
+     * Dónde corren el Maestro y los workers.
+     */
+    enum Mode {
+        INPROCESS, // En esta JVM, cada nodo con su propio Communicator (las llamadas pasan por la red local)
+        PROCESSES, // Un proceso hijo por nodo (MasterApp y WorkerApp), como en el despliegue real
+        EXTERNAL // Un Maestro ya levantado (p. ej. scripts/local-topology.sh) en LoadTest.Master.Proxy
+    }
+
+    final Mode mode;
+    final int workers;
+    final int clients;
+    final String host;
+    final int masterPort;
+    final String masterProxy; // Solo en modo external
+    final boolean statelessMaster; // Sin caché de resultados ni bitácora en el Maestro local
+    final int jobs;
+    final int warmupJobs;
+    final int concurrency; // Trabajos en curso por cliente (lazo cerrado)
+    final double arrivalRate; // Trabajos por segundo entre todos los clientes (lazo abierto); 0 = lazo cerrado
+    final int workersPerJob;
+    final long maxStart;
+    final long seed;
+    final long retryMillis;
+    final long jobTimeoutSeconds;
+    final long startupTimeoutSeconds;
+    final String logDir;
+    final String reportFile;
+    final List<long[]> sizeMix; // {ancho, peso}
+    final List<String> priorities; // Un nombre por unidad de peso
+    final String prioritySpec; // LoadTest.Jobs.Priorities tal cual, para el reporte
+    private final long totalSizeWeight;
+
+    private LoadTestSettings(Properties properties) {
+        mode = Mode.valueOf(properties.getPropertyWithDefault("LoadTest.Mode", "inprocess").trim().toUpperCase(Locale.ROOT));
+        workers = Math.max(1, properties.getPropertyAsIntWithDefault("LoadTest.Workers", 4));
+        clients = Math.max(1, properties.getPropertyAsIntWithDefault("LoadTest.Clients", 4));
+        host = properties.getPropertyWithDefault("LoadTest.Host", "127.0.0.1").trim();
+        masterPort = properties.getPropertyAsIntWithDefault("LoadTest.Master.Port", 10500);
+        masterProxy = properties.getPropertyWithDefault("LoadTest.Master.Proxy", "MasterService:default -h localhost -p 10000").trim();
+        statelessMaster = properties.getPropertyAsIntWithDefault("LoadTest.Master.Stateless", 1) != 0;
+        jobs = Math.max(1, properties.getPropertyAsIntWithDefault("LoadTest.Jobs", 100));
+        warmupJobs = Math.max(0, properties.getPropertyAsIntWithDefault("LoadTest.WarmupJobs", 8));
+        concurrency = Math.max(1, properties.getPropertyAsIntWithDefault("LoadTest.Concurrency", 2));
+        arrivalRate = Math.max(0, Double.parseDouble(properties.getPropertyWithDefault("LoadTest.ArrivalRate", "0").trim()));
+        workersPerJob = Math.max(1, properties.getPropertyAsIntWithDefault("LoadTest.WorkersPerJob", workers));
+        maxStart = Math.max(1, Long.parseLong(properties.getPropertyWithDefault("LoadTest.Jobs.MaxStart", "100000000").trim()));
+        seed = Long.parseLong(properties.getPropertyWithDefault("LoadTest.Seed", "42").trim());
+        retryMillis = Math.max(1, properties.getPropertyAsIntWithDefault("LoadTest.RetryMillis", 200));
+        jobTimeoutSeconds = Math.max(1, properties.getPropertyAsIntWithDefault("LoadTest.JobTimeoutSeconds", 600));
+        startupTimeoutSeconds = Math.max(1, properties.getPropertyAsIntWithDefault("LoadTest.StartupTimeoutSeconds", 60));
+        logDir = properties.getPropertyWithDefault("LoadTest.LogDir", "build/loadtest-logs").trim();
+        reportFile = properties.getPropertyWithDefault("LoadTest.ReportFile", "build/loadtest-report.txt").trim();
+        sizeMix = new ArrayList<>();
+        long weights = 0;
+        for (String[] entry : weighted(properties.getPropertyWithDefault("LoadTest.Jobs.Sizes", "100000:6,1000000:3,10000000:1"))) {
+            long width = Long.parseLong(entry[0]);
+            long weight = Long.parseLong(entry[1]);
+            if (width < 1 || weight < 1) {
+                throw new IllegalArgumentException("LoadTest.Jobs.Sizes: ancho y peso deben ser positivos ('" + entry[0] + ":" + entry[1] + "')");
+            }
+            sizeMix.add(new long[]{width, weight});
+            weights += weight;
+        }
+        if (sizeMix.isEmpty()) {
+            throw new IllegalArgumentException("LoadTest.Jobs.Sizes está vacío");
+        }
+        totalSizeWeight = weights;
+        priorities = new ArrayList<>();
+        prioritySpec = properties.getPropertyWithDefault("LoadTest.Jobs.Priorities", "normal:1").trim();
+        for (String[] entry : weighted(prioritySpec)) {
+            for (int i = Integer.parseInt(entry[1]); i > 0; i--) {
+                priorities.add(entry[0].toLowerCase(Locale.ROOT));
+            }
+        }
+        if (priorities.isEmpty()) {
+            priorities.add("normal");
+        }
+    }
+
+    /**
+     * Lee los parámetros LoadTest.*.
+     * @throws IllegalArgumentException si alguno tiene un valor inválido
+     */
+    static LoadTestSettings fromProperties(Properties properties) {
+        try {
+            return new LoadTestSettings(properties);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor numérico inválido en LoadTest.*: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * "a:2, b" -> {{"a","2"}, {"b","1"}}
+     */
+    private static List<String[]> weighted(String value) {
+        List<String[]> entries = new ArrayList<>();
+        for (String item : value.split(",")) {
+            String trimmed = item.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int colon = trimmed.indexOf(':');
+            entries.add(colon < 0 ? new String[]{trimmed, "1"}
+                    : new String[]{trimmed.substring(0, colon).trim(), trimmed.substring(colon + 1).trim()});
+        }
+        return entries;
+    }
+
+    /**
+     * Sortea un ancho de la mezcla según los pesos.
+     */
+    long pickWidth(SplittableRandom random) {
+        long ticket = random.nextLong(totalSizeWeight);
+        for (long[] size : sizeMix) {
+            ticket -= size[1];
+            if (ticket < 0) {
+                return size[0];
+            }
+        }
+        return sizeMix.get(sizeMix.size() - 1)[0];
+    }
+
+    /**
+     * @return "100000 x6, 1000000 x3, ..." para el encabezado del reporte
+     */
+    String describeSizes() {
+        StringBuilder sb = new StringBuilder();
+        for (long[] size : sizeMix) {
+            sb.append(sb.length() == 0 ? "" : ", ").append(size[0]).append(" x").append(size[1]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return "lazo cerrado (2 en curso por cliente)" o "lazo abierto (Poisson, 5.0 trabajos/s)"
+     */
+    String describeArrivals() {
+        return (arrivalRate > 0) ? String.format(Locale.ROOT, "lazo abierto (Poisson, %.1f trabajos/s)", arrivalRate)
+                : "lazo cerrado (" + concurrency + " en curso por cliente)";
+    }
+}
@@ -0,0 +1,287 @@
+// --- Archivo: loadtest/src/main/java/com/example/loadtest/LocalCluster.java ---
+package com.example.loadtest;
+
+import com.example.master.MasterServiceI; // Servant del Maestro (modo inprocess)
+import com.example.worker.AliquotScanner;
+import com.example.worker.PerfectNumberEngine;
+import com.example.worker.RangeClassifier;
+import com.example.worker.WidePerfectNumberEngine;
+import com.example.worker.WorkerApp; // Registro y renovación del lease (modo inprocess)
+import com.example.worker.WorkerEngines; // Motores configurados con Worker.* (igual que WorkerApp)
+import com.example.worker.WorkerServiceI; // Servant del Worker (modo inprocess)
+import com.example.worker.WorkerStrategy;
+import com.zeroc.Ice.Communicator;
+import com.zeroc.Ice.InitializationData;
+import com.zeroc.Ice.LocalException;
+import com.zeroc.Ice.ObjectAdapter;
+import com.zeroc.Ice.Properties;
+import com.zeroc.Ice.Util;
+import perfectNumbersApp.MasterServicePrx;
+import perfectNumbersApp.WorkerCapabilities;
+import perfectNumbersApp.WorkerServicePrx;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maestro y workers de una prueba de carga en la máquina local (loopback), según LoadTest.Mode:
+ * en esta JVM (un Communicator por nodo, así las llamadas pasan por TCP y no por la optimización colocada de Ice),
+ * como procesos hijos (MasterApp y WorkerApp con el classpath de la prueba) o un Maestro externo ya levantado.
+ * Los nodos toman master.properties y worker.properties con las propiedades Master.*, Worker.* e Ice.* de la prueba encima.
+ */
+final class LocalCluster implements AutoCloseable {
+    private static final String LOG_PREFIX = "[LOADTEST]";
+    private static final long POLL_MILLIS = 200; // Espera entre comprobaciones al arrancar
+
+    private final LoadTestSettings settings;
+    private final String masterProxy;
+    private final List<Communicator> communicators = new ArrayList<>();
+    private final List<WorkerServiceI> workerServants = new ArrayList<>();
+    private final List<Process> processes = new ArrayList<>();
+
+    private LocalCluster(LoadTestSettings settings, String masterProxy) {
+        this.settings = settings;
+        this.masterProxy = masterProxy;
+    }
+
+    /**
+     * Arranca el Maestro y los workers y espera a que todos los workers estén registrados.
+     * @param properties propiedades de la prueba (loadtest.properties y línea de comandos)
+     * @param console    salida para el progreso (la salida estándar va al log de la prueba)
+     */
+    static LocalCluster start(LoadTestSettings settings, Properties properties, PrintStream console) throws IOException, InterruptedException {
+        if (settings.mode == LoadTestSettings.Mode.EXTERNAL) {
+            console.println(LOG_PREFIX + " Usando el Maestro externo " + settings.masterProxy);
+            return new LocalCluster(settings, settings.masterProxy);
+        }
+        String masterEndpoints = "tcp -h " + settings.host + " -p " + settings.masterPort;
+        LocalCluster cluster = new LocalCluster(settings, "MasterService:" + masterEndpoints);
+        try {
+            if (settings.mode == LoadTestSettings.Mode.INPROCESS) {
+                cluster.startInProcess(properties, masterEndpoints, console);
+            } else {
+                cluster.startProcesses(properties, masterEndpoints, console);
+            }
+            return cluster;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            cluster.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Hilos de cálculo de cada worker (Worker.Parallelism efectivo), para la ocupación del reporte.
+     */
+    static int workerParallelism(Properties properties) {
+        int parallelism = nodeProperties("worker.properties", overrides(properties, "Worker.")).getPropertyAsIntWithDefault("Worker.Parallelism", 0);
+        return (parallelism > 0) ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    String getMasterProxy() {
+        return masterProxy;
+    }
+
+    /**
+     * Propiedades de un nodo: su archivo de configuración y, encima, las dadas (un valor vacío quita la propiedad).
+     */
+    private static Properties nodeProperties(String configFile, Map<String, String> overrides) {
+        Properties node = Util.createProperties();
+        node.load(configFile);
+        overrides.forEach(node::setProperty);
+        return node;
+    }
+
+    /**
+     * Propiedades de la prueba con los prefijos dados y las de Ice (sin Ice.Config).
+     */
+    private static Map<String, String> overrides(Properties properties, String... prefixes) {
+        Map<String, String> values = new TreeMap<>(properties.getPropertiesForPrefix("Ice."));
+        values.remove("Ice.Config");
+        for (String prefix : prefixes) {
+            values.putAll(properties.getPropertiesForPrefix(prefix));
+        }
+        return values;
+    }
+
+    /**
+     * Propiedades del Maestro: con LoadTest.Master.Stateless=1 sin caché de resultados ni bitácora, así cada trabajo
+     * se calcula de verdad y no se retoman trabajos de otra corrida.
+     */
+    private Map<String, String> masterOverrides(Properties properties, String masterEndpoints) {
+        Map<String, String> values = overrides(properties, "Master.");
+        if (settings.statelessMaster) {
+            values.put("Master.ResultStore.Path", "");
+            values.put("Master.Journal.Path", "");
+        }
+        values.put("MasterAdapter.Endpoints", masterEndpoints);
+        return values;
+    }
+
+    private Communicator initialize(Properties nodeProperties) {
+        InitializationData initData = new InitializationData();
+        initData.properties = nodeProperties;
+        Communicator communicator = Util.initialize(initData);
+        communicators.add(communicator);
+        return communicator;
+    }
+
+    private void startInProcess(Properties properties, String masterEndpoints, PrintStream console) throws InterruptedException {
+        // Maestro: igual que MasterApp, con los endpoints de la prueba
+        Communicator masterCommunicator = initialize(nodeProperties("master.properties", masterOverrides(properties, masterEndpoints)));
+        ObjectAdapter masterAdapter = masterCommunicator.createObjectAdapter("MasterAdapter");
+        MasterServiceI masterServant = new MasterServiceI(masterAdapter, masterCommunicator);
+        masterAdapter.add(masterServant, Util.stringToIdentity("MasterService"));
+        masterAdapter.activate();
+        masterServant.resumeJournaledJobs();
+        console.println(LOG_PREFIX + " Maestro en esta JVM: " + masterEndpoints);
+
+        // Workers: igual que WorkerApp, cada uno con su Communicator, sus motores y su pool
+        Map<String, String> workerOverrides = overrides(properties, "Worker.");
+        workerOverrides.put("WorkerAdapter.Endpoints", "tcp -h " + settings.host);
+        for (int i = 1; i <= settings.workers; i++) {
+            Properties workerProperties = nodeProperties("worker.properties", workerOverrides);
+            Communicator communicator = initialize(workerProperties);
+            ObjectAdapter adapter = communicator.createObjectAdapter("WorkerAdapter");
+            EnumMap<WorkerStrategy, PerfectNumberEngine> engines = WorkerEngines.fromProperties(workerProperties);
+            EnumMap<WorkerStrategy, WidePerfectNumberEngine> wideEngines = WorkerEngines.wideFromProperties(workerProperties);
+            RangeClassifier classifier = WorkerEngines.classifierFromProperties(workerProperties, engines);
+            AliquotScanner aliquotScanner = WorkerEngines.aliquotScannerFromProperties(workerProperties, engines);
+            WorkerStrategy defaultStrategy = WorkerStrategy.fromName(workerProperties.getProperty("Worker.Strategy"), WorkerStrategy.FULL);
+            WorkerCapabilities capabilities = WorkerEngines.capabilitiesFromProperties(workerProperties, engines);
+            WorkerServiceI servant = new WorkerServiceI(engines, wideEngines, classifier, aliquotScanner, defaultStrategy,
+                    workerProperties.getPropertyAsIntWithDefault("Worker.CrossCheck.Window", 0));
+            workerServants.add(servant);
+            WorkerServicePrx workerProxy = WorkerServicePrx.uncheckedCast(adapter.addWithUUID(servant));
+            adapter.activate();
+            MasterServicePrx master = MasterServicePrx.checkedCast(communicator.stringToProxy(masterProxy));
+            WorkerApp.register(master, workerProxy, capabilities);
+            WorkerApp.startLeaseRenewal(master, workerProxy, capabilities, workerProperties.getPropertyAsIntWithDefault("Worker.LeaseRenewalMillis", 5000));
+            console.println(LOG_PREFIX + " Worker " + i + "/" + settings.workers + " en esta JVM (" + capabilities.parallelism + " hilo(s), " +
+                    String.format("%.0f", capabilities.benchmarkScore) + " números/s en la autoprueba).");
+        }
+        awaitWorkers(console);
+    }
+
+    private void startProcesses(Properties properties, String masterEndpoints, PrintStream console) throws IOException, InterruptedException {
+        Path logDir = Paths.get(settings.logDir);
+        Files.createDirectories(logDir);
+        // Cada hijo recibe sus propiedades en un archivo (--Ice.Config), que se carga encima de master/worker.properties
+        processes.add(launch("com.example.master.MasterApp", masterOverrides(properties, masterEndpoints), logDir, "master"));
+        console.println(LOG_PREFIX + " Maestro en un proceso hijo: " + masterEndpoints + " (log: " + logDir.resolve("master.log") + ")");
+        awaitMaster();
+
+        Map<String, String> workerOverrides = overrides(properties, "Worker.");
+        workerOverrides.put("WorkerAdapter.Endpoints", "tcp -h " + settings.host);
+        workerOverrides.put("MasterService.Proxy", masterProxy);
+        for (int i = 1; i <= settings.workers; i++) {
+            processes.add(launch("com.example.worker.WorkerApp", workerOverrides, logDir, "worker-" + i));
+        }
+        console.println(LOG_PREFIX + " " + settings.workers + " worker(s) en procesos hijos (logs en " + logDir + ")");
+        awaitWorkers(console);
+    }
+
+    /**
+     * Lanza mainClass en una JVM hija con el classpath de esta (incluye master, worker e Ice).
+     */
+    private static Process launch(String mainClass, Map<String, String> overrides, Path logDir, String name) throws IOException {
+        Path config = logDir.resolve(name + ".properties");
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(config, StandardCharsets.ISO_8859_1))) {
+            writer.println("# Generado por la prueba de carga: se carga encima de la configuración del nodo");
+            overrides.forEach((key, value) -> writer.println(key + "=" + value));
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            command.add("--add-modules"); // La criba vectorizada de los workers, si esta JVM la tiene
+            command.add("jdk.incubator.vector");
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass);
+        command.add("--Ice.Config=" + config.toAbsolutePath());
+        File log = logDir.resolve(name + ".log").toFile();
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+    }
+
+    private void awaitMaster() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + settings.startupTimeoutSeconds * 1000;
+        Communicator communicator = initialize(Util.createProperties());
+        while (true) {
+            try {
+                communicator.stringToProxy(masterProxy).ice_ping();
+                return;
+            } catch (LocalException e) {
+                checkProcesses();
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("El Maestro no respondió en " + settings.startupTimeoutSeconds + " s (LoadTest.StartupTimeoutSeconds)");
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Espera a que el Maestro tenga LoadTest.Workers workers activos.
+     */
+    private void awaitWorkers(PrintStream console) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + settings.startupTimeoutSeconds * 1000;
+        Communicator communicator = initialize(Util.createProperties());
+        MasterServicePrx master = MasterServicePrx.uncheckedCast(communicator.stringToProxy(masterProxy));
+        int active = 0;
+        while ((active = master.getActiveWorkerCount()) < settings.workers) {
+            checkProcesses();
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Solo " + active + " de " + settings.workers + " workers se registraron en " +
+                        settings.startupTimeoutSeconds + " s (LoadTest.StartupTimeoutSeconds)");
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+        console.println(LOG_PREFIX + " " + active + " worker(s) registrados con el Maestro.");
+    }
+
+    private void checkProcesses() {
+        for (Process process : processes) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Un nodo terminó antes de tiempo (código " + process.exitValue() + "); ver los logs en " + settings.logDir);
+            }
+        }
+    }
+
+    /**
+     * Detiene los nodos en proceso y los procesos hijos.
+     */
+    @Override
+    public void close() {
+        for (Process process : processes) {
+            process.destroy();
+        }
+        for (int i = communicators.size() - 1; i >= 0; i--) {
+            try {
+                communicators.get(i).destroy();
+            } catch (LocalException e) {
+                System.err.println(LOG_PREFIX + " Error al cerrar un Communicator: " + e.getMessage());
+            }
+        }
+        for (WorkerServiceI servant : workerServants) {
+            servant.shutdown();
+        }
+        for (Process process : processes) {
+            try {
+                process.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+    }
+}
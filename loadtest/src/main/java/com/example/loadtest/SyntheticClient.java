@@ -0,0 +1,199 @@
+// --- Archivo: loadtest/src/main/java/com/example/loadtest/SyntheticClient.java ---
+package com.example.loadtest;
+
+import com.zeroc.Ice.Communicator;
+import com.zeroc.Ice.Current;
+import com.zeroc.Ice.Identity;
+import com.zeroc.Ice.InitializationData;
+import com.zeroc.Ice.LocalException;
+import com.zeroc.Ice.ObjectAdapter;
+import com.zeroc.Ice.Properties;
+import com.zeroc.Ice.Util;
+import perfectNumbersApp.AliquotCycle;
+import perfectNumbersApp.ClientNotifier; // Interfaz generada por Slice para notificaciones del maestro
+import perfectNumbersApp.ClientNotifierPrx;
+import perfectNumbersApp.JobQueueFullException; // Cola del Maestro llena
+import perfectNumbersApp.MasterServicePrx;
+import perfectNumbersApp.PredicateResult;
+import perfectNumbersApp.Range;
+import perfectNumbersApp.UInt128;
+import perfectNumbersApp.WideRange;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Cliente sintético: pide búsquedas de perfectos al Maestro como el cliente JavaFX, sin UI. Tiene su propio Communicator
+ * (su propia conexión) y se identifica en el contexto 'client', así el reparto justo de la cola lo ve como un cliente más.
+ * Cada trabajo usa un ClientNotifier propio (identidad UUID), que se quita al llegar la notificación.
+ */
+final class SyntheticClient implements AutoCloseable {
+    private final String clientId;
+    private final Communicator communicator;
+    private final ObjectAdapter adapter;
+    private final MasterServicePrx master;
+    private final LoadTestSettings settings;
+
+    /**
+     * Trabajo a pedir.
+     */
+    static final class JobSpec {
+        final int index;
+        final long start;
+        final long end;
+        final String priority;
+        final int client;
+        final long arrivalNanos; // Desde el inicio de la fase (lazo abierto)
+
+        JobSpec(int index, long start, long end, String priority, int client, long arrivalNanos) {
+            this.index = index;
+            this.start = start;
+            this.end = end;
+            this.priority = priority;
+            this.client = client;
+            this.arrivalNanos = arrivalNanos;
+        }
+
+        long width() {
+            return end - start + 1;
+        }
+    }
+
+    /**
+     * Resultado de un pedido.
+     */
+    static final class JobOutcome {
+        enum Status { COMPLETED, REJECTED, FAILED }
+
+        final JobSpec job;
+        final Status status;
+        final long acceptMicros; // Envío -> respuesta de findPerfectNumbersInRange (el trabajo quedó en la cola)
+        final long latencyMicros; // Envío -> notificación del Maestro
+        final long[] perfectNumbers;
+        final String message; // Mensaje de estado del Maestro o error
+
+        JobOutcome(JobSpec job, Status status, long acceptMicros, long latencyMicros, long[] perfectNumbers, String message) {
+            this.job = job;
+            this.status = status;
+            this.acceptMicros = acceptMicros;
+            this.latencyMicros = latencyMicros;
+            this.perfectNumbers = perfectNumbers;
+            this.message = message;
+        }
+    }
+
+    SyntheticClient(int index, Properties properties, String masterProxy, LoadTestSettings settings) {
+        this.clientId = "loadtest-" + index;
+        this.settings = settings;
+        InitializationData initData = new InitializationData();
+        initData.properties = Util.createProperties();
+        properties.getPropertiesForPrefix("Ice.").forEach(initData.properties::setProperty);
+        communicator = Util.initialize(initData);
+        adapter = communicator.createObjectAdapterWithEndpoints("LoadTestClient-" + index, "tcp -h " + settings.host);
+        adapter.activate();
+        master = MasterServicePrx.uncheckedCast(communicator.stringToProxy(masterProxy));
+    }
+
+    MasterServicePrx getMaster() {
+        return master;
+    }
+
+    /**
+     * Pide el trabajo sin bloquear.
+     * @return se completa con la notificación del Maestro, el rechazo por cola llena, un error o el timeout
+     *         (LoadTest.JobTimeoutSeconds); nunca de forma excepcional
+     */
+    CompletableFuture<JobOutcome> submit(JobSpec job) {
+        long sentAt = System.nanoTime();
+        OneShotNotifier notifier = new OneShotNotifier();
+        Identity identity;
+        try {
+            identity = adapter.addWithUUID(notifier).ice_getIdentity();
+        } catch (LocalException e) {
+            return CompletableFuture.completedFuture(new JobOutcome(job, JobOutcome.Status.FAILED, 0, 0, null, e.getClass().getSimpleName()));
+        }
+        Map<String, String> context = new HashMap<>();
+        context.put("client", clientId);
+        context.put("priority", job.priority);
+        CompletableFuture<JobOutcome> outcome = new CompletableFuture<>();
+        master.findPerfectNumbersInRangeAsync(new Range(job.start, job.end), ClientNotifierPrx.uncheckedCast(adapter.createProxy(identity)),
+                settings.workersPerJob, context).whenComplete((ignored, error) -> {
+            long acceptMicros = (System.nanoTime() - sentAt) / 1000;
+            if (error == null) {
+                notifier.acceptMicros = acceptMicros;
+                return;
+            }
+            Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+            outcome.complete(new JobOutcome(job, (cause instanceof JobQueueFullException) ? JobOutcome.Status.REJECTED : JobOutcome.Status.FAILED,
+                    acceptMicros, 0, null, cause.getClass().getSimpleName()));
+        });
+        notifier.result.orTimeout(settings.jobTimeoutSeconds, TimeUnit.SECONDS).whenComplete((perfects, error) -> {
+            long latencyMicros = (System.nanoTime() - sentAt) / 1000;
+            if (error == null) {
+                long accept = notifier.acceptMicros;
+                outcome.complete(new JobOutcome(job, JobOutcome.Status.COMPLETED, (accept < 0) ? latencyMicros : accept, latencyMicros, perfects, notifier.statusMessage));
+            } else {
+                outcome.complete(new JobOutcome(job, JobOutcome.Status.FAILED, 0, latencyMicros, null,
+                        (error instanceof TimeoutException) ? "sin notificación en " + settings.jobTimeoutSeconds + " s" : error.toString()));
+            }
+        });
+        // Rechazado, fallido o notificado: el notificador ya no hace falta
+        return outcome.whenComplete((result, error) -> {
+            notifier.result.cancel(false);
+            try {
+                adapter.remove(identity);
+            } catch (LocalException e) {
+                // Adapter ya destruido al terminar la prueba
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        communicator.destroy();
+    }
+
+    /**
+     * ClientNotifier de un solo trabajo: completa result con los perfectos notificados.
+     */
+    private static final class OneShotNotifier implements ClientNotifier {
+        final CompletableFuture<long[]> result = new CompletableFuture<>();
+        volatile long acceptMicros = -1; // -1 hasta que llega la respuesta de findPerfectNumbersInRange
+        volatile String statusMessage;
+
+        @Override
+        public CompletionStage<Void> notifyJobCompletionAsync(Range originalRange, long[] perfectNumbers, String statusMessage,
+                                                             long elapsedTimeMillis, Current current) {
+            this.statusMessage = statusMessage;
+            result.complete(perfectNumbers);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletionStage<Void> notifyWideJobCompletionAsync(WideRange originalRange, UInt128[] perfectNumbers, String statusMessage,
+                                                                 long elapsedTimeMillis, Current current) {
+            return unexpected();
+        }
+
+        @Override
+        public CompletionStage<Void> notifyClassificationCompletionAsync(Range originalRange, PredicateResult[] results, String statusMessage,
+                                                                        long elapsedTimeMillis, Current current) {
+            return unexpected();
+        }
+
+        @Override
+        public CompletionStage<Void> notifyAliquotCompletionAsync(Range originalRange, AliquotCycle[] cycles, String statusMessage,
+                                                                 long elapsedTimeMillis, Current current) {
+            return unexpected();
+        }
+
+        private CompletionStage<Void> unexpected() {
+            result.completeExceptionally(new IllegalStateException("notificación de otro tipo de trabajo"));
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
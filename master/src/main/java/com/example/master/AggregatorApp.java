@@ -0,0 +1,104 @@
+// --- Archivo: master/src/main/java/com/example/master/AggregatorApp.java ---
+package com.example.master;
+
+import com.zeroc.Ice.*; // Clases principales de Ice: Communicator, ObjectAdapter, etc
+import perfectNumbersApp.MasterServicePrx; // Maestro padre
+import perfectNumbersApp.WorkerCapabilities; // Capacidad conjunta que se anuncia al padre
+import perfectNumbersApp.WorkerServicePrx; // Este agregador, visto por el padre como un worker
+import java.lang.Exception;
+import java.util.Arrays; // Para mostrar los endpoints como String
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService; // Registro y renovación del lease con el padre
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clase principal de un agregador (sub-maestro) del modo jerárquico.
+ * Expone un MasterService propio, donde se registran sus workers (o agregadores de un nivel más abajo), y un
+ * WorkerService (AggregatorServiceI) con el que se registra en el Maestro padre anunciando la capacidad conjunta
+ * de sus workers. La configuración sale de aggregator.properties.
+ */
+public class AggregatorApp {
+    public static void main(String[] args) {
+        System.out.println("[AGREGADOR-APP] Iniciando agregador...");
+        // Inicializar Ice con configuración de aggregator.properties
+        try (Communicator communicator = Util.initialize(args, "aggregator.properties")) {
+            System.out.println("[AGREGADOR-APP] Communicator Ice inicializado.");
+            // Ice solo toma de la línea de comandos las opciones --Ice.*; estas (--Master.*, --Aggregator.*, --AggregatorAdapter.*) se aplican aquí,
+            // antes de crear el adaptador, encima del archivo de configuración
+            communicator.getProperties().parseCommandLineOptions("Master", args);
+            communicator.getProperties().parseCommandLineOptions("Aggregator", args);
+            communicator.getProperties().parseCommandLineOptions("AggregatorAdapter", args);
+            ObjectAdapter adapter = communicator.createObjectAdapter("AggregatorAdapter");
+            System.out.println("[AGREGADOR-APP] ObjectAdapter 'AggregatorAdapter' creado.");
+
+            // Maestro local: sus workers se registran con la identidad 'MasterService', igual que con el Maestro raíz
+            MasterServiceI localMaster = new MasterServiceI(adapter, communicator);
+            adapter.add(localMaster, Util.stringToIdentity("MasterService"));
+            // WorkerService que ve el padre
+            WorkerServicePrx aggregatorPrx = WorkerServicePrx.uncheckedCast(adapter.addWithUUID(new AggregatorServiceI(localMaster)));
+
+            adapter.activate();
+            System.out.println("[AGREGADOR] Agregador iniciado y escuchando en endpoints: " + Arrays.toString(adapter.getEndpoints()));
+
+            // Proxy al Maestro padre (el Maestro raíz u otro agregador)
+            ObjectPrx baseParentPrx = communicator.propertyToProxy("Aggregator.Parent.Proxy");
+            if (baseParentPrx == null) {
+                System.err.println("[AGREGADOR-APP] ERROR: Aggregator.Parent.Proxy no está en aggregator.properties. El agregador no se registrará con ningún padre.");
+            } else {
+                MasterServicePrx parentPrx = MasterServicePrx.uncheckedCast(baseParentPrx);
+                System.out.println("[AGREGADOR-APP] Maestro padre: " + parentPrx.toString().split("\n")[0]);
+                startParentRegistration(parentPrx, aggregatorPrx, localMaster,
+                        communicator.getProperties().getPropertyAsIntWithDefault("Aggregator.LeaseRenewalMillis", 5000));
+            }
+
+            // Mantener la aplicación viva hasta que se cierre el communicator
+            System.out.println("[AGREGADOR] Esperando shutdown...");
+            communicator.waitForShutdown();
+            System.out.println("[AGREGADOR] Agregador finalizado después de waitForShutdown.");
+
+        } catch (InitializationException e) {
+            System.err.println("[AGREGADOR-APP] FATAL - Error de inicialización de Ice: " + e.getMessage());
+            e.printStackTrace();
+        } catch (LocalException e) {
+            System.err.println("[AGREGADOR-APP] FATAL - Error local de Ice: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("[AGREGADOR-APP] FATAL - Error inesperado: " + e.getMessage());
+            e.printStackTrace();
+        }
+        System.out.println("[AGREGADOR-APP] Agregador terminando.");
+    }
+
+    /**
+     * Cada renewalMillis (hilo daemon): se registra con el padre en cuanto tiene al menos un worker, y de nuevo cada vez
+     * que cambia la cantidad de workers (para anunciar la nueva capacidad conjunta); si no, renueva el lease.
+     * Si el padre ya no lo tiene registrado, se registra otra vez en la siguiente vuelta.
+     */
+    private static void startParentRegistration(MasterServicePrx parentPrx, WorkerServicePrx aggregatorPrx, MasterServiceI localMaster,
+                                                long renewalMillis) {
+        ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "aggregator-parent-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int[] announcedWorkers = {0}; // Workers anunciados en el último registro (0 = sin registrar)
+        renewer.scheduleWithFixedDelay(() -> {
+            try {
+                int workers = localMaster.getRelayWorkerCount();
+                if (workers > 0 && workers != announcedWorkers[0]) {
+                    WorkerCapabilities capabilities = localMaster.getRelayCapabilities();
+                    parentPrx.registerWorkerWithCapabilities(aggregatorPrx, capabilities);
+                    announcedWorkers[0] = workers;
+                    System.out.println("[AGREGADOR-APP] Registrado con el Maestro padre: " + workers + " worker(s), " + capabilities.cores + " núcleo(s), " +
+                            String.format("%.0f", capabilities.benchmarkScore) + " números/s en las autopruebas.");
+                } else if (announcedWorkers[0] > 0 && parentPrx.renewLease(aggregatorPrx) == 0) {
+                    System.out.println("[AGREGADOR-APP] El Maestro padre ya no tenía registrado a este agregador. Registrando de nuevo.");
+                    announcedWorkers[0] = 0;
+                }
+            } catch (LocalException e) {
+                // Padre caído o inalcanzable: se reintenta en la próxima vuelta
+                System.err.println("[AGREGADOR-APP] No se pudo registrar o renovar el lease con el Maestro padre: " + e.getClass().getSimpleName());
+            }
+        }, 0, Math.max(100, renewalMillis), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,50 @@
+// --- Archivo: master/src/main/java/com/example/master/AggregatorServiceI.java ---
+package com.example.master;
+
+import com.zeroc.Ice.Current; // Contexto de la petición del Maestro padre
+import perfectNumbersApp.*; // Clases generadas por ICE
+import java.util.concurrent.CompletionStage;
+
+/**
+ * WorkerService de un agregador (sub-maestro). El Maestro padre lo ve como un worker más, de alta capacidad;
+ * cada subrango que recibe se reparte entre los workers registrados en este nodo con el mismo planificador
+ * del Maestro (MasterServiceI) y el resultado consolidado vuelve al MasterController del padre con su workerId.
+ * Encadenando agregadores se forma un árbol en el que ningún nodo atiende más de Master.MaxWorkersPerJob hijos.
+ */
+public class AggregatorServiceI implements WorkerService {
+    private final MasterServiceI localMaster; // Maestro de este nodo: registro de sus workers, planificador y resultados
+
+    /**
+     * @param localMaster Maestro de este nodo, donde se registran sus workers
+     */
+    public AggregatorServiceI(MasterServiceI localMaster) {
+        this.localMaster = localMaster;
+    }
+
+    @Override
+    public CompletionStage<Void> processSubRangeAsync(Range subRangeToProcess, MasterControllerPrx masterCallbackProxy, String workerJobId, Current current) {
+        return localMaster.relaySubRange(subRangeToProcess, masterCallbackProxy, workerJobId, current.ctx);
+    }
+
+    @Override
+    public CompletionStage<Void> processWideSubRangeAsync(WideRange subRangeToProcess, MasterControllerPrx masterCallbackProxy, String workerJobId, Current current) {
+        return localMaster.relayWideSubRange(subRangeToProcess, masterCallbackProxy, workerJobId, current.ctx);
+    }
+
+    @Override
+    public CompletionStage<Void> classifySubRangeAsync(Range subRangeToProcess, PredicateQuery[] predicates, boolean countsOnly,
+                                                       MasterControllerPrx masterCallbackProxy, String workerJobId, Current current) {
+        return localMaster.relayClassification(subRangeToProcess, predicates, countsOnly, masterCallbackProxy, workerJobId, current.ctx);
+    }
+
+    @Override
+    public CompletionStage<Void> scanAliquotSubRangeAsync(Range subRangeToProcess, long maxPartner, MasterControllerPrx masterCallbackProxy,
+                                                          String workerJobId, Current current) {
+        return localMaster.relayAliquotScan(subRangeToProcess, maxPartner, masterCallbackProxy, workerJobId, current.ctx);
+    }
+
+    @Override
+    public CompletionStage<long[]> lookupAliquotSumsAsync(long[] numbers, Current current) {
+        return localMaster.relayAliquotLookup(numbers, current.ctx);
+    }
+}
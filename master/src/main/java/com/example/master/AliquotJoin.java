@@ -0,0 +1,192 @@
+// --- Archivo: master/src/main/java/com/example/master/AliquotJoin.java ---
+package com.example.master;
+
+import perfectNumbersApp.Range; // Subrango de cada worker (dueño de sus números)
+import perfectNumbersApp.WorkerServicePrx; // Worker al que se consulta s(x)
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Segunda etapa de la búsqueda de ciclos alícuotas: une los candidatos (n, s(n)) de todos los workers.
+ * Cada candidato es el posible menor miembro de un ciclo; la cadena n -> s(n) -> s(s(n)) -> ... se sigue
+ * por rondas. En cada ronda se juntan los valores de todas las cadenas vivas, sin repetir, se agrupan por el
+ * worker dueño del subrango donde caen y se le piden en lotes (lookupAliquotSums) en paralelo.
+ * Una cadena se descarta si baja de n (n no sería el menor), sale del rango del trabajo o supera la longitud máxima.
+ * El camino de cada cadena se guarda como punteros a la ronda anterior, así que la memoria por ronda es lineal.
+ */
+final class AliquotJoin {
+    private final List<Range> subRanges; // Subrangos en orden ascendente
+    private final List<WorkerServicePrx> owners; // Worker dueño de cada subrango
+    private final int lookupBatchSize; // Números por consulta a un worker
+    private final String logPrefix; // "[Master-xxxx] (Job-yyyyy)"
+    private long lookupCount; // Números consultados en total (sin repetidos por ronda)
+    private long lookupBatches; // Llamadas lookupAliquotSums realizadas
+
+    /**
+     * @param subRanges       subrangos (chunks) despachados, en orden ascendente
+     * @param owners          worker al que se despachó cada subrango (misma posición)
+     * @param lookupBatchSize máximo de números por llamada (acotado por Ice.MessageSizeMax)
+     * @param logPrefix       prefijo de los logs
+     */
+    AliquotJoin(List<Range> subRanges, List<WorkerServicePrx> owners, int lookupBatchSize, String logPrefix) {
+        this.subRanges = subRanges;
+        this.owners = owners;
+        this.lookupBatchSize = Math.max(1, lookupBatchSize);
+        this.logPrefix = logPrefix;
+    }
+
+    /**
+     * @param candidates     aristas aplanadas {n0, s0, n1, s1, ...} con n < s(n) <= jobEnd
+     * @param jobEnd         fin del rango del trabajo (ningún miembro puede pasarlo)
+     * @param maxCycleLength longitud máxima de ciclo (>= 2)
+     * @return ciclos encontrados, cada uno en orden de la sucesión empezando por su menor miembro, ordenados por él
+     */
+    List<long[]> findCycles(long[] candidates, long jobEnd, int maxCycleLength) {
+        int chainCount = candidates.length / 2;
+        // Ronda 1: valor actual = s(n) de cada candidato
+        long[] starts = new long[chainCount];
+        long[] values = new long[chainCount];
+        for (int i = 0; i < chainCount; i++) {
+            starts[i] = candidates[2 * i];
+            values[i] = candidates[2 * i + 1];
+        }
+        // history.get(r) = valores de la ronda r; parents.get(r) = posición de cada uno en la ronda r - 1
+        List<long[]> history = new ArrayList<>();
+        List<int[]> parents = new ArrayList<>();
+        history.add(starts);
+        parents.add(null);
+        history.add(values);
+        parents.add(null); // La ronda 1 está alineada con la ronda 0
+
+        List<long[]> cycles = new ArrayList<>();
+        for (int round = 1; round < maxCycleLength && values.length > 0; round++) {
+            long[] sums = lookup(values);
+            System.out.println(logPrefix + " Ronda " + round + " de la unión: " + values.length + " cadena(s) vivas, " + lookupCount +
+                    " consulta(s) acumuladas en " + lookupBatches + " lote(s).");
+
+            int[] nextParents = new int[values.length];
+            long[] nextValues = new long[values.length];
+            long[] nextStarts = new long[values.length];
+            int survivors = 0;
+            for (int i = 0; i < values.length; i++) {
+                long next = sums[i];
+                // σ(x) desbordado llega como -1 (menor que starts[i]) o, desde workers anteriores, como Long.MAX_VALUE: la cadena se descarta
+                if (next == starts[i]) {
+                    cycles.add(reconstruct(history, parents, round, i));
+                } else if (next > starts[i] && next <= jobEnd && next != values[i] && next != Long.MAX_VALUE && round + 1 < maxCycleLength) {
+                    nextParents[survivors] = i;
+                    nextValues[survivors] = next;
+                    nextStarts[survivors] = starts[i];
+                    survivors++;
+                }
+            }
+            values = Arrays.copyOf(nextValues, survivors);
+            starts = Arrays.copyOf(nextStarts, survivors);
+            history.add(values);
+            parents.add(Arrays.copyOf(nextParents, survivors));
+        }
+        cycles.sort((a, b) -> Long.compare(a[0], b[0]));
+        System.out.println(logPrefix + " Unión terminada: " + cycles.size() + " ciclo(s). Consultas: " + lookupCount + " en " + lookupBatches + " lote(s).");
+        return cycles;
+    }
+
+    /**
+     * Recorre los punteros desde la cadena index de la ronda round hasta el candidato original.
+     * @return miembros del ciclo en orden: n, s(n), ..., valor de la ronda round
+     */
+    private static long[] reconstruct(List<long[]> history, List<int[]> parents, int round, int index) {
+        long[] members = new long[round + 1];
+        int position = index;
+        for (int r = round; r >= 0; r--) {
+            members[r] = history.get(r)[position];
+            int[] parent = parents.get(r);
+            if (parent != null) {
+                position = parent[position];
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Obtiene s(x) de cada valor consultando al worker dueño de x. Cada valor distinto se consulta una sola vez.
+     * @return s(x) alineado con values
+     */
+    private long[] lookup(long[] values) {
+        long[] distinct = values.clone();
+        Arrays.sort(distinct);
+        int distinctCount = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[i - 1]) {
+                distinct[distinctCount++] = distinct[i];
+            }
+        }
+        distinct = Arrays.copyOf(distinct, distinctCount);
+        lookupCount += distinctCount;
+
+        // distinct está ordenado: los valores de cada subrango son un tramo contiguo.
+        // Un valor en un hueco (chunk que nunca se procesó) se consulta al dueño del subrango anterior
+        long[] distinctSums = new long[distinctCount];
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        int owner = 0;
+        int from = 0;
+        while (from < distinctCount) {
+            while (owner + 1 < subRanges.size() && subRanges.get(owner + 1).start <= distinct[from]) {
+                owner++;
+            }
+            int to = from;
+            boolean lastOwner = owner + 1 >= subRanges.size();
+            while (to < distinctCount && (lastOwner || distinct[to] < subRanges.get(owner + 1).start)) {
+                to++;
+            }
+            for (int batchStart = from; batchStart < to; batchStart += lookupBatchSize) {
+                int batchEnd = Math.min(to, batchStart + lookupBatchSize);
+                pending.add(lookupBatch(owner, Arrays.copyOfRange(distinct, batchStart, batchEnd), distinctSums, batchStart));
+            }
+            from = to;
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+
+        long[] sums = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            sums[i] = distinctSums[Arrays.binarySearch(distinct, values[i])];
+        }
+        return sums;
+    }
+
+    /**
+     * Envía un lote al dueño; si falla, lo reintenta en los demás workers del trabajo (cualquiera puede calcular s(x)).
+     */
+    private CompletableFuture<Void> lookupBatch(int owner, long[] batch, long[] distinctSums, int offset) {
+        lookupBatches++;
+        return lookupWithFallback(owner, 0, batch)
+                .thenAccept(sums -> System.arraycopy(sums, 0, distinctSums, offset, sums.length));
+    }
+
+    /**
+     * Consulta el lote al worker (owner + attempt) % owners.size(). Los reintentos se encadenan de forma asíncrona
+     * (handle + thenCompose): nunca se bloquea el hilo de Ice que completa la respuesta anterior.
+     * @return s(x) del lote, o un futuro fallido si ningún worker respondió
+     */
+    private CompletableFuture<long[]> lookupWithFallback(int owner, int attempt, long[] batch) {
+        int worker = (owner + attempt) % owners.size();
+        return owners.get(worker).lookupAliquotSumsAsync(batch)
+                .handle((sums, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.completedFuture(sums);
+                    }
+                    if (attempt == 0) {
+                        System.err.println(logPrefix + " Consulta al dueño del subrango " + (owner + 1) + " falló (" + error + "). Reintentando en otro worker.");
+                    } else {
+                        System.err.println(logPrefix + " Reintento en el worker " + (worker + 1) + " falló: " + error);
+                    }
+                    if (attempt + 1 >= owners.size()) {
+                        return CompletableFuture.<long[]>failedFuture(
+                                new IllegalStateException("Ningún worker respondió la consulta de " + batch.length + " número(s)"));
+                    }
+                    return lookupWithFallback(owner, attempt + 1, batch);
+                })
+                .thenCompose(next -> next);
+    }
+}
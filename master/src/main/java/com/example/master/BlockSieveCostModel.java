@@ -0,0 +1,34 @@
+// --- Archivo: master/src/main/java/com/example/master/BlockSieveCostModel.java ---
+package com.example.master;
+
+/**
+ * Criba segmentada de la suma de divisores (motor 'sieve' de los workers).
+ * Un bloque de L números que termina cerca de n recorre los divisores d <= √n: hace L/d sumas por divisor
+ * (≈ L·ln√n en total) y una división para ubicar el primer múltiplo de cada uno (≈ √n por bloque).
+ * Por número: 1 (comparación final) + ln(n)/2 (sumas) + DIVISION_COST·√n/L (divisiones repartidas en el bloque).
+ * F(n) = n + (n·ln n - n)/2 + DIVISION_COST·(2/3)·n^(3/2)/L.
+ */
+final class BlockSieveCostModel implements CostModel {
+    static final String NAME = "sieve";
+    static final double DIVISION_COST = 8.0; // Una división de 64 bits frente a una suma en el ciclo interno
+
+    private final int blockSize; // L: números por bloque de la criba del worker
+
+    /**
+     * @param blockSize tamaño de bloque de la criba de los workers
+     */
+    BlockSieveCostModel(int blockSize) {
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    @Override
+    public String getName() {
+        return NAME + "(L=" + blockSize + ")";
+    }
+
+    @Override
+    public double cumulative(double n) {
+        double x = Math.max(n, 1.0);
+        return x + 0.5 * (x * Math.log(x) - x) + DIVISION_COST * (2.0 / 3.0) * x * Math.sqrt(x) / blockSize;
+    }
+}
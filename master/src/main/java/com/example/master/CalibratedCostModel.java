@@ -0,0 +1,103 @@
+// --- Archivo: master/src/main/java/com/example/master/CalibratedCostModel.java ---
+package com.example.master;
+
+/**
+ * Modelo calibrado con los tiempos reales de los chunks: ajusta una ley de potencia
+ * costo(n) = a·n^b (ms por número) por mínimos cuadrados sobre log(ms por número) vs log(punto medio)
+ * de las últimas MAX_SAMPLES observaciones. Mientras no haya suficientes muestras (o todas caigan en la
+ * misma zona del eje), delega en el modelo base. F(n) = a·n^(b+1)/(b+1), o a·ln n si b = -1.
+ */
+final class CalibratedCostModel implements CostModel {
+    static final String NAME = "calibrated";
+    static final int MAX_SAMPLES = 256; // Observaciones recientes que se conservan
+    static final int MIN_SAMPLES = 3; // Muestras necesarias para ajustar
+    static final double MIN_LOG_SPREAD = 0.1; // Dispersión mínima de log(n) entre muestras (≈ 10 %)
+
+    private final CostModel fallback; // Modelo usado mientras no hay ajuste
+    private final double[] logMidpoints = new double[MAX_SAMPLES];
+    private final double[] logMillisPerNumber = new double[MAX_SAMPLES];
+    private int sampleCount; // Muestras válidas (hasta MAX_SAMPLES)
+    private int nextSample; // Posición circular de la próxima muestra
+    private volatile double[] fit; // {a, b} del último ajuste, o null
+
+    /**
+     * @param fallback modelo que se usa hasta tener suficientes observaciones
+     */
+    CalibratedCostModel(CostModel fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public String getName() {
+        double[] current = fit;
+        if (current == null) {
+            return NAME + "(sin ajuste, usando " + fallback.getName() + ")";
+        }
+        return String.format("%s(%.3g·n^%.3f ms)", NAME, current[0], current[1]);
+    }
+
+    @Override
+    public boolean isInMillis() {
+        return fit != null;
+    }
+
+    @Override
+    public double cumulative(double n) {
+        double[] current = fit;
+        if (current == null) {
+            return fallback.cumulative(n);
+        }
+        double x = Math.max(n, 1.0);
+        double exponent = current[1] + 1.0;
+        if (Math.abs(exponent) < 1e-9) {
+            return current[0] * Math.log(x);
+        }
+        return current[0] * Math.pow(x, exponent) / exponent;
+    }
+
+    /**
+     * Agrega una observación y recalcula el ajuste. Los tiempos de 0 ms no aportan información y se descartan.
+     */
+    @Override
+    public synchronized void observe(long start, long end, long millis) {
+        long first = Math.max(start, 1L);
+        if (millis <= 0 || end < first) {
+            return;
+        }
+        double count = (double) end - first + 1;
+        double midpoint = first + (count - 1) / 2.0;
+        logMidpoints[nextSample] = Math.log(Math.max(midpoint, 1.0));
+        logMillisPerNumber[nextSample] = Math.log(millis / count);
+        nextSample = (nextSample + 1) % MAX_SAMPLES;
+        sampleCount = Math.min(sampleCount + 1, MAX_SAMPLES);
+        refit();
+    }
+
+    private void refit() {
+        if (sampleCount < MIN_SAMPLES) {
+            return;
+        }
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            meanX += logMidpoints[i];
+            meanY += logMillisPerNumber[i];
+        }
+        meanX /= sampleCount;
+        meanY /= sampleCount;
+        double sxx = 0;
+        double sxy = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            double dx = logMidpoints[i] - meanX;
+            sxx += dx * dx;
+            sxy += dx * (logMillisPerNumber[i] - meanY);
+        }
+        if (Math.sqrt(sxx / sampleCount) < MIN_LOG_SPREAD) {
+            return; // Todas las muestras en la misma zona: el exponente no está determinado
+        }
+        // El exponente se acota a algo físicamente razonable (entre costo decreciente 1/n y n²)
+        double b = Math.max(-1.0, Math.min(2.0, sxy / sxx));
+        double a = Math.exp(meanY - b * meanX);
+        fit = new double[]{a, b};
+    }
+}
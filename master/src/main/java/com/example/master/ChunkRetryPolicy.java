@@ -0,0 +1,59 @@
+// --- Archivo: master/src/main/java/com/example/master/ChunkRetryPolicy.java ---
+package com.example.master;
+
+import com.zeroc.Ice.Properties; // Configuración del maestro (master.properties)
+
+/**
+ * Reasignación de chunks fallidos: un chunk cuyo worker no lo recibió, falló o no respondió a tiempo
+ * vuelve a la cola y lo toma otro worker sano, hasta maxRetries veces. Solo si se agotan los reintentos
+ * (o no queda ningún worker sano) el chunk se cierra sin resultado y el trabajo termina con cobertura parcial.
+ */
+final class ChunkRetryPolicy {
+    private final int maxRetries; // Reintentos por chunk
+    private final long chunkTimeoutMillis; // Tiempo máximo en curso de un intento (0 = sin límite)
+    private final long checkIntervalMillis; // Cada cuánto ChunkScheduler revisa los chunks en curso
+
+    /**
+     * @param maxRetries          reintentos por chunk (0 = no reasignar)
+     * @param chunkTimeoutMillis  tiempo máximo en curso de un intento; al pasarlo el worker se da por perdido (0 = sin límite)
+     * @param checkIntervalMillis período de revisión de los chunks en curso (timeouts y rezagados)
+     */
+    ChunkRetryPolicy(int maxRetries, long chunkTimeoutMillis, long checkIntervalMillis) {
+        this.maxRetries = Math.max(0, maxRetries);
+        this.chunkTimeoutMillis = Math.max(0, chunkTimeoutMillis);
+        this.checkIntervalMillis = Math.max(10, checkIntervalMillis);
+    }
+
+    /**
+     * Lee Master.Retry.MaxRetries, Master.Retry.ChunkTimeoutSeconds y Master.Scheduler.CheckIntervalMillis.
+     */
+    static ChunkRetryPolicy fromProperties(Properties properties) {
+        return new ChunkRetryPolicy(
+                properties.getPropertyAsIntWithDefault("Master.Retry.MaxRetries", 3),
+                properties.getPropertyAsIntWithDefault("Master.Retry.ChunkTimeoutSeconds", 300) * 1000L,
+                properties.getPropertyAsIntWithDefault("Master.Scheduler.CheckIntervalMillis", 250));
+    }
+
+    int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * @return true si un intento que lleva elapsedMillis en curso ya pasó el timeout
+     */
+    boolean isTimedOut(long elapsedMillis) {
+        return chunkTimeoutMillis > 0 && elapsedMillis > chunkTimeoutMillis;
+    }
+
+    long getCheckIntervalMillis() {
+        return checkIntervalMillis;
+    }
+
+    /**
+     * @return configuración (para el log de arranque)
+     */
+    String describe() {
+        return maxRetries + " reintento(s) por chunk, timeout por chunk " + (chunkTimeoutMillis > 0 ? chunkTimeoutMillis + " ms" : "desactivado") +
+                ", revisión cada " + checkIntervalMillis + " ms";
+    }
+}
@@ -0,0 +1,609 @@
+// --- Archivo: master/src/main/java/com/example/master/ChunkScheduler.java ---
+package com.example.master;
+
+import perfectNumbersApp.WorkerServicePrx; // Worker que recibe los chunks
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Planificador dinámico de un trabajo: el rango se corta en muchos chunks pequeños que se reparten
+ * a medida que los workers terminan, en lugar de un subrango fijo por worker. Cada worker mantiene
+ * hasta inFlightPerWorker chunks en curso para ocultar la latencia de las llamadas Ice; cuando
+ * MasterControllerI recibe el resultado de un chunk, ese worker recibe el siguiente de la cola.
+ * Un worker cuya llamada falla o que no responde a tiempo deja de recibir chunks y sus chunks en curso vuelven
+ * a la cola para otro worker sano, hasta ChunkRetryPolicy.getMaxRetries() veces; un chunk sin reintentos
+ * (o sin workers sanos) se da por fallido y el trabajo termina con la cobertura que informa describeCoverage.
+ * Los IDs de chunk empiezan con el jobLogId seguido de CHUNK_SEPARATOR: así MasterControllerI dirige cada resultado a su trabajo.
+ * Al final del trabajo, un chunk rezagado puede duplicarse en un worker ocioso (ver SpeculativeExecution); la copia usa
+ * el ID de chunk de su worker con BACKUP_SUFFIX, una reasignación agrega RETRY_SEPARATOR y su número, y el primer
+ * resultado de cualquiera de los intentos cierra el chunk.
+ * @param <R> tipo de rango de los chunks (Range o WideRange)
+ */
+final class ChunkScheduler<R> {
+    static final String CHUNK_SEPARATOR = "-C"; // jobLogId + "-C" + número de chunk + ...
+    static final String BACKUP_SUFFIX = "-B"; // Sufijo del ID de una copia de respaldo
+    static final String RETRY_SEPARATOR = "-R"; // ID de una reasignación: ID del chunk en su worker + "-R" + número de reintento
+    private static final int MISSING_CHUNKS_LISTED = 5; // Chunks sin resultado que se listan en el resumen de cobertura
+    // Revisión periódica de los chunks en curso de todos los trabajos (timeouts y rezagados)
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "master-chunk-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Envía un chunk a un worker.
+     * @param <R> tipo de rango
+     */
+    interface ChunkSender<R> {
+        /** @return la llamada Ice asíncrona (se completa con error si el worker no la recibió o falló al procesarla) */
+        CompletableFuture<?> send(WorkerServicePrx worker, R chunk, String chunkId);
+    }
+
+    /**
+     * Recibe el tiempo real de cada chunk completado (p. ej. para comparar con la estimación del modelo de costo
+     * o refrescar la capacidad del worker) y el de ida y vuelta del intento ganador (envío -> resultado).
+     * @param <R> tipo de rango
+     */
+    interface ChunkListener<R> {
+        void chunkCompleted(WorkerServicePrx worker, R chunk, String chunkId, long workerProcessingTimeMillis, long roundTripMillis);
+    }
+
+    /**
+     * Un envío de un chunk a un worker: el original, una reasignación o una copia de respaldo.
+     */
+    private static final class Attempt {
+        final int chunkIndex;
+        final int workerIndex;
+        final String attemptId; // workerId con el que el worker enviará el resultado
+        final long startedAt;
+        final boolean backup;
+
+        Attempt(int chunkIndex, int workerIndex, String attemptId, long startedAt, boolean backup) {
+            this.chunkIndex = chunkIndex;
+            this.workerIndex = workerIndex;
+            this.attemptId = attemptId;
+            this.startedAt = startedAt;
+            this.backup = backup;
+        }
+    }
+
+    /**
+     * Estado de un chunk despachado (los campos mutables se leen y escriben bajo el lock del objeto).
+     */
+    private static final class ChunkState {
+        final String chunkId; // ID del primer intento: identifica al chunk en JobState
+        final List<Attempt> live = new ArrayList<>(); // Intentos en curso
+        final List<Attempt> all = new ArrayList<>(); // Todos los intentos (el ganador puede ser uno abandonado)
+        int retries; // Reasignaciones hechas
+        boolean hasBackup;
+        boolean closed;
+        boolean succeeded;
+
+        ChunkState(String chunkId) {
+            this.chunkId = chunkId;
+        }
+    }
+
+    private final String jobLogId; // Prefijo de los IDs de chunk
+    private final JobState job; // Seguimiento de los chunks del trabajo
+    private final String logPrefix; // "[Master-xxxx] (Job-yyyyy)"
+    private final List<WorkerServicePrx> workers;
+    private final List<R> chunks; // Chunks en orden ascendente
+    private final int inFlightPerWorker; // Chunks en curso por worker
+    private final MasterControllerI controller; // Cierra como fallidos los chunks que no se pudieron completar
+    private final ChunkSender<R> sender;
+    private final Function<R, String> describer; // Texto del chunk para los logs
+    private final ChunkListener<R> listener; // Tiempos reales de los chunks completados
+    private final ChunkRetryPolicy retryPolicy; // Reintentos y timeout de los chunks
+    private final SpeculativeExecution speculation; // Copias de respaldo de los chunks rezagados
+    private final ConcurrentLinkedQueue<Integer> pending = new ConcurrentLinkedQueue<>(); // Índices por despachar
+    private final ConcurrentLinkedQueue<Integer> retryQueue = new ConcurrentLinkedQueue<>(); // Índices por reasignar (van antes que pending)
+    private final AtomicReferenceArray<ChunkState> states; // Estado de cada chunk desde su primer envío
+    private final Set<Integer> lostWorkers = ConcurrentHashMap.newKeySet(); // Índices de los workers que dejaron de responder
+    private final AtomicInteger[] completedPerWorker; // Chunks completados por cada worker (para el resumen)
+    private final AtomicInteger[] windowUsage; // Chunks en curso por worker (todos los intentos)
+    private final List<Long> completedDurations = Collections.synchronizedList(new ArrayList<>()); // Envío -> cierre (ms) del intento ganador
+    private final AtomicInteger completedChunks = new AtomicInteger();
+    private final AtomicInteger retriesDispatched = new AtomicInteger();
+    private final AtomicInteger backupsLaunched = new AtomicInteger();
+    private final AtomicInteger backupsWon = new AtomicInteger();
+    private final Set<Integer> overtakenWorkers = ConcurrentHashMap.newKeySet(); // Workers cuyo chunk ganó una copia (no reciben copias)
+    private final Set<String> overtakenAttempts = ConcurrentHashMap.newKeySet(); // Originales superados por su copia que aún no respondieron
+    private volatile long jobEndMillis; // Fin del trabajo (0 mientras está en curso)
+    private long tailSavedMillis; // Latencia de cola ahorrada medida (protegido por this)
+    private ScheduledFuture<?> watchdogCheck; // Revisión periódica de este trabajo
+
+    /**
+     * @param job               trabajo registrado en el controlador (su jobLogId es el prefijo de los IDs de chunk)
+     * @param logPrefix         prefijo de los logs
+     * @param workers           workers seleccionados para el trabajo
+     * @param chunks            chunks del trabajo, en orden
+     * @param inFlightPerWorker chunks simultáneos por worker (>= 1)
+     * @param controller        controlador que cierra los chunks fallidos
+     * @param sender            envío de un chunk a un worker
+     * @param describer         texto de un chunk para los logs
+     * @param listener          recibe el tiempo del worker de cada chunk completado
+     * @param retryPolicy       reintentos y timeout de los chunks
+     * @param speculation       política y métricas de las copias de respaldo
+     */
+    ChunkScheduler(JobState job, String logPrefix, List<WorkerServicePrx> workers, List<R> chunks, int inFlightPerWorker,
+                   MasterControllerI controller, ChunkSender<R> sender, Function<R, String> describer, ChunkListener<R> listener,
+                   ChunkRetryPolicy retryPolicy, SpeculativeExecution speculation) {
+        this.job = job;
+        this.jobLogId = job.getJobLogId();
+        this.logPrefix = logPrefix;
+        this.workers = workers;
+        this.chunks = chunks;
+        this.inFlightPerWorker = Math.max(1, inFlightPerWorker);
+        this.controller = controller;
+        this.sender = sender;
+        this.describer = describer;
+        this.listener = listener;
+        this.retryPolicy = retryPolicy;
+        this.speculation = speculation;
+        this.states = new AtomicReferenceArray<>(chunks.size());
+        this.completedPerWorker = new AtomicInteger[workers.size()];
+        this.windowUsage = new AtomicInteger[workers.size()];
+        for (int i = 0; i < workers.size(); i++) {
+            completedPerWorker[i] = new AtomicInteger();
+            windowUsage[i] = new AtomicInteger();
+        }
+        job.setLateResultListener(this::lateResult);
+        for (int i = 0; i < chunks.size(); i++) {
+            pending.add(i);
+        }
+    }
+
+    /**
+     * Llena la ventana de cada worker; el resto de los chunks se despacha a medida que se completan.
+     * En el llenado inicial el chunk k va al worker k % workers (cada ronda de chunks, un chunk por worker y en orden).
+     * El trabajo ya debe estar registrado para chunks.size() chunks.
+     */
+    void start() {
+        for (int slot = 0; slot < inFlightPerWorker; slot++) {
+            for (int w = 0; w < workers.size(); w++) {
+                dispatchNext(w);
+            }
+        }
+        long interval = retryPolicy.getCheckIntervalMillis();
+        watchdogCheck = WATCHDOG.scheduleWithFixedDelay(this::checkInFlight, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Termina el trabajo: detiene la revisión de los chunks en curso y cuenta el trabajo en las métricas de especulación.
+     * La latencia de cola ahorrada se sigue midiendo si el original superado de un chunk responde más tarde.
+     * @return resumen de reasignaciones y copias de respaldo para el mensaje final (vacío si no hubo)
+     */
+    String finish() {
+        if (watchdogCheck != null) {
+            watchdogCheck.cancel(false);
+        }
+        jobEndMillis = System.currentTimeMillis();
+        int launched = backupsLaunched.get();
+        speculation.jobFinished(launched);
+        StringBuilder summary = new StringBuilder();
+        if (retriesDispatched.get() > 0 || !lostWorkers.isEmpty()) {
+            summary.append("Reasignaciones: ").append(retriesDispatched.get()).append(" (").append(lostWorkers.size()).append(" worker(s) perdido(s)).");
+        }
+        if (launched > 0) {
+            summary.append(summary.length() > 0 ? " " : "").append("Copias de respaldo: ").append(launched).append(" lanzada(s), ").append(backupsWon.get()).append(" ganaron")
+                    .append(overtakenAttempts.isEmpty() ? "." : "; " + overtakenAttempts.size() + " original(es) superado(s) aún en curso.");
+            System.out.println(logPrefix + " Acumulado de especulación del maestro: " + speculation.describe());
+        }
+        return summary.toString();
+    }
+
+    /**
+     * @return resumen "chunks completados por worker" para el mensaje final
+     */
+    String describeDistribution() {
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < workers.size(); w++) {
+            sb.append(w > 0 ? ", " : "").append("W").append(w + 1).append('=').append(completedPerWorker[w].get());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Cobertura exacta del trabajo: números de los chunks con resultado sobre el total, y los chunks sin resultado
+     * (fallidos, nunca despachados o aún en curso al terminar la espera).
+     * @param counter cantidad de números de un chunk
+     * @return p. ej. "Cobertura: 100% (40000000 de 40000000 números, 32 de 32 chunks)."
+     */
+    String describeCoverage(Function<R, BigInteger> counter) {
+        BigInteger total = BigInteger.ZERO;
+        BigInteger covered = BigInteger.ZERO;
+        int coveredChunks = 0;
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            BigInteger size = counter.apply(chunks.get(i));
+            total = total.add(size);
+            ChunkState state = states.get(i);
+            boolean succeeded = false;
+            if (state != null) {
+                synchronized (state) {
+                    succeeded = state.succeeded;
+                }
+            }
+            if (succeeded) {
+                covered = covered.add(size);
+                coveredChunks++;
+            } else {
+                missing.add(describer.apply(chunks.get(i)));
+            }
+        }
+        // Porcentaje truncado (nunca "100%" si falta algún número)
+        BigDecimal percent = total.signum() == 0 ? BigDecimal.ZERO
+                : new BigDecimal(covered).multiply(BigDecimal.valueOf(100)).divide(new BigDecimal(total), 4, RoundingMode.DOWN).stripTrailingZeros();
+        StringBuilder sb = new StringBuilder("Cobertura: ").append(percent.toPlainString()).append("% (").append(covered).append(" de ").append(total)
+                .append(" números, ").append(coveredChunks).append(" de ").append(chunks.size()).append(" chunks)");
+        if (!missing.isEmpty()) {
+            sb.append("; sin resultado: ").append(String.join(", ", missing.subList(0, Math.min(MISSING_CHUNKS_LISTED, missing.size()))));
+            if (missing.size() > MISSING_CHUNKS_LISTED) {
+                sb.append(" y ").append(missing.size() - MISSING_CHUNKS_LISTED).append(" más");
+            }
+        }
+        return sb.append('.').toString();
+    }
+
+    /**
+     * @return jobLogId del trabajo al que pertenece un ID de chunk (el ID completo si no tiene el formato de chunk)
+     */
+    static String jobIdOf(String chunkId) {
+        int separator = chunkId.indexOf(CHUNK_SEPARATOR); // Los jobLogId (hex en minúsculas) no contienen "-C"
+        return (separator < 0) ? chunkId : chunkId.substring(0, separator);
+    }
+
+    /**
+     * Da al worker el siguiente chunk: primero los que esperan reasignación, después los nunca despachados.
+     */
+    private void dispatchNext(int workerIndex) {
+        while (!lostWorkers.contains(workerIndex)) {
+            Integer chunkIndex = retryQueue.poll();
+            boolean retry = chunkIndex != null;
+            if (!retry) {
+                chunkIndex = pending.poll();
+            }
+            if (chunkIndex == null) {
+                return; // No quedan chunks: la ventana de este worker se vacía
+            }
+            if (retry ? dispatchRetry(chunkIndex, workerIndex) : dispatchFirst(chunkIndex, workerIndex)) {
+                return;
+            }
+            // El chunk se cerró mientras esperaba (llegó el resultado de un intento abandonado): tomar el siguiente
+        }
+    }
+
+    private boolean dispatchFirst(int chunkIndex, int workerIndex) {
+        R chunk = chunks.get(chunkIndex);
+        String chunkId = chunkIdFor(chunkIndex, workerIndex);
+        ChunkState state = new ChunkState(chunkId);
+        Attempt attempt = new Attempt(chunkIndex, workerIndex, chunkId, System.currentTimeMillis(), false);
+        synchronized (state) {
+            state.live.add(attempt);
+            state.all.add(attempt);
+        }
+        states.set(chunkIndex, state);
+        windowUsage[workerIndex].incrementAndGet();
+
+        // Registrar antes de enviar: el resultado puede llegar antes de que send() retorne
+        job.trackChunk(chunkId).whenComplete((workerProcessingTimeMillis, error) -> chunkClosed(chunkIndex, workerProcessingTimeMillis, error));
+        System.out.println(logPrefix + " Enviando chunk " + (chunkIndex + 1) + "/" + chunks.size() + " " + describer.apply(chunk) + " a W" + (workerIndex + 1) +
+                " (ID: " + chunkId + ")");
+        send(attempt);
+        return true;
+    }
+
+    private boolean dispatchRetry(int chunkIndex, int workerIndex) {
+        ChunkState state = states.get(chunkIndex);
+        int retry;
+        synchronized (state) {
+            retry = state.retries;
+        }
+        Attempt attempt = new Attempt(chunkIndex, workerIndex, chunkIdFor(chunkIndex, workerIndex) + RETRY_SEPARATOR + retry, System.currentTimeMillis(), false);
+        if (!addAttempt(state, attempt)) {
+            return false;
+        }
+        retriesDispatched.incrementAndGet();
+        System.out.println(logPrefix + " Reasignando chunk " + (chunkIndex + 1) + "/" + chunks.size() + " " + describer.apply(chunks.get(chunkIndex)) + " a W" + (workerIndex + 1) +
+                " (reintento " + retry + "/" + retryPolicy.getMaxRetries() + ", ID: " + attempt.attemptId + ")");
+        send(attempt);
+        return true;
+    }
+
+    /**
+     * Agrega un intento a un chunk abierto (registrado en JobState antes de enviarlo).
+     * @return false si el chunk ya se cerró
+     */
+    private boolean addAttempt(ChunkState state, Attempt attempt) {
+        synchronized (state) {
+            if (state.closed || !job.trackAttempt(state.chunkId, attempt.attemptId)) {
+                return false;
+            }
+            state.live.add(attempt);
+            state.all.add(attempt);
+            windowUsage[attempt.workerIndex].incrementAndGet();
+            return true;
+        }
+    }
+
+    private String chunkIdFor(int chunkIndex, int workerIndex) {
+        String workerName = workers.get(workerIndex).ice_getIdentity().name;
+        return jobLogId + CHUNK_SEPARATOR + (chunkIndex + 1) + "-W" + (workerIndex + 1) + "-" + workerName.substring(0, Math.min(8, workerName.length()));
+    }
+
+    private void send(Attempt attempt) {
+        try {
+            sender.send(workers.get(attempt.workerIndex), chunks.get(attempt.chunkIndex), attempt.attemptId).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    workerLost(attempt.workerIndex, "ERROR en " + attempt.attemptId + ": " + error);
+                }
+            });
+        } catch (RuntimeException e) {
+            workerLost(attempt.workerIndex, "ERROR en " + attempt.attemptId + ": " + e);
+        }
+    }
+
+    /**
+     * Un chunk se cerró (con el primer resultado de sus intentos o fallido): libera la ventana de los workers
+     * que lo tenían y, si se completó, les da el siguiente chunk.
+     */
+    private void chunkClosed(int chunkIndex, Long workerProcessingTimeMillis, Throwable error) {
+        ChunkState state = states.get(chunkIndex);
+        String winningAttempt = job.winnerOf(state.chunkId);
+        List<Attempt> live;
+        Attempt winner = null;
+        boolean hadBackup;
+        synchronized (state) {
+            state.closed = true;
+            state.succeeded = (error == null);
+            live = new ArrayList<>(state.live);
+            state.live.clear();
+            hadBackup = state.hasBackup;
+            for (Attempt attempt : state.all) {
+                if (attempt.attemptId.equals(winningAttempt)) {
+                    winner = attempt;
+                }
+            }
+        }
+        for (Attempt attempt : live) {
+            windowUsage[attempt.workerIndex].decrementAndGet();
+        }
+        retryQueue.remove(chunkIndex);
+        if (error != null || winner == null) {
+            return; // Chunk fallido: sus workers ya dejaron de recibir chunks
+        }
+        long roundTripMillis = System.currentTimeMillis() - winner.startedAt;
+        completedDurations.add(roundTripMillis);
+        completedChunks.incrementAndGet();
+        if (hadBackup) {
+            speculation.backupFinished(winner.backup);
+            if (winner.backup) {
+                backupsWon.incrementAndGet();
+                for (Attempt attempt : live) {
+                    if (!attempt.backup) {
+                        overtakenWorkers.add(attempt.workerIndex);
+                        overtakenAttempts.add(attempt.attemptId);
+                    }
+                }
+            }
+            System.out.println(logPrefix + " Chunk " + (chunkIndex + 1) + ": " + (winner.backup ? "la copia" : "el original") + " en W" + (winner.workerIndex + 1) +
+                    " respondió primero (" + (System.currentTimeMillis() - winner.startedAt) + " ms desde su envío).");
+        }
+        completedPerWorker[winner.workerIndex].incrementAndGet();
+        Set<Integer> freedWorkers = new LinkedHashSet<>();
+        freedWorkers.add(winner.workerIndex);
+        for (Attempt attempt : live) {
+            freedWorkers.add(attempt.workerIndex);
+        }
+        freedWorkers.forEach(this::dispatchNext);
+        listener.chunkCompleted(workers.get(winner.workerIndex), chunks.get(chunkIndex), winner.attemptId, workerProcessingTimeMillis, roundTripMillis);
+    }
+
+    /**
+     * El worker no recibió un chunk, falló al procesarlo o no respondió a tiempo: deja de recibir chunks
+     * y todos sus intentos en curso se abandonan (sus chunks se reasignan si quedan reintentos).
+     */
+    private void workerLost(int workerIndex, String reason) {
+        if (!lostWorkers.add(workerIndex)) {
+            return; // Ya se manejó (p. ej. varias llamadas en curso fallan juntas)
+        }
+        System.err.println(logPrefix + " W" + (workerIndex + 1) + " perdido (" + reason + "). El worker no recibirá más chunks.");
+        for (int i = 0; i < chunks.size(); i++) {
+            ChunkState state = states.get(i);
+            if (state == null) {
+                continue;
+            }
+            List<Attempt> abandoned = new ArrayList<>();
+            synchronized (state) {
+                for (Attempt attempt : state.live) {
+                    if (attempt.workerIndex == workerIndex) {
+                        abandoned.add(attempt);
+                    }
+                }
+            }
+            abandoned.forEach(this::abandon);
+        }
+        if (lostWorkers.size() == workers.size()) {
+            // Ningún worker puede tomar los chunks que quedan: se cierran como fallidos para no esperar al timeout
+            Integer chunkIndex;
+            while ((chunkIndex = retryQueue.poll()) != null) {
+                controller.handleWorkerFailureOrNoTask(states.get(chunkIndex).chunkId);
+            }
+            while ((chunkIndex = pending.poll()) != null) {
+                String chunkId = jobLogId + CHUNK_SEPARATOR + (chunkIndex + 1);
+                job.trackChunk(chunkId);
+                controller.handleWorkerFailureOrNoTask(chunkId);
+            }
+        }
+    }
+
+    /**
+     * Abandona un intento en curso. Si era el único del chunk, el chunk vuelve a la cola (si le quedan reintentos y hay
+     * workers sanos) o se cierra sin resultado. Un resultado tardío del intento abandonado todavía cierra el chunk si llega primero.
+     */
+    private void abandon(Attempt attempt) {
+        ChunkState state = states.get(attempt.chunkIndex);
+        int retry = 0;
+        synchronized (state) {
+            if (state.closed || !state.live.remove(attempt)) {
+                return;
+            }
+            windowUsage[attempt.workerIndex].decrementAndGet();
+            if (!state.live.isEmpty()) {
+                System.out.println(logPrefix + " Intento " + attempt.attemptId + " abandonado; el chunk " + (attempt.chunkIndex + 1) + " sigue en curso en otro worker.");
+                return;
+            }
+            if (state.retries < retryPolicy.getMaxRetries() && lostWorkers.size() < workers.size()) {
+                retry = ++state.retries;
+            }
+        }
+        if (retry == 0) {
+            System.err.println(logPrefix + " Chunk " + (attempt.chunkIndex + 1) + " " + describer.apply(chunks.get(attempt.chunkIndex)) +
+                    " sin reintentos disponibles o sin workers sanos. Se cierra sin resultado.");
+            controller.handleWorkerFailureOrNoTask(attempt.attemptId);
+            return;
+        }
+        retryQueue.add(attempt.chunkIndex);
+        // Un worker con lugar en su ventana lo toma ya; si no, el primero que termine un chunk
+        for (int w = 0; w < workers.size(); w++) {
+            if (!lostWorkers.contains(w) && windowUsage[w].get() < inFlightPerWorker) {
+                dispatchNext(w);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Revisión periódica: los intentos que pasaron el timeout dan a su worker por perdido y, sin chunks por despachar
+     * y con suficientes completados, los chunks en curso que llevan más que el umbral se duplican en workers ociosos
+     * (los más antiguos primero).
+     */
+    private void checkInFlight() {
+        if (job.getPendingChunkCount() == 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < chunks.size(); i++) {
+            ChunkState state = states.get(i);
+            if (state == null) {
+                continue;
+            }
+            List<Attempt> timedOut = new ArrayList<>();
+            synchronized (state) {
+                for (Attempt attempt : state.live) {
+                    if (retryPolicy.isTimedOut(now - attempt.startedAt)) {
+                        timedOut.add(attempt);
+                    }
+                }
+            }
+            for (Attempt attempt : timedOut) {
+                workerLost(attempt.workerIndex, attempt.attemptId + " sin respuesta después de " + (now - attempt.startedAt) + " ms");
+            }
+        }
+        checkStragglers(now);
+    }
+
+    private void checkStragglers(long now) {
+        if (workers.size() < 2 || !pending.isEmpty() || !retryQueue.isEmpty() || !speculation.mayLaunch(completedChunks.get(), chunks.size())) {
+            return;
+        }
+        int maxBackups = speculation.maxBackups(chunks.size());
+        if (backupsLaunched.get() >= maxBackups) {
+            return;
+        }
+        long median;
+        synchronized (completedDurations) {
+            if (completedDurations.isEmpty()) {
+                return;
+            }
+            List<Long> sorted = new ArrayList<>(completedDurations);
+            Collections.sort(sorted);
+            median = sorted.get(sorted.size() / 2);
+        }
+        long threshold = speculation.stragglerThreshold(median);
+        List<Attempt> stragglers = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            ChunkState state = states.get(i);
+            if (state == null) {
+                continue;
+            }
+            synchronized (state) {
+                if (!state.closed && !state.hasBackup && state.live.size() == 1 && now - state.live.get(0).startedAt >= threshold) {
+                    stragglers.add(state.live.get(0));
+                }
+            }
+        }
+        stragglers.sort((a, b) -> Long.compare(a.startedAt, b.startedAt));
+        for (Attempt straggler : stragglers) {
+            int idleWorker = idleWorker(straggler.workerIndex);
+            if (idleWorker < 0 || backupsLaunched.get() >= maxBackups) {
+                return;
+            }
+            launchBackup(straggler, idleWorker, now, median);
+        }
+    }
+
+    /**
+     * @return un worker sin chunks en curso (en el orden de la lista: los de mayor capacidad primero), o -1
+     */
+    private int idleWorker(int excludedWorker) {
+        for (int w = 0; w < workers.size(); w++) {
+            if (w != excludedWorker && windowUsage[w].get() == 0 && !lostWorkers.contains(w) && !overtakenWorkers.contains(w)) {
+                return w;
+            }
+        }
+        return -1;
+    }
+
+    private void launchBackup(Attempt straggler, int backupWorker, long now, long median) {
+        ChunkState state = states.get(straggler.chunkIndex);
+        Attempt backup = new Attempt(straggler.chunkIndex, backupWorker, chunkIdFor(straggler.chunkIndex, backupWorker) + BACKUP_SUFFIX, now, true);
+        synchronized (state) {
+            // Si el chunk se cerró mientras tanto, no se duplica
+            if (state.hasBackup || !addAttempt(state, backup)) {
+                return;
+            }
+            state.hasBackup = true;
+        }
+        backupsLaunched.incrementAndGet();
+        speculation.backupLaunched();
+        System.out.println(logPrefix + " Chunk " + (straggler.chunkIndex + 1) + "/" + chunks.size() + " lleva " + (now - straggler.startedAt) + " ms en W" + (straggler.workerIndex + 1) +
+                " (mediana " + median + " ms, " + completedChunks.get() + " completados). Copia de respaldo en W" + (backupWorker + 1) + " (ID: " + backup.attemptId + ")");
+        send(backup);
+    }
+
+    /**
+     * Llegó el resultado de un intento después del que cerró su chunk. Si es un original superado por su copia
+     * y el trabajo ya terminó, el trabajo se habría demorado hasta ahora sin la copia: esa es la latencia de cola ahorrada.
+     */
+    private synchronized void lateResult(String attemptId) {
+        if (!overtakenAttempts.remove(attemptId) || jobEndMillis == 0) {
+            return; // Copia que perdió, intento abandonado u original que llegó antes de que terminara el trabajo
+        }
+        long saved = System.currentTimeMillis() - jobEndMillis;
+        if (saved > tailSavedMillis) {
+            speculation.tailSaved(saved - tailSavedMillis);
+            tailSavedMillis = saved;
+            System.out.println(logPrefix + " El original superado " + attemptId + " respondió " + saved + " ms después del fin del trabajo. Latencia de cola ahorrada: " +
+                    tailSavedMillis + " ms. Acumulado del maestro: " + speculation.describe());
+        }
+    }
+}
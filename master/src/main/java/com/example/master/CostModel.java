@@ -0,0 +1,68 @@
+// --- Archivo: master/src/main/java/com/example/master/CostModel.java ---
+package com.example.master;
+
+/**
+ * Modelo del costo de procesar un rango de números en un worker.
+ * El costo de [start, end] es F(end + 1) - F(start), con F la integral de la densidad de costo por número,
+ * así que partir un rango en porciones de igual costo se reduce a invertir F (ver CostPartitioner).
+ * Las unidades dependen del modelo; CostPartitioner aprende la escala en ms con los tiempos reales.
+ */
+interface CostModel {
+
+    /**
+     * Nombre corto del modelo (se usa en logs y en Master.CostModel).
+     */
+    String getName();
+
+    /**
+     * Costo acumulado F(n) = ∫ costo(x) dx desde 0 hasta n.
+     * @param n límite superior (se toma como al menos 1)
+     */
+    double cumulative(double n);
+
+    /**
+     * Costo estimado del rango [start, end].
+     */
+    default double cost(long start, long end) {
+        return cumulative((double) end + 1) - cumulative(start);
+    }
+
+    /**
+     * @return true si cost() ya está en ms (modelo calibrado con tiempos reales); si no, CostPartitioner aplica su escala
+     */
+    default boolean isInMillis() {
+        return false;
+    }
+
+    /**
+     * Tiempo real de un rango procesado (solo lo usan los modelos calibrados).
+     * @param start  inicio del rango
+     * @param end    fin del rango
+     * @param millis tiempo del worker
+     */
+    default void observe(long start, long end, long millis) {
+    }
+
+    /**
+     * Crea un modelo por nombre.
+     * @param name      uniform | sqrt | sieve | calibrated
+     * @param blockSize tamaño de bloque de la criba de los workers (Worker.Sieve.BlockSize)
+     * @return el modelo; 'sieve' si el nombre es desconocido
+     */
+    static CostModel fromName(String name, int blockSize) {
+        String normalized = (name == null) ? "" : name.trim().toLowerCase();
+        switch (normalized) {
+            case UniformCostModel.NAME:
+                return new UniformCostModel();
+            case SqrtCostModel.NAME:
+                return new SqrtCostModel();
+            case CalibratedCostModel.NAME:
+                return new CalibratedCostModel(new BlockSieveCostModel(blockSize));
+            case BlockSieveCostModel.NAME:
+                return new BlockSieveCostModel(blockSize);
+            default:
+                System.err.println("[COST-MODEL] ADVERTENCIA: Modelo de costo '" + name + "' desconocido. Usando '" + BlockSieveCostModel.NAME + "'.");
+                return new BlockSieveCostModel(blockSize);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+// --- Archivo: master/src/main/java/com/example/master/CostPartitioner.java ---
+package com.example.master;
+
+import perfectNumbersApp.Range; // Rango normal (long)
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Divide un rango en subrangos de igual costo estimado según un CostModel, en lugar de igual cantidad de números.
+ * Cada frontera se obtiene invirtiendo el costo acumulado por búsqueda binaria.
+ * Además aprende la escala del modelo (ms por unidad de costo, media móvil) con los tiempos reportados por los
+ * workers, para comparar en los logs el tiempo estimado de cada chunk con el real. Un modelo calibrado ya ajustado
+ * estima directamente en ms y no usa la escala.
+ */
+final class CostPartitioner {
+    static final double SCALE_SMOOTHING = 0.3; // Peso de la última observación en la media móvil de la escala
+
+    private final CostModel model;
+    private volatile double millisPerCostUnit = Double.NaN; // Escala aprendida; NaN hasta la primera observación
+
+    /**
+     * @param model modelo de costo por número
+     */
+    CostPartitioner(CostModel model) {
+        this.model = model;
+    }
+
+    CostModel getModel() {
+        return model;
+    }
+
+    /**
+     * @param range rango a dividir
+     * @param parts cantidad máxima de subrangos (>= 1)
+     * @return subrangos consecutivos de costo estimado similar; vacío si el rango es inválido (end < start)
+     */
+    List<Range> split(Range range, int parts) {
+        double[] shares = new double[Math.max(0, parts)];
+        Arrays.fill(shares, 1.0);
+        return split(range, shares);
+    }
+
+    /**
+     * Divide el rango en subrangos consecutivos cuyo costo estimado es proporcional a cada share
+     * (p. ej. la capacidad del worker que tomará cada uno).
+     * @param range  rango a dividir
+     * @param shares peso de cada subrango, en orden (> 0)
+     * @return a lo sumo shares.length subrangos (menos si el rango tiene pocos números); vacío si el rango es inválido
+     */
+    List<Range> split(Range range, double[] shares) {
+        if (range.end < range.start || shares.length == 0) {
+            return new ArrayList<>();
+        }
+        double shareTotal = 0;
+        boolean equalShares = true;
+        for (double share : shares) {
+            shareTotal += share;
+            equalShares &= share == shares[0];
+        }
+        if (equalShares && (model instanceof UniformCostModel || shares.length == 1)) {
+            return RangeSplitter.split(range, shares.length); // Reparto exacto por cantidad
+        }
+        double base = model.cumulative(range.start);
+        double total = model.cumulative((double) range.end + 1) - base;
+        List<Range> subRanges = new ArrayList<>(shares.length);
+        long current = range.start;
+        double accumulated = 0;
+        for (int k = 0; k < shares.length - 1 && current <= range.end; k++) {
+            accumulated += shares[k];
+            double target = base + total * (accumulated / shareTotal);
+            // Menor fin x en [current, end] con F(x + 1) >= target
+            long low = current;
+            long high = range.end;
+            while (low < high) {
+                long middle = low + (high - low) / 2;
+                if (model.cumulative((double) middle + 1) >= target) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            subRanges.add(new Range(current, low));
+            if (low == range.end) {
+                return subRanges;
+            }
+            current = low + 1;
+        }
+        subRanges.add(new Range(current, range.end));
+        return subRanges;
+    }
+
+    /**
+     * Igual que split(Range, double[]), para varios rangos disjuntos (p. ej. los huecos de un rango que faltan calcular):
+     * a cada rango le toca una cantidad de shares consecutivos (tomados en ciclo) proporcional a su costo estimado,
+     * al menos uno.
+     * @param ranges rangos a dividir, en orden
+     * @param shares peso de cada subrango, en orden (> 0)
+     */
+    List<Range> split(List<Range> ranges, double[] shares) {
+        if (ranges.size() == 1 || shares.length == 0) {
+            return ranges.isEmpty() ? new ArrayList<>() : split(ranges.get(0), shares);
+        }
+        double[] costs = new double[ranges.size()];
+        double totalCost = 0;
+        for (int i = 0; i < costs.length; i++) {
+            Range range = ranges.get(i);
+            costs[i] = (range.end < range.start) ? 0 : Math.max(0, model.cost(range.start, range.end));
+            totalCost += costs[i];
+        }
+        List<Range> subRanges = new ArrayList<>();
+        int nextShare = 0;
+        for (int i = 0; i < costs.length; i++) {
+            double fraction = (totalCost > 0) ? costs[i] / totalCost : 1.0 / costs.length;
+            int parts = Math.max(1, (int) Math.round(shares.length * fraction));
+            double[] rangeShares = new double[parts];
+            for (int k = 0; k < parts; k++) {
+                rangeShares[k] = shares[(nextShare + k) % shares.length];
+            }
+            nextShare += parts;
+            subRanges.addAll(split(ranges.get(i), rangeShares));
+        }
+        return subRanges;
+    }
+
+    /**
+     * @return tiempo estimado del subrango en ms, o NaN si la escala aún no se conoce
+     */
+    double predictMillis(Range subRange) {
+        double cost = model.cost(subRange.start, subRange.end);
+        return model.isInMillis() ? cost : cost * millisPerCostUnit;
+    }
+
+    /**
+     * Registra el tiempo real de un chunk: lo compara con la estimación, actualiza la escala y alimenta al modelo.
+     * @param logPrefix    prefijo de los logs
+     * @param chunkId      ID del chunk
+     * @param subRange     subrango procesado
+     * @param actualMillis tiempo reportado por el worker
+     */
+    synchronized void recordChunk(String logPrefix, String chunkId, Range subRange, long actualMillis) {
+        double cost = model.cost(subRange.start, subRange.end);
+        double predicted = predictMillis(subRange);
+        System.out.println(logPrefix + " Costo chunk " + chunkId + " [" + subRange.start + ", " + subRange.end + "]: estimado " +
+                (Double.isNaN(predicted) ? "N/A (sin escala)" : String.format("%.1f ms", predicted)) + ", real " + actualMillis + " ms (modelo " + model.getName() + ").");
+        if (actualMillis > 0 && cost > 0 && !model.isInMillis()) {
+            double observed = actualMillis / cost;
+            double previous = millisPerCostUnit;
+            millisPerCostUnit = Double.isNaN(previous) ? observed : previous + SCALE_SMOOTHING * (observed - previous);
+        }
+        model.observe(subRange.start, subRange.end, actualMillis);
+    }
+}
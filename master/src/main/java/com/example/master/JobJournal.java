@@ -0,0 +1,387 @@
+// --- Archivo: master/src/main/java/com/example/master/JobJournal.java ---
+package com.example.master;
+
+import com.zeroc.Ice.Properties; // Configuración del maestro (master.properties)
+import perfectNumbersApp.Range; // Rango normal (long)
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Bitácora de trabajos (write-ahead log) para que un Maestro reiniciado retome los trabajos en curso.
+ * Registra, en un archivo de solo agregado, la aceptación de cada búsqueda de perfectos, el despacho de cada
+ * subrango y cada subrango completado con sus perfectos, y el fin del trabajo. Un único hilo escritor agrupa
+ * los registros que se acumularon mientras escribía (group commit): una sola escritura y un solo force al disco
+ * por lote, así el despacho y la recepción de resultados solo encolan. Solo la aceptación espera a estar en disco.
+ * Al arrancar se relee la bitácora y se compacta con los trabajos sin terminar; el Maestro los vuelve a poner en
+ * la cola cuando los workers se registran de nuevo, y solo se despachan los subrangos que no se completaron.
+ * Formato, un registro por línea:
+ * "A id inicio fin workers cliente prioridad proxy-del-cliente", "D id chunk inicio fin", "C id inicio fin p1,p2,..." y "F id".
+ */
+final class JobJournal {
+    private static final String NO_NUMBERS = "-"; // Lista de perfectos vacía en un registro C
+    private static final long ACCEPT_WAIT_MILLIS = 2000; // Espera máxima de la aceptación a estar en disco
+
+    private final Path file; // null = bitácora desactivada
+    private final boolean forceToDisk; // force del canal (fsync) en cada lote
+    private final long groupCommitMillis; // Espera para juntar más registros en un lote
+    private final long resumeGraceMillis; // Espera, tras el primer worker registrado, antes de retomar los trabajos
+    private final String logPrefix; // "[Master-xxxx]"
+    private final LinkedBlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Set<String> activeJobs = ConcurrentHashMap.newKeySet(); // Aceptados sin registro F
+    private final List<PendingJob> pendingJobs = new ArrayList<>(); // Sin terminar al arrancar
+
+    // Métricas del escritor
+    private volatile long batches;
+    private volatile long records;
+
+    /**
+     * Registro por escribir y su confirmación.
+     */
+    private static final class Entry {
+        final String line;
+        final CompletableFuture<Void> committed = new CompletableFuture<>();
+
+        Entry(String line) {
+            this.line = line;
+        }
+    }
+
+    /**
+     * Trabajo que estaba en curso cuando el Maestro se detuvo.
+     */
+    static final class PendingJob {
+        final String jobLogId;
+        final Range range;
+        final int numWorkers;
+        final String clientId;
+        final String priority;
+        final String clientProxy; // Proxy del ClientNotifier en texto
+        final List<Range> completed = new ArrayList<>(); // Subrangos terminados, con sus perfectos en perfectNumbers
+        final List<Long> perfectNumbers = new ArrayList<>();
+        int dispatched; // Despachos registrados (solo para el log)
+
+        PendingJob(String jobLogId, Range range, int numWorkers, String clientId, String priority, String clientProxy) {
+            this.jobLogId = jobLogId;
+            this.range = range;
+            this.numWorkers = numWorkers;
+            this.clientId = clientId;
+            this.priority = priority;
+            this.clientProxy = clientProxy;
+        }
+
+        /**
+         * @return subrangos del trabajo que no figuran como completados, en orden
+         */
+        List<Range> gaps() {
+            List<Range> sorted = new ArrayList<>(completed);
+            sorted.sort(Comparator.comparingLong(r -> r.start));
+            List<Range> gaps = new ArrayList<>();
+            long cursor = range.start;
+            for (Range done : sorted) {
+                if (done.end < cursor) {
+                    continue;
+                }
+                if (done.start > cursor) {
+                    gaps.add(new Range(cursor, Math.min(done.start - 1, range.end)));
+                }
+                if (done.end >= range.end) {
+                    return gaps;
+                }
+                cursor = done.end + 1;
+            }
+            gaps.add(new Range(cursor, range.end));
+            return gaps;
+        }
+
+        long[] knownPerfectNumbers() {
+            return perfectNumbers.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        }
+    }
+
+    /**
+     * @param file              archivo de la bitácora (null para desactivarla)
+     * @param forceToDisk       true para forzar cada lote al disco (sobrevive a un corte de energía, no solo a la caída del proceso)
+     * @param groupCommitMillis espera para juntar registros en un lote (0 = solo los que ya esperaban)
+     * @param resumeGraceMillis espera, tras registrarse el primer worker, para que se registren los demás antes de retomar
+     * @param logPrefix         prefijo de los logs
+     */
+    JobJournal(Path file, boolean forceToDisk, long groupCommitMillis, long resumeGraceMillis, String logPrefix) {
+        this.file = file;
+        this.forceToDisk = forceToDisk;
+        this.groupCommitMillis = Math.max(0, groupCommitMillis);
+        this.resumeGraceMillis = Math.max(0, resumeGraceMillis);
+        this.logPrefix = logPrefix;
+        if (file == null) {
+            return;
+        }
+        replay();
+        compact();
+        Thread writer = new Thread(this::writeLoop, "master-job-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Lee Master.Journal.Path (vacío = desactivada), Master.Journal.Fsync, Master.Journal.GroupCommitMillis
+     * y Master.Journal.ResumeGraceMillis.
+     */
+    static JobJournal fromProperties(Properties properties, String logPrefix) {
+        String path = properties.getProperty("Master.Journal.Path").trim();
+        return new JobJournal(path.isEmpty() ? null : Paths.get(path),
+                properties.getPropertyAsIntWithDefault("Master.Journal.Fsync", 1) > 0,
+                properties.getPropertyAsIntWithDefault("Master.Journal.GroupCommitMillis", 2),
+                properties.getPropertyAsIntWithDefault("Master.Journal.ResumeGraceMillis", 3000), logPrefix);
+    }
+
+    boolean isEnabled() {
+        return file != null;
+    }
+
+    long getResumeGraceMillis() {
+        return resumeGraceMillis;
+    }
+
+    /**
+     * @return trabajos sin terminar encontrados al arrancar
+     */
+    List<PendingJob> getPendingJobs() {
+        return pendingJobs;
+    }
+
+    /**
+     * @return true si la bitácora tiene el trabajo como aceptado y sin terminar (su ID no se puede reutilizar)
+     */
+    boolean isActive(String jobLogId) {
+        return activeJobs.contains(jobLogId);
+    }
+
+    /**
+     * Registra un trabajo aceptado y espera (a lo sumo ACCEPT_WAIT_MILLIS) a que esté en disco.
+     */
+    void accepted(String jobLogId, Range range, int numWorkers, String clientId, String priority, String clientProxy) {
+        if (file == null) {
+            return;
+        }
+        activeJobs.add(jobLogId);
+        Entry entry = append("A " + jobLogId + " " + range.start + " " + range.end + " " + numWorkers + " " + token(clientId) + " " + priority +
+                " " + clientProxy.replace('\n', ' '));
+        try {
+            entry.committed.get(ACCEPT_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            System.err.println(logPrefix + " (" + jobLogId + ") La aceptación no llegó al disco en " + ACCEPT_WAIT_MILLIS + " ms; se sigue sin esperar.");
+        } catch (Exception e) {
+            System.err.println(logPrefix + " (" + jobLogId + ") Error registrando la aceptación en la bitácora: " + e);
+        }
+    }
+
+    void dispatched(String jobLogId, String chunkId, Range subRange) {
+        if (file != null) {
+            append("D " + jobLogId + " " + chunkId + " " + subRange.start + " " + subRange.end);
+        }
+    }
+
+    void completed(String jobLogId, Range subRange, long[] perfectNumbers) {
+        if (file == null) {
+            return;
+        }
+        StringBuilder numbers = new StringBuilder();
+        for (long n : perfectNumbers) {
+            numbers.append(numbers.length() > 0 ? "," : "").append(n);
+        }
+        append("C " + jobLogId + " " + subRange.start + " " + subRange.end + " " + (numbers.length() > 0 ? numbers : NO_NUMBERS));
+    }
+
+    /**
+     * El trabajo terminó (se notificó al cliente) o no llegó a entrar a la cola: ya no se retoma.
+     */
+    void finished(String jobLogId) {
+        if (file != null && activeJobs.remove(jobLogId)) {
+            append("F " + jobLogId);
+        }
+    }
+
+    private Entry append(String line) {
+        Entry entry = new Entry(line);
+        queue.add(entry);
+        return entry;
+    }
+
+    private static String token(String text) {
+        return (text == null || text.isEmpty()) ? NO_NUMBERS : text.replaceAll("\\s+", "_");
+    }
+
+    /**
+     * Hilo escritor: toma el primer registro pendiente, junta los que llegan durante groupCommitMillis y los que ya
+     * esperaban, los escribe con un solo flush (y force) y confirma el lote.
+     */
+    private void writeLoop() {
+        try (FileOutputStream output = new FileOutputStream(file.toFile(), true);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+            FileChannel channel = output.getChannel();
+            List<Entry> batch = new ArrayList<>();
+            while (true) {
+                batch.add(queue.take());
+                if (groupCommitMillis > 0) {
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(groupCommitMillis);
+                    Entry next;
+                    while ((next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) != null) {
+                        batch.add(next);
+                    }
+                }
+                queue.drainTo(batch);
+                try {
+                    for (Entry entry : batch) {
+                        writer.write(entry.line);
+                        writer.write('\n');
+                    }
+                    writer.flush();
+                    if (forceToDisk) {
+                        channel.force(false);
+                    }
+                    batches++;
+                    records += batch.size();
+                    batch.forEach(entry -> entry.committed.complete(null));
+                } catch (IOException e) {
+                    System.err.println(logPrefix + " Error escribiendo " + batch.size() + " registro(s) en la bitácora " + file + ": " + e.getMessage());
+                    batch.forEach(entry -> entry.committed.completeExceptionally(e));
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println(logPrefix + " No se pudo abrir la bitácora " + file + ": " + e.getMessage() + ". Los trabajos no se registran.");
+        }
+    }
+
+    /**
+     * Relee la bitácora: los trabajos aceptados sin registro F quedan pendientes con sus subrangos completados.
+     * Las líneas ilegibles (p. ej. la última, si el proceso murió escribiéndola) se saltan.
+     */
+    private void replay() {
+        if (!Files.exists(file)) {
+            System.out.println(logPrefix + " Bitácora de trabajos nueva en " + file.toAbsolutePath() + ".");
+            return;
+        }
+        Map<String, PendingJob> jobs = new LinkedHashMap<>();
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    String[] fields = line.split(" ", 8);
+                    PendingJob job = (fields.length > 1) ? jobs.get(fields[1]) : null;
+                    switch (fields[0]) {
+                        case "A":
+                            jobs.put(fields[1], new PendingJob(fields[1], new Range(Long.parseLong(fields[2]), Long.parseLong(fields[3])),
+                                    Integer.parseInt(fields[4]), fields[5].equals(NO_NUMBERS) ? "" : fields[5], fields[6], fields[7]));
+                            break;
+                        case "D":
+                            if (job != null) {
+                                job.dispatched++;
+                            }
+                            break;
+                        case "C":
+                            if (job != null) {
+                                Range done = new Range(Long.parseLong(fields[2]), Long.parseLong(fields[3]));
+                                List<Long> numbers = new ArrayList<>();
+                                if (!fields[4].equals(NO_NUMBERS)) {
+                                    for (String n : fields[4].split(",")) {
+                                        numbers.add(Long.parseLong(n));
+                                    }
+                                }
+                                job.completed.add(done);
+                                job.perfectNumbers.addAll(numbers);
+                            }
+                            break;
+                        case "F":
+                            jobs.remove(fields[1]);
+                            break;
+                        default:
+                            skipped++;
+                    }
+                } catch (RuntimeException e) {
+                    skipped++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println(logPrefix + " Error leyendo la bitácora " + file + ": " + e.getMessage());
+        }
+        pendingJobs.addAll(jobs.values());
+        for (PendingJob job : pendingJobs) {
+            activeJobs.add(job.jobLogId);
+            System.out.println(logPrefix + " (" + job.jobLogId + ") Trabajo sin terminar en la bitácora: [" + job.range.start + ", " + job.range.end + "], " +
+                    job.completed.size() + " subrango(s) completado(s) de " + job.dispatched + " despachado(s), " + job.gaps().size() + " hueco(s) por calcular.");
+        }
+        System.out.println(logPrefix + " Bitácora de trabajos releída: " + pendingJobs.size() + " trabajo(s) por retomar" +
+                (skipped > 0 ? ", " + skipped + " línea(s) ilegible(s) ignorada(s)" : "") + ".");
+    }
+
+    /**
+     * Reescribe la bitácora solo con los trabajos pendientes (aceptación y subrangos completados), en un archivo
+     * temporal que luego reemplaza al original.
+     */
+    private void compact() {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            for (PendingJob job : pendingJobs) {
+                writer.write("A " + job.jobLogId + " " + job.range.start + " " + job.range.end + " " + job.numWorkers + " " + token(job.clientId) +
+                        " " + job.priority + " " + job.clientProxy);
+                writer.write('\n');
+                for (int i = 0; i < job.completed.size(); i++) {
+                    Range done = job.completed.get(i);
+                    StringBuilder numbers = new StringBuilder();
+                    for (long n : job.perfectNumbers) {
+                        if (n >= done.start && n <= done.end) {
+                            numbers.append(numbers.length() > 0 ? "," : "").append(n);
+                        }
+                    }
+                    writer.write("C " + job.jobLogId + " " + done.start + " " + done.end + " " + (numbers.length() > 0 ? numbers : NO_NUMBERS));
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            System.err.println(logPrefix + " Error compactando la bitácora " + file + ": " + e.getMessage() + ". Se sigue agregando al archivo actual.");
+            return;
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println(logPrefix + " Error reemplazando la bitácora " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return configuración y métricas del escritor (para logs)
+     */
+    String describe() {
+        if (file == null) {
+            return "desactivada";
+        }
+        long writtenBatches = batches;
+        return file.toAbsolutePath() + (forceToDisk ? " (force al disco" : " (sin force") + ", lotes de " + groupCommitMillis + " ms); " +
+                records + " registro(s) en " + writtenBatches + " lote(s)" + (writtenBatches > 0 ? String.format(" (%.1f por lote)", (double) records / writtenBatches) : "") +
+                ", " + activeJobs.size() + " trabajo(s) activo(s)";
+    }
+}
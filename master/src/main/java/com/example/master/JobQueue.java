@@ -0,0 +1,338 @@
+// --- Archivo: master/src/main/java/com/example/master/JobQueue.java ---
+package com.example.master;
+
+import com.zeroc.Ice.ConnectionInfo; // Para identificar al cliente por su dirección
+import com.zeroc.Ice.Current; // Contexto de la llamada Ice
+import com.zeroc.Ice.IPConnectionInfo;
+import com.zeroc.Ice.Properties;
+import perfectNumbersApp.JobPriority; // Clase de prioridad de un trabajo
+import perfectNumbersApp.JobQueueFullException; // Respuesta de contrapresión
+import perfectNumbersApp.JobQueueStats; // Métricas de la cola
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Cola de admisión de trabajos del Maestro.
+ * A lo sumo maxConcurrentJobs trabajos corren a la vez; el resto espera en la cola (hasta maxQueueDepth,
+ * después se rechaza con JobQueueFullException). Cuando se libera un lugar se elige:
+ * 1. la mejor clase de prioridad (Interactive > Normal > Batch); un trabajo sube una clase cada agingMillis
+ *    de espera, para que los Batch no esperen indefinidamente;
+ * 2. dentro de la clase, el cliente con menor uso ponderado (tiempo de worker consumido / peso del cliente,
+ *    con decaimiento exponencial), así los workers se reparten entre clientes según sus pesos;
+ * 3. a igualdad, el que llegó primero.
+ */
+final class JobQueue {
+
+    /**
+     * Cuerpo de un trabajo admitido.
+     */
+    interface JobBody {
+        /** @return se completa cuando el trabajo termina (libera su lugar en la cola) */
+        CompletableFuture<?> run();
+    }
+
+    /**
+     * Recibe los tiempos de cada trabajo terminado (métricas).
+     */
+    interface FinishedListener {
+        void jobFinished(long queueWaitMillis, long runMillis);
+    }
+
+    private final int maxConcurrentJobs; // Trabajos simultáneos
+    private final int maxQueueDepth; // Trabajos esperando como máximo
+    private final Map<String, Double> clientWeights; // Peso de cada cliente (1 si no aparece)
+    private final long agingMillis; // Espera para subir una clase de prioridad (0 = sin envejecimiento)
+    private final long usageHalfLifeMillis; // Vida media del uso acumulado de un cliente
+    private final Executor executor; // Hilos donde corren los trabajos admitidos
+    private final String logPrefix; // "[Master-xxxx]"
+    private volatile FinishedListener finishedListener = (queueWaitMillis, runMillis) -> { };
+
+    // Estado protegido por this
+    private final List<QueuedJob> waiting = new ArrayList<>();
+    private final Map<String, ClientShare> clients = new HashMap<>();
+    private long sequence; // Orden de llegada
+    private int runningJobs;
+    private long admittedJobs;
+    private long rejectedJobs;
+    private long totalWaitMillis;
+    private long maxWaitMillis;
+    private long finishedJobs;
+    private long totalRunMillis; // Duración de los trabajos terminados (para sugerir el reintento)
+
+    /**
+     * @param maxConcurrentJobs   trabajos simultáneos (>= 1)
+     * @param maxQueueDepth       trabajos esperando como máximo (>= 0)
+     * @param clientWeights       peso de cada cliente; los no listados pesan 1
+     * @param agingMillis         espera para subir una clase de prioridad (0 = nunca)
+     * @param usageHalfLifeMillis vida media del uso de un cliente en el reparto justo
+     * @param executor            hilos donde corren los trabajos admitidos
+     * @param logPrefix           prefijo de los logs
+     */
+    JobQueue(int maxConcurrentJobs, int maxQueueDepth, Map<String, Double> clientWeights, long agingMillis, long usageHalfLifeMillis,
+             Executor executor, String logPrefix) {
+        this.maxConcurrentJobs = Math.max(1, maxConcurrentJobs);
+        this.maxQueueDepth = Math.max(0, maxQueueDepth);
+        this.clientWeights = clientWeights;
+        this.agingMillis = Math.max(0, agingMillis);
+        this.usageHalfLifeMillis = Math.max(1, usageHalfLifeMillis);
+        this.executor = executor;
+        this.logPrefix = logPrefix;
+    }
+
+    /**
+     * Crea la cola con la configuración Master.Queue.* de master.properties.
+     */
+    static JobQueue fromProperties(Properties props, Executor executor, String logPrefix) {
+        int maxConcurrentJobs = props.getPropertyAsIntWithDefault("Master.Queue.MaxConcurrentJobs", 2);
+        int maxQueueDepth = props.getPropertyAsIntWithDefault("Master.Queue.MaxDepth", 32);
+        long agingMillis = props.getPropertyAsIntWithDefault("Master.Queue.AgingSeconds", 120) * 1000L;
+        long halfLifeMillis = props.getPropertyAsIntWithDefault("Master.Queue.UsageHalfLifeSeconds", 300) * 1000L;
+        Map<String, Double> weights = parseWeights(props.getProperty("Master.Queue.ClientWeights"), logPrefix);
+        System.out.println(logPrefix + " Cola de trabajos: " + maxConcurrentJobs + " simultáneo(s), hasta " + maxQueueDepth +
+                " en espera, envejecimiento " + (agingMillis / 1000) + " s, pesos " + (weights.isEmpty() ? "(todos 1)" : weights.toString()) + ".");
+        return new JobQueue(maxConcurrentJobs, maxQueueDepth, weights, agingMillis, halfLifeMillis, executor, logPrefix);
+    }
+
+    /**
+     * @param text "clienteA=3, clienteB=1" (vacío = todos pesan 1)
+     */
+    static Map<String, Double> parseWeights(String text, String logPrefix) {
+        Map<String, Double> weights = new HashMap<>();
+        if (text == null || text.trim().isEmpty()) {
+            return weights;
+        }
+        for (String entry : text.split(",")) {
+            String[] parts = entry.split("=");
+            try {
+                double weight = (parts.length == 2) ? Double.parseDouble(parts[1].trim()) : -1;
+                if (weight <= 0) {
+                    throw new NumberFormatException("se esperaba cliente=peso con peso positivo");
+                }
+                weights.put(parts[0].trim(), weight);
+            } catch (RuntimeException e) {
+                System.err.println(logPrefix + " ADVERTENCIA: Peso de cliente inválido '" + entry.trim() + "' en Master.Queue.ClientWeights. Ignorado.");
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Prioridad pedida en el contexto Ice 'priority' (interactive | normal | batch); Normal si falta o no se reconoce.
+     */
+    static JobPriority priorityOf(Current current) {
+        String value = (current == null || current.ctx == null) ? null : current.ctx.get("priority");
+        if (value != null) {
+            for (JobPriority priority : JobPriority.values()) {
+                if (priority.name().equalsIgnoreCase(value.trim())) {
+                    return priority;
+                }
+            }
+        }
+        return JobPriority.Normal;
+    }
+
+    /**
+     * Identidad del cliente para el reparto justo: contexto Ice 'client', o si falta, la dirección remota de la conexión.
+     */
+    static String clientOf(Current current) {
+        if (current != null && current.ctx != null) {
+            String client = current.ctx.get("client");
+            if (client != null && !client.trim().isEmpty()) {
+                return client.trim();
+            }
+        }
+        try {
+            for (ConnectionInfo info = (current != null && current.con != null) ? current.con.getInfo() : null; info != null; info = info.underlying) {
+                if (info instanceof IPConnectionInfo) {
+                    return ((IPConnectionInfo) info).remoteAddress;
+                }
+            }
+        } catch (RuntimeException e) {
+            // Conexión cerrada o sin información: se usa la identidad anónima
+        }
+        return "anónimo";
+    }
+
+    void setFinishedListener(FinishedListener listener) {
+        this.finishedListener = listener;
+    }
+
+    /**
+     * Encola un trabajo; si hay lugar, empieza de inmediato.
+     * @throws JobQueueFullException si la cola ya tiene maxQueueDepth trabajos esperando
+     */
+    void submit(String jobLogId, String clientId, JobPriority priority, JobBody body) throws JobQueueFullException {
+        synchronized (this) {
+            if (runningJobs >= maxConcurrentJobs && waiting.size() >= maxQueueDepth) {
+                rejectedJobs++;
+                long retryAfter = suggestedRetryMillis();
+                System.err.println(logPrefix + " ("+jobLogId+") Cola llena (" + waiting.size() + "/" + maxQueueDepth + "). Trabajo de '" + clientId +
+                        "' rechazado; reintentar en ~" + retryAfter + " ms.");
+                throw new JobQueueFullException(waiting.size(), maxQueueDepth, retryAfter);
+            }
+            waiting.add(new QueuedJob(jobLogId, clientId, priority, body, sequence++, System.currentTimeMillis()));
+            System.out.println(logPrefix + " ("+jobLogId+") Encolado: cliente '" + clientId + "', prioridad " + priority + ". En espera: " + waiting.size() +
+                    ", en curso: " + runningJobs + "/" + maxConcurrentJobs + ".");
+        }
+        dispatch();
+    }
+
+    /**
+     * Suma tiempo de worker consumido por un cliente (cada chunk completado).
+     */
+    synchronized void charge(String clientId, long workerMillis) {
+        if (workerMillis > 0) {
+            share(clientId).add(workerMillis, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * @return métricas actuales de la cola
+     */
+    synchronized JobQueueStats getStats() {
+        long now = System.currentTimeMillis();
+        int[] depthByPriority = new int[JobPriority.values().length];
+        long oldestWait = 0;
+        for (QueuedJob job : waiting) {
+            depthByPriority[job.priority.ordinal()]++;
+            oldestWait = Math.max(oldestWait, now - job.enqueuedAt);
+        }
+        return new JobQueueStats(waiting.size(), depthByPriority[JobPriority.Interactive.ordinal()], depthByPriority[JobPriority.Normal.ordinal()],
+                depthByPriority[JobPriority.Batch.ordinal()], runningJobs, maxConcurrentJobs, maxQueueDepth, admittedJobs, rejectedJobs,
+                (admittedJobs == 0) ? 0 : totalWaitMillis / admittedJobs, maxWaitMillis, oldestWait);
+    }
+
+    /**
+     * Inicia trabajos de la cola mientras haya lugares libres.
+     */
+    private void dispatch() {
+        while (true) {
+            QueuedJob next;
+            synchronized (this) {
+                if (runningJobs >= maxConcurrentJobs || waiting.isEmpty()) {
+                    return;
+                }
+                next = selectNext(System.currentTimeMillis());
+                waiting.remove(next);
+                runningJobs++;
+                long waited = System.currentTimeMillis() - next.enqueuedAt;
+                admittedJobs++;
+                totalWaitMillis += waited;
+                maxWaitMillis = Math.max(maxWaitMillis, waited);
+                System.out.println(logPrefix + " ("+next.jobLogId+") Admitido tras " + waited + " ms en cola (cliente '" + next.clientId + "', prioridad " +
+                        next.priority + "). En curso: " + runningJobs + "/" + maxConcurrentJobs + ", en espera: " + waiting.size() + ".");
+            }
+            QueuedJob job = next;
+            long startedAt = System.currentTimeMillis();
+            long waitedMillis = startedAt - job.enqueuedAt;
+            executor.execute(() -> {
+                CompletableFuture<?> completion;
+                try {
+                    completion = job.body.run();
+                } catch (RuntimeException e) {
+                    System.err.println(logPrefix + " ("+job.jobLogId+") Error iniciando el trabajo: " + e);
+                    completion = CompletableFuture.completedFuture(null);
+                }
+                completion.whenComplete((ignored, error) -> finished(job, waitedMillis, System.currentTimeMillis() - startedAt));
+            });
+        }
+    }
+
+    private void finished(QueuedJob job, long waitedMillis, long runMillis) {
+        synchronized (this) {
+            runningJobs--;
+            finishedJobs++;
+            totalRunMillis += runMillis;
+            System.out.println(logPrefix + " ("+job.jobLogId+") Trabajo terminado en " + runMillis + " ms; lugar liberado. En espera: " + waiting.size() + ".");
+        }
+        finishedListener.jobFinished(waitedMillis, runMillis);
+        dispatch();
+    }
+
+    /**
+     * Mejor trabajo de la cola (ver el orden en la documentación de la clase). Se llama con el lock tomado.
+     */
+    private QueuedJob selectNext(long now) {
+        QueuedJob best = null;
+        int bestClass = Integer.MAX_VALUE;
+        double bestUsage = Double.MAX_VALUE;
+        for (QueuedJob job : waiting) {
+            int effectiveClass = job.priority.ordinal();
+            if (agingMillis > 0) {
+                effectiveClass = (int) Math.max(0, effectiveClass - (now - job.enqueuedAt) / agingMillis);
+            }
+            double usage = share(job.clientId).weightedUsage(now);
+            boolean better = effectiveClass < bestClass
+                    || (effectiveClass == bestClass && usage < bestUsage)
+                    || (effectiveClass == bestClass && usage == bestUsage && job.sequence < best.sequence);
+            if (better) {
+                best = job;
+                bestClass = effectiveClass;
+                bestUsage = usage;
+            }
+        }
+        return best;
+    }
+
+    private ClientShare share(String clientId) {
+        return clients.computeIfAbsent(clientId, id -> new ClientShare(clientWeights.getOrDefault(id, 1.0)));
+    }
+
+    /**
+     * Reintento sugerido: duración media de un trabajo (al menos 1 s). Se llama con el lock tomado.
+     */
+    private long suggestedRetryMillis() {
+        return Math.max(1000, (finishedJobs == 0) ? 0 : totalRunMillis / finishedJobs);
+    }
+
+    /**
+     * Uso de workers de un cliente, con decaimiento exponencial.
+     */
+    private final class ClientShare {
+        private final double weight;
+        private double usage; // ms de worker, decaído hasta lastUpdate
+        private long lastUpdate = System.currentTimeMillis();
+
+        ClientShare(double weight) {
+            this.weight = weight;
+        }
+
+        void add(long workerMillis, long now) {
+            usage = decayed(now) + workerMillis;
+            lastUpdate = now;
+        }
+
+        double weightedUsage(long now) {
+            return decayed(now) / weight;
+        }
+
+        private double decayed(long now) {
+            return usage * Math.pow(0.5, (double) (now - lastUpdate) / usageHalfLifeMillis);
+        }
+    }
+
+    /**
+     * Trabajo en espera.
+     */
+    private static final class QueuedJob {
+        final String jobLogId;
+        final String clientId;
+        final JobPriority priority;
+        final JobBody body;
+        final long sequence;
+        final long enqueuedAt;
+
+        QueuedJob(String jobLogId, String clientId, JobPriority priority, JobBody body, long sequence, long enqueuedAt) {
+            this.jobLogId = jobLogId;
+            this.clientId = clientId;
+            this.priority = priority;
+            this.body = body;
+            this.sequence = sequence;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
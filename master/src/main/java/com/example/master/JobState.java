@@ -0,0 +1,368 @@
+// --- Archivo: master/src/main/java/com/example/master/JobState.java ---
+package com.example.master;
+
+import perfectNumbersApp.PredicateQuery; // Predicado pedido en un trabajo de clasificación
+import perfectNumbersApp.PredicateResult; // Resultado de un predicado (trabajos de clasificación)
+import perfectNumbersApp.UInt128; // Número de 128 bits (trabajos de rango amplio)
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Estado de un trabajo en curso: chunks pendientes y resultados parciales de sus workers.
+ * MasterControllerI guarda uno por trabajo (registro por jobLogId), así que varios trabajos
+ * de distintos clientes avanzan a la vez sin pisarse.
+ * Un chunk puede tener varios intentos (el original y una copia de respaldo, ver SpeculativeExecution):
+ * el primer intento que responde reclama el chunk y los resultados de los demás se descartan.
+ */
+final class JobState {
+    private final String jobLogId; // Identificador del trabajo (prefijo de los IDs de chunk)
+    // Números perfectos de cada chunk
+    private final Map<String, long[]> partialResults = new ConcurrentHashMap<>();
+    // Igual que partialResults, para trabajos de rango amplio (128 bits)
+    private final Map<String, UInt128[]> partialWideResults = new ConcurrentHashMap<>();
+    // Resultados por predicado de cada chunk, para trabajos de clasificación
+    private final Map<String, PredicateResult[]> partialClassificationResults = new ConcurrentHashMap<>();
+    // Lotes de candidatos de ciclos alícuotas (aplanados {n, s(n), ...}) de los chunks cerrados
+    private final ConcurrentLinkedQueue<long[]> aliquotCandidateBatches = new ConcurrentLinkedQueue<>();
+    // Lotes de candidatos de cada intento que aún no cerró su chunk (se descartan si otro intento gana)
+    private final Map<String, ConcurrentLinkedQueue<long[]>> tentativeAliquotBatches = new ConcurrentHashMap<>();
+    // Intento despachado (ID del chunk original o de su copia de respaldo) -> chunk al que pertenece
+    private final Map<String, String> attempts = new ConcurrentHashMap<>();
+    // Chunks abiertos: se completan con el tiempo del worker al llegar el primer resultado
+    private final Map<String, CompletableFuture<Long>> pendingChunks = new ConcurrentHashMap<>();
+    // Chunks cuyo primer resultado ya se reclamó y se está guardando
+    private final Map<String, CompletableFuture<Long>> claimedChunks = new ConcurrentHashMap<>();
+    private final Map<String, String> winningAttempts = new ConcurrentHashMap<>(); // Chunk -> intento que respondió primero
+    private volatile Consumer<String> lateResultListener = attemptId -> { }; // Recibe los intentos que respondieron después del ganador
+    private final AtomicInteger remainingChunks; // Chunks del trabajo sin cerrar
+    private final CompletableFuture<Void> jobCompletion; // Se completa al cerrar todos
+    private final AtomicInteger failedChunks = new AtomicInteger(); // Chunks cerrados sin resultado
+
+    /**
+     * @param jobLogId       identificador del trabajo
+     * @param expectedChunks número de chunks del trabajo
+     */
+    JobState(String jobLogId, int expectedChunks) {
+        this.jobLogId = jobLogId;
+        this.remainingChunks = new AtomicInteger(Math.max(0, expectedChunks));
+        this.jobCompletion = (expectedChunks > 0) ? new CompletableFuture<>() : CompletableFuture.completedFuture(null);
+    }
+
+    String getJobLogId() {
+        return jobLogId;
+    }
+
+    /**
+     * Registra un chunk que se va a despachar.
+     * @param chunkId ID del chunk (el mismo workerId con el que el worker enviará su resultado)
+     * @return se completa con el tiempo del worker (ms) cuando llega el primer resultado del chunk; con error si el chunk falla
+     */
+    CompletableFuture<Long> trackChunk(String chunkId) {
+        CompletableFuture<Long> chunkCompletion = new CompletableFuture<>();
+        attempts.put(chunkId, chunkId);
+        pendingChunks.put(chunkId, chunkCompletion);
+        return chunkCompletion;
+    }
+
+    /**
+     * Registra otro intento de un chunk abierto: una copia de respaldo (ejecución especulativa) o una reasignación
+     * tras una falla. El primer resultado de cualquiera de los intentos cierra el chunk y los demás se ignoran.
+     * @param chunkId   ID del chunk (el de su primer intento)
+     * @param attemptId ID con el que el nuevo intento enviará su resultado
+     * @return false si el chunk ya se cerró (el intento no debe despacharse)
+     */
+    boolean trackAttempt(String chunkId, String attemptId) {
+        if (!pendingChunks.containsKey(chunkId)) {
+            return false;
+        }
+        attempts.put(attemptId, chunkId);
+        return true;
+    }
+
+    /**
+     * @return ID del chunk al que pertenece un intento (el mismo ID si es el original o no se conoce)
+     */
+    String chunkOf(String attemptId) {
+        return attempts.getOrDefault(attemptId, attemptId);
+    }
+
+    /**
+     * @return true si el chunk del intento está registrado y aún no se cerró
+     */
+    boolean isPending(String attemptId) {
+        return pendingChunks.containsKey(chunkOf(attemptId));
+    }
+
+    /**
+     * @return intento que cerró el chunk, o null si el chunk sigue abierto
+     */
+    String winnerOf(String chunkId) {
+        return winningAttempts.get(chunkId);
+    }
+
+    /**
+     * @param listener recibe el ID de cada intento cuyo resultado llega después del que cerró su chunk
+     *                 (también después de liberado el trabajo, mientras el controlador lo recuerde)
+     */
+    void setLateResultListener(Consumer<String> listener) {
+        this.lateResultListener = listener;
+    }
+
+    /**
+     * Reclama el chunk de un intento que acaba de responder. Solo el primer intento de cada chunk lo consigue:
+     * ese guarda sus resultados y luego llama a completeChunk; los resultados de los demás se descartan.
+     * @return true si este intento es el primero en responder por su chunk
+     */
+    boolean claimChunk(String attemptId) {
+        String chunkId = chunkOf(attemptId);
+        if (claim(chunkId, attemptId)) {
+            return true;
+        }
+        if (winningAttempts.containsKey(chunkId)) {
+            System.out.println("[MASTER_CONTROLLER] ("+jobLogId+") Resultado de " + attemptId + " llegó después del de " +
+                    winningAttempts.get(chunkId) + " (mismo chunk). Ignorado.");
+        } else {
+            // Resultado repetido o de un chunk que ya se cerró como fallido
+            System.err.println("[MASTER_CONTROLLER] ("+jobLogId+") ADVERTENCIA: Chunk desconocido o ya cerrado: " + attemptId + ". Ignorado.");
+        }
+        discardAliquotCandidates(attemptId);
+        if (winningAttempts.containsKey(chunkId)) {
+            lateResultListener.accept(attemptId);
+        }
+        return false;
+    }
+
+    private boolean claim(String chunkId, String attemptId) {
+        CompletableFuture<Long> chunkCompletion = pendingChunks.remove(chunkId);
+        if (chunkCompletion == null) {
+            return false;
+        }
+        claimedChunks.put(chunkId, chunkCompletion);
+        winningAttempts.put(chunkId, attemptId);
+        return true;
+    }
+
+    /**
+     * Cierra sin resultado el chunk de un intento (ChunkScheduler ya agotó sus reintentos).
+     * Un resultado que llegue después se ignora.
+     * @return true si el chunk estaba abierto
+     */
+    boolean failChunk(String attemptId) {
+        discardAliquotCandidates(attemptId);
+        return claim(chunkOf(attemptId), attemptId) && completeChunk(attemptId, false, -1);
+    }
+
+    /**
+     * Cierra el chunk reclamado por un intento (con resultado o fallido) y, si era el último, el trabajo completo.
+     * Cada chunk se cierra una sola vez: los cierres repetidos o de chunks no reclamados se ignoran.
+     * @return true si el chunk estaba reclamado por este intento
+     */
+    boolean completeChunk(String attemptId, boolean succeeded, long workerProcessingTimeMillis) {
+        String chunkId = chunkOf(attemptId);
+        CompletableFuture<Long> chunkCompletion = claimedChunks.remove(chunkId);
+        if (chunkCompletion == null) {
+            System.err.println("[MASTER_CONTROLLER] ("+jobLogId+") ADVERTENCIA: Chunk no reclamado o ya cerrado: " + attemptId + ". Ignorado.");
+            return false;
+        }
+        if (!succeeded) {
+            failedChunks.incrementAndGet();
+        }
+        int remaining = remainingChunks.decrementAndGet();
+        System.out.println("[MASTER_CONTROLLER] ("+jobLogId+") Chunk " + (succeeded ? "completado: " : "fallido: ") + attemptId + ". Restantes: " + Math.max(0, remaining));
+        if (succeeded) {
+            chunkCompletion.complete(workerProcessingTimeMillis);
+        } else {
+            chunkCompletion.completeExceptionally(new IllegalStateException("Chunk fallido: " + chunkId));
+        }
+        if (remaining == 0) {
+            jobCompletion.complete(null);
+        }
+        return true;
+    }
+
+    void addPerfectNumbers(String chunkId, long[] numbers) {
+        partialResults.put(chunkId, numbers);
+    }
+
+    /**
+     * @return perfectos que entregó un intento (vacío si no entregó resultados)
+     */
+    long[] getPerfectNumbers(String chunkId) {
+        long[] numbers = partialResults.get(chunkId);
+        return (numbers != null) ? numbers : new long[0];
+    }
+
+    void addWidePerfectNumbers(String chunkId, UInt128[] numbers) {
+        partialWideResults.put(chunkId, numbers);
+    }
+
+    void addClassificationResults(String chunkId, PredicateResult[] results) {
+        partialClassificationResults.put(chunkId, results);
+    }
+
+    /**
+     * Guarda un lote de candidatos de un intento; cuentan para el trabajo solo si ese intento cierra el chunk.
+     */
+    void addAliquotCandidates(String attemptId, long[] flatEdges) {
+        tentativeAliquotBatches.computeIfAbsent(attemptId, id -> new ConcurrentLinkedQueue<>()).add(flatEdges);
+    }
+
+    /**
+     * Pasa al trabajo los lotes del intento que reclamó el chunk.
+     */
+    void commitAliquotCandidates(String attemptId) {
+        ConcurrentLinkedQueue<long[]> batches = tentativeAliquotBatches.remove(attemptId);
+        if (batches != null) {
+            aliquotCandidateBatches.addAll(batches);
+        }
+    }
+
+    private void discardAliquotCandidates(String attemptId) {
+        tentativeAliquotBatches.remove(attemptId);
+    }
+
+    /**
+     * @return chunks del trabajo que aún no se cerraron
+     */
+    long getPendingChunkCount() {
+        return Math.max(0, remainingChunks.get());
+    }
+
+    /**
+     * @return chunks del trabajo que se cerraron sin resultado
+     */
+    int getFailedChunkCount() {
+        return failedChunks.get();
+    }
+
+    /**
+     * Espera hasta que todos los chunks se cierren o hasta el timeout (0 o menos = sin límite).
+     * Devuelve true si se cerraron todos a tiempo, false si hubo timeout o interrupción.
+     */
+    boolean awaitCompletion(long timeoutMillis) {
+        if (jobCompletion.isDone()) {
+            System.out.println("[MASTER_CONTROLLER] ("+jobLogId+") Trabajo ya completado (sin chunks pendientes) al inicio de await.");
+            return true;
+        }
+        try {
+            System.out.println("[MASTER_CONTROLLER] ("+jobLogId+") Esperando finalización de " + getPendingChunkCount() +
+                    " chunk(s) restantes (timeout: " + ((timeoutMillis > 0) ? timeoutMillis + "ms" : "sin límite") + ")...");
+            if (timeoutMillis > 0) {
+                jobCompletion.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } else {
+                jobCompletion.get();
+            }
+            System.out.println("[MASTER_CONTROLLER] ("+jobLogId+") Todos los chunks respondieron o fallas manejadas.");
+            return true;
+        } catch (TimeoutException e) {
+            System.err.println("[MASTER_CONTROLLER] ("+jobLogId+") TIMEOUT esperando workers. Faltaron " +
+                    getPendingChunkCount() + " chunk(s) después de " + timeoutMillis + "ms.");
+            return false;
+        } catch (ExecutionException e) {
+            System.err.println("[MASTER_CONTROLLER] ("+jobLogId+") Error esperando chunks: " + e.getCause());
+            return false;
+        } catch (InterruptedException e) {
+            System.err.println("[MASTER_CONTROLLER] ("+jobLogId+") Hilo interrumpido esperando workers.");
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Consolida todos los números perfectos encontrados por los workers,
+     * los ordena y retorna un array con el resultado final.
+     */
+    long[] getAllFoundPerfectNumbers() {
+        List<Long> allPerfectsList = new ArrayList<>();
+        for (long[] numbers : partialResults.values()) {
+            for (long p : numbers) {
+                allPerfectsList.add(p);
+            }
+        }
+        Collections.sort(allPerfectsList);
+        long[] finalResult = allPerfectsList.stream().mapToLong(l -> l).toArray();
+        System.out.println("[MASTER_CONTROLLER] ("+jobLogId+") Resultados parciales consolidados. Total: " + finalResult.length +
+                ". Números: " + Arrays.toString(finalResult));
+        return finalResult;
+    }
+
+    /**
+     * Igual que getAllFoundPerfectNumbers, para trabajos de rango amplio (orden sin signo de 128 bits).
+     */
+    UInt128[] getAllFoundWidePerfectNumbers() {
+        List<UInt128> allPerfectsList = new ArrayList<>();
+        for (UInt128[] numbers : partialWideResults.values()) {
+            Collections.addAll(allPerfectsList, numbers);
+        }
+        allPerfectsList.sort(RangeSplitter::compare);
+        UInt128[] finalResult = allPerfectsList.toArray(new UInt128[0]);
+        System.out.println("[MASTER_CONTROLLER] ("+jobLogId+") Resultados parciales amplios consolidados. Total: " + finalResult.length +
+                ". Números: " + MasterControllerI.formatWide(finalResult));
+        return finalResult;
+    }
+
+    /**
+     * Consolida los resultados de clasificación de todos los workers, un resultado por predicado pedido:
+     * suma conteos y sumas (128 bits), une y ordena los números y marca la lista como truncada
+     * si algún worker la truncó. Los predicados que ningún worker reportó quedan en cero.
+     * @param queries predicados del trabajo, en el orden en que se devuelven los resultados
+     */
+    PredicateResult[] getMergedClassificationResults(PredicateQuery[] queries) {
+        PredicateResult[] merged = new PredicateResult[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            long count = 0;
+            long sumHi = 0;
+            long sumLo = 0;
+            boolean truncated = false;
+            List<Long> numbers = new ArrayList<>();
+            for (PredicateResult[] workerResults : partialClassificationResults.values()) {
+                // Cada worker responde en el mismo orden de los predicados enviados
+                if (i >= workerResults.length) {
+                    continue;
+                }
+                PredicateResult result = workerResults[i];
+                count += result.count;
+                sumLo += result.sum.lo;
+                sumHi += result.sum.hi + (Long.compareUnsigned(sumLo, result.sum.lo) < 0 ? 1 : 0);
+                truncated |= result.truncated;
+                for (long n : result.numbers) {
+                    numbers.add(n);
+                }
+            }
+            Collections.sort(numbers);
+            merged[i] = new PredicateResult(queries[i], count, new UInt128(sumHi, sumLo),
+                    numbers.stream().mapToLong(l -> l).toArray(), truncated);
+        }
+        System.out.println("[MASTER_CONTROLLER] ("+jobLogId+") Clasificación consolidada: " + MasterControllerI.formatClassification(merged));
+        return merged;
+    }
+
+    /**
+     * Une los lotes de candidatos alícuotas recibidos en un solo arreglo aplanado {n0, s0, n1, s1, ...}.
+     */
+    long[] getAllAliquotCandidates() {
+        int total = 0;
+        for (long[] batch : aliquotCandidateBatches) {
+            total += batch.length;
+        }
+        long[] candidates = new long[total];
+        int offset = 0;
+        for (long[] batch : aliquotCandidateBatches) {
+            System.arraycopy(batch, 0, candidates, offset, batch.length);
+            offset += batch.length;
+        }
+        System.out.println("[MASTER_CONTROLLER] ("+jobLogId+") Candidatos alícuotas consolidados: " + (candidates.length / 2));
+        return candidates;
+    }
+}
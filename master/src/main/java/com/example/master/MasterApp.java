@@ -15,6 +15,10 @@ public class MasterApp {
         // Inicializar Ice con configuración de master.properties
         try (Communicator communicator = Util.initialize(args, "master.properties")) {
             System.out.println("[MAESTRO-APP] Communicator Ice inicializado.");
+            // Ice solo toma de la línea de comandos las opciones --Ice.*; estas (--Master.*, --MasterAdapter.*) se aplican aquí,
+            // antes de crear el adaptador, encima del archivo de configuración
+            communicator.getProperties().parseCommandLineOptions("Master", args);
+            communicator.getProperties().parseCommandLineOptions("MasterAdapter", args);
             // Crear adaptador de objetos para exponer el servicio Maestro
             ObjectAdapter adapter = communicator.createObjectAdapter("MasterAdapter");
             System.out.println("[MAESTRO-APP] ObjectAdapter 'MasterAdapter' creado.");
@@ -30,6 +34,10 @@ public class MasterApp {
             // Activar el adaptador para empezar a recibir llamadas remotas
             adapter.activate();
             System.out.println("[MAESTRO] Maestro iniciado y escuchando en endpoints: " + Arrays.toString(adapter.getEndpoints()));
+            // Trabajos que quedaron sin terminar antes del último reinicio (si la bitácora está activada)
+            masterServant.resumeJournaledJobs();
+            // Métricas en texto por HTTP (Master.Metrics.HttpPort)
+            MetricsHttpEndpoint.start(communicator.getProperties(), () -> MasterMetrics.toText(masterServant.getMetrics()), "[MAESTRO-APP]");
 
 
             // Mantener la aplicación viva hasta que se cierre el communicator
@@ -1,87 +1,125 @@
 // --- Archivo: master/src/main/java/com/example/master/MasterControllerI.java ---
 package com.example.master;
 
+import perfectNumbersApp.AliquotEdge; // Candidato (n, s(n)) de un ciclo alícuota
+import perfectNumbersApp.PredicateResult; // Resultado de un predicado (trabajos de clasificación)
 import perfectNumbersApp.Range; // Rango procesado por cada worker
+import perfectNumbersApp.SigmaPredicate; // Tipo de predicado (para logs)
+import perfectNumbersApp.UInt128; // Número de 128 bits (trabajos de rango amplio)
+import perfectNumbersApp.WideRange; // Rango amplio procesado por cada worker
 import perfectNumbersApp.MasterController; // Interfaz generada por Slice para el controlador del Maestro
 import com.zeroc.Ice.Current; // Contexto de la llamada Ice
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import com.example.common.EventLog; // Registro asíncrono de tiempos (tiempos_ejecucion.txt)
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Date;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Servant que implementa MasterController
- * Recibe resultados de cada worker y coordina la agregación
+ * Recibe resultados de cada worker y los dirige al trabajo al que pertenecen.
+ * Cada trabajo tiene su propio JobState, registrado por jobLogId; el ID de chunk que viaja en workerId
+ * empieza con el jobLogId (ver ChunkScheduler.jobIdOf), así que varios trabajos pueden estar en curso a la vez.
  */
 public class MasterControllerI implements MasterController {
-    // Almacena resultados de cada worker: números perfectos y tiempo de proceso
-    private final Map<String, WorkerResult> partialResults = new ConcurrentHashMap<>();
-    private CountDownLatch jobCompletionLatch; // Para esperar a todos los workers
-    private String currentJobLogId; // Identificador para agrupar logs de un mismo trabajo
-
-    // Clase interna para guardar datos de un worker
-    private static class WorkerResult {
-        final long[] numbers; // Números perfectos encontrados por el worker
-        final long processingTime; // Tiempo que tardó el worker
-        WorkerResult(long[] numbers, long processingTime) {
-            this.numbers = numbers;
-            this.processingTime = processingTime;
+    private final EventLog eventLog; // Tiempos de workers y fallas, escritos fuera del hilo de despacho de Ice
+    // Trabajos en curso, por jobLogId
+    private final Map<String, JobState> jobs = new ConcurrentHashMap<>();
+    private static final int RELEASED_JOBS_KEPT = 16; // Trabajos liberados que se recuerdan
+    // Últimos trabajos liberados: el resultado tardío de un chunk duplicado (ver SpeculativeExecution) todavía
+    // llega a su JobState, que lo descarta y avisa al planificador para medir la latencia de cola ahorrada
+    private final Map<String, JobState> releasedJobs = Collections.synchronizedMap(new LinkedHashMap<String, JobState>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JobState> eldest) {
+            return size() > RELEASED_JOBS_KEPT;
         }
+    });
+
+    /**
+     * @param eventLog registro de eventos donde se anotan los tiempos de cada worker y las fallas
+     */
+    public MasterControllerI(EventLog eventLog) {
+        this.eventLog = eventLog;
     }
 
     /**
-     * Prepara el controlador para un nuevo trabajo.
-     * Limpia resultados previos y crea un CountDownLatch con el número de workers.
-     * @param numberOfParticipatingWorkers número de workers esperados
-     * @param jobLogId identificador único para este trabajo
+     * Registra un nuevo trabajo antes de despachar su primer chunk.
+     * @param jobLogId       identificador único del trabajo
+     * @param expectedChunks número de chunks del trabajo
+     * @return estado del trabajo (seguimiento de chunks y resultados parciales)
      */
-    public void resetForNewJob(int numberOfParticipatingWorkers, String jobLogId) {
-        partialResults.clear();
-        this.currentJobLogId = jobLogId;
-        // Crear latch que espera a cada worker o falla
-        if (numberOfParticipatingWorkers > 0) {
-            jobCompletionLatch = new CountDownLatch(numberOfParticipatingWorkers);
-        } else {
-            jobCompletionLatch = new CountDownLatch(0);
+    public JobState registerJob(String jobLogId, int expectedChunks) {
+        JobState job = new JobState(jobLogId, expectedChunks);
+        if (jobs.putIfAbsent(jobLogId, job) != null) {
+            throw new IllegalStateException("Trabajo ya registrado: " + jobLogId);
         }
-        System.out.println("[MASTER_CONTROLLER] ("+jobLogId+") Estado reiniciado. Esperando " + numberOfParticipatingWorkers + " respuesta(s).");
+        System.out.println("[MASTER_CONTROLLER] ("+jobLogId+") Trabajo registrado. Esperando " + expectedChunks + " chunk(s). Trabajos en curso: " + jobs.size());
+        return job;
     }
 
     /**
-     * Maneja casos donde un worker falla o no recibe tarea.
-     * Decrementa el latch y escribe un log indicando la falla.
+     * Quita un trabajo terminado del registro; los resultados que lleguen después se ignoran
+     * (los de sus chunks duplicados solo se cuentan para las métricas de especulación).
      */
-    public void handleWorkerFailureOrNoTask(String workerId) {
-        if (jobCompletionLatch != null && jobCompletionLatch.getCount() > 0) {
-            jobCompletionLatch.countDown();
-            System.out.println("[MASTER_CONTROLLER] ("+currentJobLogId+") Falla/No-Tarea para worker " + workerId + ". Latch ahora en: " + jobCompletionLatch.getCount());
-            // Loguear la ausencia de resultados del worker
-            try (PrintWriter writer = new PrintWriter(new FileWriter("tiempos_ejecucion.txt", true))) {
-                writer.println("Job ID: " + currentJobLogId + " - Worker ID: " + workerId + " - Tiempo Procesamiento: N/A (Falla o no asignado)");
-            } catch (IOException e) {
-                System.err.println("[MASTER_CONTROLLER] Error escribiendo log de falla de worker: " + e.getMessage());
-            }
+    public void releaseJob(String jobLogId) {
+        JobState job = jobs.remove(jobLogId);
+        if (job != null) {
+            releasedJobs.put(jobLogId, job);
+            System.out.println("[MASTER_CONTROLLER] ("+jobLogId+") Trabajo liberado. Trabajos en curso: " + jobs.size());
         }
     }
 
-    public long getJobCompletionLatchCount() {
-        return (jobCompletionLatch != null) ? jobCompletionLatch.getCount() : 0;
+    /**
+     * @return true si hay un trabajo en curso con ese jobLogId
+     */
+    public boolean isJobRegistered(String jobLogId) {
+        return jobs.containsKey(jobLogId);
+    }
+
+    /**
+     * @return cantidad de trabajos registrados y aún no liberados
+     */
+    public int getActiveJobCount() {
+        return jobs.size();
+    }
+
+    /**
+     * Trabajo al que pertenece un chunk (en curso o liberado hace poco), o null si el trabajo no existe o ya se olvidó.
+     */
+    private JobState jobFor(String workerId) {
+        String jobLogId = ChunkScheduler.jobIdOf(workerId);
+        JobState job = jobs.get(jobLogId);
+        if (job == null) {
+            job = releasedJobs.get(jobLogId); // Todos sus chunks están cerrados: claimChunk descarta el resultado
+        }
+        if (job == null) {
+            System.err.println("[MASTER_CONTROLLER] ADVERTENCIA: Resultado de " + workerId + " para un trabajo desconocido o terminado. Ignorado.");
+        }
+        return job;
+    }
+
+    /**
+     * Maneja casos donde un chunk registrado no se pudo completar (sin reintentos ni workers sanos) o nunca se pudo despachar.
+     * Cierra el chunk como fallido y escribe un log indicando la falla.
+     */
+    public void handleWorkerFailureOrNoTask(String workerId) {
+        JobState job = jobs.get(ChunkScheduler.jobIdOf(workerId));
+        if (job == null || !job.isPending(workerId) || !job.failChunk(workerId)) {
+            return; // El chunk ya se cerró (p. ej. su resultado llegó antes de la falla)
+        }
+        // Loguear la ausencia de resultados del chunk
+        String jobLogId = job.getJobLogId();
+        eventLog.publish(new EventLog.Event("falla_chunk").with("job", jobLogId).with("worker", workerId)
+                .text(() -> "Job ID: " + jobLogId + " - Worker ID: " + workerId + " - Tiempo Procesamiento: N/A (Falla o no asignado)"));
     }
 
     /**
      * Método asíncrono llamado por cada worker con sus resultados.
-     * Guarda los datos, decrementa el latch y escribe un log.
+     * Guarda los datos, cierra el chunk y escribe un log. Si el chunk tenía una copia de respaldo,
+     * solo cuenta el primer resultado que llega (JobState.claimChunk).
      */
     @Override
     public CompletionStage<Void> submitWorkerResultsAsync(
@@ -91,87 +129,179 @@ public class MasterControllerI implements MasterController {
             long workerProcessingTimeMillis, // Nuevo parámetro
             Current current) {
 
+        JobState job = jobFor(workerId);
+        if (job == null || !job.claimChunk(workerId)) {
+            return CompletableFuture.completedFuture(null); // Trabajo terminado o el chunk ya respondió en otro worker
+        }
         // Mostrar en consola resumen del resultado del worker
-        System.out.println("[MASTER_CONTROLLER] ("+currentJobLogId+") Resultados de worker: " + workerId +
+        System.out.println("[MASTER_CONTROLLER] ("+job.getJobLogId()+") Resultados de worker: " + workerId +
                 " para subrango [" + processedSubRange.start + ", " + processedSubRange.end + "]. " +
                 "Encontrados: " + Arrays.toString(perfectNumbersFound) +
                 ". Tiempo del worker: " + workerProcessingTimeMillis + " ms.");
 
-        // Guardar resultado en el map
-        partialResults.put(workerId, new WorkerResult(perfectNumbersFound, workerProcessingTimeMillis));
-
-        // Registrar tiempo del worker en archivo de log
-        try (PrintWriter writer = new PrintWriter(new FileWriter("tiempos_ejecucion.txt", true))) {
-            // Asumiendo que currentJobLogId se establece al inicio de un nuevo trabajo en MasterServiceI
-            writer.println("Job ID: " + currentJobLogId +
-                    " - Worker ID: " + workerId +
-                    " - Subrango: [" + processedSubRange.start + "-" + processedSubRange.end + "]" +
-                    " - Tiempo Procesamiento Worker: " + workerProcessingTimeMillis + " ms" +
-                    " - Perfectos Encontrados (Worker): " + Arrays.toString(perfectNumbersFound));
-        } catch (IOException e) {
-            System.err.println("[MASTER_CONTROLLER] Error escribiendo tiempo de worker a archivo: " + e.getMessage());
-        }
+        // Guardar resultado en el trabajo
+        job.addPerfectNumbers(workerId, perfectNumbersFound);
 
-        // Contar respuesta en el latch
-        if (jobCompletionLatch != null && jobCompletionLatch.getCount() > 0) {
-            jobCompletionLatch.countDown();
-            System.out.println("[MASTER_CONTROLLER] ("+currentJobLogId+") Respuesta contada de " + workerId + ". Latch: " + jobCompletionLatch.getCount());
-        } else {
-            System.err.println("[MASTER_CONTROLLER] ("+currentJobLogId+") ADVERTENCIA: Latch nulo o en cero al recibir de " + workerId +
-                    ". Latch: " + (jobCompletionLatch != null ? jobCompletionLatch.getCount() : "nulo"));
-        }
+        // Registrar tiempo del worker en el registro de eventos
+        String jobLogId = job.getJobLogId();
+        eventLog.publish(new EventLog.Event("resultado_worker").with("job", jobLogId).with("worker", workerId)
+                .with("inicio", processedSubRange.start).with("fin", processedSubRange.end).with("ms", workerProcessingTimeMillis).with("perfectos", perfectNumbersFound)
+                .text(() -> "Job ID: " + jobLogId +
+                        " - Worker ID: " + workerId +
+                        " - Subrango: [" + processedSubRange.start + "-" + processedSubRange.end + "]" +
+                        " - Tiempo Procesamiento Worker: " + workerProcessingTimeMillis + " ms" +
+                        " - Perfectos Encontrados (Worker): " + Arrays.toString(perfectNumbersFound)));
+
+        // Contar el chunk como completado (el planificador despacha el siguiente a este worker)
+        job.completeChunk(workerId, true, workerProcessingTimeMillis);
         // Retornar CompletionStage completado
         return CompletableFuture.completedFuture(null);
     }
 
     /**
-     * Espera hasta que todos los workers hayan respondido o hasta el timeout.
-     * Devuelve true si completaron todos a tiempo, false si hubo timeout o interrupción.
+     * Igual que submitWorkerResultsAsync, para subrangos amplios (128 bits).
+     * Cierra el chunk igual que los resultados normales.
      */
-    public boolean awaitJobCompletion(long timeoutMillis) {
-        if (jobCompletionLatch == null) {
-            System.err.println("[MASTER_CONTROLLER] ("+currentJobLogId+") awaitJobCompletion: Latch nulo. Asumiendo no había trabajo.");
-            return true;
+    @Override
+    public CompletionStage<Void> submitWideWorkerResultsAsync(
+            String workerId,
+            WideRange processedSubRange,
+            UInt128[] perfectNumbersFound,
+            long workerProcessingTimeMillis,
+            Current current) {
+
+        JobState job = jobFor(workerId);
+        if (job == null || !job.claimChunk(workerId)) {
+            return CompletableFuture.completedFuture(null); // Trabajo terminado o el chunk ya respondió en otro worker
         }
-        if (jobCompletionLatch.getCount() == 0) {
-            System.out.println("[MASTER_CONTROLLER] ("+currentJobLogId+") Trabajo ya completado (latch en cero) al inicio de await.");
-            return true;
+        String subRangeText = RangeSplitter.format(processedSubRange);
+        String foundText = formatWide(perfectNumbersFound);
+        System.out.println("[MASTER_CONTROLLER] ("+job.getJobLogId()+") Resultados de worker: " + workerId +
+                " para subrango amplio " + subRangeText + ". Encontrados: " + foundText +
+                ". Tiempo del worker: " + workerProcessingTimeMillis + " ms.");
+
+        job.addWidePerfectNumbers(workerId, perfectNumbersFound);
+
+        String jobLogId = job.getJobLogId();
+        eventLog.publish(new EventLog.Event("resultado_worker_amplio").with("job", jobLogId).with("worker", workerId)
+                .with("subrango", subRangeText).with("ms", workerProcessingTimeMillis).with("perfectos", foundText)
+                .text(() -> "Job ID: " + jobLogId +
+                        " - Worker ID: " + workerId +
+                        " - Subrango: " + subRangeText +
+                        " - Tiempo Procesamiento Worker: " + workerProcessingTimeMillis + " ms" +
+                        " - Perfectos Encontrados (Worker): " + foundText));
+
+        job.completeChunk(workerId, true, workerProcessingTimeMillis);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Recibe los resultados por predicado de un worker (trabajos de clasificación).
+     * Cierra el chunk igual que los resultados normales.
+     */
+    @Override
+    public CompletionStage<Void> submitClassificationResultsAsync(
+            String workerId,
+            Range processedSubRange,
+            PredicateResult[] results,
+            long workerProcessingTimeMillis,
+            Current current) {
+
+        JobState job = jobFor(workerId);
+        if (job == null || !job.claimChunk(workerId)) {
+            return CompletableFuture.completedFuture(null); // Trabajo terminado o el chunk ya respondió en otro worker
+        }
+        String summary = formatClassification(results);
+        System.out.println("[MASTER_CONTROLLER] ("+job.getJobLogId()+") Clasificación de worker: " + workerId +
+                " para subrango [" + processedSubRange.start + ", " + processedSubRange.end + "]. " + summary +
+                ". Tiempo del worker: " + workerProcessingTimeMillis + " ms.");
+
+        job.addClassificationResults(workerId, results);
+
+        String jobLogId = job.getJobLogId();
+        eventLog.publish(new EventLog.Event("clasificacion_worker").with("job", jobLogId).with("worker", workerId)
+                .with("inicio", processedSubRange.start).with("fin", processedSubRange.end).with("ms", workerProcessingTimeMillis).with("clasificacion", summary)
+                .text(() -> "Job ID: " + jobLogId +
+                        " - Worker ID: " + workerId +
+                        " - Subrango: [" + processedSubRange.start + "-" + processedSubRange.end + "]" +
+                        " - Tiempo Procesamiento Worker: " + workerProcessingTimeMillis + " ms" +
+                        " - Clasificación (Worker): " + summary));
+
+        job.completeChunk(workerId, true, workerProcessingTimeMillis);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Recibe un lote de candidatos de ciclos alícuotas. Solo el último lote de cada worker
+     * (lastBatch = true) cierra el chunk: los anteriores llegan antes porque el worker los envía de forma síncrona.
+     * Los lotes se guardan por intento y pasan al trabajo solo si ese intento es el primero en cerrar el chunk.
+     */
+    @Override
+    public CompletionStage<Void> submitAliquotCandidatesAsync(
+            String workerId,
+            Range processedSubRange,
+            AliquotEdge[] candidates,
+            boolean lastBatch,
+            long workerProcessingTimeMillis,
+            Current current) {
+
+        JobState job = jobFor(workerId);
+        if (job == null) {
+            return CompletableFuture.completedFuture(null);
         }
-        try {
-            System.out.println("[MASTER_CONTROLLER] ("+currentJobLogId+") Esperando finalización de " + jobCompletionLatch.getCount() +
-                    " worker(s) restantes (timeout: " + timeoutMillis + "ms)...");
-            boolean completed = jobCompletionLatch.await(timeoutMillis, TimeUnit.MILLISECONDS);
-            if (!completed) {
-                System.err.println("[MASTER_CONTROLLER] ("+currentJobLogId+") TIMEOUT esperando workers. Faltaron " +
-                        jobCompletionLatch.getCount() + " después de " + timeoutMillis + "ms.");
-            } else {
-                System.out.println("[MASTER_CONTROLLER] ("+currentJobLogId+") Todos los workers asignados respondieron o fallas manejadas.");
+        if (candidates.length > 0) {
+            long[] flatEdges = new long[2 * candidates.length];
+            for (int i = 0; i < candidates.length; i++) {
+                flatEdges[2 * i] = candidates[i].n;
+                flatEdges[2 * i + 1] = candidates[i].next;
             }
-            return completed;
-        } catch (InterruptedException e) {
-            System.err.println("[MASTER_CONTROLLER] ("+currentJobLogId+") Hilo interrumpido esperando workers.");
-            Thread.currentThread().interrupt();
-            return false;
+            job.addAliquotCandidates(workerId, flatEdges);
+        }
+        if (!lastBatch) {
+            return CompletableFuture.completedFuture(null);
         }
+        if (!job.claimChunk(workerId)) {
+            return CompletableFuture.completedFuture(null); // Otro intento del mismo chunk respondió primero: sus lotes se descartan
+        }
+        job.commitAliquotCandidates(workerId);
+
+        System.out.println("[MASTER_CONTROLLER] ("+job.getJobLogId()+") Candidatos alícuotas completos de worker: " + workerId +
+                " para subrango [" + processedSubRange.start + ", " + processedSubRange.end + "]. Tiempo del worker: " + workerProcessingTimeMillis + " ms.");
+
+        String jobLogId = job.getJobLogId();
+        eventLog.publish(new EventLog.Event("candidatos_alicuotas_worker").with("job", jobLogId).with("worker", workerId)
+                .with("inicio", processedSubRange.start).with("fin", processedSubRange.end).with("ms", workerProcessingTimeMillis)
+                .text(() -> "Job ID: " + jobLogId +
+                        " - Worker ID: " + workerId +
+                        " - Subrango: [" + processedSubRange.start + "-" + processedSubRange.end + "]" +
+                        " - Tiempo Procesamiento Worker: " + workerProcessingTimeMillis + " ms" +
+                        " - Candidatos alícuotas enviados"));
+
+        job.completeChunk(workerId, true, workerProcessingTimeMillis);
+        return CompletableFuture.completedFuture(null);
     }
 
     /**
-     * Consolida todos los números perfectos encontrados por los workers,
-     * los ordena y retorna un array con el resultado final.
+     * @return resumen "Predicado=conteo (suma=...)" de cada resultado (para logs)
      */
-    public long[] getAllFoundPerfectNumbers() {
-        List<Long> allPerfectsList = new ArrayList<>();
-        // Recorrer resultados de cada worker
-        for (WorkerResult result : partialResults.values()) {
-            for (long p : result.numbers) {
-                allPerfectsList.add(p);
+    static String formatClassification(PredicateResult[] results) {
+        StringBuilder sb = new StringBuilder();
+        for (PredicateResult result : results) {
+            sb.append(sb.length() > 0 ? ", " : "").append(result.query.predicate);
+            if (result.query.predicate == SigmaPredicate.MultiplyPerfect) {
+                sb.append("(k=").append(result.query.k).append(')');
             }
+            sb.append('=').append(result.count).append(" (suma=").append(RangeSplitter.format(result.sum))
+                    .append(result.truncated ? ", lista truncada" : "").append(')');
+        }
+        return sb.toString();
+    }
+
+    static String formatWide(UInt128[] numbers) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < numbers.length; i++) {
+            sb.append(i > 0 ? ", " : "").append(RangeSplitter.format(numbers[i]));
         }
-        // Ordenar la lista antes de convertir
-        Collections.sort(allPerfectsList);
-        long[] finalResult = allPerfectsList.stream().mapToLong(l -> l).toArray();
-        System.out.println("[MASTER_CONTROLLER] ("+currentJobLogId+") Resultados parciales consolidados. Total: " + finalResult.length +
-                ". Números: " + Arrays.toString(finalResult));
-        return finalResult;
+        return sb.append(']').toString();
     }
-}
\ No newline at end of file
+}
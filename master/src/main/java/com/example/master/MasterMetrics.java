@@ -0,0 +1,149 @@
+// --- Archivo: master/src/main/java/com/example/master/MasterMetrics.java ---
+package com.example.master;
+
+import com.example.common.LatencyHistogram; // Histogramas de latencia sin locks
+import com.zeroc.Ice.Identity; // Identidad de un worker
+import com.zeroc.Ice.Util;
+import perfectNumbersApp.JobQueueStats; // Estado de la cola de trabajos
+import perfectNumbersApp.LatencySummary; // Resumen de un histograma (getMetrics)
+import perfectNumbersApp.MetricsSnapshot; // Respuesta de getMetrics
+import perfectNumbersApp.WorkerThroughput; // Rendimiento de un worker (getMetrics)
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Métricas del Maestro desde el arranque: rendimiento de cada worker (números por segundo de cálculo), histogramas
+ * del tiempo de cálculo y de ida y vuelta de los chunks, y de la espera en cola, la ejecución y la latencia total
+ * de los trabajos. Registrar son unos pocos incrementos atómicos (ver LatencyHistogram), así que queda siempre activo.
+ * Se leen con getMetrics (Slice) y como texto en el endpoint HTTP de MetricsHttpEndpoint.
+ */
+final class MasterMetrics {
+    static final String CHUNK_COMPUTE = "chunk_compute_ms"; // Tiempo de cálculo reportado por el worker
+    static final String CHUNK_ROUND_TRIP = "chunk_round_trip_ms"; // Envío -> resultado, visto por el Maestro
+    static final String JOB_QUEUE_WAIT = "job_queue_wait_ms"; // Espera en la cola de trabajos
+    static final String JOB_RUN = "job_run_ms"; // Admisión -> cliente notificado
+    static final String JOB_END_TO_END = "job_end_to_end_ms"; // Encolado -> cliente notificado
+
+    private final long startedAt = System.currentTimeMillis();
+    private final LatencyHistogram chunkCompute = new LatencyHistogram();
+    private final LatencyHistogram chunkRoundTrip = new LatencyHistogram();
+    private final LatencyHistogram jobQueueWait = new LatencyHistogram();
+    private final LatencyHistogram jobRun = new LatencyHistogram();
+    private final LatencyHistogram jobEndToEnd = new LatencyHistogram();
+    private final Map<Identity, WorkerStats> workers = new ConcurrentHashMap<>();
+
+    /**
+     * Acumulado de un worker.
+     */
+    private static final class WorkerStats {
+        final AtomicLong chunks = new AtomicLong();
+        final AtomicLong numbers = new AtomicLong();
+        final AtomicLong computeMillis = new AtomicLong();
+    }
+
+    /**
+     * Un chunk se completó.
+     * @param worker         worker que respondió primero
+     * @param numbers        números del chunk
+     * @param computeMillis  tiempo de cálculo reportado por el worker
+     * @param roundTripMillis desde el envío del intento ganador hasta su resultado
+     */
+    void chunkCompleted(Identity worker, long numbers, long computeMillis, long roundTripMillis) {
+        chunkCompute.record(computeMillis);
+        chunkRoundTrip.record(roundTripMillis);
+        WorkerStats stats = workers.computeIfAbsent(worker, id -> new WorkerStats());
+        stats.chunks.incrementAndGet();
+        stats.numbers.addAndGet(numbers);
+        stats.computeMillis.addAndGet(computeMillis);
+    }
+
+    /**
+     * Un trabajo de la cola terminó (el cliente ya fue notificado).
+     */
+    void jobFinished(long queueWaitMillis, long runMillis) {
+        jobQueueWait.record(queueWaitMillis);
+        jobRun.record(runMillis);
+        jobEndToEnd.record(queueWaitMillis + runMillis);
+    }
+
+    /**
+     * @return trabajos de la cola terminados desde el arranque
+     */
+    long getCompletedJobs() {
+        return jobEndToEnd.getCount();
+    }
+
+    /**
+     * Fotografía de las métricas. Los workers que dejan de estar registrados conservan sus acumulados.
+     * @param registeredWorkers workers en el registro
+     * @param liveWorkers       workers con lease vigente
+     * @param queue             estado actual de la cola
+     */
+    MetricsSnapshot snapshot(int registeredWorkers, int liveWorkers, JobQueueStats queue) {
+        List<LatencySummary> latencies = new ArrayList<>();
+        latencies.add(summary(CHUNK_COMPUTE, chunkCompute));
+        latencies.add(summary(CHUNK_ROUND_TRIP, chunkRoundTrip));
+        latencies.add(summary(JOB_QUEUE_WAIT, jobQueueWait));
+        latencies.add(summary(JOB_RUN, jobRun));
+        latencies.add(summary(JOB_END_TO_END, jobEndToEnd));
+        List<WorkerThroughput> throughput = new ArrayList<>();
+        workers.forEach((identity, stats) -> {
+            long millis = stats.computeMillis.get();
+            long numbers = stats.numbers.get();
+            throughput.add(new WorkerThroughput(Util.identityToString(identity), stats.chunks.get(), numbers, millis,
+                    (millis == 0) ? 0 : numbers * 1000.0 / millis));
+        });
+        throughput.sort((a, b) -> a.worker.compareTo(b.worker));
+        return new MetricsSnapshot(System.currentTimeMillis() - startedAt, registeredWorkers, liveWorkers, queue, getCompletedJobs(),
+                latencies.toArray(new LatencySummary[0]), throughput.toArray(new WorkerThroughput[0]));
+    }
+
+    private static LatencySummary summary(String name, LatencyHistogram histogram) {
+        long[] p = histogram.getValuesAtQuantiles(0.5, 0.9, 0.99, 0.999);
+        return new LatencySummary(name, histogram.getCount(), histogram.getMean(), p[0], p[1], p[2], p[3], histogram.getMax());
+    }
+
+    /**
+     * Formato de texto "nombre{etiquetas} valor", una métrica por línea (compatible con Prometheus).
+     */
+    static String toText(MetricsSnapshot metrics) {
+        StringBuilder sb = new StringBuilder(2048);
+        line(sb, "master_uptime_ms", "", metrics.uptimeMillis);
+        line(sb, "master_workers_registered", "", metrics.registeredWorkers);
+        line(sb, "master_workers_live", "", metrics.liveWorkers);
+        line(sb, "master_queue_depth", "", metrics.queue.queueDepth);
+        line(sb, "master_queue_depth", "{priority=\"interactive\"}", metrics.queue.interactiveDepth);
+        line(sb, "master_queue_depth", "{priority=\"normal\"}", metrics.queue.normalDepth);
+        line(sb, "master_queue_depth", "{priority=\"batch\"}", metrics.queue.batchDepth);
+        line(sb, "master_jobs_running", "", metrics.queue.runningJobs);
+        line(sb, "master_jobs_admitted_total", "", metrics.queue.admittedJobs);
+        line(sb, "master_jobs_rejected_total", "", metrics.queue.rejectedJobs);
+        line(sb, "master_jobs_completed_total", "", metrics.completedJobs);
+        for (LatencySummary latency : metrics.latencies) {
+            String name = "master_" + latency.name;
+            line(sb, name + "_count", "", latency.count);
+            line(sb, name + "_mean", "", String.format(Locale.ROOT, "%.3f", latency.meanMillis));
+            line(sb, name, "{quantile=\"0.5\"}", latency.p50Millis);
+            line(sb, name, "{quantile=\"0.9\"}", latency.p90Millis);
+            line(sb, name, "{quantile=\"0.99\"}", latency.p99Millis);
+            line(sb, name, "{quantile=\"0.999\"}", latency.p999Millis);
+            line(sb, name + "_max", "", latency.maxMillis);
+        }
+        for (WorkerThroughput worker : metrics.workers) {
+            String labels = "{worker=\"" + worker.worker.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+            line(sb, "master_worker_chunks_total", labels, worker.chunks);
+            line(sb, "master_worker_numbers_total", labels, worker.numbers);
+            line(sb, "master_worker_compute_ms_total", labels, worker.computeMillis);
+            line(sb, "master_worker_numbers_per_second", labels, String.format(Locale.ROOT, "%.1f", worker.numbersPerSecond));
+        }
+        return sb.toString();
+    }
+
+    private static void line(StringBuilder sb, String name, String labels, Object value) {
+        sb.append(name).append(labels).append(' ').append(value).append('\n');
+    }
+}
@@ -4,18 +4,24 @@ package com.example.master;
 import com.zeroc.Ice.Exception; // Excepción base de Ice
 import perfectNumbersApp.*; // Clases generadas por ICE
 import com.zeroc.Ice.*; // Clases base de ICE
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
+import com.example.common.EventLog; // Registro asíncrono de tiempos (tiempos_ejecucion.txt)
+import java.math.BigInteger; // Cantidad de números de un subrango (cobertura)
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays; // Para Arrays.toString
 import java.util.Collections; // Para Collections.emptyList
+import java.util.Comparator; // Orden de los workers por capacidad
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List; // Interfaz para listas
+import java.util.Map;
 import java.util.UUID; // Para generar IDs únicos
 import java.util.concurrent.CompletableFuture; // Para programación asíncrona
-import java.util.concurrent.CopyOnWriteArrayList; // Lista segura para concurrencia
+import java.util.concurrent.ConcurrentSkipListMap; // Chunks ordenados por inicio
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger; // Turno de las consultas reenviadas por un agregador
+import java.util.stream.LongStream; // Unión de los perfectos de la caché y los calculados
 
 /**
  * Implementación de MasterService.
@@ -23,23 +29,93 @@ import java.util.concurrent.CopyOnWriteArrayList; // Lista segura para concurren
  */
 public class MasterServiceI implements MasterService {
     private final ObjectAdapter adapter; // Adaptador donde se expone el servicio Maestro
-    // Lista de proxies a workers registrados (thread-safe)
-    private final List<WorkerServicePrx> registeredWorkers = new CopyOnWriteArrayList<>();
+    // Workers registrados, por identidad, con lease renovado por el worker o por ping en segundo plano
+    private final WorkerRegistry workerRegistry;
     private final MasterControllerPrx masterControllerProxy;
     private final MasterControllerI masterControllerServant;
-    private static final int MAX_WORKERS_TO_USE_FOR_A_JOB = 10; // Límite de workers por tarea
+    private final int maxWorkersPerJob; // Límite de workers por tarea (fan-out de este nodo en un árbol de agregadores)
     // ID único para este Maestro, usado en logs
     private final String masterLogId = "Master-" + UUID.randomUUID().toString().substring(0,4);
+    // Contexto Ice que acompaña cada subrango (p. ej. la estrategia de búsqueda del Worker)
+    private final Map<String, String> workerRequestContext = new HashMap<>();
+    private final int aliquotLookupBatchSize; // Números por consulta lookupAliquotSums a un worker
+    private final int chunksPerWorker; // Chunks en que se corta el trabajo por cada worker participante
+    private final int inFlightPerWorker; // Chunks simultáneos en curso por worker
+    private final long jobTimeoutMillis; // Espera máxima de un trabajo por sus chunks; 0 = sin límite
+    private static final int MAX_ALIQUOT_CYCLE_LENGTH = 64; // Límite de la longitud de ciclo pedida
+    // Reparto por costo estimado de los trabajos de rango normal; uno por tipo de trabajo (cada uno calibra su propia escala)
+    private final CostPartitioner perfectPartitioner;
+    private final CostPartitioner classifyPartitioner;
+    private final CostPartitioner aliquotPartitioner;
+    // Hilos de los trabajos admitidos (selección de workers y espera de resultados)
+    private final ExecutorService jobExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "master-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final MasterMetrics metrics = new MasterMetrics(); // Histogramas de latencia y rendimiento por worker
+    private final JobQueue jobQueue; // Admisión de trabajos: prioridades, límite de simultáneos y reparto entre clientes
+    private final WorkerCapacities workerCapacities; // Capacidad anunciada y observada de cada worker
+    private final ChunkRetryPolicy retryPolicy; // Reasignación de chunks fallidos o sin respuesta
+    private final SpeculativeExecution speculation; // Copias de respaldo de los chunks rezagados y sus métricas
+    private final RangeResultStore resultStore; // Rangos ya calculados y sus perfectos, persistidos en disco
+    private final EventLog eventLog; // Tiempos de workers, fallas y tiempos totales, escritos por un hilo aparte
+    private final JobJournal journal; // Bitácora de los trabajos en curso, para retomarlos tras un reinicio
+    private static final long RESUME_POLL_MILLIS = 500; // Espera entre comprobaciones al retomar trabajos de la bitácora
+    private final Communicator communicator; // Para reconstruir los proxies de clientes guardados en la bitácora
+    // Cliente al que se cargan los subtrabajos de agregador en el reparto justo de la cola
+    private static final String RELAYED_JOBS_CLIENT = "maestro-padre";
+    private final AtomicInteger relayedLookupTurn = new AtomicInteger(); // Turno de las consultas s(n) reenviadas
 
     /**
      * Constructor: registra internamente el MasterController y guarda referencias.
      * @param adapter Adaptador Ice donde se expone el servicio
-     * @param communicator Comunicador Ice (no usado directamente aquí)
+     * @param communicator Comunicador Ice (se usa para leer master.properties)
      */
     public MasterServiceI(ObjectAdapter adapter, Communicator communicator) {
         this.adapter = adapter;
+        this.communicator = communicator;
+        // Estrategia que se pedirá a los workers (full | euclid | euclid-odd); vacía = la de cada worker
+        String workerStrategy = communicator.getProperties().getProperty("Master.WorkerStrategy").trim();
+        if (!workerStrategy.isEmpty()) {
+            workerRequestContext.put("strategy", workerStrategy);
+            System.out.println("["+masterLogId+"] Estrategia solicitada a los workers: " + workerStrategy);
+        }
+        aliquotLookupBatchSize = communicator.getProperties().getPropertyAsIntWithDefault("Master.Aliquot.LookupBatchSize", 32768);
+        maxWorkersPerJob = Math.max(1, communicator.getProperties().getPropertyAsIntWithDefault("Master.MaxWorkersPerJob", 10));
+        chunksPerWorker = Math.max(1, communicator.getProperties().getPropertyAsIntWithDefault("Master.Scheduler.ChunksPerWorker", 8));
+        inFlightPerWorker = Math.max(1, communicator.getProperties().getPropertyAsIntWithDefault("Master.Scheduler.InFlightPerWorker", 2));
+        jobTimeoutMillis = Math.max(0, communicator.getProperties().getPropertyAsIntWithDefault("Master.Job.TimeoutSeconds", 0)) * 1000L;
+        System.out.println("["+masterLogId+"] Planificador: hasta " + maxWorkersPerJob + " worker(s) por trabajo, " + chunksPerWorker + " chunk(s) por worker, " +
+                inFlightPerWorker + " en curso por worker, espera máxima por trabajo: " + ((jobTimeoutMillis == 0) ? "sin límite" : jobTimeoutMillis / 1000 + " s") + ".");
+        // Modelo de costo por número para repartir los rangos (uniform | sqrt | sieve | calibrated)
+        String costModelName = communicator.getProperties().getPropertyWithDefault("Master.CostModel", BlockSieveCostModel.NAME);
+        int costModelBlockSize = communicator.getProperties().getPropertyAsIntWithDefault("Master.CostModel.BlockSize", 32768);
+        perfectPartitioner = new CostPartitioner(CostModel.fromName(costModelName, costModelBlockSize));
+        classifyPartitioner = new CostPartitioner(CostModel.fromName(costModelName, costModelBlockSize));
+        aliquotPartitioner = new CostPartitioner(CostModel.fromName(costModelName, costModelBlockSize));
+        System.out.println("["+masterLogId+"] Modelo de costo para repartir rangos: " + perfectPartitioner.getModel().getName());
+        jobQueue = JobQueue.fromProperties(communicator.getProperties(), jobExecutor, "["+masterLogId+"]");
+        jobQueue.setFinishedListener(metrics::jobFinished);
+        // La capacidad se mide con un modelo fijo: el calibrado cambia de unidades al ajustarse
+        CostModel capacityModel = CalibratedCostModel.NAME.equalsIgnoreCase(costModelName.trim())
+                ? new BlockSieveCostModel(costModelBlockSize) : CostModel.fromName(costModelName, costModelBlockSize);
+        int capacitySmoothingPercent = communicator.getProperties().getPropertyAsIntWithDefault("Master.Capacity.SmoothingPercent", 30);
+        workerCapacities = new WorkerCapacities(capacityModel, capacitySmoothingPercent / 100.0, "["+masterLogId+"]");
+        retryPolicy = ChunkRetryPolicy.fromProperties(communicator.getProperties());
+        System.out.println("["+masterLogId+"] Reasignación de chunks: " + retryPolicy.describe());
+        speculation = SpeculativeExecution.fromProperties(communicator.getProperties());
+        System.out.println("["+masterLogId+"] Ejecución especulativa: " + speculation.describeSettings());
+        resultStore = RangeResultStore.fromProperties(communicator.getProperties(), "["+masterLogId+"]");
+        System.out.println("["+masterLogId+"] Caché de resultados: " + (resultStore.isEnabled() ? resultStore.describeCoverage() : "desactivada"));
+        journal = JobJournal.fromProperties(communicator.getProperties(), "["+masterLogId+"]");
+        System.out.println("["+masterLogId+"] Bitácora de trabajos: " + journal.describe());
+        workerRegistry = WorkerRegistry.fromProperties(communicator.getProperties(), workerCapacities::forget, "["+masterLogId+"]");
+        System.out.println("["+masterLogId+"] Registro de workers: " + workerRegistry.describe());
+        eventLog = EventLog.fromProperties(communicator.getProperties(), "Master.EventLog", "tiempos_ejecucion.txt", "["+masterLogId+"]");
+        System.out.println("["+masterLogId+"] Registro de eventos: " + eventLog.describe());
         // Crear servant interno que recibe resultados de workers
-        this.masterControllerServant = new MasterControllerI();
+        this.masterControllerServant = new MasterControllerI(eventLog);
         // Identidad única para el MasterController interno
         String controllerIdentity = "MasterController-" + UUID.randomUUID().toString();
         // Registrar el servant en el adaptador y obtener un proxy para él
@@ -50,7 +126,8 @@ public class MasterServiceI implements MasterService {
     }
 
     /**
-     * Permite a un worker registrarse para recibir tareas.
+     * Permite a un worker registrarse para recibir tareas. Queda vivo mientras renueve su lease
+     * (renewLease) o responda los pings en segundo plano del registro.
      */
     @Override
     public void registerWorker(WorkerServicePrx workerProxy, Current current) {
@@ -58,245 +135,838 @@ public class MasterServiceI implements MasterService {
             System.err.println("["+masterLogId+"] Intento de registrar worker con proxy nulo. Ignorando.");
             return;
         }
-        // Obtener identidad y representación legible del proxy
-        Identity workerIdentity = workerProxy.ice_getIdentity();
-        String workerStringRep = getProxyStringRepresentation(workerProxy);
+        workerRegistry.register(workerProxy);
+    }
 
-        // Verificar si ya está registrado
-        boolean alreadyRegistered = false;
-        for (WorkerServicePrx existingWorker : registeredWorkers) {
-            if (existingWorker.ice_getIdentity().equals(workerIdentity)) {
-                alreadyRegistered = true;
-                break;
-            }
+    /**
+     * Registra un worker junto con la capacidad que anuncia (núcleos, motores y autoprueba).
+     */
+    @Override
+    public void registerWorkerWithCapabilities(WorkerServicePrx workerProxy, WorkerCapabilities capabilities, Current current) {
+        registerWorker(workerProxy, current);
+        if (workerProxy == null || capabilities == null) {
+            return;
+        }
+        Identity workerIdentity = workerProxy.ice_getIdentity();
+        if (workerRegistry.isRegistered(workerIdentity)) {
+            workerCapacities.register(workerIdentity, capabilities);
         }
+    }
 
-        if (!alreadyRegistered) {
-            try {
-                workerProxy.ice_ping(); // Ping para asegurar que está activo
-                registeredWorkers.add(workerProxy);
-                System.out.println("["+masterLogId+"] Worker '" + workerIdentity.name + "' (" + workerStringRep + ") registrado (ping OK). Total: " + registeredWorkers.size());
-            } catch (Exception e) {
-                System.err.println("["+masterLogId+"] Error ping worker '" + workerIdentity.name + "' (" + workerStringRep + "): " + e.getClass().getSimpleName() + ". No añadido.");
-            }
-        } else {
-            System.out.println("["+masterLogId+"] Worker '" + workerIdentity.name + "' (" + workerStringRep + ") ya estaba registrado.");
+    /**
+     * Renueva el lease de un worker. Devuelve la duración del lease en ms, o 0 si el worker ya no
+     * está registrado (se quitó por lease vencido o ping fallido) y debe registrarse de nuevo.
+     */
+    @Override
+    public long renewLease(WorkerServicePrx workerProxy, Current current) {
+        if (workerProxy == null) {
+            return 0;
         }
+        return workerRegistry.renew(workerProxy);
     }
 
     /**
-     * Devuelve cuántos workers activos hay, eliminando los que no responden.
+     * Devuelve cuántos workers están registrados (sin llamadas de red: el registro quita en segundo plano los que no responden).
      */
     @Override
     public int getActiveWorkerCount(Current current) {
-        System.out.println("["+masterLogId+"] Solicitud `getActiveWorkerCount` del cliente.");
-        List<WorkerServicePrx> workersToRemove = new ArrayList<>();
-        for (WorkerServicePrx worker : registeredWorkers) {
-            try {
-                worker.ice_ping();
-            } catch (LocalException le) {
-                System.err.println("["+masterLogId+"] getActiveWorkerCount: Worker " + getProxyStringRepresentation(worker) + " no respondió (Excepción Local: " + le.getClass().getSimpleName() + "). Removiendo.");
-                workersToRemove.add(worker);
-            } catch (Exception e) {
-                System.err.println("["+masterLogId+"] getActiveWorkerCount: Excepción inesperada ping worker " + getProxyStringRepresentation(worker) + ": " + e.getMessage() + ". Removiendo.");
-                workersToRemove.add(worker);
-            }
-        }
+        int registered = workerRegistry.size();
+        System.out.println("["+masterLogId+"] Solicitud `getActiveWorkerCount` del cliente. Workers activos reportados: " + registered);
+        return registered;
+    }
 
-        // Eliminar los inactivos
-        if (!workersToRemove.isEmpty()) {
-            registeredWorkers.removeAll(workersToRemove);
-            System.out.println("["+masterLogId+"] getActiveWorkerCount: Removidos " + workersToRemove.size() + " workers inactivos. Registrados ahora: " + registeredWorkers.size());
+    /**
+     * Devuelve la profundidad de la cola de trabajos, los trabajos en curso y los tiempos de espera.
+     */
+    @Override
+    public JobQueueStats getJobQueueStats(Current current) {
+        JobQueueStats stats = jobQueue.getStats();
+        System.out.println("["+masterLogId+"] Solicitud `getJobQueueStats`: en espera " + stats.queueDepth + ", en curso " + stats.runningJobs +
+                ", espera promedio " + stats.avgWaitMillis + " ms, rechazados " + stats.rejectedJobs + ".");
+        return stats;
+    }
+
+    /**
+     * Devuelve las métricas desde el arranque: histogramas de latencia, rendimiento por worker y estado de la cola.
+     */
+    @Override
+    public MetricsSnapshot getMetrics(Current current) {
+        return getMetrics();
+    }
+
+    /**
+     * @return métricas actuales (también para el endpoint HTTP)
+     */
+    MetricsSnapshot getMetrics() {
+        return metrics.snapshot(workerRegistry.size(), workerRegistry.liveWorkers().size(), jobQueue.getStats());
+    }
+
+    /**
+     * Lo que cambia entre un trabajo normal y uno de rango amplio: cómo se divide el rango,
+     * qué operación se invoca en cada worker y cómo se notifica al cliente.
+     * @param <R> tipo de rango (Range o WideRange)
+     */
+    private interface JobKind<R> {
+        /**
+         * Divide el rango del trabajo en a lo sumo shares.length subrangos consecutivos, con costo proporcional
+         * a cada share cuando el tipo de rango lo permite (vacío si el rango es inválido).
+         */
+        List<R> split(double[] shares);
+
+        /** Texto "[start, end]" de un subrango para los logs. */
+        String describe(R subRange);
+
+        /** Cantidad de números de un subrango (para la cobertura del mensaje final). */
+        BigInteger count(R subRange);
+
+        /** Envía el subrango al worker (AMD, no bloquea); el futuro falla si el worker no recibió la llamada. */
+        CompletableFuture<?> send(WorkerServicePrx worker, R subRange, String workerJobId);
+
+        /** Notifica al cliente con los resultados del trabajo; si results es null, se envía la lista vacía. */
+        void notifyClient(String statusMessage, long elapsedTimeMillis, JobState results);
+
+        /**
+         * Tiempo real de un chunk completado (los trabajos de rango normal lo comparan con el costo estimado).
+         * results tiene ya guardado el resultado del intento ganador (chunkId).
+         */
+        default void chunkCompleted(R subRange, String chunkId, long workerProcessingTimeMillis, JobState results) {
         }
-        System.out.println("["+masterLogId+"] Workers activos reportados: " + registeredWorkers.size());
-        return registeredWorkers.size();
     }
 
     /**
      * Recibe la petición de búsqueda de números perfectos, divide el rango y despacha a workers.
+     * Las partes del rango que ya están en la caché de resultados se responden desde ahí y solo se despachan los huecos;
+     * si el rango está cubierto por completo se responde sin pasar por la cola ni por los workers.
      */
     @Override
     public void findPerfectNumbersInRange(
             Range jobRange,
             ClientNotifierPrx clientNotifierProxy,
             int numWorkersRequestedByClient,
-            Current current) {
+            Current current) throws JobQueueFullException {
 
-        String jobLogId = "Job-" + UUID.randomUUID().toString().substring(0, 5);
+        String jobLogId = newJobLogId();
         System.out.println("["+masterLogId+"] ("+jobLogId+") Solicitud: Rango [" + jobRange.start + ", " + jobRange.end + "], Workers Solicitados: " + numWorkersRequestedByClient);
 
-        if (clientNotifierProxy == null) {
-            System.err.println("["+masterLogId+"] ("+jobLogId+") ERROR CRITICO: ClientNotifierPrx es nulo.");
+        long lookupStartTime = System.currentTimeMillis();
+        RangeResultStore.Lookup cached = resultStore.lookup(jobRange);
+        if (resultStore.isEnabled() && cached.coveredNumbers.signum() > 0) {
+            System.out.println("["+masterLogId+"] ("+jobLogId+") Caché de resultados: " + cached.describe() + ".");
+        }
+        if (cached.isFullHit() && clientNotifierProxy != null) {
+            long elapsedTimeMillis = System.currentTimeMillis() - lookupStartTime;
+            String statusMessage = "Trabajo completado desde la caché de resultados (" + cached.describe() + ").";
+            System.out.println("["+masterLogId+"] ("+jobLogId+") " + statusMessage + " Caché: " + resultStore.describe());
+            clientNotifierProxy.notifyJobCompletionAsync(jobRange, cached.perfectNumbers, statusMessage, elapsedTimeMillis);
             return;
         }
 
-        // Seleccionar workers disponibles según petición y límite
-        List<WorkerServicePrx> workersForThisJob = selectWorkersForTask(numWorkersRequestedByClient, jobLogId);
+        // La aceptación queda en la bitácora antes de entrar a la cola (un Maestro reiniciado retoma el trabajo)
+        if (clientNotifierProxy != null) {
+            journal.accepted(jobLogId, jobRange, numWorkersRequestedByClient, JobQueue.clientOf(current), JobQueue.priorityOf(current).name(),
+                    clientNotifierProxy.toString());
+        }
+        try {
+            enqueueJob(jobLogId, clientNotifierProxy, numWorkersRequestedByClient, current, perfectSearchJob(jobLogId, jobRange, clientNotifierProxy,
+                    cached.gaps, cached.perfectNumbers, cached.coveredNumbers.signum() > 0 ? "Caché: " + cached.describe() : null));
+        } catch (JobQueueFullException e) {
+            journal.finished(jobLogId); // No llegó a entrar a la cola
+            throw e;
+        }
+    }
 
-        if (workersForThisJob.isEmpty()) {
-            System.out.println("["+masterLogId+"] ("+jobLogId+") No hay workers activos. Notificando al cliente.");
-            // Notificar cliente si no hay workers
-            try {
-                clientNotifierProxy.notifyJobCompletionAsync(jobRange, new long[0], "No hay workers activos disponibles.", 0L);
-            } catch (Exception e) {
-                System.err.println("["+masterLogId+"] ("+jobLogId+") Error notificando al cliente (no workers): " + e.getMessage());
+    /**
+     * Búsqueda de perfectos de un rango del que solo faltan calcular los huecos gaps (todo el rango, lo que no está en la
+     * caché de resultados o lo que la bitácora no tenía completado); knownPerfectNumbers son los perfectos del resto.
+     * Cada subrango despachado y completado queda en la bitácora y cada subrango completado en la caché.
+     * @param knownDescription de dónde salen las partes ya calculadas, para el mensaje al cliente (null si no hay)
+     */
+    private JobKind<Range> perfectSearchJob(String jobLogId, Range jobRange, ClientNotifierPrx clientNotifierProxy, List<Range> gaps,
+                                            long[] knownPerfectNumbers, String knownDescription) {
+        return new JobKind<Range>() {
+            @Override
+            public List<Range> split(double[] shares) {
+                return perfectPartitioner.split(gaps, shares);
+            }
+
+            @Override
+            public String describe(Range subRange) {
+                return "[" + subRange.start + ", " + subRange.end + "]";
+            }
+
+            @Override
+            public BigInteger count(Range subRange) {
+                return RangeSplitter.count(subRange);
+            }
+
+            @Override
+            public void chunkCompleted(Range subRange, String chunkId, long workerProcessingTimeMillis, JobState results) {
+                perfectPartitioner.recordChunk("["+masterLogId+"] ("+jobLogId+")", chunkId, subRange, workerProcessingTimeMillis);
+                long[] found = results.getPerfectNumbers(chunkId);
+                resultStore.record(subRange, found);
+                journal.completed(jobLogId, subRange, found);
+            }
+
+            @Override
+            public CompletableFuture<?> send(WorkerServicePrx worker, Range subRange, String workerJobId) {
+                journal.dispatched(jobLogId, workerJobId, subRange);
+                return worker.processSubRangeAsync(subRange, masterControllerProxy, workerJobId, workerRequestContext);
+            }
+
+            @Override
+            public void notifyClient(String statusMessage, long elapsedTimeMillis, JobState results) {
+                long[] perfectNumbers = (results != null) ? results.getAllFoundPerfectNumbers() : new long[0];
+                if (knownPerfectNumbers.length > 0) {
+                    perfectNumbers = LongStream.concat(Arrays.stream(knownPerfectNumbers), Arrays.stream(perfectNumbers)).sorted().distinct().toArray();
+                }
+                if (knownDescription != null) {
+                    statusMessage = statusMessage + " " + knownDescription + ".";
+                }
+                if (resultStore.isEnabled()) {
+                    resultStore.persist();
+                    System.out.println("["+masterLogId+"-BG] ("+jobLogId+") Caché de resultados: " + resultStore.describe());
+                }
+                // Con chunks abiertos (timeout) el trabajo no se da por terminado: la bitácora conserva sus huecos para retomarlo
+                boolean finished = (results == null) || results.getPendingChunkCount() == 0;
+                try {
+                    clientNotifierProxy.notifyJobCompletionAsync(jobRange, perfectNumbers, statusMessage, elapsedTimeMillis);
+                } finally {
+                    if (finished) {
+                        journal.finished(jobLogId);
+                    } else if (journal.isActive(jobLogId)) {
+                        System.out.println("["+masterLogId+"-BG] ("+jobLogId+") Quedan " + results.getPendingChunkCount() +
+                                " chunk(s) sin cerrar: el trabajo sigue en la bitácora y se retomará al reiniciar el Maestro.");
+                    }
+                }
             }
+        };
+    }
+
+    /**
+     * Retoma los trabajos que la bitácora tenía sin terminar (lo llama MasterApp con el adaptador ya activo): espera a que
+     * se registre al menos un worker, y un poco más para que se registren los demás, y los pone de nuevo en la cola;
+     * solo se despachan los subrangos que no figuraban como completados.
+     */
+    public void resumeJournaledJobs() {
+        List<JobJournal.PendingJob> pending = journal.getPendingJobs();
+        if (pending.isEmpty()) {
             return;
         }
+        System.out.println("["+masterLogId+"] " + pending.size() + " trabajo(s) de la bitácora se retomarán cuando se registren los workers.");
+        jobExecutor.execute(() -> {
+            try {
+                while (workerRegistry.size() == 0) {
+                    Thread.sleep(RESUME_POLL_MILLIS);
+                }
+                Thread.sleep(journal.getResumeGraceMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            for (JobJournal.PendingJob pendingJob : pending) {
+                resumeJob(pendingJob);
+            }
+        });
+    }
 
-        long jobStartTimeOnMaster = System.currentTimeMillis();
-        // Preparar sincronización de respuestas
-        masterControllerServant.resetForNewJob(workersForThisJob.size(), jobLogId); // Pasar jobLogId
-
-        long totalNumbersToProcess = jobRange.end - jobRange.start + 1;
-        if (totalNumbersToProcess <= 0) {
-            System.err.println("["+masterLogId+"] ("+jobLogId+") Rango inválido. Notificando cliente.");
+    private void resumeJob(JobJournal.PendingJob pendingJob) {
+        String jobLogId = pendingJob.jobLogId;
+        ClientNotifierPrx clientNotifierProxy;
+        try {
+            clientNotifierProxy = ClientNotifierPrx.uncheckedCast(communicator.stringToProxy(pendingJob.clientProxy));
+        } catch (LocalException e) {
+            System.err.println("["+masterLogId+"] ("+jobLogId+") Proxy del cliente ilegible en la bitácora (" + e.getClass().getSimpleName() + "). Trabajo descartado.");
+            journal.finished(jobLogId);
+            return;
+        }
+        List<Range> gaps = pendingJob.gaps();
+        long[] knownPerfectNumbers = pendingJob.knownPerfectNumbers();
+        String knownDescription = "Retomado tras reiniciar el Maestro: " + pendingJob.completed.size() + " subrango(s) ya calculados antes";
+        System.out.println("["+masterLogId+"] ("+jobLogId+") Retomando [" + pendingJob.range.start + ", " + pendingJob.range.end + "]: " +
+                gaps.size() + " hueco(s) por calcular, " + knownPerfectNumbers.length + " perfecto(s) ya encontrados.");
+        if (gaps.isEmpty()) {
+            // Todo estaba calculado: solo faltaba notificar al cliente
+            JobKind<Range> job = perfectSearchJob(jobLogId, pendingJob.range, clientNotifierProxy, gaps, knownPerfectNumbers, knownDescription);
             try {
-                clientNotifierProxy.notifyJobCompletionAsync(jobRange, new long[0], "Rango inválido.", 0L);
+                job.notifyClient("Trabajo completado.", 0L, null);
             } catch (Exception e) {
-                System.err.println("["+masterLogId+"] ("+jobLogId+") Error notificando al cliente (rango inválido): " + e.getMessage());
+                System.err.println("["+masterLogId+"] ("+jobLogId+") Error notificando al cliente: " + e.getMessage());
             }
-            masterControllerServant.resetForNewJob(0, jobLogId);
             return;
         }
+        JobPriority priority;
+        try {
+            priority = JobPriority.valueOf(pendingJob.priority);
+        } catch (IllegalArgumentException e) {
+            priority = JobPriority.Normal;
+        }
+        while (true) {
+            try {
+                jobQueue.submit(jobLogId, pendingJob.clientId, priority, () -> runJob(jobLogId, pendingJob.clientId, clientNotifierProxy, pendingJob.numWorkers,
+                        perfectSearchJob(jobLogId, pendingJob.range, clientNotifierProxy, gaps, knownPerfectNumbers, knownDescription)));
+                return;
+            } catch (JobQueueFullException e) {
+                try {
+                    Thread.sleep(Math.max(RESUME_POLL_MILLIS, e.retryAfterMillis));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
 
-        long numbersPerWorker = Math.max(1, (totalNumbersToProcess + workersForThisJob.size() - 1) / workersForThisJob.size());
-        long currentSubRangeStart = jobRange.start;
-        int actualWorkersDispatched = 0;
+    /**
+     * Igual que findPerfectNumbersInRange, para rangos amplios (128 bits sin signo).
+     * El rango se divide en chunks de igual cantidad de números (RangeSplitter): el modelo de costo trabaja con double
+     * y no distingue fronteras por encima de 2^64.
+     */
+    @Override
+    public void findPerfectNumbersInWideRange(
+            WideRange jobRange,
+            ClientNotifierPrx clientNotifierProxy,
+            int numWorkersRequestedByClient,
+            Current current) throws JobQueueFullException {
 
-        System.out.println("["+masterLogId+"] ("+jobLogId+") Distribuyendo. Workers seleccionados: " + workersForThisJob.size() + ". Números/worker aprox: " + numbersPerWorker);
+        String jobLogId = newJobLogId();
+        System.out.println("["+masterLogId+"] ("+jobLogId+") Solicitud: Rango amplio " + RangeSplitter.format(jobRange) + ", Workers Solicitados: " + numWorkersRequestedByClient);
 
-        // Dividir y enviar subrangos
-        for (int i = 0; i < workersForThisJob.size(); i++) {
-            if (currentSubRangeStart > jobRange.end) {
-                System.out.println("["+masterLogId+"] ("+jobLogId+") Rango completo asignado. " + (workersForThisJob.size() - i) + " worker(s) no recibirán tarea.");
-                for (int j = i; j < workersForThisJob.size(); j++) {
-                    masterControllerServant.handleWorkerFailureOrNoTask(getProxyStringRepresentation(workersForThisJob.get(j)));
-                }
-                break;
+        enqueueJob(jobLogId, clientNotifierProxy, numWorkersRequestedByClient, current, new JobKind<WideRange>() {
+            @Override
+            public List<WideRange> split(double[] shares) {
+                return RangeSplitter.split(jobRange, shares.length); // Igual cantidad de números por chunk
             }
 
-            WorkerServicePrx worker = workersForThisJob.get(i);
-            long currentSubRangeEnd = Math.min(jobRange.end, currentSubRangeStart + numbersPerWorker - 1);
+            @Override
+            public String describe(WideRange subRange) {
+                return RangeSplitter.format(subRange);
+            }
 
-            if (currentSubRangeStart > currentSubRangeEnd) {
-                System.out.println("["+masterLogId+"] ("+jobLogId+") Subrango para worker " + getProxyStringRepresentation(worker) + " sería inválido. Ajustando latch.");
-                masterControllerServant.handleWorkerFailureOrNoTask(getProxyStringRepresentation(worker));
-                continue;
+            @Override
+            public BigInteger count(WideRange subRange) {
+                return RangeSplitter.count(subRange);
             }
 
-            Range subRange = new Range(currentSubRangeStart, currentSubRangeEnd);
-            String workerJobId = jobLogId + "-W" + (i+1) + "-" + worker.ice_getIdentity().name.substring(0, Math.min(8, worker.ice_getIdentity().name.length()));
-            String workerStringRep = getProxyStringRepresentation(worker);
-            System.out.println("["+masterLogId+"] ("+jobLogId+") Enviando [" + subRange.start + ", " + subRange.end + "] a " + workerStringRep + " (ID Tarea Worker: " + workerJobId + ")");
+            @Override
+            public CompletableFuture<?> send(WorkerServicePrx worker, WideRange subRange, String workerJobId) {
+                return worker.processWideSubRangeAsync(subRange, masterControllerProxy, workerJobId, workerRequestContext);
+            }
 
-            try {
-                worker.processSubRangeAsync(subRange, this.masterControllerProxy, workerJobId);
-                actualWorkersDispatched++;
-            } catch (Exception e) {
-                System.err.println("["+masterLogId+"] ("+jobLogId+") ERROR al enviar a " + workerStringRep + ": " + e.getMessage());
-                masterControllerServant.handleWorkerFailureOrNoTask(getProxyStringRepresentation(worker));
-                // Considerar remover el worker si falla el envío, ya que podría estar caído.
-                // registeredWorkers.remove(worker); // Cuidado con ConcurrentModificationException si no es CopyOnWriteArrayList
+            @Override
+            public void notifyClient(String statusMessage, long elapsedTimeMillis, JobState results) {
+                UInt128[] perfectNumbers = (results != null) ? results.getAllFoundWidePerfectNumbers() : new UInt128[0];
+                clientNotifierProxy.notifyWideJobCompletionAsync(jobRange, perfectNumbers, statusMessage, elapsedTimeMillis);
+            }
+        });
+    }
+
+    /**
+     * Clasifica todos los números de un rango según varios predicados sobre σ(n) (perfecto, abundante,
+     * deficiente, multiperfecto, casi perfecto). Cada worker criba su subrango una sola vez y evalúa
+     * todos los predicados; el Maestro suma conteos y sumas y une las listas de números.
+     */
+    @Override
+    public void classifyRange(
+            Range jobRange,
+            PredicateQuery[] predicates,
+            boolean countsOnly,
+            ClientNotifierPrx clientNotifierProxy,
+            int numWorkersRequestedByClient,
+            Current current) throws JobQueueFullException {
+
+        String jobLogId = newJobLogId();
+        System.out.println("["+masterLogId+"] ("+jobLogId+") Solicitud de clasificación: Rango [" + jobRange.start + ", " + jobRange.end + "], " +
+                predicates.length + " predicado(s)" + (countsOnly ? " (solo conteos)" : "") + ", Workers Solicitados: " + numWorkersRequestedByClient);
+
+        enqueueJob(jobLogId, clientNotifierProxy, numWorkersRequestedByClient, current, new JobKind<Range>() {
+            @Override
+            public List<Range> split(double[] shares) {
+                // Sin predicados no hay nada que calcular: se trata igual que un rango inválido
+                return predicates.length == 0 ? Collections.emptyList() : classifyPartitioner.split(jobRange, shares);
+            }
+
+            @Override
+            public String describe(Range subRange) {
+                return "[" + subRange.start + ", " + subRange.end + "]";
+            }
+
+            @Override
+            public BigInteger count(Range subRange) {
+                return RangeSplitter.count(subRange);
+            }
+
+            @Override
+            public void chunkCompleted(Range subRange, String chunkId, long workerProcessingTimeMillis, JobState results) {
+                classifyPartitioner.recordChunk("["+masterLogId+"] ("+jobLogId+")", chunkId, subRange, workerProcessingTimeMillis);
+            }
+
+            @Override
+            public CompletableFuture<?> send(WorkerServicePrx worker, Range subRange, String workerJobId) {
+                return worker.classifySubRangeAsync(subRange, predicates, countsOnly, masterControllerProxy, workerJobId, workerRequestContext);
+            }
+
+            @Override
+            public void notifyClient(String statusMessage, long elapsedTimeMillis, JobState results) {
+                PredicateResult[] merged = (results != null) ? results.getMergedClassificationResults(predicates) : new PredicateResult[0];
+                clientNotifierProxy.notifyClassificationCompletionAsync(jobRange, merged, statusMessage, elapsedTimeMillis);
+            }
+        });
+    }
+
+    /**
+     * Busca pares amigables y ciclos sociables de hasta maxCycleLength miembros, todos dentro del rango.
+     * Cada worker emite los candidatos (n, s(n)) con n < s(n) <= fin del rango; al terminar, el Maestro
+     * sigue las cadenas con AliquotJoin, consultando por lotes s(x) al worker dueño del subrango de x.
+     */
+    @Override
+    public void findAliquotCycles(
+            Range jobRange,
+            int maxCycleLength,
+            ClientNotifierPrx clientNotifierProxy,
+            int numWorkersRequestedByClient,
+            Current current) throws JobQueueFullException {
+
+        String jobLogId = newJobLogId();
+        int cycleLength = Math.max(2, Math.min(maxCycleLength, MAX_ALIQUOT_CYCLE_LENGTH));
+        System.out.println("["+masterLogId+"] ("+jobLogId+") Solicitud de ciclos alícuotas: Rango [" + jobRange.start + ", " + jobRange.end +
+                "], longitud máxima " + cycleLength + ", Workers Solicitados: " + numWorkersRequestedByClient);
+
+        // Dueño de cada chunk despachado (por inicio del chunk), para dirigir las consultas de la unión
+        Map<Long, Range> ownedRanges = new ConcurrentSkipListMap<>();
+        Map<Long, WorkerServicePrx> owners = new ConcurrentSkipListMap<>();
+
+        enqueueJob(jobLogId, clientNotifierProxy, numWorkersRequestedByClient, current, new JobKind<Range>() {
+            @Override
+            public List<Range> split(double[] shares) {
+                return aliquotPartitioner.split(jobRange, shares);
+            }
+
+            @Override
+            public String describe(Range subRange) {
+                return "[" + subRange.start + ", " + subRange.end + "]";
+            }
+
+            @Override
+            public BigInteger count(Range subRange) {
+                return RangeSplitter.count(subRange);
+            }
+
+            @Override
+            public void chunkCompleted(Range subRange, String chunkId, long workerProcessingTimeMillis, JobState results) {
+                aliquotPartitioner.recordChunk("["+masterLogId+"] ("+jobLogId+")", chunkId, subRange, workerProcessingTimeMillis);
+            }
+
+            @Override
+            public CompletableFuture<?> send(WorkerServicePrx worker, Range subRange, String workerJobId) {
+                ownedRanges.put(subRange.start, subRange);
+                owners.put(subRange.start, worker);
+                return worker.scanAliquotSubRangeAsync(subRange, jobRange.end, masterControllerProxy, workerJobId, workerRequestContext);
             }
-            currentSubRangeStart = currentSubRangeEnd + 1;
+
+            @Override
+            public void notifyClient(String statusMessage, long elapsedTimeMillis, JobState results) {
+                AliquotCycle[] cycles = new AliquotCycle[0];
+                long joinTimeMillis = 0;
+                if (results != null && !owners.isEmpty()) {
+                    long joinStartTime = System.currentTimeMillis();
+                    try {
+                        AliquotJoin join = new AliquotJoin(new ArrayList<>(ownedRanges.values()), new ArrayList<>(owners.values()), aliquotLookupBatchSize, "["+masterLogId+"-BG] ("+jobLogId+")");
+                        List<long[]> found = join.findCycles(results.getAllAliquotCandidates(), jobRange.end, cycleLength);
+                        cycles = new AliquotCycle[found.size()];
+                        for (int i = 0; i < cycles.length; i++) {
+                            cycles[i] = new AliquotCycle(found.get(i));
+                        }
+                    } catch (RuntimeException e) {
+                        System.err.println("["+masterLogId+"-BG] ("+jobLogId+") Error en la unión de candidatos: " + e);
+                        statusMessage = statusMessage + " Error al resolver los ciclos: " + e.getMessage();
+                    }
+                    joinTimeMillis = System.currentTimeMillis() - joinStartTime;
+                    System.out.println("["+masterLogId+"-BG] ("+jobLogId+") Unión de candidatos: " + joinTimeMillis + " ms.");
+                }
+                clientNotifierProxy.notifyAliquotCompletionAsync(jobRange, cycles, statusMessage, elapsedTimeMillis + joinTimeMillis);
+            }
+        });
+    }
+
+    /**
+     * Subtrabajo de un agregador: un subrango que el Maestro padre le envió como a cualquier worker se reparte entre
+     * los workers registrados en este nodo (hasta maxWorkersPerJob, sin pasar por la cola de trabajos: el padre ya la
+     * aplicó) y el resultado consolidado se entrega al MasterController del padre con el workerId del padre.
+     * Si el subtrabajo queda incompleto no se entrega nada y el futuro falla: el padre reasigna el chunk como con
+     * cualquier worker que falla.
+     * @param <R> tipo de rango (Range o WideRange)
+     */
+    private abstract class RelayedJob<R> implements JobKind<R> {
+        final String parentWorkerId; // ID del chunk en el Maestro padre
+        final Map<String, String> context; // Contexto de la petición del padre (p. ej. la estrategia), se reenvía a los workers
+        final CompletableFuture<Void> delivered = new CompletableFuture<>();
+
+        RelayedJob(String parentWorkerId, Map<String, String> context) {
+            this.parentWorkerId = parentWorkerId;
+            this.context = (context == null || context.isEmpty()) ? workerRequestContext : context;
         }
 
-        if (actualWorkersDispatched == 0 && !workersForThisJob.isEmpty()) {
-            System.out.println("["+masterLogId+"] ("+jobLogId+") Ninguna tarea despachada. Reseteando latch.");
-            masterControllerServant.resetForNewJob(0, jobLogId);
+        @Override
+        public BigInteger count(R subRange) {
+            return (subRange instanceof Range) ? RangeSplitter.count((Range) subRange) : RangeSplitter.count((WideRange) subRange);
         }
 
-        // Esperar respuestas en segundo plano
-        final int finalActualWorkersDispatched = actualWorkersDispatched;
-        CompletableFuture.runAsync(() -> {
-            System.out.println("["+masterLogId+"-BG] ("+jobLogId+") Hilo esperando " + masterControllerServant.getJobCompletionLatchCount() + " resultados (despachados: " + finalActualWorkersDispatched +").");
-            boolean jobCompletedSuccessfully = masterControllerServant.awaitJobCompletion(600_000); // Timeout de 10 minutos
-            long jobEndTimeOnMaster = System.currentTimeMillis();
-            long[] allPerfectNumbers = masterControllerServant.getAllFoundPerfectNumbers();
+        /** Entrega el resultado consolidado al padre; el futuro falla si el padre no recibió la llamada. */
+        abstract CompletableFuture<?> deliver(JobState results, long elapsedTimeMillis);
 
-            String statusMessage;
-            if (finalActualWorkersDispatched == 0 && !workersForThisJob.isEmpty()) {
-                statusMessage = "No se pudieron despachar tareas a ningún worker.";
-            } else if (workersForThisJob.isEmpty()){
-                statusMessage = "No hay workers activos para procesar la solicitud.";
+        @Override
+        public void notifyClient(String statusMessage, long elapsedTimeMillis, JobState results) {
+            if (results == null || results.getFailedChunkCount() > 0 || results.getPendingChunkCount() > 0) {
+                delivered.completeExceptionally(new IllegalStateException("Subtrabajo de " + parentWorkerId + " incompleto: " + statusMessage));
+                return;
             }
-            else {
-                statusMessage = jobCompletedSuccessfully ?
-                        "Trabajo completado. " + finalActualWorkersDispatched + " worker(s) participaron." :
-                        "Trabajo finalizado (timeout o errores). Algunos workers podrían no haber respondido.";
+            deliver(results, elapsedTimeMillis).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    delivered.completeExceptionally(error);
+                } else {
+                    delivered.complete(null);
+                }
+            });
+        }
+    }
+
+    /**
+     * Corre un subtrabajo de agregador con los workers de este nodo.
+     * @return se completa cuando el resultado se entregó al padre
+     */
+    private <R> CompletableFuture<Void> relayJob(String description, RelayedJob<R> job) {
+        String jobLogId = newJobLogId();
+        System.out.println("["+masterLogId+"] ("+jobLogId+") Subtrabajo " + job.parentWorkerId + " del Maestro padre: " + description);
+        // El reparto y el primer envío corren en un hilo de trabajos, no en el hilo Ice que atiende al padre
+        jobExecutor.execute(() -> {
+            try {
+                runJob(jobLogId, RELAYED_JOBS_CLIENT, null, maxWorkersPerJob, job);
+            } catch (RuntimeException e) {
+                System.err.println("["+masterLogId+"] ("+jobLogId+") Error iniciando el subtrabajo " + job.parentWorkerId + ": " + e);
+                job.delivered.completeExceptionally(e);
             }
-            System.out.println("["+masterLogId+"-BG] ("+jobLogId+") " + statusMessage + " Enviando resultados al cliente.");
+        });
+        return job.delivered;
+    }
 
-            // Loggear tiempo total del maestro al archivo
-            try (PrintWriter writer = new PrintWriter(new FileWriter("tiempos_ejecucion.txt", true))) {
-                writer.println("Job ID: " + jobLogId + " - Tiempo Total Procesamiento Maestro: " + (jobEndTimeOnMaster - jobStartTimeOnMaster) + " ms");
-            } catch (IOException e) {
-                System.err.println("["+masterLogId+"-BG] Error escribiendo tiempo total del maestro a archivo: " + e.getMessage());
+    /**
+     * Búsqueda de perfectos de un subrango recibido del Maestro padre (agregador).
+     */
+    CompletableFuture<Void> relaySubRange(Range subRange, MasterControllerPrx parent, String parentWorkerId, Map<String, String> context) {
+        return relayJob("[" + subRange.start + ", " + subRange.end + "]", new RelayedJob<Range>(parentWorkerId, context) {
+            @Override
+            public List<Range> split(double[] shares) {
+                return perfectPartitioner.split(subRange, shares);
             }
 
-            // Notificar al cliente con el resultado consolidado
-            try {
-                clientNotifierProxy.notifyJobCompletionAsync(jobRange, allPerfectNumbers, statusMessage, jobEndTimeOnMaster - jobStartTimeOnMaster);
-            } catch (Exception e) {
-                System.err.println("["+masterLogId+"-BG] ("+jobLogId+") Error notificando al cliente: " + e.getMessage());
+            @Override
+            public String describe(Range chunk) {
+                return "[" + chunk.start + ", " + chunk.end + "]";
+            }
+
+            @Override
+            public CompletableFuture<?> send(WorkerServicePrx worker, Range chunk, String workerJobId) {
+                return worker.processSubRangeAsync(chunk, masterControllerProxy, workerJobId, this.context);
+            }
+
+            @Override
+            CompletableFuture<?> deliver(JobState results, long elapsedTimeMillis) {
+                return parent.submitWorkerResultsAsync(parentWorkerId, subRange, results.getAllFoundPerfectNumbers(), elapsedTimeMillis);
             }
         });
     }
 
     /**
-     * Elige entre los workers registrados los más apropiados para la tarea.
+     * Igual que relaySubRange, para un subrango amplio (128 bits sin signo).
      */
-    private List<WorkerServicePrx> selectWorkersForTask(int numWorkersRequestedByClient, String jobLogId) {
-        System.out.println("["+masterLogId+"] ("+jobLogId+") selectWorkersForTask: Workers registrados antes de ping: " + registeredWorkers.size());
-        // Verificar pings y filtrar los que responden
-        List<WorkerServicePrx> liveWorkersFound = new ArrayList<>();
-        List<WorkerServicePrx> workersToRemoveFromGlobalList = new ArrayList<>();
+    CompletableFuture<Void> relayWideSubRange(WideRange subRange, MasterControllerPrx parent, String parentWorkerId, Map<String, String> context) {
+        return relayJob(RangeSplitter.format(subRange), new RelayedJob<WideRange>(parentWorkerId, context) {
+            @Override
+            public List<WideRange> split(double[] shares) {
+                return RangeSplitter.split(subRange, shares.length);
+            }
+
+            @Override
+            public String describe(WideRange chunk) {
+                return RangeSplitter.format(chunk);
+            }
+
+            @Override
+            public CompletableFuture<?> send(WorkerServicePrx worker, WideRange chunk, String workerJobId) {
+                return worker.processWideSubRangeAsync(chunk, masterControllerProxy, workerJobId, this.context);
+            }
+
+            @Override
+            CompletableFuture<?> deliver(JobState results, long elapsedTimeMillis) {
+                return parent.submitWideWorkerResultsAsync(parentWorkerId, subRange, results.getAllFoundWidePerfectNumbers(), elapsedTimeMillis);
+            }
+        });
+    }
+
+    /**
+     * Clasificación de un subrango recibido del Maestro padre (agregador): se entregan los resultados ya consolidados.
+     */
+    CompletableFuture<Void> relayClassification(Range subRange, PredicateQuery[] predicates, boolean countsOnly, MasterControllerPrx parent,
+                                                String parentWorkerId, Map<String, String> context) {
+        return relayJob("clasificación [" + subRange.start + ", " + subRange.end + "]", new RelayedJob<Range>(parentWorkerId, context) {
+            @Override
+            public List<Range> split(double[] shares) {
+                return classifyPartitioner.split(subRange, shares);
+            }
+
+            @Override
+            public String describe(Range chunk) {
+                return "[" + chunk.start + ", " + chunk.end + "]";
+            }
+
+            @Override
+            public CompletableFuture<?> send(WorkerServicePrx worker, Range chunk, String workerJobId) {
+                return worker.classifySubRangeAsync(chunk, predicates, countsOnly, masterControllerProxy, workerJobId, this.context);
+            }
+
+            @Override
+            CompletableFuture<?> deliver(JobState results, long elapsedTimeMillis) {
+                return parent.submitClassificationResultsAsync(parentWorkerId, subRange, results.getMergedClassificationResults(predicates), elapsedTimeMillis);
+            }
+        });
+    }
+
+    /**
+     * Búsqueda de candidatos alícuotas de un subrango recibido del Maestro padre (agregador): los candidatos de todos
+     * los workers se reenvían al padre en lotes, y solo el último cuenta como respuesta.
+     */
+    CompletableFuture<Void> relayAliquotScan(Range subRange, long maxPartner, MasterControllerPrx parent, String parentWorkerId,
+                                             Map<String, String> context) {
+        return relayJob("candidatos alícuotas [" + subRange.start + ", " + subRange.end + "]", new RelayedJob<Range>(parentWorkerId, context) {
+            @Override
+            public List<Range> split(double[] shares) {
+                return aliquotPartitioner.split(subRange, shares);
+            }
+
+            @Override
+            public String describe(Range chunk) {
+                return "[" + chunk.start + ", " + chunk.end + "]";
+            }
+
+            @Override
+            public CompletableFuture<?> send(WorkerServicePrx worker, Range chunk, String workerJobId) {
+                return worker.scanAliquotSubRangeAsync(chunk, maxPartner, masterControllerProxy, workerJobId, this.context);
+            }
 
-        for (WorkerServicePrx worker : this.registeredWorkers) {
+            @Override
+            CompletableFuture<?> deliver(JobState results, long elapsedTimeMillis) {
+                long[] flat = results.getAllAliquotCandidates();
+                int edgesPerBatch = Math.max(1, aliquotLookupBatchSize);
+                int totalEdges = flat.length / 2;
+                CompletableFuture<?> lastSent = CompletableFuture.completedFuture(null);
+                for (int first = 0; first == 0 || first < totalEdges; first += edgesPerBatch) {
+                    int count = Math.min(edgesPerBatch, totalEdges - first);
+                    AliquotEdge[] batch = new AliquotEdge[count];
+                    for (int i = 0; i < count; i++) {
+                        batch[i] = new AliquotEdge(flat[2 * (first + i)], flat[2 * (first + i) + 1]);
+                    }
+                    boolean lastBatch = first + edgesPerBatch >= totalEdges;
+                    // Los lotes van en orden por la misma conexión; el último cierra el chunk en el padre
+                    lastSent = parent.submitAliquotCandidatesAsync(parentWorkerId, subRange, batch, lastBatch, elapsedTimeMillis);
+                }
+                return lastSent;
+            }
+        });
+    }
+
+    /**
+     * Consulta s(n) reenviada por un agregador: cualquier worker puede calcularla, se turnan los workers de este nodo.
+     */
+    CompletableFuture<long[]> relayAliquotLookup(long[] numbers, Map<String, String> context) {
+        List<WorkerServicePrx> live = workerRegistry.liveWorkers();
+        if (live.isEmpty()) {
+            CompletableFuture<long[]> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalStateException("No hay workers activos para la consulta lookupAliquotSums."));
+            return failed;
+        }
+        WorkerServicePrx worker = live.get(Math.floorMod(relayedLookupTurn.getAndIncrement(), live.size()));
+        return worker.lookupAliquotSumsAsync(numbers, (context == null || context.isEmpty()) ? workerRequestContext : context);
+    }
+
+    /**
+     * @return workers que tomaría un subtrabajo de agregador (los de mayor capacidad, hasta maxWorkersPerJob)
+     */
+    int getRelayWorkerCount() {
+        return Math.min(workerRegistry.size(), maxWorkersPerJob);
+    }
+
+    /**
+     * Capacidad conjunta de los workers que tomaría un subtrabajo, para que el agregador la anuncie al padre.
+     */
+    WorkerCapabilities getRelayCapabilities() {
+        List<WorkerServicePrx> live = workerRegistry.liveWorkers();
+        sortByCapacity(live);
+        List<Identity> identities = new ArrayList<>();
+        for (WorkerServicePrx worker : live.subList(0, Math.min(live.size(), maxWorkersPerJob))) {
+            identities.add(worker.ice_getIdentity());
+        }
+        return workerCapacities.aggregate(identities);
+    }
+
+    /**
+     * Genera un jobLogId corto ("Job-xxxxx") que no esté en uso por otro trabajo en curso.
+     */
+    private String newJobLogId() {
+        String jobLogId;
+        do {
+            jobLogId = "Job-" + UUID.randomUUID().toString().substring(0, 5);
+        } while (masterControllerServant.isJobRegistered(jobLogId) || journal.isActive(jobLogId));
+        return jobLogId;
+    }
+
+    /**
+     * Pone un trabajo en la cola con la prioridad y el cliente de la petición (contexto Ice 'priority' y 'client').
+     * @throws JobQueueFullException si la cola está llena (el cliente debe reintentar más tarde)
+     */
+    private <R> void enqueueJob(String jobLogId, ClientNotifierPrx clientNotifierProxy, int numWorkersRequestedByClient, Current current,
+                                JobKind<R> job) throws JobQueueFullException {
+        if (clientNotifierProxy == null) {
+            System.err.println("["+masterLogId+"] ("+jobLogId+") ERROR CRITICO: ClientNotifierPrx es nulo.");
+            return;
+        }
+        String clientId = JobQueue.clientOf(current);
+        jobQueue.submit(jobLogId, clientId, JobQueue.priorityOf(current),
+                () -> runJob(jobLogId, clientId, clientNotifierProxy, numWorkersRequestedByClient, job));
+    }
+
+    /**
+     * Flujo común de un trabajo admitido por la cola: selecciona workers, divide el rango, despacha los subrangos
+     * y espera los resultados en segundo plano para notificar al cliente.
+     * @return se completa cuando el cliente fue notificado (libera el lugar del trabajo en la cola)
+     */
+    private <R> CompletableFuture<Void> runJob(String jobLogId, String clientId, ClientNotifierPrx clientNotifierProxy, int numWorkersRequestedByClient,
+                                               JobKind<R> job) {
+
+        // Seleccionar workers disponibles según petición y límite
+        List<WorkerServicePrx> workersForThisJob = selectWorkersForTask(numWorkersRequestedByClient, jobLogId);
+
+        if (workersForThisJob.isEmpty()) {
+            System.out.println("["+masterLogId+"] ("+jobLogId+") No hay workers activos. Notificando al cliente.");
+            // Notificar cliente si no hay workers
             try {
-                worker.ice_ping();
-                liveWorkersFound.add(worker);
-            } catch (LocalException le) {
-                System.err.println("["+masterLogId+"] ("+jobLogId+") selectWorkersForTask: Worker " + getProxyStringRepresentation(worker) + " no respondió (Excepción Local: " + le.getClass().getSimpleName() + "). Removiendo.");
-                workersToRemoveFromGlobalList.add(worker);
+                job.notifyClient("No hay workers activos disponibles.", 0L, null);
             } catch (Exception e) {
-                System.err.println("["+masterLogId+"] ("+jobLogId+") selectWorkersForTask: Excepción inesperada ping worker " + getProxyStringRepresentation(worker) + ": " + e.getMessage() + ". Removiendo.");
-                workersToRemoveFromGlobalList.add(worker);
+                System.err.println("["+masterLogId+"] ("+jobLogId+") Error notificando al cliente (no workers): " + e.getMessage());
             }
+            return CompletableFuture.completedFuture(null);
         }
 
-        if (!workersToRemoveFromGlobalList.isEmpty()) {
-            this.registeredWorkers.removeAll(workersToRemoveFromGlobalList);
-            System.out.println("["+masterLogId+"] ("+jobLogId+") selectWorkersForTask: Removidos " + workersToRemoveFromGlobalList.size() + " workers inactivos. Registrados ahora: " + this.registeredWorkers.size());
+        long jobStartTimeOnMaster = System.currentTimeMillis();
+
+        // Muchos chunks pequeños que se reparten a medida que los workers terminan. En los rangos normales cada ronda
+        // (un chunk por worker, en el orden del llenado inicial del planificador) se corta en proporción a la capacidad de cada worker
+        double[] capacities = new double[workersForThisJob.size()];
+        List<Identity> identities = new ArrayList<>();
+        for (int i = 0; i < capacities.length; i++) {
+            identities.add(workersForThisJob.get(i).ice_getIdentity());
+            capacities[i] = workerCapacities.capacityOf(identities.get(i));
+        }
+        double[] shares = new double[workersForThisJob.size() * chunksPerWorker];
+        for (int k = 0; k < shares.length; k++) {
+            shares[k] = capacities[k % capacities.length];
         }
+        System.out.println("["+masterLogId+"] ("+jobLogId+") Capacidad de los workers (unidades/ms): " + workerCapacities.describe(identities));
+        List<R> chunks = job.split(shares);
+        if (chunks.isEmpty()) {
+            System.err.println("["+masterLogId+"] ("+jobLogId+") Rango inválido. Notificando cliente.");
+            try {
+                job.notifyClient("Rango inválido.", 0L, null);
+            } catch (Exception e) {
+                System.err.println("["+masterLogId+"] ("+jobLogId+") Error notificando al cliente (rango inválido): " + e.getMessage());
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Registrar el trabajo (estado propio, independiente de otros trabajos en curso) antes del primer envío
+        JobState jobState = masterControllerServant.registerJob(jobLogId, chunks.size());
+        System.out.println("["+masterLogId+"] ("+jobLogId+") Distribuyendo. Workers seleccionados: " + workersForThisJob.size() + ". Chunks: " + chunks.size() +
+                " (primero: " + job.describe(chunks.get(0)) + "), hasta " + inFlightPerWorker + " en curso por worker.");
+        ChunkScheduler<R> scheduler = new ChunkScheduler<>(jobState, "["+masterLogId+"] ("+jobLogId+")", workersForThisJob, chunks, inFlightPerWorker,
+                masterControllerServant, (worker, chunk, chunkId) -> job.send(worker, chunk, chunkId).whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        workerRegistry.suspect(worker.ice_getIdentity()); // Comprobar ya si el worker sigue vivo
+                    }
+                }), job::describe, (worker, chunk, chunkId, workerProcessingTimeMillis, roundTripMillis) -> {
+                    job.chunkCompleted(chunk, chunkId, workerProcessingTimeMillis, jobState);
+                    BigInteger numbers = job.count(chunk);
+                    metrics.chunkCompleted(worker.ice_getIdentity(), (numbers.bitLength() < 64) ? numbers.longValue() : Long.MAX_VALUE,
+                            workerProcessingTimeMillis, roundTripMillis);
+                    if (chunk instanceof Range) {
+                        workerCapacities.observe(worker.ice_getIdentity(), (Range) chunk, workerProcessingTimeMillis, inFlightPerWorker);
+                    }
+                    jobQueue.charge(clientId, workerProcessingTimeMillis); // Uso del cliente para el reparto justo
+                }, retryPolicy, speculation);
+        scheduler.start();
+
+        // Esperar respuestas en segundo plano (hilo propio: varios trabajos pueden estar esperando a la vez)
+        return CompletableFuture.runAsync(() -> {
+            System.out.println("["+masterLogId+"-BG] ("+jobLogId+") Hilo esperando " + jobState.getPendingChunkCount() + " chunk(s).");
+            boolean jobCompletedSuccessfully = jobState.awaitCompletion(jobTimeoutMillis);
+            long jobEndTimeOnMaster = System.currentTimeMillis();
+            String schedulerSummary = scheduler.finish();
+            String coverage = scheduler.describeCoverage(job::count);
 
+            int failedChunks = jobState.getFailedChunkCount();
+            String statusMessage;
+            if (jobCompletedSuccessfully && failedChunks == 0) {
+                statusMessage = "Trabajo completado. " + chunks.size() + " chunk(s) en " + workersForThisJob.size() + " worker(s) (" + scheduler.describeDistribution() + ").";
+            } else if (jobCompletedSuccessfully) {
+                statusMessage = "Trabajo finalizado con errores: " + failedChunks + " de " + chunks.size() + " chunk(s) sin resultado (" + scheduler.describeDistribution() + ").";
+            } else {
+                statusMessage = "Trabajo finalizado (timeout o errores). Faltaron " + jobState.getPendingChunkCount() + " de " + chunks.size() + " chunk(s).";
+            }
+            statusMessage = statusMessage + " " + coverage + (schedulerSummary.isEmpty() ? "" : " " + schedulerSummary);
+            System.out.println("["+masterLogId+"-BG] ("+jobLogId+") " + statusMessage + " Enviando resultados al cliente.");
+
+            // Loggear tiempo total del maestro en el registro de eventos
+            long jobTotalMillis = jobEndTimeOnMaster - jobStartTimeOnMaster;
+            eventLog.publish(new EventLog.Event("tiempo_total_trabajo").with("job", jobLogId).with("ms", jobTotalMillis)
+                    .text(() -> "Job ID: " + jobLogId + " - Tiempo Total Procesamiento Maestro: " + jobTotalMillis + " ms"));
+
+            // Notificar al cliente con el resultado consolidado
+            try {
+                job.notifyClient(statusMessage, jobEndTimeOnMaster - jobStartTimeOnMaster, jobState);
+            } catch (Exception e) {
+                System.err.println("["+masterLogId+"-BG] ("+jobLogId+") Error notificando al cliente: " + e.getMessage());
+            } finally {
+                masterControllerServant.releaseJob(jobLogId);
+            }
+        }, jobExecutor);
+    }
+
+    /**
+     * Elige entre los workers registrados los más apropiados para la tarea (sin llamadas de red).
+     */
+    private List<WorkerServicePrx> selectWorkersForTask(int numWorkersRequestedByClient, String jobLogId) {
+        List<WorkerServicePrx> liveWorkersFound = workerRegistry.liveWorkers();
         if (liveWorkersFound.isEmpty()) {
-            System.out.println("["+masterLogId+"] ("+jobLogId+") selectWorkersForTask: No hay workers vivos después de pings.");
+            System.out.println("["+masterLogId+"] ("+jobLogId+") selectWorkersForTask: No hay workers con lease vigente.");
             return Collections.emptyList();
         }
 
         int workersToEngage = Math.max(1, numWorkersRequestedByClient);
         workersToEngage = Math.min(workersToEngage, liveWorkersFound.size());
-        workersToEngage = Math.min(workersToEngage, MAX_WORKERS_TO_USE_FOR_A_JOB);
+        workersToEngage = Math.min(workersToEngage, maxWorkersPerJob);
 
         System.out.println("["+masterLogId+"] ("+jobLogId+") Info selección: Vivos=" + liveWorkersFound.size() +
                 ", Solicitados=" + numWorkersRequestedByClient +
-                ", LímiteSistema=" + MAX_WORKERS_TO_USE_FOR_A_JOB +
+                ", LímiteSistema=" + maxWorkersPerJob +
                 ", WorkersAEvaluar=" + workersToEngage);
 
+        // Si se usan menos workers que los vivos, primero los de mayor capacidad
+        sortByCapacity(liveWorkersFound);
         return new ArrayList<>(liveWorkersFound.subList(0, workersToEngage));
     }
 
     /**
-     * Devuelve una representación legible de un proxy (solo la primera línea).
+     * Ordena los workers de mayor a menor capacidad estimada.
      */
-    private String getProxyStringRepresentation(ObjectPrx proxy) {
-        if (proxy == null) return "null proxy";
-        try {
-            return proxy.toString().split("\n")[0];
-        } catch (Exception e) {
-            return proxy.toString().split("\n")[0] + " (ice_toString falló)";
-        }
+    private void sortByCapacity(List<WorkerServicePrx> workers) {
+        workers.sort(Comparator.comparingDouble((WorkerServicePrx worker) -> workerCapacities.capacityOf(worker.ice_getIdentity())).reversed());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,67 @@
+// --- Archivo: master/src/main/java/com/example/master/MetricsHttpEndpoint.java ---
+package com.example.master;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer; // Servidor HTTP del JDK (sin dependencias)
+import com.zeroc.Ice.Properties;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Endpoint HTTP local con las métricas del Maestro en texto (GET /metrics), para consultarlas con curl
+ * o un recolector tipo Prometheus sin pasar por Ice. Lo atiende un único hilo daemon.
+ */
+final class MetricsHttpEndpoint {
+    private MetricsHttpEndpoint() {
+    }
+
+    /**
+     * Lee Master.Metrics.HttpPort (0 = desactivado) y Master.Metrics.HttpHost y arranca el endpoint.
+     * @param metricsText texto de las métricas en el momento de la consulta
+     * @return el servidor, o null si está desactivado o no se pudo abrir el puerto
+     */
+    static HttpServer start(Properties properties, Supplier<String> metricsText, String logPrefix) {
+        int port = properties.getPropertyAsIntWithDefault("Master.Metrics.HttpPort", 0);
+        if (port <= 0) {
+            System.out.println(logPrefix + " Endpoint HTTP de métricas desactivado (Master.Metrics.HttpPort=0).");
+            return null;
+        }
+        String host = properties.getPropertyWithDefault("Master.Metrics.HttpHost", "127.0.0.1");
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(host, port), 0);
+            server.createContext("/metrics", exchange -> respond(exchange, metricsText));
+            server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "master-metrics-http");
+                thread.setDaemon(true);
+                return thread;
+            }));
+            server.start();
+            System.out.println(logPrefix + " Métricas en http://" + host + ":" + port + "/metrics");
+            return server;
+        } catch (IOException | RuntimeException e) {
+            System.err.println(logPrefix + " No se pudo abrir el endpoint HTTP de métricas en " + host + ":" + port + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void respond(HttpExchange exchange, Supplier<String> metricsText) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = metricsText.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
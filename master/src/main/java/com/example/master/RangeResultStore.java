@@ -0,0 +1,324 @@
+// --- Archivo: master/src/main/java/com/example/master/RangeResultStore.java ---
+package com.example.master;
+
+import com.zeroc.Ice.Properties; // Configuración del maestro (master.properties)
+import perfectNumbersApp.Range; // Rango normal (long)
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Caché persistente de resultados de búsqueda de perfectos: índice de intervalos disjuntos ya calculados por completo
+ * (cada uno con los perfectos que contiene), guardado en un archivo de texto del Maestro.
+ * Un trabajo nuevo toma de aquí las partes ya cubiertas de su rango y solo despacha los huecos; cada chunk que
+ * termina bien se agrega (los intervalos contiguos o solapados se unen).
+ * El archivo guarda la versión de motor con la que se calcularon los resultados: si Master.ResultStore.EngineVersion
+ * cambia (p. ej. tras corregir un motor), la caché se descarta al arrancar.
+ * Formato: una línea "version=..." y una línea por intervalo "inicio fin perfecto1 perfecto2 ...".
+ */
+final class RangeResultStore {
+    private static final String VERSION_PREFIX = "version=";
+
+    private final Path file; // null = caché desactivada
+    private final String engineVersion;
+    private final String logPrefix; // "[Master-xxxx]"
+    // Intervalos calculados, por inicio (disjuntos y no contiguos)
+    private final TreeMap<Long, CachedRange> intervals = new TreeMap<>();
+    private boolean dirty; // Hay cambios sin guardar
+
+    // Estadísticas de aciertos (guardadas por this)
+    private long lookups;
+    private long fullHits; // Rango respondido por completo desde la caché
+    private long partialHits; // Parte del rango desde la caché, el resto despachado
+    private long misses;
+    private BigInteger numbersRequested = BigInteger.ZERO;
+    private BigInteger numbersFromStore = BigInteger.ZERO;
+
+    /**
+     * Intervalo calculado por completo.
+     */
+    private static final class CachedRange {
+        final long start;
+        final long end;
+        final long[] perfectNumbers; // Ordenados
+
+        CachedRange(long start, long end, long[] perfectNumbers) {
+            this.start = start;
+            this.end = end;
+            this.perfectNumbers = perfectNumbers;
+        }
+    }
+
+    /**
+     * Resultado de consultar un rango.
+     */
+    static final class Lookup {
+        final List<Range> gaps; // Subrangos que faltan calcular, en orden
+        final long[] perfectNumbers; // Perfectos de las partes cubiertas
+        final BigInteger coveredNumbers; // Cantidad de números cubiertos
+        final BigInteger totalNumbers;
+
+        Lookup(List<Range> gaps, long[] perfectNumbers, BigInteger coveredNumbers, BigInteger totalNumbers) {
+            this.gaps = gaps;
+            this.perfectNumbers = perfectNumbers;
+            this.coveredNumbers = coveredNumbers;
+            this.totalNumbers = totalNumbers;
+        }
+
+        boolean isFullHit() {
+            return gaps.isEmpty();
+        }
+
+        /**
+         * @return "a de b números desde la caché (k hueco(s) por calcular)" para el mensaje al cliente
+         */
+        String describe() {
+            return coveredNumbers + " de " + totalNumbers + " números desde la caché" + (gaps.isEmpty() ? "" : " (" + gaps.size() + " hueco(s) por calcular)");
+        }
+    }
+
+    /**
+     * @param file          archivo de la caché (null para desactivarla)
+     * @param engineVersion versión de motor de los resultados; si el archivo tiene otra, se descarta
+     * @param clear         true para vaciar la caché al arrancar
+     * @param logPrefix     prefijo de los logs
+     */
+    RangeResultStore(Path file, String engineVersion, boolean clear, String logPrefix) {
+        this.file = file;
+        this.engineVersion = engineVersion;
+        this.logPrefix = logPrefix;
+        if (file != null) {
+            load(clear);
+        }
+    }
+
+    /**
+     * Lee Master.ResultStore.Path (vacío = desactivada), Master.ResultStore.EngineVersion y Master.ResultStore.Clear.
+     */
+    static RangeResultStore fromProperties(Properties properties, String logPrefix) {
+        String path = properties.getProperty("Master.ResultStore.Path").trim();
+        return new RangeResultStore(path.isEmpty() ? null : Paths.get(path),
+                properties.getPropertyWithDefault("Master.ResultStore.EngineVersion", "1").trim(),
+                properties.getPropertyAsIntWithDefault("Master.ResultStore.Clear", 0) > 0, logPrefix);
+    }
+
+    boolean isEnabled() {
+        return file != null;
+    }
+
+    /**
+     * Separa un rango en lo que ya está calculado y los huecos que faltan, y cuenta el acierto.
+     * Con la caché desactivada todo el rango es un hueco.
+     */
+    synchronized Lookup lookup(Range range) {
+        if (range.end < range.start) {
+            // Rango inválido: se despacha tal cual para que el trabajo lo rechace como siempre
+            List<Range> whole = new ArrayList<>();
+            whole.add(range);
+            return new Lookup(whole, new long[0], BigInteger.ZERO, BigInteger.ZERO);
+        }
+        BigInteger total = RangeSplitter.count(range);
+        List<Range> gaps = new ArrayList<>();
+        List<Long> found = new ArrayList<>();
+        BigInteger covered = BigInteger.ZERO;
+        long cursor = range.start; // Primer número aún no resuelto
+        boolean reachedEnd = false;
+        if (file != null) {
+            Long from = intervals.floorKey(range.start);
+            for (CachedRange cached : intervals.tailMap(from != null ? from : range.start, true).values()) {
+                if (cached.start > range.end) {
+                    break;
+                }
+                if (cached.end < cursor) {
+                    continue;
+                }
+                if (cached.start > cursor) {
+                    gaps.add(new Range(cursor, cached.start - 1));
+                }
+                long coveredStart = Math.max(cursor, cached.start);
+                long coveredEnd = Math.min(range.end, cached.end);
+                covered = covered.add(RangeSplitter.count(new Range(coveredStart, coveredEnd)));
+                for (long n : cached.perfectNumbers) {
+                    if (n >= coveredStart && n <= coveredEnd) {
+                        found.add(n);
+                    }
+                }
+                if (coveredEnd == range.end) {
+                    reachedEnd = true;
+                    break;
+                }
+                cursor = coveredEnd + 1;
+            }
+        }
+        if (!reachedEnd) {
+            gaps.add(new Range(cursor, range.end));
+        }
+
+        lookups++;
+        if (gaps.isEmpty()) {
+            fullHits++;
+        } else if (covered.signum() > 0) {
+            partialHits++;
+        } else {
+            misses++;
+        }
+        numbersRequested = numbersRequested.add(total);
+        numbersFromStore = numbersFromStore.add(covered);
+        return new Lookup(gaps, found.stream().mapToLong(Long::longValue).toArray(), covered, total);
+    }
+
+    /**
+     * Agrega un rango calculado por completo con sus perfectos, uniéndolo con los intervalos contiguos o solapados.
+     */
+    synchronized void record(Range range, long[] perfectNumbers) {
+        if (file == null || range.end < range.start) {
+            return;
+        }
+        long start = range.start;
+        long end = range.end;
+        TreeSet<Long> merged = new TreeSet<>();
+        for (long n : perfectNumbers) {
+            merged.add(n);
+        }
+        // Intervalos que tocan [start - 1, end + 1]
+        Long from = intervals.floorKey(start);
+        List<Long> absorbed = new ArrayList<>();
+        for (CachedRange cached : intervals.tailMap(from != null ? from : start, true).values()) {
+            if (cached.start > end && cached.start - end > 1) {
+                break;
+            }
+            if (cached.end < start && start - cached.end > 1) {
+                continue;
+            }
+            absorbed.add(cached.start);
+            start = Math.min(start, cached.start);
+            end = Math.max(end, cached.end);
+            for (long n : cached.perfectNumbers) {
+                merged.add(n);
+            }
+        }
+        absorbed.forEach(intervals::remove);
+        intervals.put(start, new CachedRange(start, end, merged.stream().mapToLong(Long::longValue).toArray()));
+        dirty = true;
+    }
+
+    /**
+     * Guarda la caché en disco si cambió (archivo temporal y reemplazo, para no dejar un archivo a medias).
+     */
+    void persist() {
+        List<CachedRange> snapshot;
+        synchronized (this) {
+            if (file == null || !dirty) {
+                return;
+            }
+            snapshot = new ArrayList<>(intervals.values());
+            dirty = false;
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            writer.write(VERSION_PREFIX + engineVersion);
+            writer.newLine();
+            for (CachedRange cached : snapshot) {
+                StringBuilder line = new StringBuilder().append(cached.start).append(' ').append(cached.end);
+                for (long n : cached.perfectNumbers) {
+                    line.append(' ').append(n);
+                }
+                writer.write(line.toString());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            System.err.println(logPrefix + " Error guardando la caché de resultados en " + file + ": " + e.getMessage());
+            synchronized (this) {
+                dirty = true;
+            }
+            return;
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println(logPrefix + " Error reemplazando la caché de resultados " + file + ": " + e.getMessage());
+            synchronized (this) {
+                dirty = true;
+            }
+        }
+    }
+
+    private void load(boolean clear) {
+        if (clear) {
+            System.out.println(logPrefix + " Caché de resultados vaciada al arrancar (Master.ResultStore.Clear).");
+            dirty = true;
+            persist();
+            return;
+        }
+        if (!Files.exists(file)) {
+            System.out.println(logPrefix + " Caché de resultados nueva en " + file.toAbsolutePath() + ".");
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            String fileVersion = (header != null && header.startsWith(VERSION_PREFIX)) ? header.substring(VERSION_PREFIX.length()) : "";
+            if (!fileVersion.equals(engineVersion)) {
+                System.out.println(logPrefix + " Caché de resultados invalidada: calculada con la versión de motor '" + fileVersion +
+                        "', la actual es '" + engineVersion + "'.");
+                dirty = true;
+                persist();
+                return;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.trim().split("\\s+");
+                if (fields.length < 2) {
+                    continue;
+                }
+                long[] perfectNumbers = new long[fields.length - 2];
+                for (int i = 0; i < perfectNumbers.length; i++) {
+                    perfectNumbers[i] = Long.parseLong(fields[i + 2]);
+                }
+                record(new Range(Long.parseLong(fields[0]), Long.parseLong(fields[1])), perfectNumbers);
+            }
+            dirty = false;
+            System.out.println(logPrefix + " Caché de resultados cargada de " + file.toAbsolutePath() + ": " + describeCoverage() + ".");
+        } catch (IOException | RuntimeException e) {
+            System.err.println(logPrefix + " Caché de resultados ilegible (" + e.getMessage() + "). Se empieza vacía.");
+            intervals.clear();
+            dirty = true;
+        }
+    }
+
+    /**
+     * @return intervalos guardados y cantidad de números que cubren
+     */
+    synchronized String describeCoverage() {
+        BigInteger covered = BigInteger.ZERO;
+        for (CachedRange cached : intervals.values()) {
+            covered = covered.add(RangeSplitter.count(new Range(cached.start, cached.end)));
+        }
+        return intervals.size() + " intervalo(s), " + covered + " números";
+    }
+
+    /**
+     * @return estadísticas de aciertos (para logs)
+     */
+    synchronized String describe() {
+        if (file == null) {
+            return "desactivada";
+        }
+        String percent = (numbersRequested.signum() == 0) ? "0" :
+                new BigDecimal(numbersFromStore.multiply(BigInteger.valueOf(100)))
+                        .divide(new BigDecimal(numbersRequested), 2, RoundingMode.DOWN).toPlainString();
+        return "consultas=" + lookups + ", aciertos completos=" + fullHits + ", parciales=" + partialHits + ", fallos=" + misses +
+                ", números desde la caché=" + numbersFromStore + " de " + numbersRequested + " (" + percent + "%), guardado: " + describeCoverage();
+    }
+}
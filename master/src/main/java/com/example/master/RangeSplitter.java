@@ -0,0 +1,168 @@
+// --- Archivo: master/src/main/java/com/example/master/RangeSplitter.java ---
+package com.example.master;
+
+import perfectNumbersApp.Range; // Rango normal (long)
+import perfectNumbersApp.UInt128; // Entero de 128 bits sin signo
+import perfectNumbersApp.WideRange; // Rango amplio (128 bits)
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Divide un rango en subrangos consecutivos para los workers.
+ * Rangos normales y amplios usan exactamente el mismo reparto: ceil(total / partes) números por
+ * subrango, en orden, y el último se recorta al final del rango (puede haber menos subrangos que partes).
+ * Internamente todo se calcula en 128 bits sin signo, así que no hay desbordes cerca de Long.MAX_VALUE.
+ */
+final class RangeSplitter {
+    private static final long MASK32 = 0xFFFFFFFFL;
+    private static final BigInteger TWO_POW_64 = BigInteger.ONE.shiftLeft(64);
+
+    private RangeSplitter() {
+    }
+
+    /**
+     * @param range rango normal a dividir
+     * @param parts cantidad máxima de subrangos (>= 1)
+     * @return subrangos en orden; vacío si el rango es inválido (end < start)
+     */
+    static List<Range> split(Range range, int parts) {
+        // long con signo -> sin signo conservando el orden: se invierte el bit de signo
+        long[] bounds = splitUnsigned(0, range.start ^ Long.MIN_VALUE, 0, range.end ^ Long.MIN_VALUE, parts);
+        List<Range> subRanges = new ArrayList<>(bounds.length / 4);
+        for (int i = 0; i < bounds.length; i += 4) {
+            subRanges.add(new Range(bounds[i + 1] ^ Long.MIN_VALUE, bounds[i + 3] ^ Long.MIN_VALUE));
+        }
+        return subRanges;
+    }
+
+    /**
+     * @param range rango amplio a dividir
+     * @param parts cantidad máxima de subrangos (>= 1)
+     * @return subrangos en orden; vacío si el rango es inválido (end < start)
+     */
+    static List<WideRange> split(WideRange range, int parts) {
+        long[] bounds = splitUnsigned(range.start.hi, range.start.lo, range.end.hi, range.end.lo, parts);
+        List<WideRange> subRanges = new ArrayList<>(bounds.length / 4);
+        for (int i = 0; i < bounds.length; i += 4) {
+            subRanges.add(new WideRange(new UInt128(bounds[i], bounds[i + 1]), new UInt128(bounds[i + 2], bounds[i + 3])));
+        }
+        return subRanges;
+    }
+
+    /**
+     * Reparto común en 128 bits sin signo.
+     * @return límites aplanados {startHi, startLo, endHi, endLo} por subrango
+     */
+    private static long[] splitUnsigned(long startHi, long startLo, long endHi, long endLo, int parts) {
+        if (compare(startHi, startLo, endHi, endLo) > 0 || parts <= 0) {
+            return new long[0];
+        }
+        // Números por subrango = ceil(total / partes) = floor((end - start) / partes) + 1
+        long spanLo = endLo - startLo;
+        long spanHi = endHi - startHi - borrow(endLo, startLo);
+        // Ancho de cada subrango (end - start de cada uno) = floor((end - start) / partes)
+        long[] width = divideBySmall(spanHi, spanLo, parts);
+        long widthHi = width[0];
+        long widthLo = width[1];
+
+        long[] bounds = new long[4 * parts];
+        int count = 0;
+        long currentHi = startHi;
+        long currentLo = startLo;
+        while (true) {
+            // Lo que queda hasta el final: end - current
+            long remainingLo = endLo - currentLo;
+            long remainingHi = endHi - currentHi - borrow(endLo, currentLo);
+            long subEndHi;
+            long subEndLo;
+            if (compare(remainingHi, remainingLo, widthHi, widthLo) <= 0) {
+                subEndHi = endHi;
+                subEndLo = endLo;
+            } else {
+                subEndLo = currentLo + widthLo;
+                subEndHi = currentHi + widthHi + (Long.compareUnsigned(subEndLo, currentLo) < 0 ? 1 : 0);
+            }
+            bounds[count++] = currentHi;
+            bounds[count++] = currentLo;
+            bounds[count++] = subEndHi;
+            bounds[count++] = subEndLo;
+            if (subEndHi == endHi && subEndLo == endLo) {
+                break;
+            }
+            currentLo = subEndLo + 1;
+            currentHi = subEndHi + (currentLo == 0 ? 1 : 0);
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * Divide (hi, lo) entre un divisor positivo de 32 bits, por mitades de 32 bits.
+     * @return cociente {hi, lo}
+     */
+    private static long[] divideBySmall(long hi, long lo, int divisor) {
+        long d = divisor;
+        long quotientHi = Long.divideUnsigned(hi, d);
+        long remainder = Long.remainderUnsigned(hi, d);
+        long upper = (remainder << 32) | (lo >>> 32);
+        long quotientUpper = Long.divideUnsigned(upper, d);
+        remainder = Long.remainderUnsigned(upper, d);
+        long lower = (remainder << 32) | (lo & MASK32);
+        return new long[]{quotientHi, (quotientUpper << 32) | Long.divideUnsigned(lower, d)};
+    }
+
+    private static long borrow(long minuendLo, long subtrahendLo) {
+        return Long.compareUnsigned(minuendLo, subtrahendLo) < 0 ? 1 : 0;
+    }
+
+    private static int compare(long aHi, long aLo, long bHi, long bLo) {
+        int byHigh = Long.compareUnsigned(aHi, bHi);
+        return byHigh != 0 ? byHigh : Long.compareUnsigned(aLo, bLo);
+    }
+
+    /**
+     * Compara dos UInt128 sin signo (para ordenar resultados amplios).
+     */
+    static int compare(UInt128 a, UInt128 b) {
+        return compare(a.hi, a.lo, b.hi, b.lo);
+    }
+
+    /**
+     * Representación decimal de un UInt128 (para logs).
+     */
+    static String format(UInt128 value) {
+        if (value.hi == 0) {
+            return Long.toUnsignedString(value.lo);
+        }
+        return toBigInteger(value).toString();
+    }
+
+    private static BigInteger toBigInteger(UInt128 value) {
+        return new BigInteger(Long.toUnsignedString(value.hi)).multiply(TWO_POW_64)
+                .add(new BigInteger(Long.toUnsignedString(value.lo)));
+    }
+
+    /**
+     * @return cantidad de números de un rango normal (end - start + 1; cero si es inválido)
+     */
+    static BigInteger count(Range range) {
+        BigInteger count = BigInteger.valueOf(range.end).subtract(BigInteger.valueOf(range.start)).add(BigInteger.ONE);
+        return count.signum() > 0 ? count : BigInteger.ZERO;
+    }
+
+    /**
+     * @return cantidad de números de un rango amplio (end - start + 1; cero si es inválido)
+     */
+    static BigInteger count(WideRange range) {
+        BigInteger count = toBigInteger(range.end).subtract(toBigInteger(range.start)).add(BigInteger.ONE);
+        return count.signum() > 0 ? count : BigInteger.ZERO;
+    }
+
+    /**
+     * @return "[start, end]" en decimal (para logs)
+     */
+    static String format(WideRange range) {
+        return "[" + format(range.start) + ", " + format(range.end) + "]";
+    }
+}
@@ -0,0 +1,128 @@
+// --- Archivo: master/src/main/java/com/example/master/SpeculativeExecution.java ---
+package com.example.master;
+
+import com.zeroc.Ice.Properties; // Configuración del maestro (master.properties)
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ejecución especulativa de los chunks rezagados. Cuando ya se completó la mayor parte de los chunks de un trabajo
+ * y no quedan chunks por despachar, un chunk que lleva en curso bastante más que la mediana de los completados
+ * se duplica en un worker ocioso; el primer resultado cierra el chunk y el otro se ignora (un servant Ice en curso
+ * no se puede cancelar desde el cliente). ChunkScheduler revisa sus chunks en curso periódicamente (ver ChunkRetryPolicy).
+ * Guarda además las métricas acumuladas del maestro: copias lanzadas, cuántas ganaron y la latencia de cola ahorrada.
+ */
+final class SpeculativeExecution {
+    private final boolean enabled;
+    private final double minCompletedFraction; // Fracción de chunks completados antes de lanzar copias
+    private final double slowdownFactor; // Un chunk es rezagado si lleva más que slowdownFactor * mediana
+    private final long minElapsedMillis; // Tiempo mínimo en curso antes de considerar un chunk rezagado
+    private final double maxBackupsFraction; // Copias por trabajo, como fracción de sus chunks (al menos una)
+
+    // Métricas acumuladas del maestro
+    private final AtomicLong jobs = new AtomicLong(); // Trabajos terminados
+    private final AtomicLong jobsWithBackups = new AtomicLong(); // Trabajos en los que se lanzó al menos una copia
+    private final AtomicLong backupsLaunched = new AtomicLong();
+    private final AtomicLong backupsWon = new AtomicLong(); // La copia respondió antes que el original
+    private final AtomicLong backupsLost = new AtomicLong(); // El original respondió primero
+    private final AtomicLong tailSavedMillis = new AtomicLong(); // Suma, por trabajo, de la latencia de cola ahorrada
+
+    /**
+     * @param enabled              false para no lanzar copias (solo se cuentan los trabajos)
+     * @param minCompletedFraction fracción de chunks completados a partir de la cual se lanzan copias (0..1)
+     * @param slowdownFactor       veces la mediana de los chunks completados que debe llevar en curso un chunk rezagado
+     * @param minElapsedMillis     tiempo mínimo en curso de un chunk rezagado
+     * @param maxBackupsFraction   máximo de copias por trabajo, como fracción de sus chunks
+     */
+    SpeculativeExecution(boolean enabled, double minCompletedFraction, double slowdownFactor, long minElapsedMillis,
+                         double maxBackupsFraction) {
+        this.enabled = enabled;
+        this.minCompletedFraction = Math.min(1.0, Math.max(0.0, minCompletedFraction));
+        this.slowdownFactor = Math.max(1.0, slowdownFactor);
+        this.minElapsedMillis = Math.max(0, minElapsedMillis);
+        this.maxBackupsFraction = Math.max(0.0, maxBackupsFraction);
+    }
+
+    /**
+     * Lee Master.Speculation.* (Enabled, MinCompletedPercent, SlowdownPercent, MinElapsedMillis, MaxBackupsPercent).
+     */
+    static SpeculativeExecution fromProperties(Properties properties) {
+        return new SpeculativeExecution(
+                properties.getPropertyAsIntWithDefault("Master.Speculation.Enabled", 1) > 0,
+                properties.getPropertyAsIntWithDefault("Master.Speculation.MinCompletedPercent", 75) / 100.0,
+                properties.getPropertyAsIntWithDefault("Master.Speculation.SlowdownPercent", 200) / 100.0,
+                properties.getPropertyAsIntWithDefault("Master.Speculation.MinElapsedMillis", 1000),
+                properties.getPropertyAsIntWithDefault("Master.Speculation.MaxBackupsPercent", 10) / 100.0);
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return true si un trabajo con completed de total chunks completados ya puede lanzar copias
+     */
+    boolean mayLaunch(int completed, int total) {
+        return enabled && total > 0 && completed >= Math.ceil(minCompletedFraction * total);
+    }
+
+    /**
+     * @return tiempo en curso (ms) a partir del cual un chunk es rezagado, dada la mediana de los completados
+     */
+    long stragglerThreshold(long medianMillis) {
+        return Math.max(minElapsedMillis, (long) Math.ceil(slowdownFactor * medianMillis));
+    }
+
+    /**
+     * @return copias que puede lanzar un trabajo de totalChunks chunks
+     */
+    int maxBackups(int totalChunks) {
+        return (maxBackupsFraction <= 0) ? 0 : Math.max(1, (int) Math.floor(maxBackupsFraction * totalChunks));
+    }
+
+    void backupLaunched() {
+        backupsLaunched.incrementAndGet();
+    }
+
+    void backupFinished(boolean won) {
+        (won ? backupsWon : backupsLost).incrementAndGet();
+    }
+
+    /**
+     * Cuenta un trabajo terminado.
+     * @param launched copias lanzadas en el trabajo
+     */
+    void jobFinished(int launched) {
+        jobs.incrementAndGet();
+        if (launched > 0) {
+            jobsWithBackups.incrementAndGet();
+        }
+    }
+
+    /**
+     * Suma latencia de cola ahorrada: lo que el original de un chunk ganado por su copia tardó en llegar
+     * después de que el trabajo terminó (sin la copia, el trabajo lo habría esperado).
+     */
+    void tailSaved(long millis) {
+        tailSavedMillis.addAndGet(Math.max(0, millis));
+    }
+
+    /**
+     * @return resumen de las métricas acumuladas (para logs)
+     */
+    String describe() {
+        return "trabajos=" + jobs.get() + ", con copias=" + jobsWithBackups.get() + ", copias lanzadas=" + backupsLaunched.get() +
+                ", ganaron=" + backupsWon.get() + ", perdieron=" + backupsLost.get() + ", latencia de cola ahorrada=" + tailSavedMillis.get() + " ms";
+    }
+
+    /**
+     * @return configuración (para el log de arranque)
+     */
+    String describeSettings() {
+        if (!enabled) {
+            return "desactivada";
+        }
+        return "con " + Math.round(minCompletedFraction * 100) + "% de chunks completados, chunks en curso más de " +
+                Math.round(slowdownFactor * 100) + "% de la mediana (mínimo " + minElapsedMillis + " ms), hasta " +
+                Math.round(maxBackupsFraction * 100) + "% de copias por trabajo";
+    }
+}
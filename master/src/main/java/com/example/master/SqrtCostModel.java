@@ -0,0 +1,21 @@
+// --- Archivo: master/src/main/java/com/example/master/SqrtCostModel.java ---
+package com.example.master;
+
+/**
+ * División por tentativa: revisar n cuesta del orden de √n divisiones.
+ * F(n) = ∫ √x dx = (2/3)·n^(3/2).
+ */
+final class SqrtCostModel implements CostModel {
+    static final String NAME = "sqrt";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public double cumulative(double n) {
+        double x = Math.max(n, 1.0);
+        return (2.0 / 3.0) * x * Math.sqrt(x);
+    }
+}
@@ -0,0 +1,19 @@
+// --- Archivo: master/src/main/java/com/example/master/UniformCostModel.java ---
+package com.example.master;
+
+/**
+ * Todos los números cuestan lo mismo: equivale al reparto por cantidad de RangeSplitter.
+ */
+final class UniformCostModel implements CostModel {
+    static final String NAME = "uniform";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public double cumulative(double n) {
+        return Math.max(n, 1.0);
+    }
+}
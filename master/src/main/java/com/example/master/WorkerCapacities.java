@@ -0,0 +1,159 @@
+// --- Archivo: master/src/main/java/com/example/master/WorkerCapacities.java ---
+package com.example.master;
+
+import com.zeroc.Ice.Identity; // Identidad del worker
+import perfectNumbersApp.Range; // Chunk observado
+import perfectNumbersApp.WorkerCapabilities; // Capacidad anunciada al registrarse
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Capacidad de cada worker registrado, en unidades de costo (CostModel) por ms.
+ * El valor inicial sale de la autoprueba que el worker anuncia al registrarse (su rango se valora con el mismo modelo
+ * de costo, así que autopruebas sobre rangos distintos son comparables) y se refresca con media móvil exponencial
+ * a partir de los tiempos de cada chunk normal que el worker completa. Los workers sin dato (registro sin
+ * capacidades o sin autoprueba) toman el promedio de los conocidos.
+ */
+final class WorkerCapacities {
+    private final CostModel model; // Valora los rangos (autoprueba y chunks) en unidades de costo
+    private final double smoothing; // Peso de cada observación nueva en la media móvil
+    private final String logPrefix; // "[Master-xxxx]"
+    private final Map<Identity, Capacity> capacities = new ConcurrentHashMap<>();
+    private final Map<Identity, WorkerCapabilities> advertised = new ConcurrentHashMap<>(); // Lo anunciado al registrarse
+
+    /**
+     * @param model     modelo de costo fijo (no calibrado: sus unidades no deben cambiar con el tiempo)
+     * @param smoothing peso de cada observación nueva (0..1]
+     * @param logPrefix prefijo de los logs
+     */
+    WorkerCapacities(CostModel model, double smoothing, String logPrefix) {
+        this.model = model;
+        this.smoothing = Math.max(0.01, Math.min(1.0, smoothing));
+        this.logPrefix = logPrefix;
+    }
+
+    /**
+     * Registra (o reemplaza) la capacidad anunciada por un worker.
+     */
+    void register(Identity identity, WorkerCapabilities capabilities) {
+        double initial = Double.NaN;
+        if (capabilities.benchmarkCount > 0 && capabilities.benchmarkMillis > 0) {
+            long benchmarkEnd = capabilities.benchmarkStart + capabilities.benchmarkCount - 1;
+            initial = model.cost(capabilities.benchmarkStart, benchmarkEnd) / capabilities.benchmarkMillis;
+        }
+        capacities.put(identity, new Capacity(initial));
+        advertised.put(identity, capabilities);
+        System.out.println(logPrefix + " Capacidad de '" + identity.name + "': " + capabilities.cores + " núcleo(s), " + capabilities.parallelism +
+                " hilo(s), motores " + Arrays.toString(capabilities.engines) + ", autoprueba " + String.format("%.0f", capabilities.benchmarkScore) +
+                " números/s -> " + (Double.isNaN(initial) ? "sin dato (se usará el promedio)" : String.format("%.3g", initial) + " unidades/ms") + ".");
+    }
+
+    /**
+     * Olvida un worker que dejó de responder.
+     */
+    void forget(Identity identity) {
+        capacities.remove(identity);
+        advertised.remove(identity);
+    }
+
+    /**
+     * @return capacidad estimada (unidades de costo por ms); el promedio de los conocidos si no hay dato, o 1 si no se conoce ninguno
+     */
+    double capacityOf(Identity identity) {
+        Capacity capacity = capacities.get(identity);
+        if (capacity != null && !Double.isNaN(capacity.value)) {
+            return capacity.value;
+        }
+        double sum = 0;
+        int known = 0;
+        for (Capacity other : capacities.values()) {
+            if (!Double.isNaN(other.value)) {
+                sum += other.value;
+                known++;
+            }
+        }
+        return (known == 0) ? 1.0 : sum / known;
+    }
+
+    /**
+     * Refresca la capacidad con un chunk completado.
+     * @param identity          worker que procesó el chunk
+     * @param chunk             subrango procesado
+     * @param workerMillis      tiempo reportado por el worker
+     * @param concurrentChunks  chunks que el worker tenía en curso a la vez (comparten sus hilos)
+     */
+    void observe(Identity identity, Range chunk, long workerMillis, int concurrentChunks) {
+        Capacity capacity = capacities.get(identity);
+        if (capacity == null || workerMillis <= 0) {
+            return;
+        }
+        // Con varios chunks a la vez, cada uno avanza a una fracción de la capacidad total del worker
+        double observed = model.cost(chunk.start, chunk.end) / workerMillis * Math.max(1, concurrentChunks);
+        synchronized (capacity) {
+            capacity.value = Double.isNaN(capacity.value) ? observed : capacity.value + smoothing * (observed - capacity.value);
+        }
+    }
+
+    /**
+     * Capacidad conjunta de varios workers, para que un agregador se anuncie a su Maestro padre como un solo worker:
+     * suma núcleos, hilos y autopruebas, y expresa la capacidad estimada total como una autoprueba equivalente sobre
+     * el rango de autoprueba de uno de ellos (el padre la valora con el mismo modelo de costo).
+     * Sin autoprueba conocida se anuncia benchmarkCount = 0 y el padre usa el promedio de sus workers.
+     */
+    WorkerCapabilities aggregate(Iterable<Identity> identities) {
+        WorkerCapabilities total = new WorkerCapabilities();
+        Set<String> engines = new TreeSet<>();
+        double totalCapacity = 0;
+        for (Identity identity : identities) {
+            totalCapacity += capacityOf(identity);
+            WorkerCapabilities capabilities = advertised.get(identity);
+            if (capabilities == null) {
+                continue;
+            }
+            total.cores += capabilities.cores;
+            total.parallelism += capabilities.parallelism;
+            total.benchmarkScore += capabilities.benchmarkScore;
+            if (capabilities.engines != null) {
+                engines.addAll(Arrays.asList(capabilities.engines));
+            }
+            if (total.benchmarkCount == 0 && capabilities.benchmarkCount > 0) {
+                total.benchmarkStart = capabilities.benchmarkStart;
+                total.benchmarkCount = capabilities.benchmarkCount;
+            }
+        }
+        if (total.benchmarkCount > 0 && totalCapacity > 0) {
+            long benchmarkEnd = total.benchmarkStart + total.benchmarkCount - 1;
+            total.benchmarkMillis = Math.max(1, Math.round(model.cost(total.benchmarkStart, benchmarkEnd) / totalCapacity));
+        } else {
+            total.benchmarkCount = 0;
+        }
+        total.engines = engines.toArray(new String[0]);
+        return total;
+    }
+
+    /**
+     * @return "nombre=capacidad" de cada worker (para logs)
+     */
+    String describe(Iterable<Identity> identities) {
+        StringBuilder sb = new StringBuilder();
+        for (Identity identity : identities) {
+            sb.append(sb.length() > 0 ? ", " : "").append(identity.name, 0, Math.min(8, identity.name.length()))
+                    .append('=').append(String.format("%.3g", capacityOf(identity)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Capacidad de un worker.
+     */
+    private static final class Capacity {
+        private volatile double value; // Unidades de costo por ms (NaN = desconocida)
+
+        Capacity(double value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+// --- Archivo: master/src/main/java/com/example/master/WorkerRegistry.java ---
+package com.example.master;
+
+import com.zeroc.Ice.Identity; // Clave de cada worker en el registro
+import com.zeroc.Ice.Properties; // Configuración del maestro (master.properties)
+import perfectNumbersApp.WorkerServicePrx; // Worker registrado
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Registro de workers vivos basado en leases. Cada worker tiene un lease de leaseMillis que se renueva cuando el
+ * worker llama a renewLease o responde un ping; en segundo plano el maestro hace ping asíncrono, en paralelo, a los
+ * workers que no renovaron en el último pingIntervalMillis, y quita a los que no responden o cuyo lease venció.
+ * Así la selección de workers de un trabajo lee el mapa sin ninguna llamada de red.
+ */
+final class WorkerRegistry {
+    private final long leaseMillis; // Duración de un lease
+    private final long pingIntervalMillis; // Período de la revisión y antigüedad de renovación que dispara un ping
+    private final int pingTimeoutMillis; // Timeout de invocación de cada ping
+    private final Consumer<Identity> evictionListener; // Recibe los workers que salen del registro
+    private final String logPrefix; // "[Master-xxxx]"
+    // Workers vivos, por identidad
+    private final Map<Identity, Lease> workers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "master-worker-leases");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Lease de un worker registrado.
+     */
+    private static final class Lease {
+        final WorkerServicePrx proxy;
+        volatile long renewedAt; // Última renovación (renewLease o ping respondido)
+        volatile long expiresAt;
+        final AtomicBoolean pingInFlight = new AtomicBoolean();
+
+        Lease(WorkerServicePrx proxy) {
+            this.proxy = proxy;
+        }
+    }
+
+    /**
+     * @param leaseMillis        duración de un lease
+     * @param pingIntervalMillis período de la revisión en segundo plano
+     * @param pingTimeoutMillis  timeout de invocación de cada ping
+     * @param evictionListener   recibe la identidad de cada worker quitado del registro
+     * @param logPrefix          prefijo de los logs
+     */
+    WorkerRegistry(long leaseMillis, long pingIntervalMillis, int pingTimeoutMillis, Consumer<Identity> evictionListener, String logPrefix) {
+        this.leaseMillis = Math.max(1000, leaseMillis);
+        this.pingIntervalMillis = Math.max(100, Math.min(pingIntervalMillis, this.leaseMillis));
+        this.pingTimeoutMillis = Math.max(100, pingTimeoutMillis);
+        this.evictionListener = evictionListener;
+        this.logPrefix = logPrefix;
+        timer.scheduleWithFixedDelay(this::checkLeases, this.pingIntervalMillis, this.pingIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lee Master.Lease.Seconds, Master.Lease.PingIntervalMillis y Master.Lease.PingTimeoutMillis.
+     */
+    static WorkerRegistry fromProperties(Properties properties, Consumer<Identity> evictionListener, String logPrefix) {
+        return new WorkerRegistry(
+                properties.getPropertyAsIntWithDefault("Master.Lease.Seconds", 15) * 1000L,
+                properties.getPropertyAsIntWithDefault("Master.Lease.PingIntervalMillis", 5000),
+                properties.getPropertyAsIntWithDefault("Master.Lease.PingTimeoutMillis", 2000),
+                evictionListener, logPrefix);
+    }
+
+    /**
+     * Registra un worker (o renueva su lease si ya estaba) y confirma con un ping asíncrono que el maestro lo alcanza.
+     * @return true si el worker no estaba registrado
+     */
+    boolean register(WorkerServicePrx proxy) {
+        Identity identity = proxy.ice_getIdentity();
+        Lease lease = new Lease(proxy);
+        renew(lease);
+        Lease previous = workers.put(identity, lease);
+        System.out.println(logPrefix + " Worker '" + identity.name + "' " + (previous == null ? "registrado" : "registrado de nuevo") +
+                " (lease " + leaseMillis + " ms). Total: " + workers.size());
+        ping(identity, lease);
+        return previous == null;
+    }
+
+    /**
+     * Renueva el lease de un worker registrado.
+     * @return duración del lease en ms, o 0 si el worker no está registrado (debe registrarse de nuevo)
+     */
+    long renew(WorkerServicePrx proxy) {
+        Lease lease = workers.get(proxy.ice_getIdentity());
+        if (lease == null) {
+            return 0;
+        }
+        renew(lease);
+        return leaseMillis;
+    }
+
+    private void renew(Lease lease) {
+        long now = System.currentTimeMillis();
+        lease.renewedAt = now;
+        lease.expiresAt = now + leaseMillis;
+    }
+
+    boolean isRegistered(Identity identity) {
+        return workers.containsKey(identity);
+    }
+
+    /**
+     * @return copia de los workers con lease vigente (sin llamadas de red)
+     */
+    List<WorkerServicePrx> liveWorkers() {
+        long now = System.currentTimeMillis();
+        List<WorkerServicePrx> live = new ArrayList<>(workers.size());
+        for (Lease lease : workers.values()) {
+            if (lease.expiresAt > now) {
+                live.add(lease.proxy);
+            }
+        }
+        return live;
+    }
+
+    /**
+     * @return workers registrados (los de lease vencido salen en la próxima revisión)
+     */
+    int size() {
+        return workers.size();
+    }
+
+    /**
+     * Un trabajo vio fallar una llamada al worker: se comprueba ya con un ping en lugar de esperar a la próxima revisión.
+     */
+    void suspect(Identity identity) {
+        Lease lease = workers.get(identity);
+        if (lease != null) {
+            ping(identity, lease);
+        }
+    }
+
+    /**
+     * @return configuración (para el log de arranque)
+     */
+    String describe() {
+        return "lease de " + leaseMillis + " ms, ping a los workers sin renovar cada " + pingIntervalMillis + " ms (timeout " + pingTimeoutMillis + " ms)";
+    }
+
+    /**
+     * Revisión periódica: quita los leases vencidos y hace ping en paralelo a los workers que no renovaron hace poco.
+     */
+    private void checkLeases() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Identity, Lease> entry : workers.entrySet()) {
+            Lease lease = entry.getValue();
+            if (lease.expiresAt <= now) {
+                evict(entry.getKey(), lease, "lease vencido hace " + (now - lease.expiresAt) + " ms");
+            } else if (now - lease.renewedAt >= pingIntervalMillis) {
+                ping(entry.getKey(), lease);
+            }
+        }
+    }
+
+    /**
+     * Ping asíncrono con timeout de invocación: si responde se renueva el lease, si falla el worker sale del registro.
+     */
+    private void ping(Identity identity, Lease lease) {
+        if (!lease.pingInFlight.compareAndSet(false, true)) {
+            return; // Ya hay un ping en curso a este worker
+        }
+        try {
+            lease.proxy.ice_invocationTimeout(pingTimeoutMillis).ice_pingAsync().whenComplete((ignored, error) -> {
+                lease.pingInFlight.set(false);
+                if (error == null) {
+                    renew(lease);
+                } else {
+                    evict(identity, lease, "no respondió al ping: " + error.getClass().getSimpleName());
+                }
+            });
+        } catch (RuntimeException e) {
+            lease.pingInFlight.set(false);
+            evict(identity, lease, "error al hacer ping: " + e.getClass().getSimpleName());
+        }
+    }
+
+    private void evict(Identity identity, Lease lease, String reason) {
+        // Solo si sigue siendo el mismo lease (el worker pudo registrarse de nuevo mientras tanto)
+        if (workers.remove(identity, lease)) {
+            System.err.println(logPrefix + " Worker '" + identity.name + "' (" + lease.proxy.toString().split("\n")[0] + ") removido: " + reason +
+                    ". Registrados ahora: " + workers.size());
+            evictionListener.accept(identity);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+// --- Archivo: master/src/test/java/com/example/master/AliquotJoinTest.java ---
+package com.example.master;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import com.zeroc.Ice.Identity;
+import perfectNumbersApp.Range;
+import perfectNumbersApp.WorkerServicePrx;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Segunda etapa de los ciclos alícuotas: AliquotJoin sigue las cadenas de los candidatos consultando s(x) a
+ * workers falsos (lookupAliquotSumsAsync con s(x) calculado aquí) y solo conserva los ciclos cuyo menor miembro
+ * es el candidato y que no salen del rango del trabajo.
+ */
+class AliquotJoinTest {
+    private static final int MAX_CYCLE_LENGTH = 28;
+    private static final long[][] CYCLES_UP_TO_20000 = {{220, 284}, {1184, 1210}, {2620, 2924}, {5020, 5564}, {6232, 6368},
+            {10744, 10856}, {12285, 14595}, {12496, 14288, 15472, 14536, 14264}, {17296, 18416}};
+
+    @Test
+    void findsAmicablePairsAndTheSociableFiveCycle() {
+        long jobEnd = 20_000;
+        List<long[]> cycles = join(jobEnd, workers(2, -1)).findCycles(candidates(jobEnd), jobEnd, MAX_CYCLE_LENGTH);
+        assertCycles(CYCLES_UP_TO_20000, cycles);
+    }
+
+    @Test
+    void dropsChainsThatLeaveTheJobRange() {
+        // 15472 (del 5-ciclo) y 14595 (pareja de 12285) pasan de jobEnd: esos ciclos no se informan
+        long jobEnd = 14_500;
+        List<long[]> cycles = join(jobEnd, workers(2, -1)).findCycles(candidates(jobEnd), jobEnd, MAX_CYCLE_LENGTH);
+        assertCycles(new long[][]{{220, 284}, {1184, 1210}, {2620, 2924}, {5020, 5564}, {6232, 6368}, {10744, 10856}}, cycles);
+    }
+
+    @Test
+    void dropsChainsThatGoBelowTheirStart() {
+        // 12 -> 16 -> 15 -> 9: baja de 12, así que 12 no puede ser el menor miembro de un ciclo.
+        // 12496 también se descarta si la longitud máxima no alcanza para cerrar su ciclo de 5
+        long jobEnd = 20_000;
+        AliquotJoin join = join(jobEnd, workers(2, -1));
+        assertCycles(new long[0][], join.findCycles(new long[]{12, 16}, jobEnd, MAX_CYCLE_LENGTH));
+        assertCycles(new long[][]{{220, 284}}, join.findCycles(new long[]{220, 284, 12496, 14288}, jobEnd, 4));
+    }
+
+    @Test
+    void retriesFailedLookupsOnAnotherWorker() {
+        long jobEnd = 20_000;
+        List<long[]> cycles = join(jobEnd, workers(3, 0)).findCycles(candidates(jobEnd), jobEnd, MAX_CYCLE_LENGTH);
+        assertCycles(CYCLES_UP_TO_20000, cycles);
+    }
+
+    @Test
+    void failsWhenNoWorkerAnswers() {
+        try {
+            join(20_000, workers(1, 0)).findCycles(new long[]{220, 284}, 20_000, MAX_CYCLE_LENGTH);
+            fail("se esperaba que la consulta fallara");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException, "causa: " + e.getCause());
+        }
+    }
+
+    /**
+     * Reparte [1, jobEnd] en subrangos iguales, uno por worker.
+     */
+    private static AliquotJoin join(long jobEnd, List<WorkerServicePrx> workers) {
+        List<Range> subRanges = new ArrayList<>();
+        long width = jobEnd / workers.size();
+        for (int i = 0; i < workers.size(); i++) {
+            subRanges.add(new Range(1 + i * width, (i == workers.size() - 1) ? jobEnd : (i + 1) * width));
+        }
+        return new AliquotJoin(subRanges, workers, 500, "[TEST]");
+    }
+
+    /**
+     * @return aristas {n0, s0, n1, s1, ...} con n < s(n) <= jobEnd, como las emite AliquotScanner
+     */
+    private static long[] candidates(long jobEnd) {
+        List<Long> edges = new ArrayList<>();
+        for (long n = 2; n <= jobEnd; n++) {
+            long s = aliquotSum(n);
+            if (s > n && s <= jobEnd) {
+                edges.add(n);
+                edges.add(s);
+            }
+        }
+        return edges.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long aliquotSum(long n) {
+        if (n < 2) {
+            return 0;
+        }
+        long sum = 1;
+        for (long d = 2; d * d <= n; d++) {
+            if (n % d == 0) {
+                sum += d;
+                if (d != n / d) {
+                    sum += n / d;
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static void assertCycles(long[][] expected, List<long[]> cycles) {
+        assertEquals(expected.length, cycles.size(), "cantidad de ciclos");
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(expected[i], cycles.get(i), "ciclo " + i);
+        }
+    }
+
+    /**
+     * @param count         cantidad de workers
+     * @param failingWorker índice del worker cuyas consultas fallan, o -1 si todos responden
+     */
+    private static List<WorkerServicePrx> workers(int count, int failingWorker) {
+        List<WorkerServicePrx> workers = new ArrayList<>();
+        for (int w = 0; w < count; w++) {
+            workers.add(fakeWorker("worker-" + w, w == failingWorker));
+        }
+        return workers;
+    }
+
+    /**
+     * Proxy de worker que responde lookupAliquotSumsAsync (o falla, como un worker caído).
+     */
+    private static WorkerServicePrx fakeWorker(String name, boolean failing) {
+        Identity identity = new Identity(name, "");
+        return (WorkerServicePrx) Proxy.newProxyInstance(WorkerServicePrx.class.getClassLoader(), new Class<?>[]{WorkerServicePrx.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "lookupAliquotSumsAsync":
+                            if (failing) {
+                                return CompletableFuture.failedFuture(new IllegalStateException(name + " no responde"));
+                            }
+                            long[] numbers = (long[]) args[0];
+                            long[] sums = new long[numbers.length];
+                            for (int i = 0; i < numbers.length; i++) {
+                                sums[i] = aliquotSum(numbers[i]);
+                            }
+                            return CompletableFuture.completedFuture(sums);
+                        case "ice_getIdentity":
+                            return identity;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return name;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,139 @@
+// --- Archivo: master/src/test/java/com/example/master/ConcurrentJobsStressTest.java ---
+package com.example.master;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.common.EventLog;
+import com.zeroc.Ice.Identity;
+import perfectNumbersApp.Range;
+import perfectNumbersApp.WorkerServicePrx;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Muchos trabajos superpuestos sobre los mismos workers: cada uno debe recibir solo los perfectos de su rango.
+ * Los workers son falsos (responden con retardos al azar a MasterControllerI, como lo haría Ice) y las copias de
+ * respaldo agresivas hacen llegar resultados duplicados y tardíos, también de trabajos ya liberados.
+ */
+class ConcurrentJobsStressTest {
+    private static final long[] KNOWN_PERFECTS = {6L, 28L, 496L, 8128L, 33550336L, 8589869056L, 137438691328L};
+    private static final int JOBS = 48;
+    private static final int WORKERS = 4;
+    private static final int CHUNKS_PER_WORKER = 8;
+    private static final long MAX_END = 200_000_000_000L; // Pasa 137438691328: algunos trabajos ven los 7 perfectos
+
+    @Test
+    void overlappingJobsReceiveOnlyTheirOwnPerfectNumbers() throws Exception {
+        Path eventFile = Files.createTempFile("stress-eventos", ".txt");
+        EventLog eventLog = new EventLog(eventFile, EventLog.Format.TEXT, 10 * 1024 * 1024, 1, 8192, 200, "[TEST]");
+        MasterControllerI controller = new MasterControllerI(eventLog);
+        ScheduledExecutorService workerThreads = Executors.newScheduledThreadPool(8);
+        ExecutorService jobThreads = Executors.newFixedThreadPool(JOBS); // Todos los trabajos en curso a la vez
+        List<WorkerServicePrx> workers = new ArrayList<>();
+        for (int w = 0; w < WORKERS; w++) {
+            workers.add(fakeWorker("worker-" + w));
+        }
+        ChunkRetryPolicy retryPolicy = new ChunkRetryPolicy(3, 0, 20);
+        SpeculativeExecution speculation = new SpeculativeExecution(true, 0.5, 1.0, 0, 0.5);
+
+        // Rangos superpuestos: los de índice par comparten un inicio común, los impares se reparten al azar
+        SplittableRandom random = new SplittableRandom(13);
+        List<Range> ranges = new ArrayList<>();
+        for (int i = 0; i < JOBS; i++) {
+            long start = (i % 2 == 0) ? 1 + random.nextLong(10_000) : 1 + random.nextLong(MAX_END / 2);
+            ranges.add(new Range(start, start + random.nextLong(MAX_END / 2)));
+        }
+
+        List<Future<long[]>> outcomes = new ArrayList<>();
+        try {
+            for (int i = 0; i < JOBS; i++) {
+                String jobLogId = "Job-" + i; // Job-1 es prefijo de Job-10..Job-19: el ID de chunk debe separarlos
+                Range range = ranges.get(i);
+                outcomes.add(jobThreads.submit(() -> runJob(jobLogId, range, controller, workers, workerThreads, retryPolicy, speculation)));
+            }
+            for (int i = 0; i < JOBS; i++) {
+                Range range = ranges.get(i);
+                long[] expected = LongStream.of(KNOWN_PERFECTS).filter(p -> p >= range.start && p <= range.end).toArray();
+                assertArrayEquals(expected, outcomes.get(i).get(60, TimeUnit.SECONDS), "Job-" + i + " [" + range.start + ", " + range.end + "]");
+            }
+            assertEquals(0, controller.getActiveJobCount(), "trabajos sin liberar");
+        } finally {
+            jobThreads.shutdownNow();
+            workerThreads.shutdownNow();
+            eventLog.close();
+            Files.deleteIfExists(eventFile);
+        }
+    }
+
+    /**
+     * Ciclo de un trabajo como en MasterServiceI.runJob: registro, planificador, espera y liberación.
+     * @return perfectos consolidados del trabajo
+     */
+    private static long[] runJob(String jobLogId, Range range, MasterControllerI controller, List<WorkerServicePrx> workers,
+                                 ScheduledExecutorService workerThreads, ChunkRetryPolicy retryPolicy, SpeculativeExecution speculation) {
+        List<Range> chunks = RangeSplitter.split(range, WORKERS * CHUNKS_PER_WORKER);
+        JobState jobState = controller.registerJob(jobLogId, chunks.size());
+        ChunkScheduler<Range> scheduler = new ChunkScheduler<>(jobState, "[TEST] (" + jobLogId + ")", workers, chunks, 2, controller,
+                (worker, chunk, chunkId) -> {
+                    // El worker responde más tarde desde otro hilo, como el callback de Ice; uno de cada diez chunks se
+                    // rezaga para que el planificador lance copias y el chunk reciba dos resultados
+                    long delay = (ThreadLocalRandom.current().nextInt(10) == 0) ? 150 : ThreadLocalRandom.current().nextLong(1, 10);
+                    workerThreads.schedule(() -> controller.submitWorkerResultsAsync(chunkId, chunk, perfectsIn(chunk), delay, null),
+                            delay, TimeUnit.MILLISECONDS);
+                    return CompletableFuture.completedFuture(null);
+                }, chunk -> "[" + chunk.start + ", " + chunk.end + "]", (worker, chunk, chunkId, workerMillis, roundTripMillis) -> {
+                }, retryPolicy, speculation);
+        scheduler.start();
+        try {
+            assertTrue(jobState.awaitCompletion(30_000), jobLogId + " no terminó");
+            assertEquals(0, jobState.getFailedChunkCount(), jobLogId + " con chunks fallidos");
+            return jobState.getAllFoundPerfectNumbers();
+        } finally {
+            scheduler.finish();
+            controller.releaseJob(jobLogId);
+        }
+    }
+
+    private static long[] perfectsIn(Range chunk) {
+        return Arrays.stream(KNOWN_PERFECTS).filter(p -> p >= chunk.start && p <= chunk.end).toArray();
+    }
+
+    /**
+     * Proxy de worker que solo conoce su identidad (el planificador no lo llama: los envíos pasan por el ChunkSender).
+     */
+    private static WorkerServicePrx fakeWorker(String name) {
+        Identity identity = new Identity(name, "");
+        return (WorkerServicePrx) Proxy.newProxyInstance(WorkerServicePrx.class.getClassLoader(), new Class<?>[]{WorkerServicePrx.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "ice_getIdentity":
+                            return identity;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return name;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# --- Archivo: scripts/local-topology.sh ---
+# Topología jerárquica de prueba en una sola máquina, un proceso por nodo (loopback):
+#   Maestro raíz (puerto 10000) -> AGREGADORES agregadores (puertos 10100, 10101, ...) -> WORKERS workers por agregador
+# Uso: scripts/local-topology.sh [agregadores] [workers por agregador] [fan-out]
+# Con la topología arriba, el cliente se conecta al Maestro raíz como siempre (./gradlew :client:run).
+# Ctrl+C detiene todos los procesos. Los logs quedan en build/topology-logs/.
+set -euo pipefail
+
+AGGREGATORS=${1:-2}
+WORKERS_PER_AGGREGATOR=${2:-3}
+FAN_OUT=${3:-10}
+MASTER_PORT=10000
+FIRST_AGGREGATOR_PORT=10100
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+LOGS="$ROOT/build/topology-logs"
+cd "$ROOT"
+
+# JARs ejecutables (incluyen Ice y los stubs)
+./gradlew -q :master:jar :worker:jar
+MASTER_JAR=$(ls master/build/libs/master-*.jar | head -n 1)
+WORKER_JAR=$(ls worker/build/libs/worker-*.jar | head -n 1)
+mkdir -p "$LOGS"
+
+PIDS=()
+stop_all() {
+    echo "Deteniendo ${#PIDS[@]} proceso(s)..."
+    kill "${PIDS[@]}" 2>/dev/null || true
+    wait 2>/dev/null || true
+}
+trap stop_all EXIT
+trap 'exit 130' INT TERM
+
+java -jar "$MASTER_JAR" \
+    --MasterAdapter.Endpoints="default -h localhost -p $MASTER_PORT" \
+    --Master.MaxWorkersPerJob="$FAN_OUT" \
+    > "$LOGS/master.log" 2>&1 &
+PIDS+=($!)
+echo "Maestro raíz en el puerto $MASTER_PORT (log: $LOGS/master.log)"
+sleep 2
+
+for a in $(seq 1 "$AGGREGATORS"); do
+    port=$((FIRST_AGGREGATOR_PORT + a - 1))
+    java -cp "$MASTER_JAR" com.example.master.AggregatorApp \
+        --AggregatorAdapter.Endpoints="default -h localhost -p $port" \
+        --Aggregator.Parent.Proxy="MasterService:default -h localhost -p $MASTER_PORT" \
+        --Master.MaxWorkersPerJob="$FAN_OUT" \
+        --Master.EventLog.Path="$LOGS/tiempos-aggregator-$a.txt" \
+        > "$LOGS/aggregator-$a.log" 2>&1 &
+    PIDS+=($!)
+    echo "Agregador $a en el puerto $port (log: $LOGS/aggregator-$a.log)"
+    sleep 1
+    for w in $(seq 1 "$WORKERS_PER_AGGREGATOR"); do
+        java -jar "$WORKER_JAR" \
+            --WorkerAdapter.Endpoints="default -h localhost" \
+            --MasterService.Proxy="MasterService:default -h localhost -p $port" \
+            > "$LOGS/worker-$a-$w.log" 2>&1 &
+        PIDS+=($!)
+    done
+    echo "  $WORKERS_PER_AGGREGATOR worker(s) registrándose en el agregador $a"
+done
+
+echo "Topología lista: $AGGREGATORS agregador(es) x $WORKERS_PER_AGGREGATOR worker(s). Ctrl+C para detener."
+wait
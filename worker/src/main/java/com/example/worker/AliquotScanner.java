@@ -0,0 +1,156 @@
+// --- Archivo: worker/src/main/java/com/example/worker/AliquotScanner.java ---
+package com.example.worker;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Primera etapa de la búsqueda de pares amigables y ciclos sociables.
+ * El menor miembro m de un ciclo alícuota siempre cumple m < s(m); por eso, criba el subrango
+ * y emite como candidatos las aristas (n, s(n)) con n < s(n) <= maxPartner. El Maestro sigue
+ * cada cadena después, consultando s(x) al worker dueño de x (ver {@link #aliquotSums(long[])}).
+ */
+public class AliquotScanner {
+    public static final int DEFAULT_BATCH_SIZE = 32_768; // Aristas por lote (~512 KB en Ice)
+
+    private final int blockSize; // Cantidad de números por bloque
+    private final BlockBufferPool bufferPool; // Acumuladores de bloque reutilizables
+    private final ForkJoinPool pool; // Pool dedicado del Worker (null = secuencial)
+    private final long minSplitSize; // Por debajo de este tamaño ya no se divide
+    private final int batchSize; // Aristas por lote entregado al consumidor
+
+    /**
+     * @param blockSize    cantidad de números por bloque de la criba
+     * @param bufferPool   pool del que se toman los acumuladores de bloque
+     * @param pool         pool fork/join del Worker, o null para recorrer en el hilo que llama
+     * @param minSplitSize tamaño mínimo de una porción antes de dejar de dividir
+     * @param batchSize    aristas por lote (acotado por Ice.MessageSizeMax del Maestro)
+     */
+    public AliquotScanner(int blockSize, BlockBufferPool bufferPool, ForkJoinPool pool, long minSplitSize, int batchSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser positivo: " + blockSize);
+        }
+        this.blockSize = blockSize;
+        this.bufferPool = bufferPool;
+        this.pool = pool;
+        this.minSplitSize = Math.max(1, minSplitSize);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Recorre [start, end] y entrega los candidatos por lotes aplanados {n0, s0, n1, s1, ...}.
+     * Con pool, varias porciones pueden entregar lotes a la vez: batchSink debe ser seguro entre hilos.
+     * @param start      límite inferior (inclusive)
+     * @param end        límite superior (inclusive); por encima de OVERFLOW_SAFE_LIMIT no hay candidatos
+     * @param maxPartner mayor s(n) aceptado (el fin del rango del trabajo)
+     * @param batchSink  recibe cada lote lleno y el último lote parcial de cada porción
+     * @return cantidad total de candidatos emitidos
+     */
+    public long scan(long start, long end, long maxPartner, Consumer<long[]> batchSink) {
+        long actualStart = Math.max(start, 2L);
+        // s(n) <= maxPartner < n para todo n por encima de maxPartner: no hay candidatos ahí
+        long actualEnd = Math.min(end, Math.min(maxPartner, SegmentedSigmaSieveEngine.OVERFLOW_SAFE_LIMIT));
+        if (actualStart > actualEnd) {
+            return 0;
+        }
+        if (pool == null) {
+            return scanBlocks(actualStart, actualEnd, maxPartner, batchSink);
+        }
+        ScanTask task = new ScanTask(actualStart, actualEnd, maxPartner, batchSink);
+        pool.invoke(task);
+        return task.emitted;
+    }
+
+    private long scanBlocks(long start, long end, long maxPartner, Consumer<long[]> batchSink) {
+        long emitted = 0;
+        long[] batch = new long[2 * (int) Math.min(batchSize, end - start + 1)];
+        int batchCount = 0; // posiciones usadas de batch (dos por arista)
+        int capacity = (int) Math.min(blockSize, end - start + 1);
+        BlockBufferPool.BlockBuffer aliquot = bufferPool.acquire(capacity);
+        try {
+            long blockStart = start;
+            while (true) {
+                int length = (int) Math.min(capacity, end - blockStart + 1);
+                SegmentedSigmaSieveEngine.sieveBlock(blockStart, length, aliquot);
+                for (int k = 0; k < length; k++) {
+                    long n = blockStart + k;
+                    long next = aliquot.get(k);
+                    if (next > n && next <= maxPartner) {
+                        if (batchCount == batch.length) {
+                            batchSink.accept(batch);
+                            batch = new long[batch.length];
+                            batchCount = 0;
+                        }
+                        batch[batchCount++] = n;
+                        batch[batchCount++] = next;
+                        emitted++;
+                    }
+                }
+                long blockEnd = blockStart + length - 1;
+                if (blockEnd >= end) {
+                    break;
+                }
+                blockStart = blockEnd + 1;
+            }
+        } finally {
+            bufferPool.release(aliquot);
+        }
+        if (batchCount > 0) {
+            batchSink.accept(Arrays.copyOf(batch, batchCount));
+        }
+        return emitted;
+    }
+
+    /**
+     * Calcula s(n) = σ(n) - n de números sueltos (consultas del Maestro) factorizando con la tabla SPF compartida.
+     * @param numbers números a evaluar
+     * @return s(n) de cada número en el mismo orden; 0 para n < 2 y SmallestPrimeFactorTable.OVERFLOW (-1) si σ(n) no cabe en un long
+     */
+    public static long[] aliquotSums(long[] numbers) {
+        long max = 1;
+        for (long n : numbers) {
+            max = Math.max(max, n);
+        }
+        SmallestPrimeFactorTable table = SpfTables.forRangeEnd(max);
+        long[] sums = new long[numbers.length];
+        for (int i = 0; i < numbers.length; i++) {
+            sums[i] = (numbers[i] < 2) ? 0 : table.aliquotSum(numbers[i]);
+        }
+        return sums;
+    }
+
+    /**
+     * Tarea recursiva: divide [start, end] por la mitad hasta llegar a minSplitSize;
+     * cada hoja criba su porción y entrega sus propios lotes.
+     */
+    private class ScanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L; // ForkJoinTask es Serializable; la tarea nunca se serializa
+        private final long start;
+        private final long end;
+        private final long maxPartner;
+        private final Consumer<long[]> batchSink;
+        private long emitted;
+
+        ScanTask(long start, long end, long maxPartner, Consumer<long[]> batchSink) {
+            this.start = start;
+            this.end = end;
+            this.maxPartner = maxPartner;
+            this.batchSink = batchSink;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start < minSplitSize) {
+                emitted = scanBlocks(start, end, maxPartner, batchSink);
+                return;
+            }
+            long middle = start + (end - start) / 2;
+            ScanTask left = new ScanTask(start, middle, maxPartner, batchSink);
+            ScanTask right = new ScanTask(middle + 1, end, maxPartner, batchSink);
+            invokeAll(left, right);
+            emitted = left.emitted + right.emitted;
+        }
+    }
+}
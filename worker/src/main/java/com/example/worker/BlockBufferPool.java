@@ -0,0 +1,246 @@
+// --- Archivo: worker/src/main/java/com/example/worker/BlockBufferPool.java ---
+package com.example.worker;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool de buffers de bloque reutilizables para los motores de criba.
+ * Los acumuladores de cada bloque se reutilizan entre bloques, entre tareas fork/join y entre trabajos,
+ * así que el ciclo caliente no genera basura para el GC. Los buffers pueden vivir fuera del heap
+ * (ByteBuffer directos, que el GC no recorre ni copia) o en el heap como long[] reutilizados. Los motores
+ * los recorren a través de BlockBuffer, así que hay un solo núcleo de criba para ambos. Hay un pool
+ * compartido por proceso, configurado al arrancar el Worker (igual que la tabla SPF).
+ */
+public final class BlockBufferPool {
+    public static final int DEFAULT_MAX_POOLED = 64; // Buffers libres que se conservan como máximo
+
+    private static volatile BlockBufferPool shared = new BlockBufferPool(SegmentedSigmaSieveEngine.DEFAULT_BLOCK_SIZE, DEFAULT_MAX_POOLED, false);
+
+    private final int longsPerBuffer; // Capacidad de cada buffer (en longs)
+    private final int maxPooled; // Máximo de buffers libres retenidos
+    private final boolean offHeap; // true: ByteBuffer directos; false: long[] en el heap
+    private final ConcurrentLinkedQueue<BlockBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger freeCount = new AtomicInteger();
+
+    // Estadísticas del pool
+    private final LongAdder acquisitions = new LongAdder(); // Préstamos totales
+    private final LongAdder reuses = new LongAdder(); // Préstamos atendidos con un buffer existente
+    private final AtomicLong allocated = new AtomicLong(); // Buffers creados
+    private final AtomicLong oversized = new AtomicLong(); // Buffers fuera de tamaño (no se guardan en el pool)
+    private final AtomicLong inUse = new AtomicLong(); // Buffers prestados en este momento
+    private final AtomicLong peakInUse = new AtomicLong(); // Máximo de buffers prestados a la vez
+
+    /**
+     * Acumulador de un bloque (posición k = k-ésimo número del bloque), creado una sola vez.
+     * Hay dos implementaciones, en el heap y fuera de él; un proceso usa solo la del pool compartido,
+     * así que la JIT resuelve las llamadas a get/add sin despacho virtual en el ciclo interno.
+     */
+    public abstract static class BlockBuffer {
+        private final boolean pooled; // false si no tiene el tamaño estándar del pool
+
+        private BlockBuffer(boolean pooled) {
+            this.pooled = pooled;
+        }
+
+        /** Pone value en las posiciones [0, length). */
+        public abstract void fill(int length, long value);
+
+        public abstract long get(int k);
+
+        /** Suma value a la posición k. */
+        public abstract void add(int k, long value);
+
+        public abstract int capacity();
+
+        /** Arreglo del heap (para los caminos vectoriales), o null si el buffer está fuera del heap. */
+        public abstract long[] array();
+    }
+
+    private static final class HeapBlockBuffer extends BlockBuffer {
+        private final long[] values;
+
+        HeapBlockBuffer(int capacityInLongs, boolean pooled) {
+            super(pooled);
+            this.values = new long[capacityInLongs];
+        }
+
+        @Override
+        public void fill(int length, long value) {
+            Arrays.fill(values, 0, length, value);
+        }
+
+        @Override
+        public long get(int k) {
+            return values[k];
+        }
+
+        @Override
+        public void add(int k, long value) {
+            values[k] += value;
+        }
+
+        @Override
+        public int capacity() {
+            return values.length;
+        }
+
+        @Override
+        public long[] array() {
+            return values;
+        }
+    }
+
+    private static final class DirectBlockBuffer extends BlockBuffer {
+        private final LongBuffer values; // Vista de longs sobre memoria directa en orden nativo
+
+        DirectBlockBuffer(int capacityInLongs, boolean pooled) {
+            super(pooled);
+            this.values = ByteBuffer.allocateDirect(capacityInLongs * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+
+        @Override
+        public void fill(int length, long value) {
+            for (int k = 0; k < length; k++) {
+                values.put(k, value);
+            }
+        }
+
+        @Override
+        public long get(int k) {
+            return values.get(k);
+        }
+
+        @Override
+        public void add(int k, long value) {
+            values.put(k, values.get(k) + value);
+        }
+
+        @Override
+        public int capacity() {
+            return values.capacity();
+        }
+
+        @Override
+        public long[] array() {
+            return null;
+        }
+    }
+
+    /**
+     * @param longsPerBuffer capacidad de cada buffer en longs (normalmente el tamaño de bloque de la criba)
+     * @param maxPooled      buffers libres que se conservan como máximo
+     * @param offHeap        true para usar ByteBuffer directos, false para long[] del heap
+     */
+    public BlockBufferPool(int longsPerBuffer, int maxPooled, boolean offHeap) {
+        if (longsPerBuffer <= 0) {
+            throw new IllegalArgumentException("Capacidad de buffer inválida: " + longsPerBuffer);
+        }
+        this.longsPerBuffer = longsPerBuffer;
+        this.maxPooled = Math.max(0, maxPooled);
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Reemplaza el pool compartido del proceso. Debe llamarse al arrancar el Worker.
+     */
+    public static void configureShared(int longsPerBuffer, int maxPooled, boolean offHeap) {
+        shared = new BlockBufferPool(longsPerBuffer, maxPooled, offHeap);
+    }
+
+    public static BlockBufferPool getShared() {
+        return shared;
+    }
+
+    /**
+     * Presta un buffer con al menos minLongs posiciones. Debe devolverse con {@link #release(BlockBuffer)}.
+     * @param minLongs capacidad mínima requerida (en longs)
+     * @return buffer listo para usar (su contenido es indefinido)
+     */
+    public BlockBuffer acquire(int minLongs) {
+        acquisitions.increment();
+        long current = inUse.incrementAndGet();
+        peakInUse.accumulateAndGet(current, Math::max);
+        if (minLongs > longsPerBuffer) {
+            // Tamaño no estándar: se crea aparte y no vuelve al pool
+            oversized.incrementAndGet();
+            allocated.incrementAndGet();
+            return newBuffer(minLongs, false);
+        }
+        BlockBuffer buffer = free.poll();
+        if (buffer != null) {
+            freeCount.decrementAndGet();
+            reuses.increment();
+            return buffer;
+        }
+        allocated.incrementAndGet();
+        return newBuffer(longsPerBuffer, true);
+    }
+
+    private BlockBuffer newBuffer(int capacityInLongs, boolean pooled) {
+        return offHeap ? new DirectBlockBuffer(capacityInLongs, pooled) : new HeapBlockBuffer(capacityInLongs, pooled);
+    }
+
+    /**
+     * Devuelve un buffer al pool. Si el pool ya está lleno, el buffer se descarta.
+     */
+    public void release(BlockBuffer buffer) {
+        inUse.decrementAndGet();
+        if (buffer.pooled && freeCount.incrementAndGet() <= maxPooled) {
+            free.offer(buffer);
+        } else if (buffer.pooled) {
+            freeCount.decrementAndGet();
+        }
+    }
+
+    public int getLongsPerBuffer() {
+        return longsPerBuffer;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    public long getAllocated() {
+        return allocated.get();
+    }
+
+    public long getReuses() {
+        return reuses.sum();
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /**
+     * @return memoria reservada por los buffers estándar creados (en bytes)
+     */
+    public long getReservedBytes() {
+        return (allocated.get() - oversized.get()) * (long) longsPerBuffer * Long.BYTES;
+    }
+
+    /**
+     * Resumen legible de las estadísticas del pool.
+     */
+    public String getStats() {
+        long acquired = acquisitions.sum();
+        double reuseRate = acquired == 0 ? 0 : 100.0 * reuses.sum() / acquired;
+        return "BlockBufferPool{" + (offHeap ? "offHeap" : "heap") +
+                ", buffer=" + (longsPerBuffer * (long) Long.BYTES / 1024) + " KB" +
+                ", préstamos=" + acquired +
+                ", reutilizados=" + reuses.sum() + String.format(" (%.1f%%)", reuseRate) +
+                ", creados=" + allocated.get() +
+                ", fueraDeTamaño=" + oversized.get() +
+                ", enUso=" + inUse.get() +
+                ", picoEnUso=" + peakInUse.get() +
+                ", libres=" + freeCount.get() +
+                ", reservado=" + (getReservedBytes() / 1024) + " KB}";
+    }
+}
@@ -0,0 +1,32 @@
+// --- Archivo: worker/src/main/java/com/example/worker/CandidateFilter.java ---
+package com.example.worker;
+
+/**
+ * Condición necesaria que debe cumplir un candidato impar para poder ser perfecto.
+ * Los filtros se aplican antes de cualquier cálculo de divisores; si un filtro
+ * rechaza un número, ese número no puede ser un perfecto impar.
+ */
+public interface CandidateFilter {
+
+    /**
+     * Nombre corto del filtro (se usa en worker.properties y en las estadísticas).
+     * @return nombre del filtro
+     */
+    String getName();
+
+    /**
+     * Indica si n sigue siendo candidato después de este filtro.
+     * @param n número impar a evaluar
+     * @return true si n puede ser perfecto según este filtro
+     */
+    boolean accept(long n);
+
+    /**
+     * Módulo del filtro si depende solo de n mod m (filtro de congruencia).
+     * Los filtros con módulo se combinan en una rueda y no se evalúan número a número.
+     * @return el módulo m, o 0 si el filtro no es periódico
+     */
+    default long getModulus() {
+        return 0;
+    }
+}
@@ -0,0 +1,95 @@
+// --- Archivo: worker/src/main/java/com/example/worker/CandidateFilters.java ---
+package com.example.worker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * Filtros conocidos para perfectos impares y utilidades para construirlos desde la configuración.
+ * Todos son condiciones necesarias demostradas, así que nunca descartan un perfecto impar real.
+ */
+public final class CandidateFilters {
+
+    private CandidateFilters() {
+    }
+
+    /** Teorema de Touchard: un perfecto impar cumple n ≡ 1 (mod 12) o n ≡ 9 (mod 36). */
+    public static final CandidateFilter TOUCHARD = congruence("touchard", 36, n -> n % 12 == 1 || n % 36 == 9);
+    /** Forma de Euler n = q^k·m² con q ≡ k ≡ 1 (mod 4): implica n ≡ 1 (mod 4). */
+    public static final CandidateFilter EULER = congruence("euler", 4, n -> n % 4 == 1);
+    /** Sylvester: un perfecto impar no es divisible por 105 = 3·5·7. */
+    public static final CandidateFilter NOT_DIVISIBLE_BY_105 = congruence("no105", 105, n -> n % 105 != 0);
+    /** Un cuadrado impar tiene σ(n) impar, así que nunca puede cumplir σ(n) = 2n. */
+    public static final CandidateFilter NOT_SQUARE = new CandidateFilter() {
+        @Override
+        public String getName() {
+            return "no-square";
+        }
+
+        @Override
+        public boolean accept(long n) {
+            long root = (long) Math.sqrt((double) n);
+            // Corregir el redondeo de Math.sqrt para n grandes (comparando con divisiones para no desbordar)
+            while (root > 0 && root > n / root) root--;
+            while (root + 1 <= n / (root + 1)) root++;
+            return root * root != n;
+        }
+    };
+
+    private static final CandidateFilter[] KNOWN_FILTERS = {TOUCHARD, EULER, NOT_DIVISIBLE_BY_105, NOT_SQUARE};
+
+    /**
+     * Crea un filtro de congruencia: acepta n según el residuo n mod modulus.
+     * @param name      nombre del filtro
+     * @param modulus   módulo del que depende la condición
+     * @param condition condición evaluada sobre n (o sobre su residuo, que es equivalente)
+     * @return filtro periódico listo para combinarse en la rueda
+     */
+    public static CandidateFilter congruence(String name, long modulus, LongPredicate condition) {
+        return new CandidateFilter() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public boolean accept(long n) {
+                return condition.test(n);
+            }
+
+            @Override
+            public long getModulus() {
+                return modulus;
+            }
+        };
+    }
+
+    /**
+     * Traduce una lista de nombres (Worker.OddFilters) a filtros, respetando el orden dado.
+     * @param names nombres separados por coma o espacio (touchard, euler, no105, no-square)
+     * @return filtros reconocidos; los nombres desconocidos se ignoran con una advertencia
+     */
+    public static List<CandidateFilter> parse(String names) {
+        List<CandidateFilter> filters = new ArrayList<>();
+        if (names == null) {
+            return filters;
+        }
+        for (String name : names.split("[,\\s]+")) {
+            if (name.isEmpty()) continue;
+            CandidateFilter match = null;
+            for (CandidateFilter known : KNOWN_FILTERS) {
+                if (known.getName().equalsIgnoreCase(name)) {
+                    match = known;
+                    break;
+                }
+            }
+            if (match == null) {
+                System.err.println("[WORKER-FILTERS] ADVERTENCIA: Filtro '" + name + "' desconocido. Ignorado.");
+            } else if (!filters.contains(match)) {
+                filters.add(match);
+            }
+        }
+        return filters;
+    }
+}
@@ -0,0 +1,59 @@
+// --- Archivo: worker/src/main/java/com/example/worker/CandidateStats.java ---
+package com.example.worker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estadísticas de la etapa de filtrado de candidatos para una solicitud.
+ * Es segura para hilos: las tareas fork/join de un mismo subrango acumulan aquí en paralelo.
+ */
+public class CandidateStats {
+    private final Map<String, LongAdder> removedByFilter = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<String> filterOrder = new CopyOnWriteArrayList<>(); // Orden de aparición para los logs
+    private final LongAdder tested = new LongAdder(); // Candidatos que llegaron al cálculo de divisores
+
+    /**
+     * Registra números descartados por un filtro.
+     */
+    public void recordRemoved(String filterName, long count) {
+        removedByFilter.computeIfAbsent(filterName, name -> {
+            filterOrder.addIfAbsent(name);
+            return new LongAdder();
+        }).add(count);
+    }
+
+    /**
+     * Registra candidatos que pasaron todos los filtros y se evaluaron con el cálculo de divisores.
+     */
+    public void recordTested(long count) {
+        tested.add(count);
+    }
+
+    public long getRemoved(String filterName) {
+        LongAdder adder = removedByFilter.get(filterName);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    public long getTested() {
+        return tested.sum();
+    }
+
+    public boolean isEmpty() {
+        return removedByFilter.isEmpty() && tested.sum() == 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Candidatos evaluados: ").append(tested.sum()).append(". Descartados por filtro: {");
+        boolean first = true;
+        for (String name : filterOrder) {
+            if (!first) sb.append(", ");
+            sb.append(name).append('=').append(getRemoved(name));
+            first = false;
+        }
+        return sb.append('}').toString();
+    }
+}
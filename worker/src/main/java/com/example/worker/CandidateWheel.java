@@ -0,0 +1,150 @@
+// --- Archivo: worker/src/main/java/com/example/worker/CandidateWheel.java ---
+package com.example.worker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Rueda de residuos para candidatos impares.
+ * Combina todos los filtros de congruencia en un solo módulo M (mcm de sus módulos y 2)
+ * y guarda solo los residuos impares que sobreviven a todos. El recorrido salta
+ * directamente de un residuo válido al siguiente en lugar de probar i++ uno por uno.
+ * Es inmutable: se construye una vez y se comparte entre tareas.
+ */
+public final class CandidateWheel {
+    public static final String PARITY_FILTER_NAME = "paridad"; // Descarte de pares (los trata Euclides–Euler)
+
+    private final long modulus; // M = mcm(2, módulos de los filtros)
+    private final long[] residues; // Residuos sobrevivientes en [0, M), ordenados
+    private final long[] rejectedResidues; // Residuos descartados por la rueda
+    private final String[] rejectedBy; // Filtro responsable de cada residuo descartado (el primero que lo rechaza)
+
+    /**
+     * @param periodicFilters filtros de congruencia (getModulus() > 0), en orden de aplicación
+     */
+    public CandidateWheel(List<CandidateFilter> periodicFilters) {
+        long m = 2;
+        for (CandidateFilter filter : periodicFilters) {
+            m = lcm(m, filter.getModulus());
+        }
+        if (m > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Módulo de la rueda demasiado grande: " + m);
+        }
+        this.modulus = m;
+
+        List<Long> kept = new ArrayList<>();
+        List<Long> rejected = new ArrayList<>();
+        List<String> reasons = new ArrayList<>();
+        for (long r = 0; r < m; r++) {
+            String reason = null;
+            if ((r & 1) == 0) {
+                reason = PARITY_FILTER_NAME;
+            } else {
+                for (CandidateFilter filter : periodicFilters) {
+                    // r representa a toda su clase: como M es múltiplo del módulo, accept(r) == accept(r + k·M)
+                    if (!filter.accept(r)) {
+                        reason = filter.getName();
+                        break;
+                    }
+                }
+            }
+            if (reason == null) {
+                kept.add(r);
+            } else {
+                rejected.add(r);
+                reasons.add(reason);
+            }
+        }
+        this.residues = kept.stream().mapToLong(Long::longValue).toArray();
+        this.rejectedResidues = rejected.stream().mapToLong(Long::longValue).toArray();
+        this.rejectedBy = reasons.toArray(new String[0]);
+    }
+
+    public long getModulus() {
+        return modulus;
+    }
+
+    /**
+     * @return cantidad de residuos que sobreviven por cada vuelta de la rueda
+     */
+    public int getResidueCount() {
+        return residues.length;
+    }
+
+    /**
+     * Recorre los candidatos de [start, end] que sobreviven a la rueda, en orden ascendente.
+     * @param start    Límite inferior (inclusive)
+     * @param end      Límite superior (inclusive)
+     * @param consumer acción a ejecutar con cada candidato
+     * @return cantidad de candidatos entregados
+     */
+    public long forEachCandidate(long start, long end, LongConsumer consumer) {
+        if (residues.length == 0 || start > end) {
+            return 0;
+        }
+        long base = start - Math.floorMod(start, modulus); // Inicio de la vuelta que contiene a start
+        long offset = start - base;
+        int index = 0;
+        while (index < residues.length && residues[index] < offset) {
+            index++;
+        }
+        long delivered = 0;
+        while (true) {
+            if (index == residues.length) {
+                if (base > Long.MAX_VALUE - modulus) {
+                    break; // La siguiente vuelta ya no cabe en long
+                }
+                base += modulus;
+                index = 0;
+            }
+            long residue = residues[index++];
+            if (base > end - residue) {
+                break; // base + residue > end, calculado sin desbordar
+            }
+            consumer.accept(base + residue);
+            delivered++;
+        }
+        return delivered;
+    }
+
+    /**
+     * Cuenta, sin recorrer el rango, cuántos números de [start, end] descarta la rueda y por qué filtro.
+     * @param start Límite inferior (inclusive)
+     * @param end   Límite superior (inclusive)
+     * @param stats estadísticas donde se acumulan los descartes
+     */
+    public void recordRejections(long start, long end, CandidateStats stats) {
+        if (start > end) {
+            return;
+        }
+        for (int i = 0; i < rejectedResidues.length; i++) {
+            long count = countInClass(start, end, rejectedResidues[i]);
+            if (count > 0) {
+                stats.recordRemoved(rejectedBy[i], count);
+            }
+        }
+    }
+
+    // Cantidad de n en [start, end] con n ≡ residue (mod M)
+    private long countInClass(long start, long end, long residue) {
+        return Math.floorDiv(end - residue, modulus) - Math.floorDiv(start - 1 - residue, modulus);
+    }
+
+    private static long lcm(long a, long b) {
+        long x = a, y = b;
+        while (y != 0) {
+            long t = x % y;
+            x = y;
+            y = t;
+        }
+        return a / x * b;
+    }
+
+    @Override
+    public String toString() {
+        return "CandidateWheel{M=" + modulus + ", residuos=" + residues.length + " " +
+                (residues.length <= 16 ? Arrays.toString(residues) : "") + "}";
+    }
+}
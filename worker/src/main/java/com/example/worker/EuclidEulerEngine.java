@@ -0,0 +1,197 @@
+// --- Archivo: worker/src/main/java/com/example/worker/EuclidEulerEngine.java ---
+package com.example.worker;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Motor rápido para números perfectos pares basado en el teorema de Euclides–Euler:
+ * todo perfecto par tiene la forma 2^(p-1)·(2^p - 1) con 2^p - 1 primo (primo de Mersenne).
+ * Enumera los exponentes p primos, los valida con la prueba de Lucas–Lehmer y responde en microsegundos.
+ * La parte impar del rango solo se revisa si se configura un motor impar (estrategia opcional).
+ */
+public class EuclidEulerEngine implements PerfectNumberEngine, WidePerfectNumberEngine {
+    public static final String NAME = "euclid";
+    // Mayor exponente cuyo perfecto 2^(p-1)·(2^p - 1) todavía cabe en un long (2^31·(2^32-1) < 2^63)
+    static final int MAX_LONG_EXPONENT = 32;
+    // Perfectos pares representables en long, calculados una sola vez con Lucas–Lehmer
+    private static final long[] EVEN_PERFECTS_IN_LONG = computeEvenPerfectsInLong();
+    // Mayor exponente cuyo perfecto cabe en 128 bits sin signo (2^63·(2^64-1) < 2^127)
+    static final int MAX_WIDE_EXPONENT = 64;
+    // Perfectos pares de hasta 128 bits, aplanados como {hi0, lo0, hi1, lo1, ...}
+    private static final long[] EVEN_PERFECTS_IN_WIDE = computeEvenPerfectsInWide();
+
+    private final PerfectNumberEngine oddEngine; // Motor para la parte impar (null = no se revisa)
+
+    /**
+     * @param oddEngine motor que revisa solo los impares del rango, o null para omitir la parte impar
+     */
+    public EuclidEulerEngine(PerfectNumberEngine oddEngine) {
+        this.oddEngine = oddEngine;
+    }
+
+    @Override
+    public String getName() {
+        return oddEngine == null ? NAME : NAME + "+" + oddEngine.getName();
+    }
+
+    @Override
+    public long[] findPerfectNumbers(long start, long end) {
+        return findPerfectNumbers(start, end, null);
+    }
+
+    @Override
+    public long[] findPerfectNumbers(long start, long end, CandidateStats stats) {
+        long[] evenPerfects = evenPerfectNumbersInRange(start, end);
+        if (oddEngine == null) {
+            return evenPerfects;
+        }
+        long[] oddPerfects = (stats == null) ? oddEngine.findPerfectNumbers(start, end) : oddEngine.findPerfectNumbers(start, end, stats);
+        if (oddPerfects.length == 0) {
+            return evenPerfects;
+        }
+        // Mezclar ambas listas manteniendo el orden ascendente
+        long[] merged = new long[evenPerfects.length + oddPerfects.length];
+        System.arraycopy(evenPerfects, 0, merged, 0, evenPerfects.length);
+        System.arraycopy(oddPerfects, 0, merged, evenPerfects.length, oddPerfects.length);
+        Arrays.sort(merged);
+        return merged;
+    }
+
+    /**
+     * En rangos amplios solo se enumeran los perfectos pares; la parte impar no se revisa.
+     */
+    @Override
+    public long[] findWidePerfectNumbers(long startHi, long startLo, long endHi, long endLo) {
+        int from = 0;
+        while (from < EVEN_PERFECTS_IN_WIDE.length &&
+                UInt128Math.compare(EVEN_PERFECTS_IN_WIDE[from], EVEN_PERFECTS_IN_WIDE[from + 1], startHi, startLo) < 0) {
+            from += 2;
+        }
+        int to = from;
+        while (to < EVEN_PERFECTS_IN_WIDE.length &&
+                UInt128Math.compare(EVEN_PERFECTS_IN_WIDE[to], EVEN_PERFECTS_IN_WIDE[to + 1], endHi, endLo) <= 0) {
+            to += 2;
+        }
+        return Arrays.copyOfRange(EVEN_PERFECTS_IN_WIDE, from, to);
+    }
+
+    /**
+     * @param n número par positivo
+     * @return true si n es uno de los perfectos pares representables en long
+     */
+    static boolean isEvenPerfectInLong(long n) {
+        return Arrays.binarySearch(EVEN_PERFECTS_IN_LONG, n) >= 0;
+    }
+
+    @Override
+    public void close() {
+        if (oddEngine != null) {
+            oddEngine.close();
+        }
+    }
+
+    /**
+     * Devuelve los números perfectos pares dentro de [start, end].
+     * @param start Límite inferior (inclusive)
+     * @param end   Límite superior (inclusive)
+     * @return perfectos pares del rango, en orden ascendente
+     */
+    public static long[] evenPerfectNumbersInRange(long start, long end) {
+        int from = 0;
+        while (from < EVEN_PERFECTS_IN_LONG.length && EVEN_PERFECTS_IN_LONG[from] < start) {
+            from++;
+        }
+        int to = from;
+        while (to < EVEN_PERFECTS_IN_LONG.length && EVEN_PERFECTS_IN_LONG[to] <= end) {
+            to++;
+        }
+        return Arrays.copyOfRange(EVEN_PERFECTS_IN_LONG, from, to);
+    }
+
+    /**
+     * Construye el número perfecto par asociado al exponente p: 2^(p-1)·(2^p - 1).
+     * @param p exponente (se asume que 2^p - 1 es primo)
+     * @return el perfecto como BigInteger (válido para cualquier p)
+     */
+    public static BigInteger evenPerfectNumber(int p) {
+        BigInteger mersenne = BigInteger.ONE.shiftLeft(p).subtract(BigInteger.ONE);
+        return mersenne.shiftLeft(p - 1);
+    }
+
+    /**
+     * Prueba de Lucas–Lehmer: indica si 2^p - 1 es primo.
+     * Usa aritmética long mientras s² cabe (p <= 31) y BigInteger para exponentes mayores.
+     * @param p exponente a probar (p >= 2)
+     * @return true si 2^p - 1 es primo de Mersenne
+     */
+    public static boolean isMersennePrime(int p) {
+        if (p == 2) {
+            return true; // 2^2 - 1 = 3; la recurrencia de Lucas–Lehmer empieza en p = 3
+        }
+        if (p < 2 || !isSmallPrime(p)) {
+            return false; // Si p es compuesto, 2^p - 1 también lo es
+        }
+        if (p <= 31) {
+            long mersenne = (1L << p) - 1;
+            long s = 4;
+            for (int i = 0; i < p - 2; i++) {
+                s = (s * s - 2) % mersenne; // s < 2^31, así que s*s < 2^62 no desborda
+                if (s < 0) s += mersenne;
+            }
+            return s == 0;
+        }
+        BigInteger mersenne = BigInteger.ONE.shiftLeft(p).subtract(BigInteger.ONE);
+        BigInteger two = BigInteger.TWO;
+        BigInteger s = BigInteger.valueOf(4);
+        for (int i = 0; i < p - 2; i++) {
+            s = reduceModMersenne(s.multiply(s).subtract(two), p, mersenne);
+        }
+        return s.signum() == 0;
+    }
+
+    /**
+     * Reduce n módulo 2^p - 1 sin divisiones: n mod M = (n & M) + (n >> p), repetido.
+     */
+    private static BigInteger reduceModMersenne(BigInteger n, int p, BigInteger mersenne) {
+        if (n.signum() < 0) {
+            n = n.add(mersenne);
+        }
+        while (n.bitLength() > p) {
+            n = n.and(mersenne).add(n.shiftRight(p));
+        }
+        return n.equals(mersenne) ? BigInteger.ZERO : n;
+    }
+
+    private static boolean isSmallPrime(int p) {
+        if (p < 2) return false;
+        for (int i = 2; (long) i * i <= p; i++) {
+            if (p % i == 0) return false;
+        }
+        return true;
+    }
+
+    private static long[] computeEvenPerfectsInLong() {
+        long[] perfects = new long[MAX_LONG_EXPONENT];
+        int count = 0;
+        for (int p = 2; p <= MAX_LONG_EXPONENT; p++) {
+            if (isMersennePrime(p)) {
+                perfects[count++] = evenPerfectNumber(p).longValueExact();
+            }
+        }
+        return Arrays.copyOf(perfects, count);
+    }
+
+    private static long[] computeEvenPerfectsInWide() {
+        long[] perfects = new long[2 * MAX_WIDE_EXPONENT];
+        int count = 0;
+        for (int p = 2; p <= MAX_WIDE_EXPONENT; p++) {
+            if (isMersennePrime(p)) {
+                BigInteger perfect = evenPerfectNumber(p);
+                perfects[count++] = perfect.shiftRight(64).longValue();
+                perfects[count++] = perfect.longValue(); // 64 bits bajos
+            }
+        }
+        return Arrays.copyOf(perfects, count);
+    }
+}
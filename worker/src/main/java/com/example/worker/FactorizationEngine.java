@@ -0,0 +1,39 @@
+// --- Archivo: worker/src/main/java/com/example/worker/FactorizationEngine.java ---
+package com.example.worker;
+
+import java.util.Arrays;
+
+/**
+ * Motor que obtiene σ(n) por factorización usando la tabla SPF compartida del proceso.
+ * No reconstruye conocimiento de divisores en cada llamada: la tabla se crea una vez
+ * y solo se amplía cuando un rango necesita primos mayores.
+ */
+public class FactorizationEngine implements PerfectNumberEngine {
+    public static final String NAME = "spf";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public long[] findPerfectNumbers(long start, long end) {
+        long actualStart = Math.max(start, 2L);
+        if (actualStart > end) {
+            return new long[0];
+        }
+        SmallestPrimeFactorTable table = SpfTables.forRangeEnd(end);
+        long[] found = new long[4];
+        int foundCount = 0;
+        for (long n = actualStart; n <= end && n > 0; n++) {
+            // Si σ(n) desborda, aliquotSum devuelve OVERFLOW (negativo): nunca es igual a n, así que n no es perfecto
+            if (table.aliquotSum(n) == n) {
+                if (foundCount == found.length) {
+                    found = Arrays.copyOf(found, foundCount * 2);
+                }
+                found[foundCount++] = n;
+            }
+        }
+        return Arrays.copyOf(found, foundCount);
+    }
+}
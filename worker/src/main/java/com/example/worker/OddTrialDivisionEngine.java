@@ -0,0 +1,114 @@
+// --- Archivo: worker/src/main/java/com/example/worker/OddTrialDivisionEngine.java ---
+package com.example.worker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Motor de fuerza bruta restringido a los impares del rango.
+ * Se usa junto a EuclidEulerEngine: los pares se resuelven con Lucas–Lehmer
+ * y aquí solo se revisan los candidatos impares (estrategia opcional, muy costosa).
+ * Antes de WorkerUtils.isOddPerfect pasa cada candidato por una etapa de filtros:
+ * los de congruencia se combinan en una rueda que salta entre residuos válidos
+ * y los demás se evalúan número a número. Opcionalmente σ(n) se obtiene por
+ * factorización con la tabla SPF compartida en vez de la división por tentativa.
+ */
+public class OddTrialDivisionEngine implements PerfectNumberEngine {
+    public static final String NAME = "odd-trial";
+
+    private final List<CandidateFilter> filters; // Filtros configurados, en orden
+    private final CandidateWheel wheel; // Filtros de congruencia combinados
+    private final CandidateFilter[] pointFilters; // Filtros no periódicos, evaluados por candidato
+    private final boolean useSpf; // true: σ(n) por factorización con la tabla SPF compartida
+
+    /**
+     * Motor sin filtros: revisa todos los impares del rango.
+     */
+    public OddTrialDivisionEngine() {
+        this(List.of(), false);
+    }
+
+    /**
+     * @param filters filtros a aplicar antes del cálculo de divisores, en orden de aplicación
+     * @param useSpf  true para calcular σ(n) con la tabla SPF compartida en lugar de dividir por tentativa
+     */
+    public OddTrialDivisionEngine(List<CandidateFilter> filters, boolean useSpf) {
+        this.filters = List.copyOf(filters);
+        this.useSpf = useSpf;
+        List<CandidateFilter> periodic = new ArrayList<>();
+        List<CandidateFilter> point = new ArrayList<>();
+        for (CandidateFilter filter : filters) {
+            if (filter.getModulus() > 0) {
+                periodic.add(filter);
+            } else {
+                point.add(filter);
+            }
+        }
+        this.wheel = new CandidateWheel(periodic);
+        this.pointFilters = point.toArray(new CandidateFilter[0]);
+    }
+
+    @Override
+    public String getName() {
+        String baseName = useSpf ? "odd-spf" : NAME;
+        if (filters.isEmpty()) {
+            return baseName;
+        }
+        StringBuilder sb = new StringBuilder(baseName).append('[');
+        for (int i = 0; i < filters.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(filters.get(i).getName());
+        }
+        return sb.append(']').toString();
+    }
+
+    public CandidateWheel getWheel() {
+        return wheel;
+    }
+
+    @Override
+    public long[] findPerfectNumbers(long start, long end) {
+        return findPerfectNumbers(start, end, null);
+    }
+
+    @Override
+    public long[] findPerfectNumbers(long start, long end, CandidateStats stats) {
+        long actualStart = Math.max(start, 3L); // El 1 no es perfecto
+        if (actualStart > end) {
+            return new long[0];
+        }
+        if (stats != null) {
+            // Los descartes de la rueda se cuentan aritméticamente, sin recorrer el rango
+            wheel.recordRejections(actualStart, end, stats);
+        }
+
+        SmallestPrimeFactorTable table = useSpf ? SpfTables.forRangeEnd(end) : null;
+        long[] removedByPointFilter = new long[pointFilters.length];
+        long[] tested = new long[1];
+        long[][] found = {new long[0]};
+        wheel.forEachCandidate(actualStart, end, n -> {
+            for (int f = 0; f < pointFilters.length; f++) {
+                if (!pointFilters[f].accept(n)) {
+                    removedByPointFilter[f]++;
+                    return;
+                }
+            }
+            tested[0]++;
+            // Con desborde aliquotSum da SmallestPrimeFactorTable.OVERFLOW (negativo), distinto de cualquier n
+            boolean perfect = (table != null) ? table.aliquotSum(n) == n : WorkerUtils.isOddPerfect(n);
+            if (perfect) {
+                found[0] = Arrays.copyOf(found[0], found[0].length + 1);
+                found[0][found[0].length - 1] = n;
+            }
+        });
+
+        if (stats != null) {
+            for (int f = 0; f < pointFilters.length; f++) {
+                stats.recordRemoved(pointFilters[f].getName(), removedByPointFilter[f]);
+            }
+            stats.recordTested(tested[0]);
+        }
+        return found[0];
+    }
+}
@@ -0,0 +1,138 @@
+// --- Archivo: worker/src/main/java/com/example/worker/ParallelRangeEngine.java ---
+package com.example.worker;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Motor que reparte un subrango entre todos los núcleos del Worker.
+ * Divide el rango recursivamente en un árbol de tareas fork/join sobre un pool dedicado
+ * (no el pool común de la JVM), ejecuta el motor base en cada hoja y concatena los resultados.
+ */
+public class ParallelRangeEngine implements PerfectNumberEngine {
+    public static final int DEFAULT_MIN_SPLIT_SIZE = 1 << 18; // Números mínimos por tarea hoja
+
+    private final PerfectNumberEngine delegate; // Motor secuencial que procesa cada hoja
+    private final ForkJoinPool pool; // Pool exclusivo del Worker
+    private final long minSplitSize; // Por debajo de este tamaño ya no se divide
+
+    /**
+     * @param delegate     motor secuencial que procesa cada porción
+     * @param pool         pool fork/join dedicado del Worker (ver {@link #createPool(int)})
+     * @param minSplitSize tamaño mínimo de una porción antes de dejar de dividir
+     */
+    public ParallelRangeEngine(PerfectNumberEngine delegate, ForkJoinPool pool, long minSplitSize) {
+        this.delegate = delegate;
+        this.pool = pool;
+        this.minSplitSize = Math.max(1, minSplitSize);
+    }
+
+    /**
+     * Crea el pool dedicado del Worker. Varios motores paralelos pueden compartirlo.
+     * @param parallelism número de hilos del pool
+     * @return pool fork/join con hilos nombrados "worker-fj-N"
+     */
+    public static ForkJoinPool createPool(int parallelism) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        return new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("worker-fj-" + threadCounter.incrementAndGet());
+            return thread;
+        }, null, false);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName() + "-fj" + pool.getParallelism();
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * @return pool fork/join dedicado (otros cálculos del Worker pueden reutilizarlo)
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public long getMinSplitSize() {
+        return minSplitSize;
+    }
+
+    @Override
+    public long[] findPerfectNumbers(long start, long end) {
+        return findPerfectNumbers(start, end, null);
+    }
+
+    @Override
+    public long[] findPerfectNumbers(long start, long end, CandidateStats stats) {
+        // Igual que la referencia: se descartan 0 y 1, y así end - start nunca desborda
+        long actualStart = Math.max(start, 2L);
+        if (actualStart > end) {
+            return new long[0];
+        }
+        return pool.invoke(new RangeTask(actualStart, end, stats));
+    }
+
+    /**
+     * Detiene el pool dedicado esperando a que terminen las tareas en curso.
+     * Si el pool es compartido, cerrarlo desde cualquiera de los motores es suficiente (es idempotente).
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Tarea recursiva: divide [start, end] por la mitad hasta llegar a minSplitSize.
+     * Las mitades quedan ordenadas (izquierda < derecha), así que basta con concatenar.
+     */
+    private class RangeTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L; // ForkJoinTask es Serializable; la tarea nunca se serializa
+        private final long start;
+        private final long end;
+        private final CandidateStats stats; // Compartidas por todas las hojas (puede ser null)
+
+        RangeTask(long start, long end, CandidateStats stats) {
+            this.start = start;
+            this.end = end;
+            this.stats = stats;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (end - start < minSplitSize) {
+                return (stats == null) ? delegate.findPerfectNumbers(start, end) : delegate.findPerfectNumbers(start, end, stats);
+            }
+            long middle = start + (end - start) / 2;
+            RangeTask left = new RangeTask(start, middle, stats);
+            RangeTask right = new RangeTask(middle + 1, end, stats);
+            right.fork(); // La mitad derecha queda disponible para robo de trabajo
+            long[] leftResults = left.compute();
+            long[] rightResults = right.join();
+            return concat(leftResults, rightResults);
+        }
+    }
+
+    private static long[] concat(long[] left, long[] right) {
+        if (right.length == 0) return left;
+        if (left.length == 0) return right;
+        long[] merged = new long[left.length + right.length];
+        System.arraycopy(left, 0, merged, 0, left.length);
+        System.arraycopy(right, 0, merged, left.length, right.length);
+        return merged;
+    }
+}
@@ -0,0 +1,43 @@
+// --- Archivo: worker/src/main/java/com/example/worker/PerfectNumberEngine.java ---
+package com.example.worker;
+
+/**
+ * Motor de cálculo de números perfectos usado por el Worker.
+ * Cada implementación recibe un subrango y devuelve los perfectos hallados,
+ * ordenados de menor a mayor, como arreglo primitivo listo para enviarse por Ice.
+ */
+public interface PerfectNumberEngine extends AutoCloseable {
+
+    /**
+     * Nombre corto del motor (se usa en logs y en la configuración).
+     * @return nombre del motor
+     */
+    String getName();
+
+    /**
+     * Busca los números perfectos en el rango [start, end].
+     * @param start Límite inferior (inclusive) del rango
+     * @param end   Límite superior (inclusive) del rango
+     * @return Arreglo ordenado con los números perfectos encontrados
+     */
+    long[] findPerfectNumbers(long start, long end);
+
+    /**
+     * Igual que {@link #findPerfectNumbers(long, long)}, acumulando las estadísticas de filtrado de candidatos.
+     * Los motores sin etapa de filtrado ignoran stats.
+     * @param start Límite inferior (inclusive) del rango
+     * @param end   Límite superior (inclusive) del rango
+     * @param stats estadísticas de la solicitud (segura para hilos)
+     * @return Arreglo ordenado con los números perfectos encontrados
+     */
+    default long[] findPerfectNumbers(long start, long end, CandidateStats stats) {
+        return findPerfectNumbers(start, end);
+    }
+
+    /**
+     * Libera los recursos del motor (pools de hilos, buffers). Por defecto no hace nada.
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,260 @@
+// --- Archivo: worker/src/main/java/com/example/worker/RangeClassifier.java ---
+package com.example.worker;
+
+import perfectNumbersApp.PredicateQuery; // Predicado pedido por el Maestro
+import perfectNumbersApp.PredicateResult; // Resultado por predicado que viaja por Ice
+import perfectNumbersApp.UInt128; // Suma de 128 bits
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Evalúa varios predicados sobre σ(n) (perfecto, abundante, deficiente, multiperfecto, casi perfecto)
+ * en una sola pasada de la criba segmentada: cada bloque se criba una vez y cada número se compara
+ * contra todos los predicados pedidos. Acumula conteo, suma (128 bits) y, si se pide, la lista de números.
+ * Los bloques por encima de SegmentedSigmaSieveEngine.OVERFLOW_SAFE_LIMIT usan la criba de 128 bits,
+ * donde σ(n) no desborda.
+ */
+public class RangeClassifier {
+    public static final int DEFAULT_MAX_LISTED = 100_000; // Números por predicado y subrango como máximo
+
+    private final int blockSize; // Cantidad de números por bloque
+    private final BlockBufferPool bufferPool; // Acumuladores de bloque reutilizables
+    private final ForkJoinPool pool; // Pool dedicado del Worker (null = secuencial)
+    private final long minSplitSize; // Por debajo de este tamaño ya no se divide
+    private final int maxListed; // Máximo de números listados por predicado
+
+    /**
+     * @param blockSize    cantidad de números por bloque de la criba
+     * @param bufferPool   pool del que se toman los acumuladores de bloque
+     * @param pool         pool fork/join del Worker, o null para clasificar en el hilo que llama
+     * @param minSplitSize tamaño mínimo de una porción antes de dejar de dividir
+     * @param maxListed    máximo de números que se listan por predicado (el resto solo se cuenta)
+     */
+    public RangeClassifier(int blockSize, BlockBufferPool bufferPool, ForkJoinPool pool, long minSplitSize, int maxListed) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser positivo: " + blockSize);
+        }
+        this.blockSize = blockSize;
+        this.bufferPool = bufferPool;
+        this.pool = pool;
+        this.minSplitSize = Math.max(1, minSplitSize);
+        this.maxListed = Math.max(0, maxListed);
+    }
+
+    /**
+     * Clasifica [start, end] (los números menores que 1 se ignoran).
+     * @param start      límite inferior (inclusive)
+     * @param end        límite superior (inclusive)
+     * @param queries    predicados a evaluar
+     * @param countsOnly si es true no se listan números, solo conteos y sumas
+     * @return un resultado por predicado, en el mismo orden de queries
+     */
+    public PredicateResult[] classify(long start, long end, PredicateQuery[] queries, boolean countsOnly) {
+        long actualStart = Math.max(start, 1L);
+        Tally[] tallies;
+        if (actualStart > end) {
+            tallies = newTallies(queries, countsOnly);
+        } else if (pool == null) {
+            tallies = classifyBlocks(actualStart, end, queries, countsOnly);
+        } else {
+            tallies = pool.invoke(new ClassifyTask(actualStart, end, queries, countsOnly));
+        }
+        PredicateResult[] results = new PredicateResult[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            results[i] = tallies[i].toResult(queries[i]);
+        }
+        return results;
+    }
+
+    /**
+     * Recorre [start, end] (start >= 1) bloque por bloque en el hilo actual.
+     */
+    private Tally[] classifyBlocks(long start, long end, PredicateQuery[] queries, boolean countsOnly) {
+        Tally[] tallies = newTallies(queries, countsOnly);
+        if (start == 1) {
+            // σ(1) = 1: la suma de divisores propios es 0 (la criba empieza en 2)
+            classifyNumber(1, 0, 0, queries, tallies);
+            start = 2;
+            if (start > end) {
+                return tallies;
+            }
+        }
+
+        int capacity = (int) Math.min(blockSize, end - start + 1);
+        BlockBufferPool.BlockBuffer aliquot = bufferPool.acquire(capacity);
+        try {
+            long[] wideHi = null;
+            long[] wideLo = null;
+            long[] quotient = null;
+            long blockStart = start;
+            while (true) {
+                int length = (int) Math.min(capacity, end - blockStart + 1);
+                long blockEnd = blockStart + length - 1;
+                if (blockEnd <= SegmentedSigmaSieveEngine.OVERFLOW_SAFE_LIMIT) {
+                    SegmentedSigmaSieveEngine.sieveBlock(blockStart, length, aliquot);
+                    for (int k = 0; k < length; k++) {
+                        classifyNumber(blockStart + k, 0, aliquot.get(k), queries, tallies);
+                    }
+                } else {
+                    // Cerca de Long.MAX_VALUE σ(n) puede pasar de 64 bits: criba exacta de 128 bits
+                    if (wideHi == null) {
+                        wideHi = new long[capacity];
+                        wideLo = new long[capacity];
+                        quotient = new long[2];
+                    }
+                    WideSigmaSieveEngine.sieveBlock(0, blockStart, length, wideHi, wideLo, quotient);
+                    for (int k = 0; k < length; k++) {
+                        classifyNumber(blockStart + k, wideHi[k], wideLo[k], queries, tallies);
+                    }
+                }
+                if (blockEnd >= end) {
+                    break;
+                }
+                blockStart = blockEnd + 1;
+            }
+        } finally {
+            bufferPool.release(aliquot);
+        }
+        return tallies;
+    }
+
+    /**
+     * Evalúa todos los predicados para n, con s(n) = σ(n) - n = (aliquotHi, aliquotLo) sin signo.
+     */
+    private static void classifyNumber(long n, long aliquotHi, long aliquotLo, PredicateQuery[] queries, Tally[] tallies) {
+        // Comparación de s(n) contra n (n > 0, así que basta con mirar la parte alta)
+        int versusN = (aliquotHi != 0) ? 1 : Long.compareUnsigned(aliquotLo, n);
+        for (int i = 0; i < queries.length; i++) {
+            boolean matches;
+            switch (queries[i].predicate) {
+                case Perfect:
+                    matches = versusN == 0;
+                    break;
+                case Abundant:
+                    matches = versusN > 0;
+                    break;
+                case Deficient:
+                    matches = versusN < 0;
+                    break;
+                case MultiplyPerfect:
+                    // σ(n) = k·n  <=>  s(n) = (k - 1)·n, comparado en 128 bits
+                    long factor = queries[i].k - 1L;
+                    matches = factor > 0 && aliquotLo == factor * n && aliquotHi == Math.multiplyHigh(factor, n);
+                    break;
+                case NearPerfect:
+                    // s(n) = n + d con d divisor propio de n (d < n)
+                    if (versusN > 0 && aliquotHi == 0) {
+                        long excess = aliquotLo - n;
+                        matches = excess < n && n % excess == 0;
+                    } else {
+                        matches = false;
+                    }
+                    break;
+                default:
+                    matches = false;
+            }
+            if (matches) {
+                tallies[i].add(n);
+            }
+        }
+    }
+
+    private Tally[] newTallies(PredicateQuery[] queries, boolean countsOnly) {
+        Tally[] tallies = new Tally[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            tallies[i] = new Tally(countsOnly ? 0 : maxListed);
+        }
+        return tallies;
+    }
+
+    /**
+     * Acumulador de un predicado: conteo, suma de 128 bits y los primeros números (en orden).
+     */
+    private static final class Tally {
+        private final int maxListed;
+        private long count;
+        private long sumHi;
+        private long sumLo;
+        private long[] numbers = new long[0];
+        private int listed;
+        private boolean truncated;
+
+        Tally(int maxListed) {
+            this.maxListed = maxListed;
+        }
+
+        void add(long n) {
+            count++;
+            sumLo += n;
+            if (Long.compareUnsigned(sumLo, n) < 0) {
+                sumHi++;
+            }
+            if (listed < maxListed) {
+                if (listed == numbers.length) {
+                    numbers = Arrays.copyOf(numbers, Math.min(maxListed, Math.max(16, listed * 2)));
+                }
+                numbers[listed++] = n;
+            } else if (maxListed > 0) {
+                truncated = true;
+            }
+        }
+
+        /**
+         * Agrega el acumulador de la porción siguiente (sus números son todos mayores).
+         */
+        void merge(Tally right) {
+            count += right.count;
+            sumLo += right.sumLo;
+            sumHi += right.sumHi + (Long.compareUnsigned(sumLo, right.sumLo) < 0 ? 1 : 0);
+            int room = maxListed - listed;
+            int taken = Math.min(room, right.listed);
+            if (taken > 0) {
+                numbers = Arrays.copyOf(numbers, listed + taken);
+                System.arraycopy(right.numbers, 0, numbers, listed, taken);
+                listed += taken;
+            }
+            truncated |= right.truncated || taken < right.listed;
+        }
+
+        PredicateResult toResult(PredicateQuery query) {
+            return new PredicateResult(query, count, new UInt128(sumHi, sumLo), Arrays.copyOf(numbers, listed), truncated);
+        }
+    }
+
+    /**
+     * Tarea recursiva: divide [start, end] por la mitad hasta llegar a minSplitSize
+     * y combina los acumuladores en orden (izquierda antes que derecha).
+     */
+    private class ClassifyTask extends RecursiveTask<Tally[]> {
+        private static final long serialVersionUID = 1L; // ForkJoinTask es Serializable; la tarea nunca se serializa
+        private final long start;
+        private final long end;
+        private final PredicateQuery[] queries;
+        private final boolean countsOnly;
+
+        ClassifyTask(long start, long end, PredicateQuery[] queries, boolean countsOnly) {
+            this.start = start;
+            this.end = end;
+            this.queries = queries;
+            this.countsOnly = countsOnly;
+        }
+
+        @Override
+        protected Tally[] compute() {
+            if (end - start < minSplitSize) {
+                return classifyBlocks(start, end, queries, countsOnly);
+            }
+            long middle = start + (end - start) / 2;
+            ClassifyTask left = new ClassifyTask(start, middle, queries, countsOnly);
+            ClassifyTask right = new ClassifyTask(middle + 1, end, queries, countsOnly);
+            right.fork(); // La mitad derecha queda disponible para robo de trabajo
+            Tally[] leftTallies = left.compute();
+            Tally[] rightTallies = right.join();
+            for (int i = 0; i < leftTallies.length; i++) {
+                leftTallies[i].merge(rightTallies[i]);
+            }
+            return leftTallies;
+        }
+    }
+}
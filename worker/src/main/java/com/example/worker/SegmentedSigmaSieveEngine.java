@@ -0,0 +1,172 @@
+// --- Archivo: worker/src/main/java/com/example/worker/SegmentedSigmaSieveEngine.java ---
+package com.example.worker;
+
+import java.util.Arrays;
+
+/**
+ * Motor basado en una criba segmentada de la suma de divisores.
+ * En lugar de dividir cada número hasta su raíz, recorre el subrango en bloques
+ * del tamaño de la caché y, para cada divisor d, suma d y su cofactor en los
+ * múltiplos de d del bloque. El costo por bloque es aproximadamente O(B log B + sqrt(fin)).
+ * El acumulador del bloque es un buffer prestado por BlockBufferPool (en el heap o fuera de él),
+ * así que el ciclo caliente no reserva memoria por número ni por bloque.
+ */
+public class SegmentedSigmaSieveEngine implements PerfectNumberEngine {
+    public static final String NAME = "sieve";
+    // 32768 longs = 256 KB: cabe en la caché L2 de la mayoría de CPUs actuales
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 15;
+    // Hasta aquí la suma de divisores propios no desborda: σ(n)/n < 7 para n < 2^63 (cota de Robin)
+    static final long OVERFLOW_SAFE_LIMIT = Long.MAX_VALUE / 8;
+
+    private final int blockSize; // Cantidad de números por bloque
+    private final BlockBufferPool bufferPool; // Origen de los acumuladores de bloque
+
+    public SegmentedSigmaSieveEngine() {
+        this(DEFAULT_BLOCK_SIZE, BlockBufferPool.getShared());
+    }
+
+    /**
+     * @param blockSize  cantidad de números que se procesan por bloque (debe ser positiva)
+     * @param bufferPool pool del que se toman los acumuladores de bloque
+     */
+    public SegmentedSigmaSieveEngine(int blockSize, BlockBufferPool bufferPool) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser positivo: " + blockSize);
+        }
+        this.blockSize = blockSize;
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    @Override
+    public long[] findPerfectNumbers(long start, long end) {
+        // Igual que la versión de referencia: 0 y 1 nunca son perfectos
+        long actualStart = Math.max(start, 2L);
+        long[] found = new long[4];
+        int foundCount = 0;
+        if (actualStart > end) {
+            return new long[0];
+        }
+
+        // Acumulador local al bloque: aliquot[k] = suma de divisores propios de (blockStart + k)
+        BlockBufferPool.BlockBuffer aliquot = bufferPool.acquire((int) Math.min(blockSize, end - actualStart + 1));
+        try {
+            int capacity = Math.min(blockSize, aliquot.capacity());
+            long blockStart = actualStart;
+            while (true) {
+                int length = (int) Math.min(capacity, end - blockStart + 1);
+                accumulateBlock(blockStart, length, aliquot);
+                // Un número es perfecto si la suma de sus divisores propios es igual a él mismo
+                for (int k = nextPerfectIndex(blockStart, length, aliquot, 0); k < length;
+                     k = nextPerfectIndex(blockStart, length, aliquot, k + 1)) {
+                    if (confirmPerfect(blockStart + k)) {
+                        found = append(found, foundCount++, blockStart + k);
+                    }
+                }
+
+                long blockEnd = blockStart + length - 1;
+                if (blockEnd >= end) {
+                    break;
+                }
+                blockStart = blockEnd + 1;
+            }
+        } finally {
+            bufferPool.release(aliquot);
+        }
+        return Arrays.copyOf(found, foundCount);
+    }
+
+    /**
+     * Cerca de Long.MAX_VALUE la suma acumulada puede desbordar y, al dar la vuelta, coincidir con n.
+     * Esas coincidencias (rarísimas) se confirman sin desbordes: un par solo es perfecto si tiene la forma
+     * de Euclides–Euler, y un impar se revisa por división.
+     * @return true si n es perfecto (o está por debajo del límite donde no hay desborde)
+     */
+    static boolean confirmPerfect(long n) {
+        if (n <= OVERFLOW_SAFE_LIMIT) {
+            return true;
+        }
+        return (n & 1) == 0 ? EuclidEulerEngine.isEvenPerfectInLong(n) : WorkerUtils.isOddPerfect(n);
+    }
+
+    /**
+     * Llena el acumulador con las sumas de divisores propios del bloque.
+     * Las subclases pueden reemplazarlo por una versión vectorizada.
+     */
+    protected void accumulateBlock(long blockStart, int length, BlockBufferPool.BlockBuffer aliquot) {
+        sieveBlock(blockStart, length, aliquot);
+    }
+
+    /**
+     * @return primer índice k >= from con aliquot[k] == blockStart + k, o length si no hay ninguno
+     */
+    protected int nextPerfectIndex(long blockStart, int length, BlockBufferPool.BlockBuffer aliquot, int from) {
+        for (int k = from; k < length; k++) {
+            if (aliquot.get(k) == blockStart + k) {
+                return k;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Calcula la suma de divisores propios de cada número del bloque [blockStart, blockStart + length - 1].
+     * Cada par de divisores (d, n/d) con d <= n/d se suma una sola vez, desde el lado del divisor pequeño.
+     * @param blockStart primer número del bloque (debe ser >= 2)
+     * @param length     cantidad de números del bloque
+     * @param aliquot    acumulador donde se dejan las sumas (se sobrescriben las primeras length posiciones)
+     */
+    static void sieveBlock(long blockStart, int length, BlockBufferPool.BlockBuffer aliquot) {
+        // El divisor 1 es propio para todo n >= 2
+        aliquot.fill(length, 1L);
+        long blockEnd = blockStart + length - 1;
+
+        for (long d = 2; d <= blockEnd / d; d++) {
+            // Primer múltiplo de d dentro del bloque cuyo cofactor sea >= d
+            long firstMultiple = d * d;
+            if (firstMultiple < blockStart) {
+                // Se calcula como desplazamiento desde blockStart para no desbordar cerca de Long.MAX_VALUE
+                long remainder = blockStart % d;
+                long offset = (remainder == 0) ? 0 : d - remainder;
+                if (offset > blockEnd - blockStart) {
+                    continue;
+                }
+                firstMultiple = blockStart + offset;
+            } else if (firstMultiple > blockEnd) {
+                continue;
+            }
+            int index = (int) (firstMultiple - blockStart);
+            long cofactor = firstMultiple / d;
+            // Si d es mayor que el bloque solo hay un múltiplo: el salto se acota para no desbordar int
+            int step = d < length ? (int) d : length;
+
+            // Si el múltiplo es d*d, el divisor d se cuenta una sola vez (raíz exacta)
+            if (cofactor == d) {
+                aliquot.add(index, d);
+                index += step;
+                cofactor++;
+            }
+            // El cofactor avanza en 1 por cada salto de d: no hay divisiones en el ciclo interno
+            for (; index < length; index += step) {
+                aliquot.add(index, d + cofactor);
+                cofactor++;
+            }
+        }
+    }
+
+    private static long[] append(long[] found, int count, long n) {
+        if (count == found.length) {
+            found = Arrays.copyOf(found, count * 2);
+        }
+        found[count] = n;
+        return found;
+    }
+}
@@ -0,0 +1,134 @@
+// --- Archivo: worker/src/main/java/com/example/worker/SmallestPrimeFactorTable.java ---
+package com.example.worker;
+
+import java.util.Arrays;
+
+/**
+ * Tabla inmutable del menor factor primo (SPF) de cada número hasta un límite, construida con una criba lineal.
+ * Permite obtener σ(n) por factorización: directamente con la tabla si n <= límite, o probando solo
+ * los primos de la tabla si n es mayor. Al ser inmutable, la leen sin sincronización todos los hilos.
+ */
+public final class SmallestPrimeFactorTable {
+    /**
+     * Resultado de sigma y aliquotSum cuando σ(n) no cabe en un long. Es negativo, así que no se confunde
+     * con ningún n ni con ningún s(n) válido (s(n) >= 0); Long.MAX_VALUE sí es un n posible.
+     */
+    public static final long OVERFLOW = -1L;
+
+    private final int bound; // Mayor número cubierto por la tabla
+    private final int[] smallestPrimeFactor; // spf[n] para 2 <= n <= bound
+    private final int[] primes; // Primos <= bound, en orden
+
+    /**
+     * Construye la tabla con una criba lineal (cada compuesto se marca una sola vez): O(bound).
+     * @param bound mayor número a cubrir (>= 2)
+     */
+    public SmallestPrimeFactorTable(int bound) {
+        if (bound < 2 || bound == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Límite de la tabla SPF inválido: " + bound);
+        }
+        this.bound = bound;
+        int[] spf = new int[bound + 1];
+        // Cantidad de primos <= bound: cota superior de Rosser–Schoenfeld (1.25506·x/ln x)
+        int[] primeList = new int[(int) Math.min(bound, 1.26 * bound / Math.log(bound)) + 10];
+        int primeCount = 0;
+        for (int i = 2; i <= bound; i++) {
+            if (spf[i] == 0) {
+                spf[i] = i;
+                primeList[primeCount++] = i;
+            }
+            int spfI = spf[i];
+            for (int j = 0; j < primeCount; j++) {
+                int p = primeList[j];
+                if (p > spfI || (long) p * i > bound) {
+                    break;
+                }
+                spf[p * i] = p;
+            }
+        }
+        this.smallestPrimeFactor = spf;
+        this.primes = Arrays.copyOf(primeList, primeCount);
+    }
+
+    public int getBound() {
+        return bound;
+    }
+
+    public int getPrimeCount() {
+        return primes.length;
+    }
+
+    /**
+     * Suma de divisores propios s(n) = σ(n) - n calculada por factorización.
+     * Si los primos de la tabla no llegan a √n, el resto se factoriza con divisores impares.
+     * @param n número a evaluar (>= 1)
+     * @return s(n), u OVERFLOW si σ(n) no cabe en un long
+     */
+    public long aliquotSum(long n) {
+        long sigma = sigma(n);
+        return sigma == OVERFLOW ? OVERFLOW : sigma - n;
+    }
+
+    /**
+     * Función σ(n) (suma de todos los divisores) calculada por factorización.
+     * @param n número a evaluar (>= 1)
+     * @return σ(n), u OVERFLOW si no cabe en un long
+     */
+    public long sigma(long n) {
+        try {
+            long sigma = 1;
+            long remaining = n;
+            // Fase 1: probar los primos de la tabla mientras el resto sea mayor que el límite
+            int index = 0;
+            while (remaining > bound && index < primes.length) {
+                long p = primes[index++];
+                if (p > remaining / p) {
+                    // remaining no tiene factores <= su raíz: es primo
+                    return Math.multiplyExact(sigma, remaining + 1);
+                }
+                if (remaining % p == 0) {
+                    long power = 1;
+                    long sum = 1;
+                    do {
+                        remaining /= p;
+                        power *= p;
+                        sum += power;
+                    } while (remaining % p == 0);
+                    sigma = Math.multiplyExact(sigma, sum);
+                }
+            }
+            // Fase 2: el resto cabe en la tabla, se factoriza siguiendo spf
+            if (remaining <= bound) {
+                int m = (int) remaining;
+                while (m > 1) {
+                    int p = smallestPrimeFactor[m];
+                    long power = 1;
+                    long sum = 1;
+                    do {
+                        m /= p;
+                        power *= p;
+                        sum += power;
+                    } while (m % p == 0);
+                    sigma = Math.multiplyExact(sigma, sum);
+                }
+                return sigma;
+            }
+            // Fase 3 (tabla más chica que √n): continuar con divisores impares más allá del límite
+            for (long d = bound + 1 + (bound & 1); d <= remaining / d; d += 2) {
+                if (remaining % d == 0) {
+                    long power = 1;
+                    long sum = 1;
+                    do {
+                        remaining /= d;
+                        power *= d;
+                        sum += power;
+                    } while (remaining % d == 0);
+                    sigma = Math.multiplyExact(sigma, sum);
+                }
+            }
+            return remaining > 1 ? Math.multiplyExact(sigma, remaining + 1) : sigma;
+        } catch (ArithmeticException overflow) {
+            return OVERFLOW;
+        }
+    }
+}
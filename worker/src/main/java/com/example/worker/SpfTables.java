@@ -0,0 +1,70 @@
+// --- Archivo: worker/src/main/java/com/example/worker/SpfTables.java ---
+package com.example.worker;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tabla SPF compartida por todo el proceso Worker.
+ * Se construye una sola vez con el límite inicial y crece de forma perezosa cuando una solicitud
+ * necesita primos más allá del límite actual (√end). Cada versión es inmutable: los lectores
+ * que ya tienen una referencia siguen usándola mientras se publica la nueva.
+ */
+public final class SpfTables {
+    public static final int DEFAULT_INITIAL_BOUND = 1 << 20;
+    // 16M enteros = 64 MB, que la tabla retiene mientras viva el proceso; cubre sin tanteo
+    // los números hasta (2^24)^2 ≈ 2.8e14, por encima el resto se factoriza con divisores impares
+    public static final int DEFAULT_MAX_BOUND = 1 << 24;
+
+    private static final AtomicReference<SmallestPrimeFactorTable> CURRENT = new AtomicReference<>();
+    private static volatile int initialBound = DEFAULT_INITIAL_BOUND;
+    private static volatile int maxBound = DEFAULT_MAX_BOUND;
+
+    private SpfTables() {
+    }
+
+    /**
+     * Ajusta los límites (Worker.Spf.InitialBound y Worker.Spf.MaxBound). Debe llamarse al arrancar el Worker.
+     */
+    public static void configure(int initial, int max) {
+        maxBound = Math.max(2, max);
+        initialBound = Math.min(Math.max(2, initial), maxBound);
+    }
+
+    /**
+     * Devuelve una tabla cuyos primos alcancen para factorizar cualquier número <= end
+     * (si eso no supera el límite máximo configurado).
+     * @param end mayor número que se va a factorizar
+     * @return tabla compartida, posiblemente recién ampliada
+     */
+    public static SmallestPrimeFactorTable forRangeEnd(long end) {
+        SmallestPrimeFactorTable table = CURRENT.get();
+        long needed = Math.min(maxBound, Math.max(initialBound, sqrtCeil(end)));
+        if (table != null && table.getBound() >= needed) {
+            return table;
+        }
+        synchronized (SpfTables.class) {
+            table = CURRENT.get();
+            if (table != null && table.getBound() >= needed) {
+                return table; // Otro hilo ya la amplió
+            }
+            // Crecer al menos al doble para no reconstruir en cada subrango un poco mayor
+            long newBound = needed;
+            if (table != null) {
+                newBound = Math.min(maxBound, Math.max(needed, 2L * table.getBound()));
+            }
+            long startTime = System.currentTimeMillis();
+            SmallestPrimeFactorTable grown = new SmallestPrimeFactorTable((int) newBound);
+            CURRENT.set(grown);
+            System.out.println("[WORKER-SPF] Tabla SPF " + (table == null ? "construida" : "ampliada") + " hasta " + newBound +
+                    " (" + grown.getPrimeCount() + " primos) en " + (System.currentTimeMillis() - startTime) + " ms.");
+            return grown;
+        }
+    }
+
+    private static long sqrtCeil(long n) {
+        long root = (long) Math.sqrt((double) n);
+        while (root > 0 && root > n / root) root--; // Corregir redondeo: root = piso(√n)
+        while (root + 1 <= n / (root + 1)) root++;
+        return (root * root == n) ? root : root + 1;
+    }
+}
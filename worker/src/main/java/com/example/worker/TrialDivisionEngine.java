@@ -0,0 +1,33 @@
+// --- Archivo: worker/src/main/java/com/example/worker/TrialDivisionEngine.java ---
+package com.example.worker;
+
+import java.util.Arrays;
+
+/**
+ * Motor de referencia: división por tentativa número a número.
+ * Usa el mismo WorkerUtils.isPerfect que WorkerUtils.getPerfectNumbersInRange (la referencia
+ * para validar los demás motores), pero acumula en un arreglo primitivo en vez de una List<Long>.
+ */
+public class TrialDivisionEngine implements PerfectNumberEngine {
+    public static final String NAME = "trial";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public long[] findPerfectNumbers(long start, long end) {
+        long[] found = new long[4];
+        int foundCount = 0;
+        for (long n = Math.max(start, 2L); n <= end && n > 0; n++) {
+            if (WorkerUtils.isPerfect(n)) {
+                if (foundCount == found.length) {
+                    found = Arrays.copyOf(found, foundCount * 2);
+                }
+                found[foundCount++] = n;
+            }
+        }
+        return Arrays.copyOf(found, foundCount);
+    }
+}
@@ -0,0 +1,120 @@
+// --- Archivo: worker/src/main/java/com/example/worker/UInt128Math.java ---
+package com.example.worker;
+
+import java.math.BigInteger;
+
+/**
+ * Aritmética de enteros sin signo de 128 bits representados como dos long (hi, lo).
+ * Valor = hi·2^64 + lo, leyendo ambas mitades sin signo (igual que UInt128 en App.ice).
+ * Todo es primitivo para poder usarse en los ciclos de los motores; BigInteger solo se usa para mostrar valores.
+ */
+final class UInt128Math {
+    static final long MASK32 = 0xFFFFFFFFL;
+    private static final BigInteger TWO_POW_64 = BigInteger.ONE.shiftLeft(64);
+
+    private UInt128Math() {
+    }
+
+    /**
+     * Compara dos valores de 128 bits sin signo.
+     * @return negativo, cero o positivo como Comparator
+     */
+    static int compare(long aHi, long aLo, long bHi, long bLo) {
+        int byHigh = Long.compareUnsigned(aHi, bHi);
+        return byHigh != 0 ? byHigh : Long.compareUnsigned(aLo, bLo);
+    }
+
+    /**
+     * 64 bits altos del producto sin signo a·b (Math.multiplyHigh es con signo).
+     */
+    static long multiplyHighUnsigned(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+    }
+
+    /**
+     * Divide (hi, lo) entre d sin signo.
+     * @param quotient arreglo de al menos 2 posiciones donde se deja el cociente: [hi, lo]
+     * @return resto de la división (sin signo, menor que d)
+     */
+    static long divRem(long hi, long lo, long d, long[] quotient) {
+        long quotientHi = Long.divideUnsigned(hi, d);
+        long remainder = Long.remainderUnsigned(hi, d);
+        long quotientLo;
+        if (remainder == 0) {
+            quotientLo = Long.divideUnsigned(lo, d);
+            remainder = Long.remainderUnsigned(lo, d);
+        } else if (Long.compareUnsigned(d, MASK32) <= 0) {
+            // d cabe en 32 bits: se divide por mitades de 32 bits sin desbordar (resto < d < 2^32)
+            long upper = (remainder << 32) | (lo >>> 32);
+            long quotientUpper = Long.divideUnsigned(upper, d);
+            remainder = Long.remainderUnsigned(upper, d);
+            long lower = (remainder << 32) | (lo & MASK32);
+            quotientLo = (quotientUpper << 32) | Long.divideUnsigned(lower, d);
+            remainder = Long.remainderUnsigned(lower, d);
+        } else {
+            // División larga bit a bit: el resto parcial siempre es menor que d
+            quotientLo = 0;
+            for (int bit = 63; bit >= 0; bit--) {
+                boolean carry = remainder < 0; // el desplazamiento sacaría el bit 64
+                remainder = (remainder << 1) | ((lo >>> bit) & 1);
+                quotientLo <<= 1;
+                if (carry || Long.compareUnsigned(remainder, d) >= 0) {
+                    remainder -= d;
+                    quotientLo |= 1;
+                }
+            }
+        }
+        quotient[0] = quotientHi;
+        quotient[1] = quotientLo;
+        return remainder;
+    }
+
+    /**
+     * Raíz cuadrada entera (piso) de un valor de 128 bits.
+     * @return floor(sqrt(hi·2^64 + lo)), leído sin signo (siempre cabe en 64 bits)
+     */
+    static long sqrtFloor(long hi, long lo) {
+        double estimate = Math.sqrt(toDouble(hi, lo));
+        long root;
+        if (estimate >= 0x1p64) {
+            root = -1L; // 2^64 - 1
+        } else if (estimate >= 0x1p63) {
+            root = (long) (estimate - 0x1p63) | Long.MIN_VALUE;
+        } else {
+            root = (long) estimate;
+        }
+        // El double tiene 53 bits de precisión: se corrige la estimación en ambos sentidos
+        while (compare(multiplyHighUnsigned(root, root), root * root, hi, lo) > 0) {
+            root--;
+        }
+        while (root != -1L) {
+            long next = root + 1;
+            if (compare(multiplyHighUnsigned(next, next), next * next, hi, lo) > 0) {
+                break;
+            }
+            root = next;
+        }
+        return root;
+    }
+
+    static double toDouble(long hi, long lo) {
+        return unsignedToDouble(hi) * 0x1p64 + unsignedToDouble(lo);
+    }
+
+    private static double unsignedToDouble(long value) {
+        double magnitude = (double) (value >>> 1) * 2.0;
+        return magnitude + (value & 1);
+    }
+
+    static BigInteger toBigInteger(long hi, long lo) {
+        BigInteger high = new BigInteger(Long.toUnsignedString(hi));
+        return high.multiply(TWO_POW_64).add(new BigInteger(Long.toUnsignedString(lo)));
+    }
+
+    /**
+     * Representación decimal de un valor de 128 bits (para logs).
+     */
+    static String toString(long hi, long lo) {
+        return hi == 0 ? Long.toUnsignedString(lo) : toBigInteger(hi, lo).toString();
+    }
+}
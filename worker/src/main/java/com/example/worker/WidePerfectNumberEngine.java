@@ -0,0 +1,25 @@
+// --- Archivo: worker/src/main/java/com/example/worker/WidePerfectNumberEngine.java ---
+package com.example.worker;
+
+/**
+ * Motor de números perfectos para rangos amplios (enteros sin signo de 128 bits, ver WideRange en App.ice).
+ * Los valores viajan como pares (hi, lo) de long para no crear objetos en el ciclo de cálculo.
+ */
+public interface WidePerfectNumberEngine {
+
+    /**
+     * Nombre corto del motor (se usa en logs).
+     * @return nombre del motor
+     */
+    String getName();
+
+    /**
+     * Busca los números perfectos en el rango [start, end] de 128 bits sin signo.
+     * @param startHi 64 bits altos del límite inferior (inclusive)
+     * @param startLo 64 bits bajos del límite inferior
+     * @param endHi   64 bits altos del límite superior (inclusive)
+     * @param endLo   64 bits bajos del límite superior
+     * @return perfectos encontrados en orden ascendente, aplanados como {hi0, lo0, hi1, lo1, ...}
+     */
+    long[] findWidePerfectNumbers(long startHi, long startLo, long endHi, long endLo);
+}
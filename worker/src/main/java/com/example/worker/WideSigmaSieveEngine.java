@@ -0,0 +1,185 @@
+// --- Archivo: worker/src/main/java/com/example/worker/WideSigmaSieveEngine.java ---
+package com.example.worker;
+
+import java.util.Arrays;
+
+/**
+ * Criba segmentada de la suma de divisores para rangos de 128 bits sin signo.
+ * Es el mismo recorrido que SegmentedSigmaSieveEngine, pero cada suma se guarda en dos long (hi, lo)
+ * y se acumula con acarreo, así que no desborda para n por encima de Long.MAX_VALUE.
+ * El cofactor también es de 128 bits; las divisiones 128/64 solo ocurren una vez por divisor y bloque.
+ * Si una suma pasa de 2^128 - 1 queda saturada en ese valor: solo coincidiría con n = 2^128 - 1, que es deficiente.
+ * 2^128 - 1 = F0·F1·...·F6 (números de Fermat), es decir 3·5·17·257·65537·641·6700417·274177·67280421310721
+ * (F5 y F6 son compuestos); con nueve primos distintos, σ(n)/n = ∏(1 + 1/p) ≈ 1,70 < 2, así que la suma de sus
+ * divisores propios es menor que n: nunca satura ni coincide con n.
+ */
+public class WideSigmaSieveEngine implements WidePerfectNumberEngine {
+    public static final String NAME = "wide-sieve";
+
+    private final int blockSize; // Cantidad de números por bloque
+
+    /**
+     * @param blockSize cantidad de números que se procesan por bloque (debe ser positiva)
+     */
+    public WideSigmaSieveEngine(int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser positivo: " + blockSize);
+        }
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public long[] findWidePerfectNumbers(long startHi, long startLo, long endHi, long endLo) {
+        // Igual que la versión de referencia: 0 y 1 nunca son perfectos
+        if (UInt128Math.compare(startHi, startLo, 0, 2) < 0) {
+            startHi = 0;
+            startLo = 2;
+        }
+        if (UInt128Math.compare(startHi, startLo, endHi, endLo) > 0) {
+            return new long[0];
+        }
+
+        // Suma de divisores propios de (blockStart + k) en 128 bits, y cociente auxiliar de divRem
+        long[] sumHi = new long[blockSize];
+        long[] sumLo = new long[blockSize];
+        long[] quotient = new long[2];
+        long[] found = new long[8];
+        int foundCount = 0; // posiciones usadas de found (dos por número)
+
+        long blockStartHi = startHi;
+        long blockStartLo = startLo;
+        while (true) {
+            // Quedan (end - blockStart + 1) números: el bloque se acorta al final del rango
+            long remainingLo = endLo - blockStartLo;
+            long remainingHi = endHi - blockStartHi - (Long.compareUnsigned(endLo, blockStartLo) < 0 ? 1 : 0);
+            int length = (remainingHi == 0 && Long.compareUnsigned(remainingLo, blockSize - 1) < 0) ? (int) remainingLo + 1 : blockSize;
+
+            sieveBlock(blockStartHi, blockStartLo, length, sumHi, sumLo, quotient);
+
+            // Un número es perfecto si la suma de sus divisores propios es igual a él mismo
+            long nHi = blockStartHi;
+            long nLo = blockStartLo;
+            for (int k = 0; k < length; k++) {
+                if (sumLo[k] == nLo && sumHi[k] == nHi) {
+                    if (foundCount == found.length) {
+                        found = Arrays.copyOf(found, foundCount * 2);
+                    }
+                    found[foundCount++] = nHi;
+                    found[foundCount++] = nLo;
+                }
+                nLo++;
+                if (nLo == 0) {
+                    nHi++;
+                }
+            }
+
+            // Último número del bloque = blockStart + length - 1
+            long blockEndLo = blockStartLo + (length - 1);
+            long blockEndHi = blockStartHi + (Long.compareUnsigned(blockEndLo, blockStartLo) < 0 ? 1 : 0);
+            if (blockEndHi == endHi && blockEndLo == endLo) {
+                break;
+            }
+            blockStartLo = blockEndLo + 1;
+            blockStartHi = blockEndHi + (blockStartLo == 0 ? 1 : 0);
+        }
+        return Arrays.copyOf(found, foundCount);
+    }
+
+    /**
+     * Calcula la suma de divisores propios de cada número del bloque [blockStart, blockStart + length - 1].
+     * Cada par (d, n/d) con d <= n/d se suma una sola vez, desde el lado del divisor pequeño.
+     * @param blockStartHi 64 bits altos del primer número del bloque (el bloque empieza en 2 o más)
+     * @param blockStartLo 64 bits bajos del primer número del bloque
+     * @param length       cantidad de números del bloque
+     * @param sumHi        64 bits altos de las sumas (se sobrescriben las primeras length posiciones)
+     * @param sumLo        64 bits bajos de las sumas
+     * @param quotient     arreglo auxiliar de 2 posiciones para UInt128Math.divRem
+     */
+    static void sieveBlock(long blockStartHi, long blockStartLo, int length, long[] sumHi, long[] sumLo, long[] quotient) {
+        // El divisor 1 es propio para todo n >= 2
+        Arrays.fill(sumHi, 0, length, 0L);
+        Arrays.fill(sumLo, 0, length, 1L);
+        long blockEndLo = blockStartLo + (length - 1);
+        long blockEndHi = blockStartHi + (Long.compareUnsigned(blockEndLo, blockStartLo) < 0 ? 1 : 0);
+        // Equivalente a d <= blockEnd / d, sin calcular d*d en cada vuelta
+        long limit = UInt128Math.sqrtFloor(blockEndHi, blockEndLo);
+
+        // d != 0 corta el ciclo si limit es 2^64 - 1 y d da la vuelta
+        for (long d = 2; d != 0 && Long.compareUnsigned(d, limit) <= 0; d++) {
+            int index;
+            long cofactorHi;
+            long cofactorLo;
+            long squareLo = d * d;
+            long squareHi = UInt128Math.multiplyHighUnsigned(d, d);
+            if (UInt128Math.compare(squareHi, squareLo, blockStartHi, blockStartLo) >= 0) {
+                // d*d cae dentro del bloque (d <= limit): se empieza en el múltiplo con cofactor d
+                index = (int) (squareLo - blockStartLo);
+                cofactorHi = 0;
+                cofactorLo = d;
+            } else {
+                // Primer múltiplo >= blockStart: cofactor = ceil(blockStart / d)
+                long remainder = UInt128Math.divRem(blockStartHi, blockStartLo, d, quotient);
+                cofactorHi = quotient[0];
+                cofactorLo = quotient[1];
+                if (remainder == 0) {
+                    index = 0;
+                } else {
+                    long offset = d - remainder;
+                    if (Long.compareUnsigned(offset, length) >= 0) {
+                        continue;
+                    }
+                    index = (int) offset;
+                    cofactorLo++;
+                    if (cofactorLo == 0) {
+                        cofactorHi++;
+                    }
+                }
+            }
+            // Si d es mayor que el bloque solo hay un múltiplo: el salto se acota para no desbordar int
+            int step = Long.compareUnsigned(d, length) < 0 ? (int) d : length;
+
+            // Si el múltiplo es d*d, el divisor d se cuenta una sola vez (raíz exacta)
+            if (cofactorHi == 0 && cofactorLo == d) {
+                addAt(sumHi, sumLo, index, 0, d);
+                index += step;
+                cofactorLo++;
+                if (cofactorLo == 0) {
+                    cofactorHi++;
+                }
+            }
+            // El cofactor avanza en 1 por cada salto de d: no hay divisiones en el ciclo interno
+            for (; index < length; index += step) {
+                // d + cofactor < 2^128: el cofactor es a lo sumo n/2
+                long addendLo = cofactorLo + d;
+                long addendHi = cofactorHi + (Long.compareUnsigned(addendLo, d) < 0 ? 1 : 0);
+                addAt(sumHi, sumLo, index, addendHi, addendLo);
+                cofactorLo++;
+                if (cofactorLo == 0) {
+                    cofactorHi++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Suma (addendHi, addendLo) a la posición index con acarreo; satura en 2^128 - 1 si desborda.
+     */
+    private static void addAt(long[] sumHi, long[] sumLo, int index, long addendHi, long addendLo) {
+        long previousHi = sumHi[index];
+        long lo = sumLo[index] + addendLo;
+        long carry = Long.compareUnsigned(lo, addendLo) < 0 ? 1 : 0;
+        long hi = previousHi + addendHi + carry;
+        if (Long.compareUnsigned(hi, previousHi) < 0 || (hi == previousHi && (addendHi | carry) != 0)) {
+            sumHi[index] = -1L;
+            sumLo[index] = -1L;
+            return;
+        }
+        sumHi[index] = hi;
+        sumLo[index] = lo;
+    }
+}
@@ -5,6 +5,10 @@ import com.zeroc.Ice.*; // Clases de Ice: Communicator, ObjectAdapter, etC
 import perfectNumbersApp.*; // Interfaces generadas por Slice
 import java.lang.Exception;
 import java.util.Arrays; // Para Arrays.toString()
+import java.util.EnumMap; // Motores por estrategia
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService; // Renovación periódica del lease
+import java.util.concurrent.TimeUnit;
 
 /**
  * Clase principal de la aplicación Worker.
@@ -16,13 +20,32 @@ public class WorkerApp {
         // Inicializar Ice usando el archivo worker.properties
         try (Communicator communicator = Util.initialize(args, "worker.properties")) {
             System.out.println("[WORKER-APP] Communicator Ice inicializado.");
+            // Ice solo toma de la línea de comandos las opciones --Ice.*; estas (--Worker.*, --WorkerAdapter.*, --MasterService.*) se aplican aquí,
+            // antes de crear el adaptador, encima del archivo de configuración
+            communicator.getProperties().parseCommandLineOptions("Worker", args);
+            communicator.getProperties().parseCommandLineOptions("WorkerAdapter", args);
+            communicator.getProperties().parseCommandLineOptions("MasterService", args);
 
             // Crear adaptador local que expondrá el servicio del Worker
             ObjectAdapter adapter = communicator.createObjectAdapter("WorkerAdapter");
             System.out.println("[WORKER-APP] ObjectAdapter 'WorkerAdapter' creado.");
 
+            // Elegir los motores de cálculo configurados en worker.properties
+            Properties properties = communicator.getProperties();
+            EnumMap<WorkerStrategy, PerfectNumberEngine> engines = WorkerEngines.fromProperties(properties);
+            EnumMap<WorkerStrategy, WidePerfectNumberEngine> wideEngines = WorkerEngines.wideFromProperties(properties);
+            RangeClassifier classifier = WorkerEngines.classifierFromProperties(properties, engines);
+            AliquotScanner aliquotScanner = WorkerEngines.aliquotScannerFromProperties(properties, engines);
+            WorkerStrategy defaultStrategy = WorkerStrategy.fromName(properties.getProperty("Worker.Strategy"), WorkerStrategy.FULL);
+            long crossCheckWindow = properties.getPropertyAsIntWithDefault("Worker.CrossCheck.Window", 0);
+            System.out.println("[WORKER-APP] Estrategia por defecto: '" + defaultStrategy.getConfigName() + "' (motor '" + engines.get(defaultStrategy).getName() +
+                    "'). Validación cruzada: " + (crossCheckWindow > 0 ? crossCheckWindow + " números por subrango" : "desactivada"));
+
+            // Autoprueba de capacidad (antes de atender pedidos: no compite con trabajos del Maestro)
+            WorkerCapabilities capabilities = WorkerEngines.capabilitiesFromProperties(properties, engines);
+
             // Crear el servant que implementa la lógica del WorkerService
-            WorkerServiceI workerServant = new WorkerServiceI();
+            WorkerServiceI workerServant = new WorkerServiceI(engines, wideEngines, classifier, aliquotScanner, defaultStrategy, crossCheckWindow);
             System.out.println("[WORKER-APP] Servant WorkerServiceI instanciado.");
 
             // Registrar el servant con un ID único generado automáticamente
@@ -57,8 +80,11 @@ public class WorkerApp {
                     try {
                         // Llamar al Maestro para registrarse como worker disponible
                         System.out.println("[WORKER-APP] Intentando registrarse con el maestro en: " + masterServicePrx.toString().split("\n")[0]);
-                        masterServicePrx.registerWorker(workerServicePrx);
-                        System.out.println("[WORKER-APP] Registrado exitosamente con el maestro.");
+                        register(masterServicePrx, workerServicePrx, capabilities);
+                        System.out.println("[WORKER-APP] Registrado exitosamente con el maestro (" + capabilities.cores + " núcleo(s), " +
+                                String.format("%.0f", capabilities.benchmarkScore) + " números/s en la autoprueba).");
+                        startLeaseRenewal(masterServicePrx, workerServicePrx, capabilities,
+                                properties.getPropertyAsIntWithDefault("Worker.LeaseRenewalMillis", 5000));
                     } catch (LocalException e) {
                         // Manejar errores de comunicación local de Ice
                         System.err.println("[WORKER-APP] ERROR local de Ice al registrarse con el maestro: " + e.getClass().getSimpleName() + " - " + e.getMessage());
@@ -76,6 +102,7 @@ public class WorkerApp {
             System.out.println("[WORKER-APP] Esperando solicitudes del maestro...");
             communicator.waitForShutdown();
             System.out.println("[WORKER-APP] Worker finalizado después de waitForShutdown.");
+            workerServant.shutdown(); // Detener el pool de hilos de los motores (si lo tienen)
 
         } catch (InitializationException e) {
             // Error grave si falla init de Ice
@@ -93,4 +120,47 @@ public class WorkerApp {
         // Mensaje final al terminar la aplicación
         System.out.println("[WORKER-APP] Aplicación Worker terminando.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Se registra con el maestro anunciando su capacidad (o sin ella, si el maestro es anterior).
+     * También la usan los workers en proceso de la prueba de carga (com.example.loadtest).
+     */
+    public static void register(MasterServicePrx masterServicePrx, WorkerServicePrx workerServicePrx, WorkerCapabilities capabilities) {
+        try {
+            masterServicePrx.registerWorkerWithCapabilities(workerServicePrx, capabilities);
+        } catch (OperationNotExistException e) {
+            // Maestro anterior sin registro con capacidad: se registra sin ella
+            System.out.println("[WORKER-APP] El maestro no acepta capacidades. Registrando sin ellas.");
+            masterServicePrx.registerWorker(workerServicePrx);
+        }
+    }
+
+    /**
+     * Renueva el lease con el maestro cada renewalMillis (hilo daemon). Si el maestro ya no tiene registrado
+     * a este worker (lease vencido, p. ej. tras una pausa larga o un corte de red) se registra de nuevo.
+     * Con un maestro anterior sin renewLease deja de renovar: ese maestro comprueba a sus workers con ping.
+     */
+    public static void startLeaseRenewal(MasterServicePrx masterServicePrx, WorkerServicePrx workerServicePrx,
+                                          WorkerCapabilities capabilities, long renewalMillis) {
+        ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "worker-lease-renewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(100, renewalMillis);
+        renewer.scheduleWithFixedDelay(() -> {
+            try {
+                if (masterServicePrx.renewLease(workerServicePrx) == 0) {
+                    System.out.println("[WORKER-APP] El maestro ya no tenía registrado a este worker. Registrando de nuevo.");
+                    register(masterServicePrx, workerServicePrx, capabilities);
+                }
+            } catch (OperationNotExistException e) {
+                System.out.println("[WORKER-APP] El maestro no acepta renewLease. Se deja de renovar el lease.");
+                renewer.shutdown();
+            } catch (LocalException e) {
+                // Maestro caído o inalcanzable: se reintenta en la próxima renovación
+                System.err.println("[WORKER-APP] No se pudo renovar el lease con el maestro: " + e.getClass().getSimpleName());
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,262 @@
+// --- Archivo: worker/src/main/java/com/example/worker/WorkerEngines.java ---
+package com.example.worker;
+
+import com.zeroc.Ice.Properties; // Configuración leída de worker.properties
+import perfectNumbersApp.WorkerCapabilities; // Capacidad anunciada al Maestro
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Fábrica y utilidades de los motores de cálculo del Worker.
+ * Permite elegir el motor desde worker.properties y comparar un motor contra la referencia.
+ */
+public final class WorkerEngines {
+
+    static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private WorkerEngines() {
+    }
+
+    /**
+     * Crea los motores de cada estrategia según worker.properties.
+     * Propiedades: Worker.Engine (sieve | trial | spf), Worker.Sieve.BlockSize,
+     * Worker.Sieve.Vector (1 = usar la Vector API si el módulo está disponible; 0 por defecto), Worker.Parallelism
+     * (0 = todos los núcleos, 1 = secuencial), Worker.Parallel.MinSplitSize y Worker.OddFilters
+     * (filtros previos para los candidatos impares de la estrategia euclid-odd),
+     * Worker.Odd.UseSpf, los límites de la tabla SPF compartida (Worker.Spf.InitialBound, Worker.Spf.MaxBound)
+     * y el pool de buffers de bloque (Worker.BufferPool.MaxPooled, Worker.BufferPool.OffHeap).
+     * Los motores paralelos comparten un único pool fork/join dedicado.
+     * @param properties propiedades del communicator del Worker
+     * @return motor listo para usar por cada estrategia
+     */
+    public static EnumMap<WorkerStrategy, PerfectNumberEngine> fromProperties(Properties properties) {
+        String engineName = properties.getPropertyWithDefault("Worker.Engine", SegmentedSigmaSieveEngine.NAME).trim();
+        int blockSize = properties.getPropertyAsIntWithDefault("Worker.Sieve.BlockSize", SegmentedSigmaSieveEngine.DEFAULT_BLOCK_SIZE);
+        boolean useVector = properties.getPropertyAsIntWithDefault("Worker.Sieve.Vector", 0) > 0;
+        int parallelism = properties.getPropertyAsIntWithDefault("Worker.Parallelism", 0);
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        int minSplitSize = properties.getPropertyAsIntWithDefault("Worker.Parallel.MinSplitSize", ParallelRangeEngine.DEFAULT_MIN_SPLIT_SIZE);
+
+        SpfTables.configure(
+                properties.getPropertyAsIntWithDefault("Worker.Spf.InitialBound", SpfTables.DEFAULT_INITIAL_BOUND),
+                properties.getPropertyAsIntWithDefault("Worker.Spf.MaxBound", SpfTables.DEFAULT_MAX_BOUND));
+
+        // Un buffer de bloque por hilo en uso; los libres que sobren se dejan al GC
+        BlockBufferPool.configureShared(blockSize > 0 ? blockSize : SegmentedSigmaSieveEngine.DEFAULT_BLOCK_SIZE,
+                properties.getPropertyAsIntWithDefault("Worker.BufferPool.MaxPooled", BlockBufferPool.DEFAULT_MAX_POOLED),
+                properties.getPropertyAsIntWithDefault("Worker.BufferPool.OffHeap", 0) > 0);
+
+        // Modo secuencial (parallelism = 1): una tarea por subrango, sin pool dedicado
+        ForkJoinPool pool = (parallelism > 1) ? ParallelRangeEngine.createPool(parallelism) : null;
+
+        EnumMap<WorkerStrategy, PerfectNumberEngine> engines = new EnumMap<>(WorkerStrategy.class);
+        engines.put(WorkerStrategy.FULL, parallelize(create(engineName, blockSize, useVector), pool, minSplitSize));
+        engines.put(WorkerStrategy.EUCLID, new EuclidEulerEngine(null));
+        List<CandidateFilter> oddFilters = CandidateFilters.parse(properties.getPropertyWithDefault("Worker.OddFilters", "touchard,no105,no-square"));
+        boolean oddUsesSpf = properties.getPropertyAsIntWithDefault("Worker.Odd.UseSpf", 1) > 0;
+        OddTrialDivisionEngine oddEngine = new OddTrialDivisionEngine(oddFilters, oddUsesSpf);
+        System.out.println("[WORKER-ENGINES] Filtros para impares: " + oddEngine.getName() + " - " + oddEngine.getWheel());
+        engines.put(WorkerStrategy.EUCLID_ODD, new EuclidEulerEngine(parallelize(oddEngine, pool, minSplitSize)));
+        return engines;
+    }
+
+    /**
+     * Crea los motores de rango amplio (128 bits) de cada estrategia.
+     * 'full' y 'euclid-odd' usan la criba de 128 bits (revisa todos los números); 'euclid' solo enumera
+     * los perfectos pares de Euclides–Euler. Usa el mismo Worker.Sieve.BlockSize que la criba normal.
+     * @param properties propiedades del communicator del Worker
+     * @return motor de rango amplio por cada estrategia
+     */
+    public static EnumMap<WorkerStrategy, WidePerfectNumberEngine> wideFromProperties(Properties properties) {
+        int blockSize = properties.getPropertyAsIntWithDefault("Worker.Sieve.BlockSize", SegmentedSigmaSieveEngine.DEFAULT_BLOCK_SIZE);
+        WidePerfectNumberEngine wideSieve = new WideSigmaSieveEngine(blockSize > 0 ? blockSize : SegmentedSigmaSieveEngine.DEFAULT_BLOCK_SIZE);
+        EnumMap<WorkerStrategy, WidePerfectNumberEngine> engines = new EnumMap<>(WorkerStrategy.class);
+        engines.put(WorkerStrategy.FULL, wideSieve);
+        engines.put(WorkerStrategy.EUCLID, new EuclidEulerEngine(null));
+        engines.put(WorkerStrategy.EUCLID_ODD, wideSieve);
+        return engines;
+    }
+
+    /**
+     * Crea el clasificador de predicados sobre σ(n) (ver RangeClassifier).
+     * Reutiliza el pool fork/join del motor 'full' si es paralelo, para no crear hilos adicionales.
+     * Propiedades: Worker.Sieve.BlockSize y Worker.Classify.MaxListed (números listados por predicado y subrango).
+     * @param properties propiedades del communicator del Worker
+     * @param engines    motores ya creados con {@link #fromProperties(Properties)}
+     * @return clasificador listo para usar
+     */
+    public static RangeClassifier classifierFromProperties(Properties properties, EnumMap<WorkerStrategy, PerfectNumberEngine> engines) {
+        int maxListed = properties.getPropertyAsIntWithDefault("Worker.Classify.MaxListed", RangeClassifier.DEFAULT_MAX_LISTED);
+        ParallelRangeEngine parallelEngine = sharedParallelEngine(engines);
+        return new RangeClassifier(sieveBlockSize(properties), BlockBufferPool.getShared(),
+                parallelEngine != null ? parallelEngine.getPool() : null,
+                parallelEngine != null ? parallelEngine.getMinSplitSize() : ParallelRangeEngine.DEFAULT_MIN_SPLIT_SIZE, maxListed);
+    }
+
+    /**
+     * Crea el recorrido de candidatos de ciclos alícuotas (ver AliquotScanner), sobre el mismo pool que el clasificador.
+     * Propiedades: Worker.Sieve.BlockSize y Worker.Aliquot.BatchSize (aristas por mensaje al Maestro).
+     * @param properties propiedades del communicator del Worker
+     * @param engines    motores ya creados con {@link #fromProperties(Properties)}
+     * @return recorrido listo para usar
+     */
+    public static AliquotScanner aliquotScannerFromProperties(Properties properties, EnumMap<WorkerStrategy, PerfectNumberEngine> engines) {
+        int batchSize = properties.getPropertyAsIntWithDefault("Worker.Aliquot.BatchSize", AliquotScanner.DEFAULT_BATCH_SIZE);
+        ParallelRangeEngine parallelEngine = sharedParallelEngine(engines);
+        return new AliquotScanner(sieveBlockSize(properties), BlockBufferPool.getShared(),
+                parallelEngine != null ? parallelEngine.getPool() : null,
+                parallelEngine != null ? parallelEngine.getMinSplitSize() : ParallelRangeEngine.DEFAULT_MIN_SPLIT_SIZE, batchSize);
+    }
+
+    /**
+     * Describe la capacidad del Worker para registrarse con el Maestro: núcleos, motores por estrategia y una
+     * autoprueba corta del motor 'full' (una pasada de calentamiento de un cuarto del tamaño y una medida).
+     * Propiedades: Worker.Benchmark.Start y Worker.Benchmark.Count (0 = sin autoprueba; el Maestro usa la capacidad promedio).
+     * @param properties propiedades del communicator del Worker
+     * @param engines    motores ya creados con {@link #fromProperties(Properties)}
+     * @return capacidades a enviar en registerWorkerWithCapabilities
+     */
+    public static WorkerCapabilities capabilitiesFromProperties(Properties properties, EnumMap<WorkerStrategy, PerfectNumberEngine> engines) {
+        long benchmarkStart = Math.max(1L, properties.getPropertyAsIntWithDefault("Worker.Benchmark.Start", 1_000_000_000));
+        long benchmarkCount = Math.max(0L, properties.getPropertyAsIntWithDefault("Worker.Benchmark.Count", 4_000_000));
+        ParallelRangeEngine parallelEngine = sharedParallelEngine(engines);
+        int parallelism = (parallelEngine != null) ? parallelEngine.getPool().getParallelism() : 1;
+
+        String[] engineNames = new String[engines.size()];
+        int i = 0;
+        for (Map.Entry<WorkerStrategy, PerfectNumberEngine> entry : engines.entrySet()) {
+            engineNames[i++] = entry.getKey().getConfigName() + "=" + entry.getValue().getName();
+        }
+
+        long benchmarkMillis = 0;
+        double score = 0;
+        if (benchmarkCount > 0) {
+            PerfectNumberEngine fullEngine = engines.get(WorkerStrategy.FULL);
+            fullEngine.findPerfectNumbers(benchmarkStart, benchmarkStart + Math.max(1, benchmarkCount / 4) - 1); // Calentamiento (JIT, tablas, buffers)
+            long startNanos = System.nanoTime();
+            fullEngine.findPerfectNumbers(benchmarkStart, benchmarkStart + benchmarkCount - 1);
+            long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+            benchmarkMillis = Math.max(1, elapsedNanos / 1_000_000);
+            score = benchmarkCount * 1e9 / elapsedNanos;
+            System.out.println("[WORKER-ENGINES] Autoprueba: " + benchmarkCount + " números desde " + benchmarkStart + " en " + benchmarkMillis +
+                    " ms (" + String.format("%.0f", score) + " números/s, " + parallelism + " hilo(s)).");
+        }
+        return new WorkerCapabilities(Runtime.getRuntime().availableProcessors(), parallelism, engineNames,
+                benchmarkStart, benchmarkCount, benchmarkMillis, score);
+    }
+
+    /**
+     * @return el motor 'full' si es paralelo (su pool se comparte), o null en modo secuencial
+     */
+    private static ParallelRangeEngine sharedParallelEngine(EnumMap<WorkerStrategy, PerfectNumberEngine> engines) {
+        PerfectNumberEngine fullEngine = engines.get(WorkerStrategy.FULL);
+        return (fullEngine instanceof ParallelRangeEngine) ? (ParallelRangeEngine) fullEngine : null;
+    }
+
+    private static int sieveBlockSize(Properties properties) {
+        int blockSize = properties.getPropertyAsIntWithDefault("Worker.Sieve.BlockSize", SegmentedSigmaSieveEngine.DEFAULT_BLOCK_SIZE);
+        return blockSize > 0 ? blockSize : SegmentedSigmaSieveEngine.DEFAULT_BLOCK_SIZE;
+    }
+
+    private static PerfectNumberEngine parallelize(PerfectNumberEngine engine, ForkJoinPool pool, int minSplitSize) {
+        return (pool == null) ? engine : new ParallelRangeEngine(engine, pool, minSplitSize);
+    }
+
+    /**
+     * Crea un motor por nombre (criba escalar).
+     * @param engineName nombre del motor (sieve | trial | spf)
+     * @param blockSize  tamaño de bloque para la criba
+     * @return motor correspondiente; la criba si el nombre es desconocido
+     */
+    public static PerfectNumberEngine create(String engineName, int blockSize) {
+        return create(engineName, blockSize, false);
+    }
+
+    /**
+     * Crea un motor por nombre.
+     * @param engineName nombre del motor (sieve | trial | spf)
+     * @param blockSize  tamaño de bloque para la criba
+     * @param useVector  si es true y la Vector API está disponible, la criba usa VectorSigmaSieveEngine
+     * @return motor correspondiente; la criba si el nombre es desconocido
+     */
+    public static PerfectNumberEngine create(String engineName, int blockSize, boolean useVector) {
+        if (TrialDivisionEngine.NAME.equalsIgnoreCase(engineName)) {
+            return new TrialDivisionEngine();
+        }
+        if (FactorizationEngine.NAME.equalsIgnoreCase(engineName)) {
+            return new FactorizationEngine();
+        }
+        if (!SegmentedSigmaSieveEngine.NAME.equalsIgnoreCase(engineName)) {
+            System.err.println("[WORKER-ENGINES] ADVERTENCIA: Motor '" + engineName + "' desconocido. Usando '" + SegmentedSigmaSieveEngine.NAME + "'.");
+        }
+        if (blockSize <= 0) {
+            System.err.println("[WORKER-ENGINES] ADVERTENCIA: Worker.Sieve.BlockSize inválido (" + blockSize + "). Usando " + SegmentedSigmaSieveEngine.DEFAULT_BLOCK_SIZE + ".");
+            blockSize = SegmentedSigmaSieveEngine.DEFAULT_BLOCK_SIZE;
+        }
+        if (useVector) {
+            PerfectNumberEngine vectorEngine = createVectorEngine(blockSize);
+            if (vectorEngine != null) {
+                return vectorEngine;
+            }
+        }
+        return new SegmentedSigmaSieveEngine(blockSize, BlockBufferPool.getShared());
+    }
+
+    /**
+     * @return true si el módulo jdk.incubator.vector se resolvió al arrancar la JVM (--add-modules jdk.incubator.vector)
+     */
+    public static boolean isVectorApiAvailable() {
+        return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+    }
+
+    /**
+     * Crea la criba vectorizada por reflexión, para que sus clases no se enlacen si el módulo no está.
+     * @return el motor vectorizado, o null si la Vector API no está disponible
+     */
+    private static PerfectNumberEngine createVectorEngine(int blockSize) {
+        if (!isVectorApiAvailable()) {
+            System.out.println("[WORKER-ENGINES] Módulo " + VECTOR_MODULE + " no disponible: criba escalar.");
+            return null;
+        }
+        try {
+            PerfectNumberEngine engine = (PerfectNumberEngine) Class.forName("com.example.worker.VectorSigmaSieveEngine")
+                    .getConstructor(int.class, BlockBufferPool.class)
+                    .newInstance(blockSize, BlockBufferPool.getShared());
+            System.out.println("[WORKER-ENGINES] Criba vectorizada activa (" + VECTOR_MODULE + ").");
+            return engine;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.err.println("[WORKER-ENGINES] ADVERTENCIA: No se pudo crear la criba vectorizada (" + e + "). Usando la escalar.");
+            return null;
+        }
+    }
+
+    /**
+     * Compara los resultados de un motor con la implementación de referencia
+     * (WorkerUtils.getPerfectNumbersInRange) sobre la ventana [start, start + window - 1] ∩ [start, end].
+     * @param engine         motor a validar
+     * @param engineResults  resultados que el motor ya produjo para [start, end]
+     * @param start          inicio del subrango
+     * @param end            fin del subrango
+     * @param window         cantidad de números a validar desde start
+     * @return true si ambos motores coinciden en la ventana
+     */
+    public static boolean crossCheck(PerfectNumberEngine engine, long[] engineResults, long start, long end, long window) {
+        long windowEnd = (end - start < window) ? end : start + window - 1;
+        long[] expected = WorkerUtils.getPerfectNumbersInRange(start, windowEnd).stream().mapToLong(l -> l).toArray();
+        // Solo se comparan los resultados del motor que caen dentro de la ventana
+        long[] actual = Arrays.stream(engineResults).filter(n -> n >= start && n <= windowEnd).toArray();
+        boolean matches = Arrays.equals(expected, actual);
+        if (matches) {
+            System.out.println("[CROSS-CHECK] Motor '" + engine.getName() + "' coincide con la referencia en [" + start + ", " + windowEnd + "]: " + Arrays.toString(actual));
+        } else {
+            System.err.println("[CROSS-CHECK] DISCREPANCIA del motor '" + engine.getName() + "' en [" + start + ", " + windowEnd + "]. Referencia: " +
+                    Arrays.toString(expected) + " - Motor: " + Arrays.toString(actual));
+        }
+        return matches;
+    }
+}
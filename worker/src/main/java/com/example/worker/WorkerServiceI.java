@@ -1,13 +1,20 @@
 // --- Archivo: worker/src/main/java/com/example/worker/WorkerServiceI.java ---
 package com.example.worker;
 
+import perfectNumbersApp.AliquotEdge; // Candidato (n, s(n)) de un ciclo alícuota
+import perfectNumbersApp.PredicateQuery; // Predicado de clasificación pedido por el Maestro
+import perfectNumbersApp.PredicateResult; // Conteo/suma/números de un predicado
+import perfectNumbersApp.SigmaPredicate; // Tipo de predicado (para logs)
 import perfectNumbersApp.Range; // Rango a procesar definido por el cliente/maestro
+import perfectNumbersApp.UInt128; // Entero de 128 bits sin signo (rangos amplios)
+import perfectNumbersApp.WideRange; // Rango amplio a procesar
 import perfectNumbersApp.MasterControllerPrx; // Proxy para notificar resultados al Maestro
 import perfectNumbersApp.WorkerService; // Interfaz de Slice para este servicio
 import com.zeroc.Ice.Current; // Contexto de la llamada Ice
 import com.zeroc.Ice.LocalException; // Captura errores de comunicación con el maestro
-import java.util.List;
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
@@ -16,13 +23,47 @@ import java.util.concurrent.CompletionStage;
  * Recibe un subrango de números, calcula los perfectos y notifica al Maestro.
  */
 public class WorkerServiceI implements WorkerService {
+    private final EnumMap<WorkerStrategy, PerfectNumberEngine> engines; // Motor de cada estrategia
+    private final EnumMap<WorkerStrategy, WidePerfectNumberEngine> wideEngines; // Motor de 128 bits de cada estrategia
+    private final RangeClassifier classifier; // Clasificación de varios predicados en una pasada de la criba
+    private final AliquotScanner aliquotScanner; // Candidatos de pares amigables y ciclos sociables
+    private final WorkerStrategy defaultStrategy; // Estrategia si el Maestro no envía una en el contexto
+    private final long crossCheckWindow; // Números a validar contra la referencia (0 = desactivado)
+
+    /**
+     * @param engines motor que se usará para cada estrategia de búsqueda
+     * @param wideEngines motor de rangos amplios (128 bits) para cada estrategia
+     * @param classifier clasificador de predicados sobre σ(n) para classifySubRange
+     * @param aliquotScanner recorrido de candidatos para scanAliquotSubRange
+     * @param defaultStrategy estrategia a usar cuando la solicitud no trae la clave "strategy" en el contexto
+     * @param crossCheckWindow cantidad de números al inicio de cada subrango que se validan
+     *                         contra WorkerUtils.getPerfectNumbersInRange (0 para desactivar)
+     */
+    public WorkerServiceI(EnumMap<WorkerStrategy, PerfectNumberEngine> engines, EnumMap<WorkerStrategy, WidePerfectNumberEngine> wideEngines,
+                          RangeClassifier classifier, AliquotScanner aliquotScanner, WorkerStrategy defaultStrategy, long crossCheckWindow) {
+        this.engines = engines;
+        this.wideEngines = wideEngines;
+        this.classifier = classifier;
+        this.aliquotScanner = aliquotScanner;
+        this.defaultStrategy = defaultStrategy;
+        this.crossCheckWindow = crossCheckWindow;
+    }
+
+    /**
+     * Libera los motores (pool fork/join) al apagar el Worker.
+     */
+    public void shutdown() {
+        for (PerfectNumberEngine engine : engines.values()) {
+            engine.close();
+        }
+    }
 
     /**
      * Método asíncrono llamado por el Maestro para procesar un rango.
      * @param subRangeToProcess rango de valores a revisar
      * @param masterCallbackProxy proxy para notificar los resultados al Maestro
      * @param workerJobId ID único de esta tarea asignado por el Maestro
-     * @param current contexto de Ice (omitido en la lógica)
+     * @param current contexto de Ice; la clave "strategy" del contexto elige la estrategia de búsqueda
      * @return CompletionStage completado cuando termine de procesar y notificar
      */
     @Override
@@ -32,26 +73,44 @@ public class WorkerServiceI implements WorkerService {
             String workerJobId, // ID específico para esta tarea, asignado por el Maestro
             Current current) {
 
+        // Elegir la estrategia de esta solicitud (contexto Ice) y su motor
+        Map<String, String> context = (current != null) ? current.ctx : null;
+        WorkerStrategy strategy = WorkerStrategy.fromName(context != null ? context.get(WorkerStrategy.CONTEXT_KEY) : null, defaultStrategy);
+        PerfectNumberEngine engine = engines.get(strategy);
+
         // Mostrar en consola el subrango que se va a procesar
-        System.out.println("[" + workerJobId + "] Recibido subrango: [" + subRangeToProcess.start + ", " + subRangeToProcess.end + "]");
+        System.out.println("[" + workerJobId + "] Recibido subrango: [" + subRangeToProcess.start + ", " + subRangeToProcess.end + "] (estrategia '" + strategy.getConfigName() + "')");
 
         // Ejecutar el cálculo en un hilo separado para no bloquear el servidor Ice
         return CompletableFuture.runAsync(() -> {
             // Medir tiempo de cálculo local
             long calculationStartTime = System.currentTimeMillis();
-            // Obtener lista de números perfectos en el rango indicado
-            List<Long> foundPerfectNumbersList = WorkerUtils.getPerfectNumbersInRange(
-                    subRangeToProcess.start, subRangeToProcess.end);
+            // Obtener los números perfectos del rango con el motor configurado (ya en array primitivo para Ice)
+            CandidateStats candidateStats = new CandidateStats();
+            long[] perfectNumbersArray = engine.findPerfectNumbers(subRangeToProcess.start, subRangeToProcess.end, candidateStats);
             long calculationEndTime = System.currentTimeMillis();
             long workerProcessingTimeMillis = calculationEndTime - calculationStartTime;
 
-            // Convertir la lista a un array primitivo para enviar a través de Ice
-            long[] perfectNumbersArray = foundPerfectNumbersList.stream().mapToLong(l -> l).toArray();
-
             // Mostrar resultados y tiempo de cálculo en consola
-            System.out.println("[" + workerJobId + "] Números encontrados: " + Arrays.toString(perfectNumbersArray) +
+            System.out.println("[" + workerJobId + "] Números encontrados (motor '" + engine.getName() + "'): " + Arrays.toString(perfectNumbersArray) +
                     ". Tiempo de cálculo ESTE SUBRANGO: " + workerProcessingTimeMillis + " ms.");
 
+            // Reportar cuánto ahorró la etapa de filtros (solo motores que la tienen)
+            if (!candidateStats.isEmpty()) {
+                System.out.println("[" + workerJobId + "] Filtros de candidatos: " + candidateStats);
+            }
+
+            // Estado del pool de buffers de bloque (solo si algún motor lo usa)
+            BlockBufferPool bufferPool = BlockBufferPool.getShared();
+            if (bufferPool.getAcquisitions() > 0) {
+                System.out.println("[" + workerJobId + "] " + bufferPool.getStats());
+            }
+
+            // Validación opcional contra la implementación de referencia (no cuenta en el tiempo reportado)
+            if (crossCheckWindow > 0) {
+                WorkerEngines.crossCheck(engine, perfectNumbersArray, subRangeToProcess.start, subRangeToProcess.end, crossCheckWindow);
+            }
+
             // Si el proxy al Maestro es válido, enviar los resultados
             if (masterCallbackProxy != null) {
                 try {
@@ -73,4 +132,176 @@ public class WorkerServiceI implements WorkerService {
             }
         });
     }
+
+    /**
+     * Igual que processSubRangeAsync, para un subrango amplio (128 bits sin signo).
+     * @param subRangeToProcess rango amplio a revisar
+     * @param masterCallbackProxy proxy para notificar los resultados al Maestro
+     * @param workerJobId ID único de esta tarea asignado por el Maestro
+     * @param current contexto de Ice; la clave "strategy" del contexto elige la estrategia de búsqueda
+     * @return CompletionStage completado cuando termine de procesar y notificar
+     */
+    @Override
+    public CompletionStage<Void> processWideSubRangeAsync(
+            WideRange subRangeToProcess,
+            MasterControllerPrx masterCallbackProxy,
+            String workerJobId,
+            Current current) {
+
+        Map<String, String> context = (current != null) ? current.ctx : null;
+        WorkerStrategy strategy = WorkerStrategy.fromName(context != null ? context.get(WorkerStrategy.CONTEXT_KEY) : null, defaultStrategy);
+        WidePerfectNumberEngine engine = wideEngines.get(strategy);
+        UInt128 start = subRangeToProcess.start;
+        UInt128 end = subRangeToProcess.end;
+
+        System.out.println("[" + workerJobId + "] Recibido subrango amplio: [" + UInt128Math.toString(start.hi, start.lo) + ", " +
+                UInt128Math.toString(end.hi, end.lo) + "] (estrategia '" + strategy.getConfigName() + "')");
+
+        return CompletableFuture.runAsync(() -> {
+            long calculationStartTime = System.currentTimeMillis();
+            long[] flatPerfects = engine.findWidePerfectNumbers(start.hi, start.lo, end.hi, end.lo);
+            long workerProcessingTimeMillis = System.currentTimeMillis() - calculationStartTime;
+
+            // Pasar de pares (hi, lo) aplanados a la secuencia de Slice
+            UInt128[] perfectNumbers = new UInt128[flatPerfects.length / 2];
+            StringBuilder found = new StringBuilder("[");
+            for (int i = 0; i < perfectNumbers.length; i++) {
+                perfectNumbers[i] = new UInt128(flatPerfects[2 * i], flatPerfects[2 * i + 1]);
+                found.append(i > 0 ? ", " : "").append(UInt128Math.toString(flatPerfects[2 * i], flatPerfects[2 * i + 1]));
+            }
+            found.append(']');
+            System.out.println("[" + workerJobId + "] Números encontrados (motor '" + engine.getName() + "'): " + found +
+                    ". Tiempo de cálculo ESTE SUBRANGO: " + workerProcessingTimeMillis + " ms.");
+
+            if (masterCallbackProxy != null) {
+                try {
+                    masterCallbackProxy.submitWideWorkerResultsAsync(workerJobId, subRangeToProcess, perfectNumbers, workerProcessingTimeMillis);
+                    System.out.println("[" + workerJobId + "] Resultados enviados al MasterController.");
+                } catch (LocalException e) {
+                    System.err.println("[" + workerJobId + "] ERROR al enviar resultados al MasterController: " + e.getClass().getSimpleName() + " - " + e.getMessage());
+                } catch (Exception e) {
+                    System.err.println("[" + workerJobId + "] ERROR INESPERADO al enviar resultados al MasterController: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            } else {
+                System.err.println("[" + workerJobId + "] ERROR: MasterCallbackProxy es nulo. No se pueden enviar resultados.");
+            }
+        });
+    }
+
+    /**
+     * Clasifica un subrango según varios predicados sobre σ(n) en una sola pasada de la criba
+     * y envía al Maestro un resultado por predicado.
+     * @param subRangeToProcess rango de valores a clasificar
+     * @param predicates predicados a evaluar (perfecto, abundante, deficiente, multiperfecto, casi perfecto)
+     * @param countsOnly si es true solo se envían conteos y sumas, sin listar números
+     * @param masterCallbackProxy proxy para notificar los resultados al Maestro
+     * @param workerJobId ID único de esta tarea asignado por el Maestro
+     * @param current contexto de Ice
+     * @return CompletionStage completado cuando termine de procesar y notificar
+     */
+    @Override
+    public CompletionStage<Void> classifySubRangeAsync(
+            Range subRangeToProcess,
+            PredicateQuery[] predicates,
+            boolean countsOnly,
+            MasterControllerPrx masterCallbackProxy,
+            String workerJobId,
+            Current current) {
+
+        System.out.println("[" + workerJobId + "] Recibido subrango para clasificar: [" + subRangeToProcess.start + ", " + subRangeToProcess.end +
+                "] (" + predicates.length + " predicado(s)" + (countsOnly ? ", solo conteos" : "") + ")");
+
+        return CompletableFuture.runAsync(() -> {
+            long calculationStartTime = System.currentTimeMillis();
+            PredicateResult[] results = classifier.classify(subRangeToProcess.start, subRangeToProcess.end, predicates, countsOnly);
+            long workerProcessingTimeMillis = System.currentTimeMillis() - calculationStartTime;
+
+            StringBuilder summary = new StringBuilder();
+            for (PredicateResult result : results) {
+                summary.append(summary.length() > 0 ? ", " : "").append(result.query.predicate)
+                        .append(result.query.predicate == SigmaPredicate.MultiplyPerfect ? "(k=" + result.query.k + ")" : "")
+                        .append('=').append(result.count).append(result.truncated ? " (lista truncada)" : "");
+            }
+            System.out.println("[" + workerJobId + "] Clasificación: " + summary + ". Tiempo de cálculo ESTE SUBRANGO: " + workerProcessingTimeMillis + " ms.");
+
+            if (masterCallbackProxy != null) {
+                try {
+                    masterCallbackProxy.submitClassificationResultsAsync(workerJobId, subRangeToProcess, results, workerProcessingTimeMillis);
+                    System.out.println("[" + workerJobId + "] Resultados enviados al MasterController.");
+                } catch (LocalException e) {
+                    System.err.println("[" + workerJobId + "] ERROR al enviar resultados al MasterController: " + e.getClass().getSimpleName() + " - " + e.getMessage());
+                } catch (Exception e) {
+                    System.err.println("[" + workerJobId + "] ERROR INESPERADO al enviar resultados al MasterController: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            } else {
+                System.err.println("[" + workerJobId + "] ERROR: MasterCallbackProxy es nulo. No se pueden enviar resultados.");
+            }
+        });
+    }
+
+    /**
+     * Recorre el subrango buscando los posibles menores miembros de ciclos alícuotas (n < s(n) <= maxPartner)
+     * y los envía al Maestro por lotes. Los lotes intermedios se envían de forma síncrona, así que el lote
+     * final (lastBatch = true, el único que cuenta como respuesta) siempre llega después de todos.
+     * @param subRangeToProcess rango de valores a recorrer
+     * @param maxPartner mayor s(n) aceptado (fin del rango del trabajo)
+     * @param masterCallbackProxy proxy para notificar los resultados al Maestro
+     * @param workerJobId ID único de esta tarea asignado por el Maestro
+     * @param current contexto de Ice
+     * @return CompletionStage completado cuando termine de procesar y notificar
+     */
+    @Override
+    public CompletionStage<Void> scanAliquotSubRangeAsync(
+            Range subRangeToProcess,
+            long maxPartner,
+            MasterControllerPrx masterCallbackProxy,
+            String workerJobId,
+            Current current) {
+
+        System.out.println("[" + workerJobId + "] Recibido subrango para ciclos alícuotas: [" + subRangeToProcess.start + ", " + subRangeToProcess.end +
+                "] (s(n) <= " + maxPartner + ")");
+
+        return CompletableFuture.runAsync(() -> {
+            if (masterCallbackProxy == null) {
+                System.err.println("[" + workerJobId + "] ERROR: MasterCallbackProxy es nulo. No se pueden enviar resultados.");
+                return;
+            }
+            try {
+                long calculationStartTime = System.currentTimeMillis();
+                long emitted = aliquotScanner.scan(subRangeToProcess.start, subRangeToProcess.end, maxPartner,
+                        batch -> masterCallbackProxy.submitAliquotCandidates(workerJobId, subRangeToProcess, toEdges(batch), false, 0));
+                long workerProcessingTimeMillis = System.currentTimeMillis() - calculationStartTime;
+                System.out.println("[" + workerJobId + "] Candidatos emitidos: " + emitted + ". Tiempo de cálculo ESTE SUBRANGO: " + workerProcessingTimeMillis + " ms.");
+                masterCallbackProxy.submitAliquotCandidatesAsync(workerJobId, subRangeToProcess, new AliquotEdge[0], true, workerProcessingTimeMillis);
+                System.out.println("[" + workerJobId + "] Resultados enviados al MasterController.");
+            } catch (LocalException e) {
+                System.err.println("[" + workerJobId + "] ERROR al enviar resultados al MasterController: " + e.getClass().getSimpleName() + " - " + e.getMessage());
+            } catch (Exception e) {
+                System.err.println("[" + workerJobId + "] ERROR INESPERADO al enviar resultados al MasterController: " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Consulta por lotes del Maestro: s(n) de números de este subrango que otros subrangos necesitan
+     * para cerrar sus cadenas. Solo se factorizan los números pedidos, no se vuelve a cribar el subrango.
+     * @param numbers números a evaluar
+     * @param current contexto de Ice
+     * @return s(n) de cada número, en el mismo orden
+     */
+    @Override
+    public CompletionStage<long[]> lookupAliquotSumsAsync(long[] numbers, Current current) {
+        return CompletableFuture.supplyAsync(() -> AliquotScanner.aliquotSums(numbers));
+    }
+
+    private static AliquotEdge[] toEdges(long[] flatEdges) {
+        AliquotEdge[] edges = new AliquotEdge[flatEdges.length / 2];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = new AliquotEdge(flatEdges[2 * i], flatEdges[2 * i + 1]);
+        }
+        return edges;
+    }
 }
@@ -0,0 +1,47 @@
+// --- Archivo: worker/src/main/java/com/example/worker/WorkerStrategy.java ---
+package com.example.worker;
+
+/**
+ * Estrategia de búsqueda que el Worker aplica a cada solicitud.
+ * El Maestro puede elegirla por solicitud con la clave "strategy" del contexto Ice;
+ * si no la envía, se usa Worker.Strategy de worker.properties.
+ */
+public enum WorkerStrategy {
+    /** Fuerza bruta sobre todos los números con el motor configurado (Worker.Engine). */
+    FULL("full"),
+    /** Pares con Euclides–Euler + Lucas–Lehmer; la parte impar no se revisa. */
+    EUCLID("euclid"),
+    /** Pares con Euclides–Euler + Lucas–Lehmer y fuerza bruta solo sobre los impares. */
+    EUCLID_ODD("euclid-odd");
+
+    public static final String CONTEXT_KEY = "strategy"; // Clave del contexto Ice
+
+    private final String configName;
+
+    WorkerStrategy(String configName) {
+        this.configName = configName;
+    }
+
+    public String getConfigName() {
+        return configName;
+    }
+
+    /**
+     * Traduce un nombre de configuración a estrategia.
+     * @param name nombre (full | euclid | euclid-odd); null o vacío devuelve defaultStrategy
+     * @param defaultStrategy estrategia a usar si el nombre no es válido
+     * @return estrategia correspondiente
+     */
+    public static WorkerStrategy fromName(String name, WorkerStrategy defaultStrategy) {
+        if (name == null || name.isBlank()) {
+            return defaultStrategy;
+        }
+        for (WorkerStrategy strategy : values()) {
+            if (strategy.configName.equalsIgnoreCase(name.trim())) {
+                return strategy;
+            }
+        }
+        System.err.println("[WORKER-STRATEGY] ADVERTENCIA: Estrategia '" + name + "' desconocida. Usando '" + defaultStrategy.configName + "'.");
+        return defaultStrategy;
+    }
+}
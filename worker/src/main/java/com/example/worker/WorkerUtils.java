@@ -35,22 +35,49 @@ public class WorkerUtils {
      * @param n Número a verificar
      * @return true si n es perfecto; false en caso contrario
      */
-    private static boolean isPerfect(long n) {
+    static boolean isPerfect(long n) {
         if (n < 6) { // El primer número perfecto es 6
             return false;
         }
         long sum = 1; // 1 siempre es divisor de n (si n > 1)
-        // Solo iteramos hasta la raíz cuadrada para mejorar eficiencia
-        for (long i = 2; i * i <= n; i++) {
+        // Solo iteramos hasta la raíz cuadrada; i <= n / i evita que i * i desborde cerca de Long.MAX_VALUE
+        for (long i = 2; i <= n / i; i++) {
             if (n % i == 0) {
-                sum += i; // Sumar divisor i
-                if (i * i != n) {
-                    sum += n / i; // Sumar el divisor par n/i si no es la raíz exacta
+                long pair = n / i; // Divisor complementario de i
+                long divisors = (pair != i) ? i + pair : i; // No suma dos veces la raíz exacta
+                // Si la suma ya pasa de n, es abundante: se corta antes de que la suma desborde
+                if (divisors > n - sum) {
+                    return false;
                 }
+                sum += divisors;
             }
         }
 
         // Si la suma de divisores propios coincide con n, es perfecto
         return sum == n;
     }
-}
\ No newline at end of file
+
+    /**
+     * Verifica si un número impar n es perfecto.
+     * Un impar solo tiene divisores impares, así que se prueban únicamente los impares hasta la raíz.
+     * @param n Número impar a verificar
+     * @return true si n es perfecto; false en caso contrario
+     */
+    static boolean isOddPerfect(long n) {
+        if (n < 3) {
+            return false;
+        }
+        long sum = 1; // 1 siempre es divisor de n
+        for (long i = 3; i <= n / i; i += 2) {
+            if (n % i == 0) {
+                long pair = n / i;
+                long divisors = (pair != i) ? i + pair : i;
+                if (divisors > n - sum) {
+                    return false; // Ya es abundante: no puede ser perfecto (y la suma no desborda)
+                }
+                sum += divisors;
+            }
+        }
+        return sum == n;
+    }
+}
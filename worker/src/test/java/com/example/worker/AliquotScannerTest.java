@@ -0,0 +1,82 @@
+// --- Archivo: worker/src/test/java/com/example/worker/AliquotScannerTest.java ---
+package com.example.worker;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Primera etapa de los ciclos alícuotas: s(x) por lotes (lookupAliquotSums) y aristas candidatas (n, s(n))
+ * con n < s(n) <= maxPartner, en secuencial y con el pool fork/join.
+ */
+class AliquotScannerTest {
+
+    @Test
+    void lookupAliquotSumsMarksOverflow() {
+        long[] sums = AliquotScanner.aliquotSums(new long[]{Long.MAX_VALUE, 1, 28, 220});
+        assertArrayEquals(new long[]{SmallestPrimeFactorTable.OVERFLOW, 0, 28, 284}, sums);
+    }
+
+    @Test
+    void scanEmitsEveryCandidateEdge() {
+        long end = 20_000;
+        long maxPartner = 15_000; // 12496 -> 14288 entra; 14288 -> 15472 no
+        long[] expected = expectedEdges(end, maxPartner);
+        assertArrayEquals(expected, scan(new AliquotScanner(64, new BlockBufferPool(64, 4, false), null, 1_000, 100), end, maxPartner));
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            AliquotScanner parallel = new AliquotScanner(64, new BlockBufferPool(64, 4, false), pool, 1_000, 100);
+            assertArrayEquals(expected, scan(parallel, end, maxPartner));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return aristas {n0, s0, n1, s1, ...} ordenadas por n, sin importar en qué orden llegaron los lotes
+     */
+    private static long[] scan(AliquotScanner scanner, long end, long maxPartner) {
+        List<long[]> batches = new ArrayList<>();
+        long emitted = scanner.scan(1, end, maxPartner, batch -> {
+            synchronized (batches) {
+                batches.add(batch.clone());
+            }
+        });
+        List<long[]> edges = new ArrayList<>();
+        for (long[] batch : batches) {
+            for (int i = 0; i < batch.length; i += 2) {
+                edges.add(new long[]{batch[i], batch[i + 1]});
+            }
+        }
+        assertEquals(emitted, edges.size(), "aristas emitidas");
+        edges.sort((a, b) -> Long.compare(a[0], b[0]));
+        long[] flattened = new long[2 * edges.size()];
+        for (int i = 0; i < edges.size(); i++) {
+            flattened[2 * i] = edges.get(i)[0];
+            flattened[2 * i + 1] = edges.get(i)[1];
+        }
+        return flattened;
+    }
+
+    private static long[] expectedEdges(long end, long maxPartner) {
+        long[] numbers = new long[(int) end];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = i + 1;
+        }
+        long[] sums = AliquotScanner.aliquotSums(numbers);
+        List<Long> edges = new ArrayList<>();
+        for (int i = 0; i < numbers.length; i++) {
+            if (sums[i] > numbers[i] && sums[i] <= maxPartner) {
+                edges.add(numbers[i]);
+                edges.add(sums[i]);
+            }
+        }
+        return edges.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,51 @@
+// --- Archivo: worker/src/test/java/com/example/worker/EuclidEulerEngineTest.java ---
+package com.example.worker;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * La estrategia euclid (solo pares, como la arma WorkerEngines) y euclid-odd con OddTrialDivisionEngine deben dar
+ * lo mismo que la versión de referencia (WorkerUtils.getPerfectNumbersInRange), con rangos que empiezan o terminan
+ * justo en un perfecto, que lo excluyen por un número y que contienen varios.
+ */
+class EuclidEulerEngineTest {
+    private static final long[] PERFECTS = {6, 28, 496, 8128, 33550336};
+    private static final long WINDOW = 600;
+
+    @Test
+    void euclidMatchesReference() {
+        assertMatchesReference(new EuclidEulerEngine(null));
+    }
+
+    @Test
+    void euclidWithOddTrialDivisionMatchesReference() {
+        assertMatchesReference(new EuclidEulerEngine(new OddTrialDivisionEngine()));
+    }
+
+    private static void assertMatchesReference(PerfectNumberEngine engine) {
+        try {
+            assertMatchesReference(engine, 1, 10_000); // 6, 28, 496 y 8128
+            assertMatchesReference(engine, 0, 5);
+            assertMatchesReference(engine, 7, 27);
+            assertMatchesReference(engine, 29, 495);
+            for (long p : PERFECTS) {
+                assertMatchesReference(engine, p, p);
+                assertMatchesReference(engine, p, p + WINDOW); // Empieza en p
+                assertMatchesReference(engine, Math.max(1, p - WINDOW), p); // Termina en p
+                assertMatchesReference(engine, p + 1, p + WINDOW); // Lo excluye por un número a la izquierda
+                assertMatchesReference(engine, Math.max(1, p - WINDOW), p - 1); // Y a la derecha
+                assertMatchesReference(engine, p - 1, p + 1);
+            }
+        } finally {
+            engine.close();
+        }
+    }
+
+    private static void assertMatchesReference(PerfectNumberEngine engine, long start, long end) {
+        long[] expected = WorkerUtils.getPerfectNumbersInRange(start, end).stream().mapToLong(Long::longValue).toArray();
+        assertArrayEquals(expected, engine.findPerfectNumbers(start, end),
+                engine.getName() + ", rango [" + start + ", " + end + "]");
+    }
+}
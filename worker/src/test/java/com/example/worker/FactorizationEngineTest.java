@@ -0,0 +1,34 @@
+// --- Archivo: worker/src/test/java/com/example/worker/FactorizationEngineTest.java ---
+package com.example.worker;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Motor 'spf' y s(n) por factorización, en especial en el tope del rango de long,
+ * donde σ(n) desborda y n = Long.MAX_VALUE no debe salir como perfecto.
+ */
+class FactorizationEngineTest {
+
+    @Test
+    void findsKnownPerfectNumbers() {
+        assertArrayEquals(new long[]{6, 28, 496, 8128}, new FactorizationEngine().findPerfectNumbers(1, 10_000));
+    }
+
+    @Test
+    void topOfLongRangeHasNoPerfectNumbers() {
+        // Antes del arreglo, Long.MAX_VALUE salía como perfecto: el desborde se marcaba con Long.MAX_VALUE
+        assertArrayEquals(new long[0], new FactorizationEngine().findPerfectNumbers(Long.MAX_VALUE - 2, Long.MAX_VALUE));
+    }
+
+    @Test
+    void overflowIsReportedAsNegative() {
+        SmallestPrimeFactorTable table = SpfTables.forRangeEnd(Long.MAX_VALUE);
+        assertEquals(SmallestPrimeFactorTable.OVERFLOW, table.sigma(Long.MAX_VALUE));
+        assertEquals(SmallestPrimeFactorTable.OVERFLOW, table.aliquotSum(Long.MAX_VALUE));
+        assertTrue(SmallestPrimeFactorTable.OVERFLOW < 0, "OVERFLOW no puede coincidir con un n ni con un s(n) válido");
+    }
+}
@@ -0,0 +1,91 @@
+// --- Archivo: worker/src/test/java/com/example/worker/SegmentedSigmaSieveEngineTest.java ---
+package com.example.worker;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * La criba segmentada debe dar lo mismo que la versión de referencia (WorkerUtils.getPerfectNumbersInRange)
+ * en rangos superpuestos y con los perfectos justo en los bordes de los bloques, con buffers en el heap y fuera de él.
+ * Los mismos casos corren sobre VectorSigmaSieveEngine cuando el módulo jdk.incubator.vector está presente.
+ */
+class SegmentedSigmaSieveEngineTest {
+    private static final long[] PERFECTS = {6, 28, 496, 8128, 33550336};
+    private static final int[] BLOCK_SIZES = {1, 7, 64, 1000, SegmentedSigmaSieveEngine.DEFAULT_BLOCK_SIZE};
+
+    @Test
+    void matchesReferenceFromOne() {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            for (int blockSize : BLOCK_SIZES) {
+                assertMatchesReference(engine(blockSize, offHeap), 1, 10_000);
+                assertMatchesReference(engine(blockSize, offHeap), 0, 30);
+                assertMatchesReference(engine(blockSize, offHeap), 1, 6);
+            }
+        }
+    }
+
+    @Test
+    void matchesReferenceOnOverlappingWindows() {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            SegmentedSigmaSieveEngine engine = engine(64, offHeap);
+            for (long start = 1; start <= 9_000; start += 397) {
+                assertMatchesReference(engine, start, start + 1_500);
+            }
+        }
+    }
+
+    @Test
+    void matchesReferenceAtBlockBoundaries() {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            for (int blockSize : BLOCK_SIZES) {
+                assertMatchesReferenceAtBoundaries(engine(blockSize, offHeap));
+            }
+        }
+    }
+
+    @Test
+    void vectorEngineMatchesReference() throws ReflectiveOperationException {
+        assumeTrue(WorkerEngines.isVectorApiAvailable(), "módulo " + WorkerEngines.VECTOR_MODULE + " no disponible");
+        for (int blockSize : BLOCK_SIZES) {
+            assertMatchesReferenceAtBoundaries(vectorEngine(blockSize));
+        }
+        SegmentedSigmaSieveEngine engine = vectorEngine(64);
+        for (long start = 1; start <= 9_000; start += 397) {
+            assertMatchesReference(engine, start, start + 1_500);
+        }
+    }
+
+    private static SegmentedSigmaSieveEngine engine(int blockSize, boolean offHeap) {
+        return new SegmentedSigmaSieveEngine(blockSize, new BlockBufferPool(blockSize, 4, offHeap));
+    }
+
+    /**
+     * VectorSigmaSieveEngine está en el source set 'vector' (fuera del classpath de compilación de las pruebas):
+     * se crea por reflexión, como en WorkerEngines.
+     */
+    private static SegmentedSigmaSieveEngine vectorEngine(int blockSize) throws ReflectiveOperationException {
+        return (SegmentedSigmaSieveEngine) Class.forName("com.example.worker.VectorSigmaSieveEngine")
+                .getConstructor(int.class, BlockBufferPool.class)
+                .newInstance(blockSize, new BlockBufferPool(blockSize, 4, false));
+    }
+
+    private static void assertMatchesReferenceAtBoundaries(SegmentedSigmaSieveEngine engine) {
+        int blockSize = engine.getBlockSize();
+        int window = Math.min(blockSize, 2_000);
+        for (long p : PERFECTS) {
+            // p como último número del primer bloque, como primero y entre dos bloques
+            assertMatchesReference(engine, Math.max(1, p - blockSize + 1), p + window);
+            assertMatchesReference(engine, p, p + 2L * window);
+            assertMatchesReference(engine, Math.max(1, p - blockSize), p + 1);
+            assertMatchesReference(engine, p, p);
+        }
+    }
+
+    private static void assertMatchesReference(SegmentedSigmaSieveEngine engine, long start, long end) {
+        long[] expected = WorkerUtils.getPerfectNumbersInRange(start, end).stream().mapToLong(Long::longValue).toArray();
+        assertArrayEquals(expected, engine.findPerfectNumbers(start, end),
+                "bloque " + engine.getBlockSize() + ", rango [" + start + ", " + end + "]");
+    }
+}
@@ -0,0 +1,85 @@
+// --- Archivo: worker/src/test/java/com/example/worker/UInt128MathTest.java ---
+package com.example.worker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigInteger;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * divRem y sqrtFloor contra BigInteger en los casos borde: divisores de más de 32 bits con la mitad alta
+ * distinta de cero (división larga bit a bit), 2^128 - 1 y cuadrados que el double no distingue.
+ */
+class UInt128MathTest {
+    private static final long[] DIVISORS = {1, 2, 3, 7, 0xFFFF_FFFFL, 0x1_0000_0000L, 0x1_0000_0001L, 0x2_0000_0005L,
+            0x0123_4567_89AB_CDEFL, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1, -2L, -1L};
+    private static final long[][] VALUES = {{0, 0}, {0, 1}, {0, -1}, {1, 0}, {1, -1}, {0xFFFF_FFFFL, 0},
+            {0x1_0000_0000L, 0x1234}, {Long.MAX_VALUE, -1}, {Long.MIN_VALUE, 0}, {-2, 1}, {-1, -2}, {-1, -1}};
+
+    @Test
+    void divRemMatchesBigInteger() {
+        for (long d : DIVISORS) {
+            for (long[] value : VALUES) {
+                assertDivRem(value[0], value[1], d);
+            }
+        }
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 20_000; i++) {
+            long d = random.nextLong();
+            if (i % 2 == 0) {
+                d >>>= random.nextInt(64); // Divisores de todos los tamaños, también de 32 bits o menos
+            }
+            assertDivRem(random.nextLong() >>> random.nextInt(64), random.nextLong(), d == 0 ? 1 : d);
+        }
+    }
+
+    @Test
+    void sqrtFloorMatchesBigInteger() {
+        for (long[] value : VALUES) {
+            assertSqrtFloor(value[0], value[1]);
+        }
+        // k^2 - 1, k^2 y k^2 + 1 donde el double redondea: alrededor de 2^53, 2^63 y 2^64 - 1
+        long[] roots = {1, 2, 0xFFFF_FFFFL, (1L << 53) - 1, (1L << 53) + 1, 3037000499L, Long.MAX_VALUE,
+                Long.MIN_VALUE, Long.MIN_VALUE + 12_345, -2L, -1L};
+        for (long k : roots) {
+            BigInteger square = unsigned(k).multiply(unsigned(k));
+            for (int delta = -1; delta <= 1; delta++) {
+                BigInteger value = square.add(BigInteger.valueOf(delta));
+                if (value.bitLength() <= 128) {
+                    assertSqrtFloor(value.shiftRight(64).longValue(), value.longValue());
+                }
+            }
+        }
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 20_000; i++) {
+            assertSqrtFloor(random.nextLong() >>> random.nextInt(64), random.nextLong());
+        }
+    }
+
+    private static void assertDivRem(long hi, long lo, long d) {
+        BigInteger[] expected = value(hi, lo).divideAndRemainder(unsigned(d));
+        long[] quotient = new long[2];
+        long remainder = UInt128Math.divRem(hi, lo, d, quotient);
+        String message = value(hi, lo) + " / " + unsigned(d);
+        assertEquals(expected[0].shiftRight(64).longValue(), quotient[0], message + " (cociente alto)");
+        assertEquals(expected[0].longValue(), quotient[1], message + " (cociente bajo)");
+        assertEquals(expected[1].longValue(), remainder, message + " (resto)");
+    }
+
+    private static void assertSqrtFloor(long hi, long lo) {
+        assertEquals(value(hi, lo).sqrt().longValue(), UInt128Math.sqrtFloor(hi, lo), "sqrt(" + value(hi, lo) + ")");
+    }
+
+    /**
+     * hi·2^64 + lo sin signo, armado aparte de UInt128Math.toBigInteger para no validar el código con él mismo.
+     */
+    private static BigInteger value(long hi, long lo) {
+        return unsigned(hi).shiftLeft(64).or(unsigned(lo));
+    }
+
+    private static BigInteger unsigned(long value) {
+        return new BigInteger(Long.toUnsignedString(value));
+    }
+}
@@ -0,0 +1,69 @@
+// --- Archivo: worker/src/test/java/com/example/worker/WideSigmaSieveEngineTest.java ---
+package com.example.worker;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Por debajo de 2^63 la criba de 128 bits debe coincidir con SegmentedSigmaSieveEngine: mismos perfectos en los
+ * bordes de los bloques y mismas sumas de divisores propios bloque a bloque, también lejos del inicio.
+ */
+class WideSigmaSieveEngineTest {
+    private static final long[] PERFECTS = {6, 28, 496, 8128, 33550336};
+    private static final int[] BLOCK_SIZES = {1, 7, 64, 1000};
+
+    @Test
+    void matchesSegmentedSieveAtBlockBoundaries() {
+        for (int blockSize : BLOCK_SIZES) {
+            WideSigmaSieveEngine wide = new WideSigmaSieveEngine(blockSize);
+            SegmentedSigmaSieveEngine narrow = new SegmentedSigmaSieveEngine(blockSize, new BlockBufferPool(blockSize, 4, false));
+            assertSameFound(wide, narrow, 0, 10_000, blockSize);
+            for (long p : PERFECTS) {
+                // p como último número del primer bloque, como primero y entre dos bloques
+                assertSameFound(wide, narrow, Math.max(1, p - blockSize + 1), p + blockSize, blockSize);
+                assertSameFound(wide, narrow, p, p + 2L * blockSize, blockSize);
+                assertSameFound(wide, narrow, Math.max(1, p - blockSize), p + 1, blockSize);
+                assertSameFound(wide, narrow, p, p, blockSize);
+            }
+        }
+    }
+
+    @Test
+    void matchesSegmentedSieveSumsBelowTwoToThe63() {
+        // Bloques lejos del inicio, uno con el perfecto 8589869056 en medio; la criba recorre hasta sqrt(fin del bloque)
+        long[] blockStarts = {2, 1_000_000_007L, 8_589_869_056L - 500, 1L << 40, (1L << 48) - 500};
+        int length = 1_000;
+        BlockBufferPool pool = new BlockBufferPool(length, 1, false);
+        BlockBufferPool.BlockBuffer narrow = pool.acquire(length);
+        long[] sumHi = new long[length];
+        long[] sumLo = new long[length];
+        long[] quotient = new long[2];
+        try {
+            for (long blockStart : blockStarts) {
+                SegmentedSigmaSieveEngine.sieveBlock(blockStart, length, narrow);
+                WideSigmaSieveEngine.sieveBlock(0, blockStart, length, sumHi, sumLo, quotient);
+                long[] expected = new long[length];
+                for (int k = 0; k < length; k++) {
+                    expected[k] = narrow.get(k);
+                }
+                assertArrayEquals(new long[length], sumHi, "bloque desde " + blockStart + " (mitad alta)");
+                assertArrayEquals(expected, sumLo, "bloque desde " + blockStart);
+            }
+        } finally {
+            pool.release(narrow);
+        }
+    }
+
+    private static void assertSameFound(WideSigmaSieveEngine wide, SegmentedSigmaSieveEngine narrow, long start, long end, int blockSize) {
+        long[] expected = narrow.findPerfectNumbers(start, end);
+        long[] flattened = new long[2 * expected.length]; // {0, p0, 0, p1, ...}
+        for (int i = 0; i < expected.length; i++) {
+            flattened[2 * i + 1] = expected[i];
+        }
+        assertArrayEquals(flattened, wide.findWidePerfectNumbers(0, start, 0, end),
+                "bloque " + blockSize + ", rango [" + start + ", " + end + "]: " + Arrays.toString(expected));
+    }
+}
@@ -0,0 +1,140 @@
+// --- Archivo: worker/src/vector/java/com/example/worker/VectorSigmaSieveEngine.java ---
+package com.example.worker;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Variante de la criba segmentada que usa la Vector API (jdk.incubator.vector) para procesar
+ * varios candidatos por instrucción: el llenado inicial del bloque, la acumulación de los divisores
+ * pequeños (gather/scatter con salto d) y la comparación σ(n) - n == n sobre todo el bloque.
+ * Los divisores grandes tocan pocos múltiplos por bloque y siguen el camino escalar.
+ * Esta clase solo se carga si el módulo está presente (ver WorkerEngines.isVectorApiAvailable);
+ * si el buffer del bloque vive fuera del heap, se usa el camino escalar de la clase base.
+ */
+public class VectorSigmaSieveEngine extends SegmentedSigmaSieveEngine {
+    public static final String NAME = "sieve-vector";
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    // Desplazamientos 0, 1, ..., LANES - 1 (posición de cada carril)
+    private static final LongVector IOTA = LongVector.zero(SPECIES).addIndex(1);
+    // Hasta este divisor conviene gather/scatter: por encima, los múltiplos por bloque son pocos
+    static final int MAX_VECTOR_DIVISOR = 64;
+    // STRIDE_MAPS[d] = {0, d, 2d, ..., (LANES - 1)·d}: índices de LANES múltiplos consecutivos de d
+    private static final int[][] STRIDE_MAPS = new int[MAX_VECTOR_DIVISOR + 1][];
+
+    static {
+        for (int d = 2; d <= MAX_VECTOR_DIVISOR; d++) {
+            STRIDE_MAPS[d] = new int[LANES];
+            for (int lane = 0; lane < LANES; lane++) {
+                STRIDE_MAPS[d][lane] = lane * d;
+            }
+        }
+    }
+
+    public VectorSigmaSieveEngine(int blockSize, BlockBufferPool bufferPool) {
+        super(blockSize, bufferPool);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * @return carriles de 64 bits que procesa cada instrucción vectorial en esta CPU
+     */
+    public static int getLanes() {
+        return LANES;
+    }
+
+    @Override
+    protected void accumulateBlock(long blockStart, int length, BlockBufferPool.BlockBuffer buffer) {
+        long[] aliquot = buffer.array();
+        if (aliquot == null) {
+            super.accumulateBlock(blockStart, length, buffer);
+            return;
+        }
+        // El divisor 1 es propio para todo n >= 2
+        LongVector ones = LongVector.broadcast(SPECIES, 1L);
+        int upperBound = SPECIES.loopBound(length);
+        int k = 0;
+        for (; k < upperBound; k += LANES) {
+            ones.intoArray(aliquot, k);
+        }
+        for (; k < length; k++) {
+            aliquot[k] = 1L;
+        }
+        long blockEnd = blockStart + length - 1;
+
+        for (long d = 2; d <= blockEnd / d; d++) {
+            // Primer múltiplo de d dentro del bloque cuyo cofactor sea >= d (igual que sieveBlock)
+            long firstMultiple = d * d;
+            if (firstMultiple < blockStart) {
+                long remainder = blockStart % d;
+                long offset = (remainder == 0) ? 0 : d - remainder;
+                if (offset > blockEnd - blockStart) {
+                    continue;
+                }
+                firstMultiple = blockStart + offset;
+            } else if (firstMultiple > blockEnd) {
+                continue;
+            }
+            int index = (int) (firstMultiple - blockStart);
+            long cofactor = firstMultiple / d;
+            int step = d < length ? (int) d : length;
+
+            // Si el múltiplo es d*d, el divisor d se cuenta una sola vez (raíz exacta)
+            if (cofactor == d) {
+                aliquot[index] += d;
+                index += step;
+                cofactor++;
+            }
+            if (d <= MAX_VECTOR_DIVISOR) {
+                // LANES múltiplos a la vez: el carril i recibe d + (cofactor + i)
+                int[] strideMap = STRIDE_MAPS[(int) d];
+                int span = (LANES - 1) * step; // distancia entre el primer y el último carril
+                int vectorStep = LANES * step;
+                for (; index + span < length; index += vectorStep) {
+                    LongVector addend = IOTA.add(d + cofactor);
+                    LongVector.fromArray(SPECIES, aliquot, index, strideMap, 0)
+                            .add(addend)
+                            .intoArray(aliquot, index, strideMap, 0);
+                    cofactor += LANES;
+                }
+            }
+            // Resto (o divisores grandes): camino escalar
+            for (; index < length; index += step) {
+                aliquot[index] += d + cofactor;
+                cofactor++;
+            }
+        }
+    }
+
+    @Override
+    protected int nextPerfectIndex(long blockStart, int length, BlockBufferPool.BlockBuffer buffer, int from) {
+        long[] aliquot = buffer.array();
+        if (aliquot == null) {
+            return super.nextPerfectIndex(blockStart, length, buffer, from);
+        }
+        // El carril i se compara contra blockStart + k + i
+        int upperBound = from + SPECIES.loopBound(length - from);
+        int k = from;
+        for (; k < upperBound; k += LANES) {
+            LongVector expected = IOTA.add(blockStart + k);
+            VectorMask<Long> perfect = LongVector.fromArray(SPECIES, aliquot, k).compare(VectorOperators.EQ, expected);
+            if (perfect.anyTrue()) {
+                return k + perfect.firstTrue();
+            }
+        }
+        for (; k < length; k++) {
+            if (aliquot[k] == blockStart + k) {
+                return k;
+            }
+        }
+        return length;
+    }
+}